@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.benchmark;
+
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * BenchmarkImplementations creates the implementation a benchmark is run against, from the value
+ * of a JMH parameter. This makes it possible for backend implementors to benchmark their own
+ * implementation, by adding it to the classpath and running for instance:
+ * 
+ * <pre>
+ * java -cp benchmarks.jar:mystorage.jar org.openjdk.jmh.Main RecordStorageBenchmark \
+ *     -p recordStorage=org.example.MyRecordStorageSupplier
+ * </pre>
+ * <p>
+ * The value {@value #DEFAULT} selects the implementation included in this module. Any other value
+ * is the name of a class with a public constructor without arguments, that either is an
+ * implementation of the benchmarked interface or a {@link Supplier} of one.
+ */
+final class BenchmarkImplementations {
+	static final String DEFAULT = "default";
+
+	private BenchmarkImplementations() {
+	}
+
+	static <T> T create(String implementation, Class<T> type, Supplier<T> defaultImplementation) {
+		if (DEFAULT.equals(implementation)) {
+			return defaultImplementation.get();
+		}
+		return createFromClassName(implementation, type);
+	}
+
+	private static <T> T createFromClassName(String className, Class<T> type) {
+		try {
+			Object instance = Class.forName(className).getDeclaredConstructor().newInstance();
+			return type.cast(instance instanceof Supplier<?> supplier ? supplier.get() : instance);
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw StorageException.withMessageAndException("Could not create "
+					+ type.getSimpleName() + " from class: " + className, e);
+		}
+	}
+}
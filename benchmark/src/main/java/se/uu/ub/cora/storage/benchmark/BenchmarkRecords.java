@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.benchmark;
+
+import java.util.Set;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.collected.StorageTerm;
+
+/**
+ * BenchmarkRecords creates the records and storageTerms used by {@link RecordStorageBenchmark}.
+ * <p>
+ * Every record has a title storageTerm shared by one in {@value #NUMBER_OF_TITLES} records, and a
+ * year storageTerm spread over {@value #NUMBER_OF_YEARS} years, so that filters with known
+ * selectivity can be created.
+ */
+final class BenchmarkRecords {
+	static final String TYPE = "benchmarkBook";
+	static final String DATA_DIVIDER = "benchmark";
+	static final String TITLE_KEY = "title";
+	static final String YEAR_KEY = "year";
+	static final int NUMBER_OF_TITLES = 100;
+	static final int NUMBER_OF_YEARS = 100;
+	static final int FIRST_YEAR = 1900;
+
+	private BenchmarkRecords() {
+	}
+
+	static String idForNumber(int number) {
+		return TYPE + ":" + number;
+	}
+
+	static String titleForNumber(int number) {
+		return "title" + (number % NUMBER_OF_TITLES);
+	}
+
+	static String yearForNumber(int number) {
+		return String.valueOf(FIRST_YEAR + number % NUMBER_OF_YEARS);
+	}
+
+	static DataGroup createRecord(int number) {
+		DataGroup dataRecord = DataProvider.createGroupUsingNameInData(TYPE);
+		dataRecord.addChild(createRecordInfo(idForNumber(number)));
+		dataRecord.addChild(DataProvider.createAtomicUsingNameInDataAndValue(TITLE_KEY,
+				titleForNumber(number)));
+		dataRecord.addChild(DataProvider.createAtomicUsingNameInDataAndValue(YEAR_KEY,
+				yearForNumber(number)));
+		return dataRecord;
+	}
+
+	private static DataGroup createRecordInfo(String id) {
+		DataGroup recordInfo = DataProvider.createGroupUsingNameInData("recordInfo");
+		recordInfo.addChild(DataProvider.createAtomicUsingNameInDataAndValue("id", id));
+		recordInfo.addChild(DataProvider.createRecordLinkUsingNameInDataAndTypeAndId("type",
+				"recordType", TYPE));
+		recordInfo.addChild(DataProvider.createRecordLinkUsingNameInDataAndTypeAndId("dataDivider",
+				"system", DATA_DIVIDER));
+		return recordInfo;
+	}
+
+	static Set<StorageTerm> createStorageTerms(int number) {
+		return Set.of(new StorageTerm("titleStorageTerm", TITLE_KEY, titleForNumber(number)),
+				new StorageTerm("yearStorageTerm", YEAR_KEY, yearForNumber(number)));
+	}
+}
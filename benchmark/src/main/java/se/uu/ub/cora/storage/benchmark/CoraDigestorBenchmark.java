@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.storage.hash.CoraDigestor;
+import se.uu.ub.cora.storage.hash.imp.CoraDigestorImp;
+
+/**
+ * CoraDigestorBenchmark measures {@link CoraDigestor#stringToSha256Hex(String)} for short and
+ * long values.
+ * <p>
+ * The parameter digestor selects the CoraDigestor, see {@link BenchmarkImplementations}. The
+ * default is {@link CoraDigestorImp}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoraDigestorBenchmark {
+	@Param(BenchmarkImplementations.DEFAULT)
+	public String digestor;
+	@Param({ "64", "4096" })
+	public int valueLength;
+	private CoraDigestor coraDigestor;
+	private String value;
+
+	@Setup
+	public void setUp() {
+		coraDigestor = BenchmarkImplementations.create(digestor, CoraDigestor.class,
+				CoraDigestorImp::new);
+		value = createValue(valueLength);
+	}
+
+	private String createValue(int length) {
+		Random random = new Random(length);
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.append((char) ('a' + random.nextInt(26)));
+		}
+		return builder.toString();
+	}
+
+	@Benchmark
+	public String stringToSha256Hex() {
+		return coraDigestor.stringToSha256Hex(value);
+	}
+}
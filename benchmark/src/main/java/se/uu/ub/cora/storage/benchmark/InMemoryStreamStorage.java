@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import se.uu.ub.cora.storage.ResourceNotFoundException;
+import se.uu.ub.cora.storage.StreamStorage;
+
+/**
+ * InMemoryStreamStorage is the default {@link StreamStorage} for {@link StreamStorageBenchmark}. It
+ * keeps all streams in memory and gives a baseline for the cost of copying the bytes.
+ */
+final class InMemoryStreamStorage implements StreamStorage {
+	private final Map<String, byte[]> streams = new ConcurrentHashMap<>();
+
+	@Override
+	public long store(String dataDivider, String type, String id, String representation,
+			InputStream stream) {
+		byte[] bytes = readAllBytes(stream);
+		streams.put(createKey(dataDivider, type, id, representation), bytes);
+		return bytes.length;
+	}
+
+	private byte[] readAllBytes(InputStream stream) {
+		try {
+			return stream.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private String createKey(String dataDivider, String type, String id, String representation) {
+		return dataDivider + "/" + type + "/" + id + "/" + representation;
+	}
+
+	@Override
+	public InputStream retrieve(String dataDivider, String type, String id,
+			String representation) {
+		byte[] bytes = streams.get(createKey(dataDivider, type, id, representation));
+		if (bytes == null) {
+			throw ResourceNotFoundException.withMessage("No stream exists with id: " + id);
+		}
+		return new ByteArrayInputStream(bytes);
+	}
+
+	@Override
+	public void delete(String dataDivider, String type, String id, String representation) {
+		streams.remove(createKey(dataDivider, type, id, representation));
+	}
+}
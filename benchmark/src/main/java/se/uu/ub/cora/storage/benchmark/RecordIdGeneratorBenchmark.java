@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.storage.idgenerator.RecordIdGenerator;
+import se.uu.ub.cora.storage.idgenerator.internal.TimeStampIdGenerator;
+
+/**
+ * RecordIdGeneratorBenchmark measures {@link RecordIdGenerator#getIdForType(String)} for one
+ * thread and for several threads sharing one generator, to show the cost of contention.
+ * <p>
+ * The parameter idGenerator selects the RecordIdGenerator, see {@link BenchmarkImplementations}.
+ * The default is {@link TimeStampIdGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordIdGeneratorBenchmark {
+	private static final String TYPE = "benchmarkBook";
+	@Param(BenchmarkImplementations.DEFAULT)
+	public String idGenerator;
+	private RecordIdGenerator generator;
+
+	@Setup
+	public void setUp() {
+		generator = BenchmarkImplementations.create(idGenerator, RecordIdGenerator.class,
+				TimeStampIdGenerator::new);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public String getIdForTypeOneThread() {
+		return generator.getIdForType(TYPE);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public String getIdForTypeEightThreads() {
+		return generator.getIdForType(TYPE);
+	}
+}
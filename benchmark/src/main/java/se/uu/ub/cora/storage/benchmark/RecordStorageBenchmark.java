@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.benchmark;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.Part;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RelationalOperator;
+import se.uu.ub.cora.storage.StorageReadResult;
+import se.uu.ub.cora.storage.memory.InMemoryRecordStorage;
+
+/**
+ * RecordStorageBenchmark measures reading single records, reading lists and evaluating filters in
+ * a {@link RecordStorage}. The storage is filled with {@link BenchmarkRecords} before the
+ * measurements start and emptied afterwards.
+ * <p>
+ * The parameter recordStorage selects the RecordStorage, see {@link BenchmarkImplementations}.
+ * The default is {@link InMemoryRecordStorage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordStorageBenchmark {
+	private static final List<String> TYPES = List.of(BenchmarkRecords.TYPE);
+	@Param(BenchmarkImplementations.DEFAULT)
+	public String recordStorage;
+	@Param({ "1000", "100000" })
+	public int numberOfRecords;
+	private RecordStorage storage;
+	private String[] ids;
+	private int nextId;
+	private Filter firstPage;
+	private Filter titleFilter;
+	private Filter yearRangeFilter;
+
+	@Setup(Level.Trial)
+	public void fillStorage() {
+		storage = BenchmarkImplementations.create(recordStorage, RecordStorage.class,
+				InMemoryRecordStorage::new);
+		ids = new String[numberOfRecords];
+		for (int number = 0; number < numberOfRecords; number++) {
+			ids[number] = BenchmarkRecords.idForNumber(number);
+			storage.create(BenchmarkRecords.TYPE, ids[number],
+					BenchmarkRecords.createRecord(number),
+					BenchmarkRecords.createStorageTerms(number), Set.of(),
+					BenchmarkRecords.DATA_DIVIDER);
+		}
+		createFilters();
+	}
+
+	private void createFilters() {
+		firstPage = new Filter();
+		firstPage.toNo = 10;
+		titleFilter = createFilter(BenchmarkRecords.TITLE_KEY, RelationalOperator.EQUAL_TO,
+				BenchmarkRecords.titleForNumber(42));
+		yearRangeFilter = createFilter(BenchmarkRecords.YEAR_KEY,
+				RelationalOperator.GREATER_THAN_OR_EQUAL_TO, BenchmarkRecords.yearForNumber(90));
+	}
+
+	private Filter createFilter(String key, RelationalOperator operator, String value) {
+		Filter filter = new Filter();
+		filter.toNo = 10;
+		Part part = new Part();
+		part.conditions.add(new Condition(key, operator, value));
+		filter.include.add(part);
+		return filter;
+	}
+
+	@TearDown(Level.Trial)
+	public void emptyStorage() {
+		for (String id : ids) {
+			storage.deleteByTypeAndId(BenchmarkRecords.TYPE, id);
+		}
+	}
+
+	@Benchmark
+	public DataRecordGroup read() {
+		return storage.read(BenchmarkRecords.TYPE, nextId());
+	}
+
+	private String nextId() {
+		nextId = (nextId + 1) % numberOfRecords;
+		return ids[nextId];
+	}
+
+	@Benchmark
+	public boolean recordExists() {
+		return storage.recordExists(TYPES, nextId());
+	}
+
+	@Benchmark
+	public StorageReadResult readListFirstPage() {
+		return storage.readList(BenchmarkRecords.TYPE, firstPage);
+	}
+
+	@Benchmark
+	public StorageReadResult readListFilteredOnEqualTitle() {
+		return storage.readList(BenchmarkRecords.TYPE, titleFilter);
+	}
+
+	@Benchmark
+	public StorageReadResult readListFilteredOnYearRange() {
+		return storage.readList(BenchmarkRecords.TYPE, yearRangeFilter);
+	}
+
+	@Benchmark
+	public long countFilteredOnEqualTitle() {
+		return storage.getTotalNumberOfRecordsForTypes(TYPES, titleFilter);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.storage.StreamStorage;
+
+/**
+ * StreamStorageBenchmark measures storing and retrieving streams of different sizes in a
+ * {@link StreamStorage}. Results are reported in operations per second, multiply with the
+ * streamSize parameter to get bytes per second.
+ * <p>
+ * Stores cycle over {@value #NUMBER_OF_STREAMS} ids that are stored once before the measurements,
+ * so the benchmarked StreamStorage must allow an existing stream to be replaced. All streams are
+ * deleted after the measurements.
+ * <p>
+ * The parameter streamStorage selects the StreamStorage, see {@link BenchmarkImplementations}.
+ * The default is an in memory StreamStorage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamStorageBenchmark {
+	private static final int NUMBER_OF_STREAMS = 16;
+	private static final String DATA_DIVIDER = "benchmark";
+	private static final String TYPE = "binary";
+	private static final String REPRESENTATION = "master";
+	private static final String RETRIEVED_ID = "binary:retrieved";
+	@Param(BenchmarkImplementations.DEFAULT)
+	public String streamStorage;
+	@Param({ "1024", "1048576" })
+	public int streamSize;
+	private StreamStorage storage;
+	private byte[] content;
+	private String[] ids;
+	private int nextId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		storage = BenchmarkImplementations.create(streamStorage, StreamStorage.class,
+				InMemoryStreamStorage::new);
+		content = new byte[streamSize];
+		new Random(streamSize).nextBytes(content);
+		ids = new String[NUMBER_OF_STREAMS];
+		for (int i = 0; i < NUMBER_OF_STREAMS; i++) {
+			ids[i] = TYPE + ":" + i;
+			storeContent(ids[i]);
+		}
+		storeContent(RETRIEVED_ID);
+	}
+
+	private long storeContent(String id) {
+		return storage.store(DATA_DIVIDER, TYPE, id, REPRESENTATION,
+				new ByteArrayInputStream(content));
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteStreams() {
+		storage.delete(DATA_DIVIDER, TYPE, RETRIEVED_ID, REPRESENTATION);
+		for (String id : ids) {
+			storage.delete(DATA_DIVIDER, TYPE, id, REPRESENTATION);
+		}
+	}
+
+	@Benchmark
+	public long store() {
+		nextId = (nextId + 1) % NUMBER_OF_STREAMS;
+		return storeContent(ids[nextId]);
+	}
+
+	@Benchmark
+	public long retrieve() throws IOException {
+		try (InputStream stream = storage.retrieve(DATA_DIVIDER, TYPE, RETRIEVED_ID,
+				REPRESENTATION)) {
+			return stream.transferTo(OutputStream.nullOutputStream());
+		}
+	}
+}
@@ -19,4 +19,17 @@ module se.uu.ub.cora.storage {
 	exports se.uu.ub.cora.storage.idgenerator;
 	exports se.uu.ub.cora.storage.hash;
 	exports se.uu.ub.cora.storage.hash.imp;
+	exports se.uu.ub.cora.storage.async;
+	exports se.uu.ub.cora.storage.cache;
+	exports se.uu.ub.cora.storage.changefeed;
+	exports se.uu.ub.cora.storage.conformance;
+	exports se.uu.ub.cora.storage.filter;
+	exports se.uu.ub.cora.storage.filter.imp;
+	exports se.uu.ub.cora.storage.fingerprint;
+	exports se.uu.ub.cora.storage.groupcommit;
+	exports se.uu.ub.cora.storage.memory;
+	exports se.uu.ub.cora.storage.metrics;
+	exports se.uu.ub.cora.storage.notification;
+	exports se.uu.ub.cora.storage.replica;
+	exports se.uu.ub.cora.storage.sharding;
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.List;
+
+/**
+ * CountMode defines how the total number of matches for a read is counted. It is used in
+ * {@link Filter#countMode} to request how the total number of matches should be counted, and in
+ * {@link StorageReadResult#countMode} to tell how the returned total number of matches was
+ * counted.
+ * <ul>
+ * <li>EXACT: the total number of matches is counted exactly, this is the default</li>
+ * <li>CAPPED: the total number of matches is counted exactly up to {@link Filter#countCap}. In a
+ * result it means that the cap was reached and that the real number of matches is equal to or
+ * larger than the returned number. If the cap is not reached is the result EXACT.</li>
+ * <li>ESTIMATED: the total number of matches is an estimate, for instance based on statistics in
+ * the underlying storage. In a request it means that an estimate is acceptable, storage
+ * implementations that can not estimate should count exactly and return EXACT.</li>
+ * <li>NONE: the total number of matches is not counted and is returned as 0</li>
+ * </ul>
+ */
+public enum CountMode {
+	EXACT, CAPPED, ESTIMATED, NONE;
+
+	/**
+	 * modeForResult returns the CountMode to set in a result for a read that found the exactly
+	 * counted numberOfMatches, when the total number of matches is requested as in the provided
+	 * filter. It is NONE if no count was requested, CAPPED if the count was requested capped and
+	 * numberOfMatches is larger than the cap, otherwise EXACT.
+	 * 
+	 * @param numberOfMatches
+	 *            A long with the exactly counted number of matches
+	 * @param filter
+	 *            A {@link Filter} with the requested countMode and countCap
+	 * @return The CountMode that describes the count returned from
+	 *         {@link #countForResult(long, Filter)}
+	 */
+	public static CountMode modeForResult(long numberOfMatches, Filter filter) {
+		if (filter.countMode == NONE) {
+			return NONE;
+		}
+		if (filter.countMode == CAPPED && numberOfMatches > filter.countCap) {
+			return CAPPED;
+		}
+		return EXACT;
+	}
+
+	/**
+	 * countForResult returns the total number of matches to set in a result for a read that found
+	 * the exactly counted numberOfMatches, when the total number of matches is requested as in the
+	 * provided filter. It is 0 if no count was requested, numberOfMatches limited to the cap if the
+	 * count was requested capped, otherwise numberOfMatches.
+	 * 
+	 * @param numberOfMatches
+	 *            A long with the exactly counted number of matches
+	 * @param filter
+	 *            A {@link Filter} with the requested countMode and countCap
+	 * @return A long with the total number of matches to return
+	 */
+	public static long countForResult(long numberOfMatches, Filter filter) {
+		if (filter.countMode == NONE) {
+			return 0;
+		}
+		if (filter.countMode == CAPPED) {
+			return Math.min(numberOfMatches, filter.countCap);
+		}
+		return numberOfMatches;
+	}
+
+	/**
+	 * modeForMergedResults returns the CountMode to set in a result merged from several results,
+	 * such as one result per type or per shard, where each result was read with the count
+	 * requested in the provided filter. It is NONE if no count was requested. It is CAPPED if the
+	 * count was requested capped and any result was CAPPED or the merged count is larger than the
+	 * cap. It is ESTIMATED if any result was ESTIMATED, otherwise EXACT.
+	 * 
+	 * @param results
+	 *            A List of the {@link StorageReadResult} that are merged
+	 * @param filter
+	 *            A {@link Filter} with the requested countMode and countCap
+	 * @return The CountMode that describes the count returned from
+	 *         {@link #countForMergedResults(List, Filter)}
+	 */
+	public static CountMode modeForMergedResults(List<StorageReadResult> results, Filter filter) {
+		if (filter.countMode == NONE) {
+			return NONE;
+		}
+		if (filter.countMode == CAPPED && (anyResultHasMode(results, CAPPED)
+				|| sumOfTotals(results) > filter.countCap)) {
+			return CAPPED;
+		}
+		if (anyResultHasMode(results, ESTIMATED)) {
+			return ESTIMATED;
+		}
+		return EXACT;
+	}
+
+	private static boolean anyResultHasMode(List<StorageReadResult> results, CountMode mode) {
+		return results.stream().anyMatch(result -> result.countMode == mode);
+	}
+
+	private static long sumOfTotals(List<StorageReadResult> results) {
+		return results.stream().mapToLong(result -> result.totalNumberOfMatches).sum();
+	}
+
+	/**
+	 * countForMergedResults returns the total number of matches to set in a result merged from
+	 * several results, where each result was read with the count requested in the provided filter.
+	 * It is the sum of the totals of the results, limited as in
+	 * {@link #countForResult(long, Filter)}.
+	 * 
+	 * @param results
+	 *            A List of the {@link StorageReadResult} that are merged
+	 * @param filter
+	 *            A {@link Filter} with the requested countMode and countCap
+	 * @return A long with the total number of matches to return
+	 */
+	public static long countForMergedResults(List<StorageReadResult> results, Filter filter) {
+		return countForResult(sumOfTotals(results), filter);
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Uppsala University Library
+ * Copyright 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -34,6 +34,26 @@ import java.util.List;
  * first match.</li>
  * <li>toNo: A long that the defines the last match position to be included on the query.</li>
  * </ul>
+ * <p>
+ * <i>continuationToken</i> can be used instead of fromNo to resume reading after the last record
+ * returned by a previous read. It should be set to the value of
+ * {@link StorageReadResult#continuationToken} from the previous read, with the same include and
+ * exclude parts. When a continuationToken is set should matches start directly after the record
+ * the token points to, and fromNo and toNo only be used to define the number of matches to return
+ * (toNo - fromNo + 1). This makes it possible for storage implementations to seek directly to the
+ * next match using an index, instead of reading and discarding all matches before fromNo, which
+ * makes reading deep pages as fast as reading the first one. The token is opaque and its content is
+ * decided by the storage implementation.
+ * </p>
+ * <i>countMode</i> and <i>countCap</i> are used to define how the total number of matches should
+ * be counted when reading, see {@link CountMode}. By default is the total number of matches counted
+ * exactly. countCap is only used when countMode is {@link CountMode#CAPPED}.
+ * </p>
+ * <i>projection</i> is a list of storage keys. When it is not empty are only the values of those
+ * storage keys requested, and storage implementations SHOULD return {@link ProjectedRecord}s built
+ * from the stored storageTerms in {@link StorageReadResult#listOfProjectedRecords}, without reading
+ * the complete records. This makes list views that only show a few values much cheaper to read.
+ * </p>
  * 
  * There are two main settings to filter the results, include and exclude. Parts defined in include
  * are included in the result and things defined in exclude are excluded from the results. Include
@@ -66,18 +86,24 @@ public class Filter {
 	public long toNo = Long.MAX_VALUE;
 	public List<Part> include = new ArrayList<>();
 	public List<Part> exclude = new ArrayList<>();
+	public String continuationToken = null;
+	public CountMode countMode = CountMode.EXACT;
+	public long countCap = Long.MAX_VALUE;
+	public List<String> projection = new ArrayList<>();
 
 	/**
 	 * filtersResults returns true if this filter is set to limit results, either by limiting the
-	 * set of returned by only requesting a subset of results through fromNo and toNo, or by having
-	 * at least one part in include or exclude. If no default value is changed is false returned.
+	 * set of returned by only requesting a subset of results through fromNo and toNo or a
+	 * continuationToken, or by having at least one part in include or exclude. If no default value
+	 * is changed is false returned.
 	 */
 	public boolean filtersResults() {
 		return allValuesAreDefault();
 	}
 
 	private boolean allValuesAreDefault() {
-		return fromNo != 1 || toNo != Long.MAX_VALUE || !include.isEmpty() || !exclude.isEmpty();
+		return fromNo != 1 || toNo != Long.MAX_VALUE || !include.isEmpty() || !exclude.isEmpty()
+				|| hasContinuationToken();
 	}
 
 	public boolean fromNoIsDefault() {
@@ -91,4 +117,12 @@ public class Filter {
 	public boolean hasIncludeParts() {
 		return !include.isEmpty();
 	}
+
+	public boolean hasContinuationToken() {
+		return continuationToken != null;
+	}
+
+	public boolean hasProjection() {
+		return !projection.isEmpty();
+	}
 }
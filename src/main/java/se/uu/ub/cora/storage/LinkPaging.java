@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import se.uu.ub.cora.data.collected.Link;
+
+/**
+ * LinkPaging defines how links are paged when read using
+ * {@link RecordStorage#getLinksToRecord(String, String, int, String)}, so that all implementations
+ * use the same order and the same continuation tokens.
+ * <p>
+ * Links are ordered by type and then by id. A continuation token is created from the last link in
+ * a page, and the next page starts with the first link after that link. As tokens are based on
+ * the links themselves, paging is stable even if links are added or removed between pages.
+ * <p>
+ * Pages are created using a bounded heap, so that only the links in the page are kept ordered
+ * regardless of how many links there are in total.
+ */
+public final class LinkPaging {
+	public static final Comparator<Link> LINK_ORDER = Comparator.comparing(Link::type)
+			.thenComparing(Link::id);
+	private static final String SEPARATOR = "/";
+	private final int maxNumberOfLinks;
+	private final Link after;
+	private final PriorityQueue<Link> page;
+	private int numberOfLinksAfterToken = 0;
+
+	/**
+	 * usingMaxNumberOfLinksAndContinuationToken creates a LinkPaging for one page.
+	 * 
+	 * @param maxNumberOfLinks
+	 *            An int with the maximum number of links in the page, must be larger than 0
+	 * @param continuationToken
+	 *            A String with a continuation token from a previous page, or null to read the
+	 *            first page
+	 */
+	public static LinkPaging usingMaxNumberOfLinksAndContinuationToken(int maxNumberOfLinks,
+			String continuationToken) {
+		return new LinkPaging(maxNumberOfLinks, continuationToken);
+	}
+
+	private LinkPaging(int maxNumberOfLinks, String continuationToken) {
+		if (maxNumberOfLinks < 1) {
+			throw StorageException
+					.withMessage("Max number of links must be larger than 0, was: "
+							+ maxNumberOfLinks);
+		}
+		this.maxNumberOfLinks = maxNumberOfLinks;
+		this.after = continuationToken == null ? null : parseToken(continuationToken);
+		this.page = new PriorityQueue<>(LINK_ORDER.reversed());
+	}
+
+	private Link parseToken(String continuationToken) {
+		int separatorIndex = continuationToken.indexOf(SEPARATOR);
+		if (separatorIndex < 0) {
+			throw StorageException.withMessage("Invalid continuation token: " + continuationToken);
+		}
+		return new Link(continuationToken.substring(0, separatorIndex),
+				continuationToken.substring(separatorIndex + 1));
+	}
+
+	/**
+	 * pageOf creates one page from all links.
+	 */
+	public static StorageLinksReadResult pageOf(Collection<Link> links, int maxNumberOfLinks,
+			String continuationToken) {
+		LinkPaging linkPaging = usingMaxNumberOfLinksAndContinuationToken(maxNumberOfLinks,
+				continuationToken);
+		links.forEach(linkPaging::offer);
+		return linkPaging.createResult();
+	}
+
+	/**
+	 * offer offers a link to the page, the link is kept if it belongs to the page. Links can be
+	 * offered in any order.
+	 */
+	public void offer(Link link) {
+		if (after != null && LINK_ORDER.compare(link, after) <= 0) {
+			return;
+		}
+		numberOfLinksAfterToken++;
+		page.add(link);
+		if (page.size() > maxNumberOfLinks) {
+			page.poll();
+		}
+	}
+
+	/**
+	 * offerPage offers all links in a page read with the same maxNumberOfLinks and continuation
+	 * token from another storage, so that pages from several storages can be merged into one. If
+	 * the offered page has more links is the merged page marked as having more links as well.
+	 */
+	public void offerPage(StorageLinksReadResult linksPage) {
+		linksPage.links().forEach(this::offer);
+		if (linksPage.hasMoreLinks()) {
+			numberOfLinksAfterToken++;
+		}
+	}
+
+	/**
+	 * createResult creates the result with the links in the page, ordered, and a continuation
+	 * token if more links than fits in the page have been offered.
+	 */
+	public StorageLinksReadResult createResult() {
+		List<Link> links = new ArrayList<>(page);
+		links.sort(LINK_ORDER);
+		String continuationToken = null;
+		if (numberOfLinksAfterToken > maxNumberOfLinks) {
+			continuationToken = createContinuationToken(links.get(links.size() - 1));
+		}
+		return new StorageLinksReadResult(links, continuationToken);
+	}
+
+	private String createContinuationToken(Link link) {
+		return link.type() + SEPARATOR + link.id();
+	}
+}
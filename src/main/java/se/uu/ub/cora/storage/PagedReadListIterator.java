@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+
+/**
+ * PagedReadListIterator iterates over all records matching a type and filter by reading them from
+ * a {@link RecordStorage} one page at a time using {@link RecordStorage#readList(String, Filter)},
+ * so that only one page of records is held in memory at any time.
+ * <p>
+ * The range in the provided filter is honoured, pages are requested inside that range. If the
+ * storage returns a {@link StorageReadResult#continuationToken} is it used to read the next page,
+ * letting the storage seek to the next match instead of skipping all earlier matches. As the total
+ * number of matches is not needed, pages are read with {@link CountMode#NONE}.
+ */
+final class PagedReadListIterator implements Iterator<DataRecordGroup> {
+	static final int DEFAULT_PAGE_SIZE = 1000;
+	private RecordStorage recordStorage;
+	private String type;
+	private Filter filter;
+	private int pageSize;
+	private long nextFromNo;
+	private String continuationToken;
+	private boolean lastPageRead = false;
+	private Iterator<DataRecordGroup> currentPage = Collections.emptyIterator();
+
+	PagedReadListIterator(RecordStorage recordStorage, String type, Filter filter, int pageSize) {
+		this.recordStorage = recordStorage;
+		this.type = type;
+		this.filter = filter;
+		this.pageSize = pageSize;
+		this.nextFromNo = filter.fromNo;
+		this.continuationToken = filter.continuationToken;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!currentPage.hasNext() && !lastPageRead) {
+			readNextPage();
+		}
+		return currentPage.hasNext();
+	}
+
+	private void readNextPage() {
+		long toNo = calculateToNoForNextPage();
+		StorageReadResult result = recordStorage.readList(type, createFilterForPage(toNo));
+		int numberOfRecords = result.listOfDataRecordGroups.size();
+		lastPageRead = toNo == filter.toNo || numberOfRecords < pageSize;
+		nextFromNo = toNo + 1;
+		continuationToken = result.continuationToken;
+		currentPage = result.listOfDataRecordGroups.iterator();
+	}
+
+	private long calculateToNoForNextPage() {
+		long numberOfRemainingInRange = filter.toNo - nextFromNo + 1;
+		if (numberOfRemainingInRange <= pageSize) {
+			return filter.toNo;
+		}
+		return nextFromNo + pageSize - 1;
+	}
+
+	private Filter createFilterForPage(long toNo) {
+		Filter pageFilter = new Filter();
+		pageFilter.include = filter.include;
+		pageFilter.exclude = filter.exclude;
+		pageFilter.fromNo = nextFromNo;
+		pageFilter.toNo = toNo;
+		pageFilter.continuationToken = continuationToken;
+		pageFilter.countMode = CountMode.NONE;
+		return pageFilter;
+	}
+
+	@Override
+	public DataRecordGroup next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("No more records to read for type: " + type);
+		}
+		return currentPage.next();
+	}
+}
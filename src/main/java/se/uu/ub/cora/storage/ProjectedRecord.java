@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.uu.ub.cora.data.collected.StorageTerm;
+
+/**
+ * ProjectedRecord is a lightweight representation of a record, returned instead of the complete
+ * record when a projection is requested using {@link Filter#projection}. It contains only the
+ * values of the projected storage keys, taken from the storageTerms stored for the record.
+ * 
+ * @param type
+ *            A String with the records type
+ * @param id
+ *            A String with the records id
+ * @param values
+ *            A Map with the values for each projected storage key, in the order the keys are
+ *            specified in the projection. Keys without values for the record have an empty list.
+ */
+public record ProjectedRecord(String type, String id, Map<String, List<String>> values) {
+
+	/**
+	 * usingStorageTermsAndProjection creates a ProjectedRecord with the values from the
+	 * storageTerms that have one of the projected storage keys.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @param storageTerms
+	 *            A Collection with the storageTerms stored for the record
+	 * @param projection
+	 *            A List with the storage keys to project
+	 */
+	public static ProjectedRecord usingStorageTermsAndProjection(String type, String id,
+			Collection<StorageTerm> storageTerms, List<String> projection) {
+		Map<String, List<String>> values = new LinkedHashMap<>();
+		for (String storageKey : projection) {
+			values.put(storageKey, new ArrayList<>());
+		}
+		for (StorageTerm storageTerm : storageTerms) {
+			List<String> valuesForKey = values.get(storageTerm.storageKey());
+			if (valuesForKey != null) {
+				valuesForKey.add(storageTerm.value());
+			}
+		}
+		return new ProjectedRecord(type, id, values);
+	}
+
+	/**
+	 * getFirstValue returns the first value for the storage key, or null if the record has no
+	 * value for the key.
+	 */
+	public String getFirstValue(String storageKey) {
+		List<String> valuesForKey = values.getOrDefault(storageKey, List.of());
+		return valuesForKey.isEmpty() ? null : valuesForKey.get(0);
+	}
+}
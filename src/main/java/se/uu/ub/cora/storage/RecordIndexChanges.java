@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.Set;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+
+/**
+ * RecordIndexChanges contains the changes to the storageTerms and links of a record when it is
+ * updated, see {@link RecordStorage#update(String, String, DataGroup, Set, Set, String)}. Storage
+ * implementations can use it to only add and remove the index entries for storageTerms and links
+ * that have changed.
+ * 
+ * @param storageTerms
+ *            A {@link SetChanges} with the added and removed storageTerms
+ * @param links
+ *            A {@link SetChanges} with the added and removed links
+ */
+public record RecordIndexChanges(SetChanges<StorageTerm> storageTerms, SetChanges<Link> links) {
+
+	/**
+	 * betweenStoredAndUpdated computes the changes from the stored storageTerms and links of a
+	 * record to the ones provided in an update.
+	 */
+	public static RecordIndexChanges betweenStoredAndUpdated(Set<StorageTerm> storedStorageTerms,
+			Set<Link> storedLinks, Set<StorageTerm> updatedStorageTerms, Set<Link> updatedLinks) {
+		return new RecordIndexChanges(SetChanges.between(storedStorageTerms, updatedStorageTerms),
+				SetChanges.between(storedLinks, updatedLinks));
+	}
+
+	/**
+	 * hasChanges returns true if any storageTerm or link is added or removed.
+	 */
+	public boolean hasChanges() {
+		return storageTerms.hasChanges() || links.hasChanges();
+	}
+}
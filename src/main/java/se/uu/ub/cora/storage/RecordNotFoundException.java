@@ -1,5 +1,5 @@
 /*
- * Copyright 2015, 2019 Uppsala University Library
+ * Copyright 2015, 2019, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -26,6 +26,15 @@ public class RecordNotFoundException extends RuntimeException {
 		return new RecordNotFoundException(message);
 	}
 
+	/**
+	 * withMessageWithoutStackTrace creates an exception without a stack trace. It is intended for
+	 * storage implementations where a missing record is an expected outcome, as filling in the
+	 * stack trace is the main cost of creating an exception.
+	 */
+	public static RecordNotFoundException withMessageWithoutStackTrace(String message) {
+		return new RecordNotFoundException(message, false);
+	}
+
 	public static RecordNotFoundException withMessageAndException(String message,
 			Exception exception) {
 		return new RecordNotFoundException(message, exception);
@@ -35,6 +44,10 @@ public class RecordNotFoundException extends RuntimeException {
 		super(message);
 	}
 
+	private RecordNotFoundException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
+
 	private RecordNotFoundException(String message, Exception exception) {
 		super(message, exception);
 	}
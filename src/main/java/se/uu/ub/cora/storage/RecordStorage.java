@@ -1,5 +1,5 @@
 /*
- * Copyright 2015, 2020, 2021, 2022, 2025 Uppsala University Library
+ * Copyright 2015, 2020, 2021, 2022, 2025, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -19,8 +19,19 @@
 
 package se.uu.ub.cora.storage;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import se.uu.ub.cora.data.DataGroup;
 import se.uu.ub.cora.data.DataRecordGroup;
@@ -84,6 +95,69 @@ public interface RecordStorage {
 	 */
 	DataRecordGroup read(String type, String id);
 
+	/**
+	 * readIfExists should return, from storage, the record that has the specified type and id, if
+	 * it exists. It is intended for when absence of the record is an expected outcome, such as
+	 * when validating links, and MUST NOT throw a {@link RecordNotFoundException} if no record is
+	 * found, instead should an empty Optional be returned.
+	 * </p>
+	 * Any other excpetion while during storage operations throws a {@link StorageException}
+	 * <p>
+	 * The default implementation calls {@link #read(String, String)} and handles a thrown
+	 * RecordNotFoundException, implementations SHOULD override it to avoid creating exceptions for
+	 * missing records.
+	 * 
+	 * @param type
+	 *            A String with the recordType
+	 * @param id
+	 *            A String with the records id
+	 * @return An Optional with a {@link DataRecordGroup} with the requested records data, or an
+	 *         empty Optional if no record is found
+	 */
+	default Optional<DataRecordGroup> readIfExists(String type, String id) {
+		try {
+			return Optional.of(read(type, id));
+		} catch (RecordNotFoundException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * readMany should return, from storage, all records that has the specified type and one of the
+	 * specified ids. It is intended to be used when several records of the same type are needed at
+	 * the same time, making it possible for implementations to fetch all of them using one request
+	 * to the underlying storage instead of one request per record.
+	 * <p>
+	 * Ids for which no record is found MUST NOT cause a {@link RecordNotFoundException} to be
+	 * thrown, instead should they be returned in {@link StorageReadManyResult#missingIds()}.
+	 * Duplicated ids are only read once.
+	 * </p>
+	 * Any other excpetion while during storage operations throws a {@link StorageException}
+	 * <p>
+	 * The default implementation calls {@link #read(String, String)} once for each id,
+	 * implementations SHOULD override it if the underlying storage can answer the request in a
+	 * more efficient way.
+	 * 
+	 * @param type
+	 *            A String with the recordType
+	 * @param ids
+	 *            A Collection of Strings with the ids of the records to read
+	 * @return A {@link StorageReadManyResult} with the found records, keyed by id, in the same
+	 *         order as the requested ids and a set of the ids that could not be found
+	 */
+	default StorageReadManyResult readMany(String type, Collection<String> ids) {
+		Map<String, DataRecordGroup> records = new LinkedHashMap<>();
+		Set<String> missingIds = new LinkedHashSet<>();
+		for (String id : new LinkedHashSet<>(ids)) {
+			try {
+				records.put(id, read(type, id));
+			} catch (RecordNotFoundException e) {
+				missingIds.add(id);
+			}
+		}
+		return new StorageReadManyResult(records, missingIds);
+	}
+
 	/**
 	 * create stores the provided dataRecord in storage. CollectedTerms, linkList and dataDivider is
 	 * stored in relationship to type and id.
@@ -161,6 +235,60 @@ public interface RecordStorage {
 	void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
 			Set<Link> links, String dataDivider);
 
+	/**
+	 * writeMany creates or updates all the records described by the provided list of
+	 * {@link RecordWrite}. Each write has the same meaning as a call to
+	 * {@link #create(String, String, DataGroup, Set, Set, String)} or
+	 * {@link #update(String, String, DataGroup, Set, Set, String)} depending on its
+	 * {@link RecordWriteAction}. It is intended to be used when many records are written at the same
+	 * time, such as during imports, making it possible for implementations to write the records,
+	 * storageTerms and links using as few transactions and index updates as possible.
+	 * <p>
+	 * A write that can not be done because a record to create already exists or a record to update
+	 * can not be found MUST NOT cause a {@link RecordConflictException} or
+	 * {@link RecordNotFoundException} to be thrown, instead should it be reported with status
+	 * {@link RecordWriteStatus#CONFLICT} or {@link RecordWriteStatus#NOT_FOUND} and the remaining
+	 * writes should still be done.
+	 * </p>
+	 * Any other excpetion while during storage operations throws a {@link StorageException}
+	 * <p>
+	 * The default implementation calls create or update once for each write, implementations
+	 * SHOULD override it if the underlying storage can do the writes in a more efficient way.
+	 * 
+	 * @param writes
+	 *            A List of {@link RecordWrite} with the records to create or update
+	 * @return A List of {@link RecordWriteResult}, one for each write, in the same order as the
+	 *         provided writes
+	 */
+	default List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+		List<RecordWriteResult> results = new ArrayList<>(writes.size());
+		for (RecordWrite write : writes) {
+			results.add(writeOne(write));
+		}
+		return results;
+	}
+
+	private RecordWriteResult writeOne(RecordWrite write) {
+		try {
+			createOrUpdate(write);
+			return new RecordWriteResult(write, RecordWriteStatus.SUCCESS, null);
+		} catch (RecordConflictException e) {
+			return new RecordWriteResult(write, RecordWriteStatus.CONFLICT, e.getMessage());
+		} catch (RecordNotFoundException e) {
+			return new RecordWriteResult(write, RecordWriteStatus.NOT_FOUND, e.getMessage());
+		}
+	}
+
+	private void createOrUpdate(RecordWrite write) {
+		if (write.action() == RecordWriteAction.CREATE) {
+			create(write.type(), write.id(), write.dataRecord(), write.storageTerms(),
+					write.links(), write.dataDivider());
+		} else {
+			update(write.type(), write.id(), write.dataRecord(), write.storageTerms(),
+					write.links(), write.dataDivider());
+		}
+	}
+
 	/**
 	 * readList should return, from storage, all records corresponding the type and matches the
 	 * provided filter.
@@ -173,6 +301,18 @@ public interface RecordStorage {
 	 * returned.<br>
 	 * If the filter specifies a specific range of records to return, should only the records that
 	 * are inside the specified range and match any specified filter be returned.
+	 * <p>
+	 * The total number of matches MUST be counted in the same request to the underlying storage as
+	 * the records are read, and be returned in {@link StorageReadResult#totalNumberOfMatches}, so
+	 * that callers do not need to call {@link #getTotalNumberOfRecordsForTypes(List, Filter)} for
+	 * the same filter. How the total number of matches is counted is decided by
+	 * {@link Filter#countMode} and the way it was counted MUST be returned in
+	 * {@link StorageReadResult#countMode}.
+	 * <p>
+	 * If the filter has a projection, see {@link Filter#projection}, SHOULD the records be returned
+	 * as {@link ProjectedRecord}s in {@link StorageReadResult#listOfProjectedRecords}, built from
+	 * the stored storageTerms without reading the complete records, and
+	 * {@link StorageReadResult#projected} be set to true.
 	 * </p>
 	 * If no records are found should a StorageReadResult with no results be returned.
 	 * 
@@ -185,6 +325,41 @@ public interface RecordStorage {
 	 */
 	StorageReadResult readList(String type, Filter filter);
 
+	/**
+	 * readListAsStream should return, from storage, all records corresponding the type and matches
+	 * the provided filter, in the same way as {@link #readList(String, Filter)}, but as a lazily
+	 * populated {@link Stream} instead of a fully materialized {@link StorageReadResult}. It is
+	 * intended to be used when a large number of records are read, such as during exports, making it
+	 * possible to process all records of a type without holding them all in memory at the same
+	 * time.
+	 * <p>
+	 * The returned stream MUST be closed by the caller when done, preferably by using a
+	 * try-with-resources statement. Implementations that hold resources in the underlying storage,
+	 * such as open cursors or connections, while the stream is consumed MUST release them when the
+	 * stream is closed, see {@link Stream#onClose(Runnable)}.
+	 * </p>
+	 * Any projection in the filter is ignored, complete records are always returned.
+	 * <p>
+	 * If no records are found should an empty stream be returned.
+	 * <p>
+	 * The default implementation reads the records one page at a time using
+	 * {@link #readList(String, Filter)}, implementations SHOULD override it if the underlying
+	 * storage can stream the records in a more efficient way.
+	 * 
+	 * @param type
+	 *            A string with the type of records to read.
+	 * @param filter
+	 *            A {@link Filter} with filter information about which subset of records to return.
+	 * @return A Stream with the records, as {@link DataRecordGroup}, that exist in storage for the
+	 *         specified type and filter.
+	 */
+	default Stream<DataRecordGroup> readListAsStream(String type, Filter filter) {
+		PagedReadListIterator iterator = new PagedReadListIterator(this, type, filter,
+				PagedReadListIterator.DEFAULT_PAGE_SIZE);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
 	/**
 	 * readList should return, from storage, the records that has the corresponding type and matches
 	 * the provided filter.
@@ -231,6 +406,34 @@ public interface RecordStorage {
 	 */
 	boolean recordExists(List<String> types, String id);
 
+	/**
+	 * findExistingIds returns the ids, of the specified ids, for which a record exists in storage
+	 * for one of the specified types. It is intended for when many records must be checked for
+	 * existence at the same time, such as when validating links, making it possible for
+	 * implementations to check all of them using one request to the underlying storage.
+	 * <p>
+	 * The list of types is used in the same way as for {@link #recordExists(List, String)}.
+	 * <p>
+	 * The default implementation calls {@link #recordExists(List, String)} once for each id,
+	 * implementations SHOULD override it if the underlying storage can answer the request in a
+	 * more efficient way.
+	 * 
+	 * @param types
+	 *            A List<String> with a list of recordTypes
+	 * @param ids
+	 *            A Collection of strings with the ids to check
+	 * @return A Set with the ids that exist, in the order they were specified
+	 */
+	default Set<String> findExistingIds(List<String> types, Collection<String> ids) {
+		Set<String> existingIds = new LinkedHashSet<>();
+		for (String id : new LinkedHashSet<>(ids)) {
+			if (recordExists(types, id)) {
+				existingIds.add(id);
+			}
+		}
+		return existingIds;
+	}
+
 	/**
 	 * linksExistForRecord returns if there are any other records that link to the record specified
 	 * by the entered type and id.
@@ -272,6 +475,73 @@ public interface RecordStorage {
 	 */
 	Set<Link> getLinksFromRecord(String type, String id);
 
+	/**
+	 * getLinksToRecord returns one page of the links from other records, pointing to the record
+	 * specified by type and id. It is intended for records with a large number of incoming links,
+	 * where reading all links at once is too expensive.
+	 * </p>
+	 * Links are ordered and paged as specified by {@link LinkPaging}. If there are more links
+	 * after the page is a continuation token returned in the result, that can be used to read the
+	 * next page.
+	 * </p>
+	 * The default implementation pages the links returned by {@link #getLinksToRecord(String,
+	 * String)}, implementations SHOULD override it to read only one page from storage.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @param maxNumberOfLinks
+	 *            An int with the maximum number of links to return, must be larger than 0
+	 * @param continuationToken
+	 *            A String with the continuation token from a previous page, or null to read the
+	 *            first page
+	 * @return A {@link StorageLinksReadResult} with one page of links
+	 */
+	default StorageLinksReadResult getLinksToRecord(String type, String id, int maxNumberOfLinks,
+			String continuationToken) {
+		return LinkPaging.pageOf(getLinksToRecord(type, id), maxNumberOfLinks, continuationToken);
+	}
+
+	/**
+	 * countLinksToRecord returns the number of links from other records, pointing to the record
+	 * specified by type and id.
+	 * </p>
+	 * The default implementation counts the links returned by {@link #getLinksToRecord(String,
+	 * String)}, implementations SHOULD override it to count the links without reading them.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @return A long with the number of links pointing to the specified record
+	 */
+	default long countLinksToRecord(String type, String id) {
+		return getLinksToRecord(type, id).size();
+	}
+
+	/**
+	 * countLinksToRecordGroupedByType returns the number of links from other records, pointing to
+	 * the record specified by type and id, grouped by the type of the linking records.
+	 * </p>
+	 * If no links are found should an empty map be returned. The default implementation counts
+	 * the links returned by {@link #getLinksToRecord(String, String)}, implementations SHOULD
+	 * override it to count the links without reading them.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @return A Map with the number of links keyed by the type of the linking records
+	 */
+	default Map<String, Long> countLinksToRecordGroupedByType(String type, String id) {
+		Map<String, Long> counts = new TreeMap<>();
+		for (Link link : getLinksToRecord(type, id)) {
+			counts.merge(link.type(), 1L, Long::sum);
+		}
+		return counts;
+	}
+
 	/**
 	 * getStorageTermsForRecord returns the storageTerms stored for the record specified by type and
 	 * id.
@@ -297,6 +567,10 @@ public interface RecordStorage {
 	 * type that match the provided filter.<br>
 	 * If the filter contains no include or exclude information should all records be counted.
 	 * <p>
+	 * getTotalNumberOfRecordsForTypes is intended for when only the number of records is needed
+	 * and implementations SHOULD count the records without reading them. The number should be
+	 * counted as requested by {@link Filter#countMode}, for {@link CountMode#NONE} is 0 returned.
+	 * <p>
 	 * If the requested type does not exist MUST a {@link RecordNotFoundException} be thrown,
 	 * indicating that the requested type of records can not be found.
 	 * 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2019, 2022 Uppsala University Library
+ * Copyright 2019, 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -36,6 +36,21 @@ public interface RecordStorageInstanceProvider extends SelectOrder {
 	 */
 	RecordStorage getRecordStorage();
 
+	/**
+	 * canReuseRecordStorage tells {@link RecordStorageProvider} if the RecordStorage returned by
+	 * {@link #getRecordStorage()} is threadsafe and can be reused for all calls, in which case
+	 * RecordStorageProvider calls getRecordStorage once and returns the same instance from then
+	 * on.
+	 * <p>
+	 * The default implementation returns false, and getRecordStorage is called every time a
+	 * RecordStorage is requested.
+	 * 
+	 * @return A boolean, true if the returned RecordStorage can be reused
+	 */
+	default boolean canReuseRecordStorage() {
+		return false;
+	}
+
 	/**
 	 * dataChanged method is intended to inform the instance provider about data that is changed in
 	 * storage. This is to make it possible to implement a cached storage and update relevant
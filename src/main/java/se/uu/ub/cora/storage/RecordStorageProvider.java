@@ -1,5 +1,5 @@
 /*
- * Copyright 2022, 2025 Uppsala University Library
+ * Copyright 2022, 2025, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,6 +18,8 @@
  */
 package se.uu.ub.cora.storage;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 import se.uu.ub.cora.initialize.ModuleInitializer;
 import se.uu.ub.cora.initialize.ModuleInitializerImp;
 import se.uu.ub.cora.initialize.SelectOrder;
@@ -27,11 +29,19 @@ import se.uu.ub.cora.initialize.SelectOrder;
  * </p>
  * Implementing {@link RecordStorageInstanceProvider}s are found using javas module system, and the
  * one with the higest {@link SelectOrder} is used to provide access to record storage.
+ * </p>
+ * The instance provider is located once, on first use, and then published through a volatile
+ * field, so that calls after that do not take any lock.
  */
 public class RecordStorageProvider {
 
 	private static ModuleInitializer moduleInitializer = new ModuleInitializerImp();
-	private static RecordStorageInstanceProvider recordStorageInstanceProvider;
+	private static final ReentrantLock locateLock = new ReentrantLock();
+	private static volatile LocatedInstanceProvider located;
+
+	private record LocatedInstanceProvider(RecordStorageInstanceProvider instanceProvider,
+			RecordStorage reusableRecordStorage) {
+	}
 
 	private RecordStorageProvider() {
 		// prevent call to constructor
@@ -43,20 +53,47 @@ public class RecordStorageProvider {
 	 * records.
 	 * </p>
 	 * Code using the returned {@link RecordStorage} instance MUST consider the returned instance as
-	 * NOT thread safe.
+	 * NOT thread safe, unless the instance provider states that the instance can be reused, see
+	 * {@link RecordStorageInstanceProvider#canReuseRecordStorage()}.
 	 * 
 	 * @return A RecordStorage that gives access to storage for records
 	 */
-	public static synchronized RecordStorage getRecordStorage() {
-		locateAndChooseRecordStorageInstanceProvider();
-		return recordStorageInstanceProvider.getRecordStorage();
+	public static RecordStorage getRecordStorage() {
+		LocatedInstanceProvider current = locateAndChooseRecordStorageInstanceProvider();
+		if (current.reusableRecordStorage() != null) {
+			return current.reusableRecordStorage();
+		}
+		return current.instanceProvider().getRecordStorage();
+	}
+
+	private static LocatedInstanceProvider locateAndChooseRecordStorageInstanceProvider() {
+		LocatedInstanceProvider current = located;
+		if (current != null) {
+			return current;
+		}
+		return locateWhileHoldingLock();
+	}
+
+	private static LocatedInstanceProvider locateWhileHoldingLock() {
+		locateLock.lock();
+		try {
+			if (located == null) {
+				located = createLocated(moduleInitializer
+						.loadOneImplementationBySelectOrder(RecordStorageInstanceProvider.class));
+			}
+			return located;
+		} finally {
+			locateLock.unlock();
+		}
 	}
 
-	private static void locateAndChooseRecordStorageInstanceProvider() {
-		if (recordStorageInstanceProvider == null) {
-			recordStorageInstanceProvider = moduleInitializer
-					.loadOneImplementationBySelectOrder(RecordStorageInstanceProvider.class);
+	private static LocatedInstanceProvider createLocated(
+			RecordStorageInstanceProvider instanceProvider) {
+		if (instanceProvider.canReuseRecordStorage()) {
+			return new LocatedInstanceProvider(instanceProvider,
+					instanceProvider.getRecordStorage());
 		}
+		return new LocatedInstanceProvider(instanceProvider, null);
 	}
 
 	/**
@@ -74,8 +111,8 @@ public class RecordStorageProvider {
 	 *            "delete").
 	 */
 	public static void dataChanged(String type, String id, String action) {
-		locateAndChooseRecordStorageInstanceProvider();
-		recordStorageInstanceProvider.dataChanged(type, id, action);
+		locateAndChooseRecordStorageInstanceProvider().instanceProvider().dataChanged(type, id,
+				action);
 	}
 
 	/**
@@ -93,7 +130,13 @@ public class RecordStorageProvider {
 	 */
 	public static void onlyForTestSetRecordStorageInstanceProvider(
 			RecordStorageInstanceProvider recordStorageInstanceProvider) {
-		RecordStorageProvider.recordStorageInstanceProvider = recordStorageInstanceProvider;
+		locateLock.lock();
+		try {
+			located = recordStorageInstanceProvider == null ? null
+					: createLocated(recordStorageInstanceProvider);
+		} finally {
+			locateLock.unlock();
+		}
 	}
 
 	static ModuleInitializer onlyForTestGetModuleInitializer() {
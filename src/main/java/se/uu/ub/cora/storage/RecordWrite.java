@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.Set;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+
+/**
+ * RecordWrite holds the data needed to create or update one record as part of a call to
+ * {@link RecordStorage#writeMany(java.util.List)}. The parameters have the same meaning as the
+ * parameters to {@link RecordStorage#create(String, String, DataGroup, Set, Set, String)} and
+ * {@link RecordStorage#update(String, String, DataGroup, Set, Set, String)}.
+ * 
+ * @param action
+ *            A {@link RecordWriteAction} with the kind of write to do
+ * @param type
+ *            A String with the records type
+ * @param id
+ *            A String with the records id
+ * @param dataRecord
+ *            A {@link DataGroup} with the records data
+ * @param storageTerms
+ *            A set of {@link StorageTerm} containg the storageTerms for the record.
+ * @param links
+ *            A set {@link Link} that this record points to.
+ * @param dataDivider
+ *            A String representing the system the record belongs to.
+ */
+public record RecordWrite(RecordWriteAction action, String type, String id, DataGroup dataRecord,
+		Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+
+}
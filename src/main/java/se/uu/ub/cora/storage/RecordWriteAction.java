@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+/**
+ * RecordWriteAction defines which kind of write a {@link RecordWrite} represents, see
+ * {@link RecordStorage#writeMany(java.util.List)}.
+ * <ul>
+ * <li>CREATE: the record is created as by
+ * {@link RecordStorage#create(String, String, se.uu.ub.cora.data.DataGroup, java.util.Set, java.util.Set, String)}</li>
+ * <li>UPDATE: the record is updated as by
+ * {@link RecordStorage#update(String, String, se.uu.ub.cora.data.DataGroup, java.util.Set, java.util.Set, String)}</li>
+ * </ul>
+ */
+public enum RecordWriteAction {
+	CREATE, UPDATE
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+/**
+ * RecordWriteResult contains the outcome of one {@link RecordWrite} in a call to
+ * {@link RecordStorage#writeMany(java.util.List)}.
+ * 
+ * @param write
+ *            The {@link RecordWrite} this result is for
+ * @param status
+ *            A {@link RecordWriteStatus} with the outcome of the write
+ * @param message
+ *            A String describing why the write failed, or null if status is SUCCESS
+ */
+public record RecordWriteResult(RecordWrite write, RecordWriteStatus status, String message) {
+
+}
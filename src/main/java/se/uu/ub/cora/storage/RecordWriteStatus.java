@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+/**
+ * RecordWriteStatus is the outcome of one {@link RecordWrite} in a call to
+ * {@link RecordStorage#writeMany(java.util.List)}.
+ * <ul>
+ * <li>SUCCESS: the record was written</li>
+ * <li>CONFLICT: the record could not be created as it already exists in storage</li>
+ * <li>NOT_FOUND: the record could not be updated as it does not exist in storage</li>
+ * <li>UNCHANGED: the update was skipped as storage already holds the same content</li>
+ * </ul>
+ */
+public enum RecordWriteStatus {
+	SUCCESS, CONFLICT, NOT_FOUND, UNCHANGED
+}
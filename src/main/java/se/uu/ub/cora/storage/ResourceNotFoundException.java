@@ -8,6 +8,15 @@ public class ResourceNotFoundException extends RuntimeException {
 		return new ResourceNotFoundException(message);
 	}
 
+	/**
+	 * withMessageWithoutStackTrace creates an exception without a stack trace. It is intended for
+	 * storage implementations where a missing resource is an expected outcome, as filling in the
+	 * stack trace is the main cost of creating an exception.
+	 */
+	public static ResourceNotFoundException withMessageWithoutStackTrace(String message) {
+		return new ResourceNotFoundException(message, false);
+	}
+
 	public static ResourceNotFoundException withMessageAndException(String message,
 			Exception exception) {
 		return new ResourceNotFoundException(message, exception);
@@ -17,6 +26,10 @@ public class ResourceNotFoundException extends RuntimeException {
 		super(message);
 	}
 
+	private ResourceNotFoundException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
+
 	private ResourceNotFoundException(String message, Exception exception) {
 		super(message, exception);
 	}
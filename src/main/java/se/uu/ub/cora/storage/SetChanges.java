@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * SetChanges contains the difference between a stored set of values and an updated set of values,
+ * as the values that are added and the values that are removed. It is intended for storage
+ * implementations that keep index entries for each value, such as storageTerms and links, so that
+ * an update only needs to touch the entries that have changed, instead of deleting and inserting
+ * all of them.
+ * 
+ * @param added
+ *            A Set with the values in the updated set that are not in the stored set
+ * @param removed
+ *            A Set with the values in the stored set that are not in the updated set
+ */
+public record SetChanges<T>(Set<T> added, Set<T> removed) {
+
+	/**
+	 * between computes the changes from the stored values to the updated values.
+	 * 
+	 * @param stored
+	 *            A Collection with the currently stored values
+	 * @param updated
+	 *            A Collection with the values after the update
+	 * @return A SetChanges with the added and removed values, in the order they appear in the
+	 *         collections
+	 */
+	public static <T> SetChanges<T> between(Collection<T> stored, Collection<T> updated) {
+		Set<T> storedSet = asSet(stored);
+		Set<T> updatedSet = asSet(updated);
+		return new SetChanges<>(valuesOnlyIn(updatedSet, storedSet),
+				valuesOnlyIn(storedSet, updatedSet));
+	}
+
+	private static <T> Set<T> asSet(Collection<T> values) {
+		if (values instanceof Set<T> set) {
+			return set;
+		}
+		return new LinkedHashSet<>(values);
+	}
+
+	private static <T> Set<T> valuesOnlyIn(Set<T> values, Set<T> otherValues) {
+		Set<T> onlyInValues = new LinkedHashSet<>();
+		for (T value : values) {
+			if (!otherValues.contains(value)) {
+				onlyInValues.add(value);
+			}
+		}
+		return onlyInValues;
+	}
+
+	/**
+	 * hasChanges returns true if any value is added or removed.
+	 */
+	public boolean hasChanges() {
+		return !added.isEmpty() || !removed.isEmpty();
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.List;
+
+import se.uu.ub.cora.data.collected.Link;
+
+/**
+ * StorageLinksReadResult contains one page of links read from storage, see
+ * {@link RecordStorage#getLinksToRecord(String, String, int, String)}.
+ * 
+ * @param links
+ *            A List with the links in the page, ordered as specified by {@link LinkPaging}
+ * @param continuationToken
+ *            A String to use to read the next page, or null if there are no more links
+ */
+public record StorageLinksReadResult(List<Link> links, String continuationToken) {
+
+	/**
+	 * hasMoreLinks returns true if there are more links to read after this page.
+	 */
+	public boolean hasMoreLinks() {
+		return continuationToken != null;
+	}
+}
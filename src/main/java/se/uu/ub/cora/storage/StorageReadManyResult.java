@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.util.Map;
+import java.util.Set;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+
+/**
+ * StorageReadManyResult contains the result of a read of several records of one type from storage,
+ * see {@link RecordStorage#readMany(String, java.util.Collection)}.
+ * 
+ * @param records
+ *            A Map with the found records, as {@link DataRecordGroup}, keyed by their id
+ * @param missingIds
+ *            A Set with the requested ids that could not be found in storage
+ */
+public record StorageReadManyResult(Map<String, DataRecordGroup> records, Set<String> missingIds) {
+
+}
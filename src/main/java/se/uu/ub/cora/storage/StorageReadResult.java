@@ -1,5 +1,5 @@
 /*
- * Copyright 2017, 2018, 2024 Uppsala University Library
+ * Copyright 2017, 2018, 2024, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -39,10 +39,16 @@ public final class StorageReadResult {
 
 	/**
 	 * totalNumberOfMatches contains the total number of records in storage for the recordType,
-	 * matching any provided filter, ignoring fromNo and toNo.
+	 * matching any provided filter, ignoring fromNo and toNo. How it is counted is described by
+	 * {@link #countMode}.
 	 */
 	public long totalNumberOfMatches = 0;
 
+	/**
+	 * countMode tells how totalNumberOfMatches was counted, see {@link CountMode}.
+	 */
+	public CountMode countMode = CountMode.EXACT;
+
 	/**
 	 * listOfDataGroups is a list {@link DataGroup} that match the request that has been made
 	 */
@@ -53,4 +59,26 @@ public final class StorageReadResult {
 	 * made
 	 */
 	public List<DataRecordGroup> listOfDataRecordGroups = new ArrayList<>();
+
+	/**
+	 * listOfProjectedRecords is a list of {@link ProjectedRecord} that match the request that has
+	 * been made, it is only used if a projection was requested using {@link Filter#projection} and
+	 * {@link #projected} is true.
+	 */
+	public List<ProjectedRecord> listOfProjectedRecords = new ArrayList<>();
+
+	/**
+	 * projected is true if the matching records are returned as projected records in
+	 * {@link #listOfProjectedRecords}, instead of as complete records. Storage implementations that
+	 * do not support projection leave it false and return complete records.
+	 */
+	public boolean projected = false;
+
+	/**
+	 * continuationToken is an opaque token pointing to the last record in this result. It can be
+	 * set as {@link Filter#continuationToken} in a following read to continue reading matches
+	 * after this result. It is null if there are no more matches or if the storage implementation
+	 * does not support continuation tokens.
+	 */
+	public String continuationToken = null;
 }
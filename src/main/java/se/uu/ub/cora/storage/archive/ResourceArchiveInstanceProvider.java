@@ -1,5 +1,5 @@
 /*
- * Copyright 2019, 2022 Uppsala University Library
+ * Copyright 2019, 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -35,4 +35,19 @@ public interface ResourceArchiveInstanceProvider extends SelectOrder {
 	 * @return A ResourceArchive that gives access to archive for resources
 	 */
 	ResourceArchive getResourceArchive();
+
+	/**
+	 * canReuseResourceArchive tells {@link ResourceArchiveProvider} if the ResourceArchive
+	 * returned by {@link #getResourceArchive()} is threadsafe and can be reused for all calls, in
+	 * which case ResourceArchiveProvider calls getResourceArchive once and returns the same
+	 * instance from then on.
+	 * <p>
+	 * The default implementation returns false, and getResourceArchive is called every time a
+	 * ResourceArchive is requested.
+	 * 
+	 * @return A boolean, true if the returned ResourceArchive can be reused
+	 */
+	default boolean canReuseResourceArchive() {
+		return false;
+	}
 }
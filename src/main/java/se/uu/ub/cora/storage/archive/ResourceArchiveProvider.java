@@ -1,5 +1,5 @@
 /*
- * Copyright 2022, 2023 Uppsala University Library
+ * Copyright 2022, 2023, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,6 +18,8 @@
  */
 package se.uu.ub.cora.storage.archive;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 import se.uu.ub.cora.initialize.AbstractProvider;
 import se.uu.ub.cora.initialize.SelectOrder;
 
@@ -26,29 +28,64 @@ import se.uu.ub.cora.initialize.SelectOrder;
  * </p>
  * Implementing {@link ResourceArchiveInstanceProvider}s are found using javas module system, and
  * the one with the higest {@link SelectOrder} is used to provide access to resource archive.
+ * </p>
+ * The instance provider is located once, on first use, and then published through a volatile
+ * field, so that calls after that do not take any lock.
  */
 public class ResourceArchiveProvider extends AbstractProvider {
-	private static ResourceArchiveInstanceProvider instanceProvider;
+	private static final ReentrantLock locateLock = new ReentrantLock();
+	private static volatile LocatedInstanceProvider located;
+
+	private record LocatedInstanceProvider(ResourceArchiveInstanceProvider instanceProvider,
+			ResourceArchive reusableResourceArchive) {
+	}
 
 	/**
 	 * getResourceArchive returns a ResourceArchive that can be used by anything that needs access
 	 * to resources.
 	 * </p>
 	 * Code using the returned {@link ResourceArchive} instance MUST consider the returned instance
-	 * as NOT thread safe.
+	 * as NOT thread safe, unless the instance provider states that the instance can be reused, see
+	 * {@link ResourceArchiveInstanceProvider#canReuseResourceArchive()}.
 	 * 
 	 * @return A ResourceArchive that gives access to storage for resource
 	 */
-	public static synchronized ResourceArchive getResourceArchive() {
-		locateAndChooseInstanceProvider();
-		return instanceProvider.getResourceArchive();
+	public static ResourceArchive getResourceArchive() {
+		LocatedInstanceProvider current = locateAndChooseInstanceProvider();
+		if (current.reusableResourceArchive() != null) {
+			return current.reusableResourceArchive();
+		}
+		return current.instanceProvider().getResourceArchive();
 	}
 
-	private static void locateAndChooseInstanceProvider() {
-		if (instanceProvider == null) {
-			instanceProvider = moduleInitializer
-					.loadOneImplementationBySelectOrder(ResourceArchiveInstanceProvider.class);
+	private static LocatedInstanceProvider locateAndChooseInstanceProvider() {
+		LocatedInstanceProvider current = located;
+		if (current != null) {
+			return current;
 		}
+		return locateWhileHoldingLock();
+	}
+
+	private static LocatedInstanceProvider locateWhileHoldingLock() {
+		locateLock.lock();
+		try {
+			if (located == null) {
+				located = createLocated(moduleInitializer
+						.loadOneImplementationBySelectOrder(ResourceArchiveInstanceProvider.class));
+			}
+			return located;
+		} finally {
+			locateLock.unlock();
+		}
+	}
+
+	private static LocatedInstanceProvider createLocated(
+			ResourceArchiveInstanceProvider instanceProvider) {
+		if (instanceProvider.canReuseResourceArchive()) {
+			return new LocatedInstanceProvider(instanceProvider,
+					instanceProvider.getResourceArchive());
+		}
+		return new LocatedInstanceProvider(instanceProvider, null);
 	}
 
 	/**
@@ -66,6 +103,11 @@ public class ResourceArchiveProvider extends AbstractProvider {
 	 */
 	public static void onlyForTestSetInstanceProvider(
 			ResourceArchiveInstanceProvider instanceProvider) {
-		ResourceArchiveProvider.instanceProvider = instanceProvider;
+		locateLock.lock();
+		try {
+			located = instanceProvider == null ? null : createLocated(instanceProvider);
+		} finally {
+			locateLock.unlock();
+		}
 	}
 }
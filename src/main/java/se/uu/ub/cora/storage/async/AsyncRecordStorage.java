@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.async;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageProvider;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * AsyncRecordStorage is an asynchronous facade for {@link RecordStorage}. Each method runs the
+ * corresponding RecordStorage method using an {@link Executor} and returns a
+ * {@link CompletableFuture} with the result. This makes it possible to start several calls to
+ * storage at the same time, such as reading a record, its links and its storageTerms, and wait for
+ * all of them together.
+ * <p>
+ * As RecordStorage instances MUST be considered NOT threadsafe, is a new instance requested from
+ * the recordStorageSupplier for each call, on the thread running the call. By default are
+ * instances requested from {@link RecordStorageProvider#getRecordStorage()} and calls run on
+ * virtual threads, one per call, as the calls are expected to mostly wait for I/O.
+ * <p>
+ * Exceptions thrown by RecordStorage complete the returned futures exceptionally, with the thrown
+ * exception as cause.
+ * <p>
+ * AsyncRecordStorage is threadsafe.
+ */
+public final class AsyncRecordStorage {
+	private static final ThreadFactory VIRTUAL_THREAD_FACTORY = Thread.ofVirtual()
+			.name("cora-async-storage-", 0).factory();
+	private final Supplier<RecordStorage> recordStorageSupplier;
+	private final Executor executor;
+
+	/**
+	 * usingRecordStorageProvider creates an AsyncRecordStorage that uses RecordStorage instances
+	 * from {@link RecordStorageProvider#getRecordStorage()} and runs calls on virtual threads.
+	 */
+	public static AsyncRecordStorage usingRecordStorageProvider() {
+		return new AsyncRecordStorage(RecordStorageProvider::getRecordStorage,
+				AsyncRecordStorage::runOnVirtualThread);
+	}
+
+	private static void runOnVirtualThread(Runnable task) {
+		VIRTUAL_THREAD_FACTORY.newThread(task).start();
+	}
+
+	/**
+	 * usingRecordStorageSupplierAndExecutor creates an AsyncRecordStorage that uses RecordStorage
+	 * instances from the specified supplier and runs calls using the specified executor.
+	 * 
+	 * @param recordStorageSupplier
+	 *            A Supplier of RecordStorage, called once for each call on the thread running the
+	 *            call
+	 * @param executor
+	 *            An Executor to run the calls with
+	 */
+	public static AsyncRecordStorage usingRecordStorageSupplierAndExecutor(
+			Supplier<RecordStorage> recordStorageSupplier, Executor executor) {
+		return new AsyncRecordStorage(recordStorageSupplier, executor);
+	}
+
+	private AsyncRecordStorage(Supplier<RecordStorage> recordStorageSupplier, Executor executor) {
+		this.recordStorageSupplier = recordStorageSupplier;
+		this.executor = executor;
+	}
+
+	private <T> CompletableFuture<T> runAsync(Function<RecordStorage, T> call) {
+		return CompletableFuture.supplyAsync(() -> call.apply(recordStorageSupplier.get()),
+				executor);
+	}
+
+	public CompletableFuture<DataRecordGroup> read(String type, String id) {
+		return runAsync(recordStorage -> recordStorage.read(type, id));
+	}
+
+	public CompletableFuture<Optional<DataRecordGroup>> readIfExists(String type, String id) {
+		return runAsync(recordStorage -> recordStorage.readIfExists(type, id));
+	}
+
+	public CompletableFuture<StorageReadManyResult> readMany(String type, Collection<String> ids) {
+		return runAsync(recordStorage -> recordStorage.readMany(type, ids));
+	}
+
+	public CompletableFuture<StorageReadResult> readList(String type, Filter filter) {
+		return runAsync(recordStorage -> recordStorage.readList(type, filter));
+	}
+
+	public CompletableFuture<Void> create(String type, String id, DataGroup dataRecord,
+			Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+		return runAsync(recordStorage -> {
+			recordStorage.create(type, id, dataRecord, storageTerms, links, dataDivider);
+			return null;
+		});
+	}
+
+	public CompletableFuture<Void> update(String type, String id, DataGroup dataRecord,
+			Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+		return runAsync(recordStorage -> {
+			recordStorage.update(type, id, dataRecord, storageTerms, links, dataDivider);
+			return null;
+		});
+	}
+
+	public CompletableFuture<Void> deleteByTypeAndId(String type, String id) {
+		return runAsync(recordStorage -> {
+			recordStorage.deleteByTypeAndId(type, id);
+			return null;
+		});
+	}
+
+	public CompletableFuture<List<RecordWriteResult>> writeMany(List<RecordWrite> writes) {
+		return runAsync(recordStorage -> recordStorage.writeMany(writes));
+	}
+
+	public CompletableFuture<Boolean> recordExists(List<String> types, String id) {
+		return runAsync(recordStorage -> recordStorage.recordExists(types, id));
+	}
+
+	public CompletableFuture<Set<String>> findExistingIds(List<String> types,
+			Collection<String> ids) {
+		return runAsync(recordStorage -> recordStorage.findExistingIds(types, ids));
+	}
+
+	public CompletableFuture<Boolean> linksExistForRecord(String type, String id) {
+		return runAsync(recordStorage -> recordStorage.linksExistForRecord(type, id));
+	}
+
+	public CompletableFuture<Set<Link>> getLinksToRecord(String type, String id) {
+		return runAsync(recordStorage -> recordStorage.getLinksToRecord(type, id));
+	}
+
+	public CompletableFuture<StorageLinksReadResult> getLinksToRecord(String type, String id,
+			int maxNumberOfLinks, String continuationToken) {
+		return runAsync(recordStorage -> recordStorage.getLinksToRecord(type, id,
+				maxNumberOfLinks, continuationToken));
+	}
+
+	public CompletableFuture<Long> countLinksToRecord(String type, String id) {
+		return runAsync(recordStorage -> recordStorage.countLinksToRecord(type, id));
+	}
+
+	public CompletableFuture<Map<String, Long>> countLinksToRecordGroupedByType(String type,
+			String id) {
+		return runAsync(recordStorage -> recordStorage.countLinksToRecordGroupedByType(type, id));
+	}
+
+	public CompletableFuture<Set<Link>> getLinksFromRecord(String type, String id) {
+		return runAsync(recordStorage -> recordStorage.getLinksFromRecord(type, id));
+	}
+
+	public CompletableFuture<Set<StorageTerm>> getStorageTermsForRecord(String type, String id) {
+		return runAsync(recordStorage -> recordStorage.getStorageTermsForRecord(type, id));
+	}
+
+	public CompletableFuture<Long> getTotalNumberOfRecordsForTypes(List<String> types,
+			Filter filter) {
+		return runAsync(
+				recordStorage -> recordStorage.getTotalNumberOfRecordsForTypes(types, filter));
+	}
+
+	/**
+	 * readWithRelations reads a record, the links to and from it and its storageTerms, using four
+	 * calls to storage running at the same time.
+	 * 
+	 * @return A CompletableFuture with a {@link RecordWithRelations}, completed exceptionally if
+	 *         any of the calls fail
+	 */
+	public CompletableFuture<RecordWithRelations> readWithRelations(String type, String id) {
+		CompletableFuture<DataRecordGroup> readRecord = read(type, id);
+		CompletableFuture<Set<Link>> linksTo = getLinksToRecord(type, id);
+		CompletableFuture<Set<Link>> linksFrom = getLinksFromRecord(type, id);
+		CompletableFuture<Set<StorageTerm>> storageTerms = getStorageTermsForRecord(type, id);
+		return CompletableFuture.allOf(readRecord, linksTo, linksFrom, storageTerms)
+				.thenApply(allDone -> new RecordWithRelations(readRecord.join(), linksTo.join(),
+						linksFrom.join(), storageTerms.join()));
+	}
+
+	/**
+	 * readManyFromTypes reads records of several types, using one call to readMany per type
+	 * with all calls running at the same time.
+	 * 
+	 * @param idsByType
+	 *            A Map with the ids to read keyed by type
+	 * @return A CompletableFuture with the results of readMany keyed by type, completed
+	 *         exceptionally if any of the reads fail
+	 */
+	public CompletableFuture<Map<String, StorageReadManyResult>> readManyFromTypes(
+			Map<String, ? extends Collection<String>> idsByType) {
+		Map<String, CompletableFuture<StorageReadManyResult>> futures = new LinkedHashMap<>();
+		idsByType.forEach((type, ids) -> futures.put(type, readMany(type, ids)));
+		return allOf(futures.values()).thenApply(allDone -> {
+			Map<String, StorageReadManyResult> results = new LinkedHashMap<>();
+			futures.forEach((type, future) -> results.put(type, future.join()));
+			return results;
+		});
+	}
+
+	/**
+	 * allOf returns a CompletableFuture that is completed with the results of all the specified
+	 * futures, in the same order, when all of them are completed.
+	 * 
+	 * @return A CompletableFuture with a List of the results, completed exceptionally if any of
+	 *         the futures completes exceptionally
+	 */
+	public static <T> CompletableFuture<List<T>> allOf(
+			Collection<CompletableFuture<T>> futures) {
+		CompletableFuture<?>[] futureArray = futures.toArray(CompletableFuture[]::new);
+		return CompletableFuture.allOf(futureArray).thenApply(
+				allDone -> futures.stream().map(CompletableFuture::join).toList());
+	}
+
+	Supplier<RecordStorage> onlyForTestGetRecordStorageSupplier() {
+		return recordStorageSupplier;
+	}
+
+	Executor onlyForTestGetExecutor() {
+		return executor;
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import se.uu.ub.cora.storage.CountMode;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * ParallelMultiTypeReader reads and counts records over several types, such as all implementing
+ * types of an abstract type, by querying all types at the same time using an
+ * {@link AsyncRecordStorage}, instead of one type after another. It is intended to be used by
+ * implementations of {@link RecordStorage#readList(List, Filter)} and
+ * {@link RecordStorage#getTotalNumberOfRecordsForTypes(List, Filter)}, and by code searching
+ * abstract types.
+ * <p>
+ * Records are merged in a stable order, all matching records of the first type in the order
+ * returned by storage, then all of the second type and so on. The range in the filter,
+ * {@link Filter#fromNo} and {@link Filter#toNo}, is applied to the merged records. How this is
+ * done depends on how deep in the merged records the range starts:
+ * <ul>
+ * <li>If fromNo is at most {@value #MAX_FROM_NO_FOR_SINGLE_PASS}, each type is read once, for all
+ * types at the same time, from the first match up to {@link Filter#toNo} and counted as requested
+ * in {@link Filter#countMode}, as any records in the range are among those. The records in the
+ * range are then picked from the merged records and the total number of matches is the sum of the
+ * totals returned for each type, see {@link CountMode#countForMergedResults(List, Filter)}. Reading
+ * each type once, instead of first counting and then reading, means that the records and the total
+ * number of matches for a type come from the same read, and that no exact count is made unless
+ * requested.</li>
+ * <li>If fromNo is larger, reading every type up to toNo would read far more records than are
+ * returned. Instead all types are first counted exactly, at the same time, and then only the types
+ * with matches in the range are read, at the same time, each asked only for its part of the range.
+ * The total number of matches is the sum of the counts, returned as requested by the count mode.
+ * Records created or deleted between the count and the read can make the returned range shift
+ * slightly.</li>
+ * </ul>
+ * Projected records are merged in the same way. Continuation tokens are not supported over several
+ * types. A fromNo below 1 is read as 1.
+ * <p>
+ * Exceptions thrown by RecordStorage for any type are thrown unchanged.
+ * <p>
+ * ParallelMultiTypeReader is threadsafe if the AsyncRecordStorage is threadsafe.
+ */
+public final class ParallelMultiTypeReader {
+	static final long MAX_FROM_NO_FOR_SINGLE_PASS = 100;
+	private final AsyncRecordStorage asyncRecordStorage;
+
+	public static ParallelMultiTypeReader usingAsyncRecordStorage(
+			AsyncRecordStorage asyncRecordStorage) {
+		return new ParallelMultiTypeReader(asyncRecordStorage);
+	}
+
+	private ParallelMultiTypeReader(AsyncRecordStorage asyncRecordStorage) {
+		this.asyncRecordStorage = asyncRecordStorage;
+	}
+
+	/**
+	 * readList reads the records matching the filter for all types, see
+	 * {@link RecordStorage#readList(List, Filter)}. The records are returned as
+	 * {@link StorageReadResult#listOfDataRecordGroups}.
+	 */
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		if (filter.fromNo > MAX_FROM_NO_FOR_SINGLE_PASS) {
+			return readListUsingCountsPerType(types, filter);
+		}
+		Filter typeFilter = createFilterForRange(filter, 1, filter.toNo, filter.countMode);
+		List<CompletableFuture<StorageReadResult>> readsForTypes = new ArrayList<>();
+		for (String type : types) {
+			readsForTypes.add(asyncRecordStorage.readList(type, typeFilter));
+		}
+		List<StorageReadResult> resultsForTypes = waitFor(AsyncRecordStorage.allOf(readsForTypes));
+		return mergeResults(resultsForTypes, filter);
+	}
+
+	private Filter createFilterForRange(Filter filter, long fromNo, long toNo,
+			CountMode countMode) {
+		Filter typeFilter = new Filter();
+		typeFilter.include = filter.include;
+		typeFilter.exclude = filter.exclude;
+		typeFilter.projection = filter.projection;
+		typeFilter.fromNo = fromNo;
+		typeFilter.toNo = toNo;
+		typeFilter.countMode = countMode;
+		typeFilter.countCap = filter.countCap;
+		return typeFilter;
+	}
+
+	private StorageReadResult mergeResults(List<StorageReadResult> resultsForTypes,
+			Filter filter) {
+		StorageReadResult result = new StorageReadResult();
+		long rangeStart = Math.max(0, filter.fromNo - 1);
+		long typeStart = 0;
+		for (StorageReadResult resultForType : resultsForTypes) {
+			typeStart += addRecordsInRange(result, resultForType, rangeStart - typeStart,
+					filter.toNo - typeStart);
+		}
+		result.start = Math.min(rangeStart, typeStart);
+		result.countMode = CountMode.modeForMergedResults(resultsForTypes, filter);
+		result.totalNumberOfMatches = CountMode.countForMergedResults(resultsForTypes, filter);
+		return result;
+	}
+
+	private StorageReadResult readListUsingCountsPerType(List<String> types, Filter filter) {
+		List<Long> counts = countPerType(types,
+				createFilterForRange(filter, 1, Long.MAX_VALUE, CountMode.EXACT));
+		List<CompletableFuture<StorageReadResult>> readsForTypes = new ArrayList<>();
+		long typeStart = 0;
+		for (int i = 0; i < types.size(); i++) {
+			long fromNo = Math.max(1, filter.fromNo - typeStart);
+			long toNo = Math.min(counts.get(i), filter.toNo - typeStart);
+			if (fromNo <= toNo) {
+				readsForTypes.add(asyncRecordStorage.readList(types.get(i),
+						createFilterForRange(filter, fromNo, toNo, CountMode.NONE)));
+			}
+			typeStart += counts.get(i);
+		}
+		List<StorageReadResult> resultsForTypes = waitFor(AsyncRecordStorage.allOf(readsForTypes));
+		return mergeResultsUsingCount(resultsForTypes, filter, typeStart);
+	}
+
+	private StorageReadResult mergeResultsUsingCount(List<StorageReadResult> resultsForTypes,
+			Filter filter, long numberOfMatches) {
+		StorageReadResult result = new StorageReadResult();
+		for (StorageReadResult resultForType : resultsForTypes) {
+			addRecordsInRange(result, resultForType, 0, Long.MAX_VALUE);
+		}
+		result.start = Math.min(filter.fromNo - 1, numberOfMatches);
+		result.countMode = CountMode.modeForResult(numberOfMatches, filter);
+		result.totalNumberOfMatches = CountMode.countForResult(numberOfMatches, filter);
+		return result;
+	}
+
+	private long addRecordsInRange(StorageReadResult result, StorageReadResult resultForType,
+			long startIndex, long endIndex) {
+		if (resultForType.projected) {
+			result.projected = true;
+			return addInRange(result.listOfProjectedRecords, resultForType.listOfProjectedRecords,
+					startIndex, endIndex);
+		}
+		return addInRange(result.listOfDataRecordGroups, resultForType.listOfDataRecordGroups,
+				startIndex, endIndex);
+	}
+
+	private <T> long addInRange(List<T> to, List<T> from, long startIndex, long endIndex) {
+		int fromIndex = Math.clamp(startIndex, 0, from.size());
+		int toIndex = Math.clamp(endIndex, fromIndex, from.size());
+		to.addAll(from.subList(fromIndex, toIndex));
+		return from.size();
+	}
+
+	/**
+	 * getTotalNumberOfRecordsForTypes counts the records matching the filter for all types at the
+	 * same time, see {@link RecordStorage#getTotalNumberOfRecordsForTypes(List, Filter)}.
+	 */
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		long numberOfMatches = sum(countPerType(types, filter));
+		return CountMode.countForResult(numberOfMatches, filter);
+	}
+
+	private List<Long> countPerType(List<String> types, Filter filter) {
+		List<CompletableFuture<Long>> countsForTypes = new ArrayList<>();
+		for (String type : types) {
+			countsForTypes
+					.add(asyncRecordStorage.getTotalNumberOfRecordsForTypes(List.of(type), filter));
+		}
+		return waitFor(AsyncRecordStorage.allOf(countsForTypes));
+	}
+
+	private long sum(List<Long> numbers) {
+		long sum = 0;
+		for (long number : numbers) {
+			sum += number;
+		}
+		return sum;
+	}
+
+	private <T> T waitFor(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			throw unwrap(e);
+		}
+	}
+
+	private RuntimeException unwrap(CompletionException exception) {
+		if (exception.getCause() instanceof RuntimeException runtimeException) {
+			return runtimeException;
+		}
+		return exception;
+	}
+
+	AsyncRecordStorage onlyForTestGetAsyncRecordStorage() {
+		return asyncRecordStorage;
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.async;
+
+import java.util.Set;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+
+/**
+ * RecordWithRelations contains a record together with its links and storageTerms, see
+ * {@link AsyncRecordStorage#readWithRelations(String, String)}.
+ * 
+ * @param record
+ *            The read record as a {@link DataRecordGroup}
+ * @param linksToRecord
+ *            A Set with the links from other records to the record
+ * @param linksFromRecord
+ *            A Set with the links from the record to other records
+ * @param storageTerms
+ *            A Set with the storageTerms stored for the record
+ */
+public record RecordWithRelations(DataRecordGroup record, Set<Link> linksToRecord,
+		Set<Link> linksFromRecord, Set<StorageTerm> storageTerms) {
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+import java.time.Duration;
+
+/**
+ * CachePolicy defines how records of a type are cached by a {@link RecordStorageCache}.
+ * 
+ * @param maxEntries
+ *            An int with the maximum number of records of the type to keep in the cache, 0 means
+ *            that records of the type are never cached.
+ * @param timeToLive
+ *            A Duration with how long a record is kept in the cache after it was read from storage
+ */
+public record CachePolicy(int maxEntries, Duration timeToLive) {
+	private static final Duration FOREVER = Duration.ofNanos(Long.MAX_VALUE);
+
+	/**
+	 * noCaching returns a CachePolicy where records are never cached
+	 */
+	public static CachePolicy noCaching() {
+		return new CachePolicy(0, Duration.ZERO);
+	}
+
+	/**
+	 * usingMaxEntries returns a CachePolicy where at most maxEntries records are cached, and
+	 * records are kept in the cache until they are evicted or changed.
+	 */
+	public static CachePolicy usingMaxEntries(int maxEntries) {
+		return new CachePolicy(maxEntries, FOREVER);
+	}
+
+	/**
+	 * usingMaxEntriesAndTimeToLive returns a CachePolicy where at most maxEntries records are
+	 * cached, and records are kept in the cache at most timeToLive.
+	 */
+	public static CachePolicy usingMaxEntriesAndTimeToLive(int maxEntries, Duration timeToLive) {
+		return new CachePolicy(maxEntries, timeToLive);
+	}
+
+	/**
+	 * cachingEnabled returns true if records should be cached using this policy
+	 */
+	public boolean cachingEnabled() {
+		return maxEntries > 0 && timeToLive.isPositive();
+	}
+}
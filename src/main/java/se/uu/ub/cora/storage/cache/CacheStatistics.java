@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+/**
+ * CacheStatistics contains a snapshot of statistics for a {@link RecordStorageCache}, or for one
+ * type in it.
+ * 
+ * @param hits
+ *            A long with the number of reads answered from the cache
+ * @param misses
+ *            A long with the number of reads that had to be answered by the storage
+ * @param evictions
+ *            A long with the number of records removed from the cache because the cache was full
+ *            or the record had expired
+ * @param invalidations
+ *            A long with the number of records removed from the cache because they were changed
+ * @param size
+ *            A long with the number of records currently in the cache
+ */
+public record CacheStatistics(long hits, long misses, long evictions, long invalidations,
+		long size) {
+
+	CacheStatistics add(CacheStatistics other) {
+		return new CacheStatistics(hits + other.hits, misses + other.misses,
+				evictions + other.evictions, invalidations + other.invalidations,
+				size + other.size);
+	}
+}
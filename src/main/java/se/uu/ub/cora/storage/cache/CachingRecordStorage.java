@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * CachingRecordStorage is a {@link RecordStorage} that decorates another RecordStorage and answers
+ * {@link #read(String, String)}, {@link #readIfExists(String, String)} and
+ * {@link #readMany(String, Collection)} using a {@link RecordStorageCache}. All other calls are
+ * passed on to the decorated RecordStorage.
+ * <p>
+ * Records created, updated or deleted through this RecordStorage are removed from the cache.
+ * Changes made by other processes must be reported to the cache through
+ * {@link RecordStorageCache#dataChanged(String, String, String)}.
+ * <p>
+ * CachingRecordStorage is threadsafe if the decorated RecordStorage is threadsafe.
+ */
+public class CachingRecordStorage implements RecordStorage {
+	private RecordStorage recordStorage;
+	private RecordStorageCache cache;
+
+	public static CachingRecordStorage usingRecordStorageAndCache(RecordStorage recordStorage,
+			RecordStorageCache cache) {
+		return new CachingRecordStorage(recordStorage, cache);
+	}
+
+	private CachingRecordStorage(RecordStorage recordStorage, RecordStorageCache cache) {
+		this.recordStorage = recordStorage;
+		this.cache = cache;
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public DataGroup read(List<String> types, String id) {
+		return recordStorage.read(types, id);
+	}
+
+	@Override
+	public DataRecordGroup read(String type, String id) {
+		return cache.read(recordStorage, type, id);
+	}
+
+	@Override
+	public Optional<DataRecordGroup> readIfExists(String type, String id) {
+		StorageReadManyResult result = cache.readMany(recordStorage, type, List.of(id));
+		return Optional.ofNullable(result.records().get(id));
+	}
+
+	@Override
+	public StorageReadManyResult readMany(String type, Collection<String> ids) {
+		return cache.readMany(recordStorage, type, ids);
+	}
+
+	@Override
+	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		try {
+			recordStorage.create(type, id, dataRecord, storageTerms, links, dataDivider);
+		} finally {
+			cache.invalidate(type, id);
+		}
+	}
+
+	@Override
+	public void deleteByTypeAndId(String type, String id) {
+		try {
+			recordStorage.deleteByTypeAndId(type, id);
+		} finally {
+			cache.invalidate(type, id);
+		}
+	}
+
+	@Override
+	public void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		try {
+			recordStorage.update(type, id, dataRecord, storageTerms, links, dataDivider);
+		} finally {
+			cache.invalidate(type, id);
+		}
+	}
+
+	@Override
+	public List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+		try {
+			return recordStorage.writeMany(writes);
+		} finally {
+			writes.forEach(write -> cache.invalidate(write.type(), write.id()));
+		}
+	}
+
+	@Override
+	public StorageReadResult readList(String type, Filter filter) {
+		return recordStorage.readList(type, filter);
+	}
+
+	@Override
+	public Stream<DataRecordGroup> readListAsStream(String type, Filter filter) {
+		return recordStorage.readListAsStream(type, filter);
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		return recordStorage.readList(types, filter);
+	}
+
+	@Override
+	public boolean recordExists(List<String> types, String id) {
+		return recordStorage.recordExists(types, id);
+	}
+
+	@Override
+	public Set<String> findExistingIds(List<String> types, Collection<String> ids) {
+		return recordStorage.findExistingIds(types, ids);
+	}
+
+	@Override
+	public boolean linksExistForRecord(String type, String id) {
+		return recordStorage.linksExistForRecord(type, id);
+	}
+
+	@Override
+	public Set<Link> getLinksToRecord(String type, String id) {
+		return recordStorage.getLinksToRecord(type, id);
+	}
+
+	@Override
+	public StorageLinksReadResult getLinksToRecord(String type, String id, int maxNumberOfLinks,
+			String continuationToken) {
+		return recordStorage.getLinksToRecord(type, id, maxNumberOfLinks, continuationToken);
+	}
+
+	@Override
+	public long countLinksToRecord(String type, String id) {
+		return recordStorage.countLinksToRecord(type, id);
+	}
+
+	@Override
+	public Map<String, Long> countLinksToRecordGroupedByType(String type, String id) {
+		return recordStorage.countLinksToRecordGroupedByType(type, id);
+	}
+
+	@Override
+	public Set<Link> getLinksFromRecord(String type, String id) {
+		return recordStorage.getLinksFromRecord(type, id);
+	}
+
+	@Override
+	public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
+		return recordStorage.getStorageTermsForRecord(type, id);
+	}
+
+	@Override
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		return recordStorage.getTotalNumberOfRecordsForTypes(types, filter);
+	}
+
+	RecordStorage onlyForTestGetRecordStorage() {
+		return recordStorage;
+	}
+
+	RecordStorageCache onlyForTestGetCache() {
+		return cache;
+	}
+}
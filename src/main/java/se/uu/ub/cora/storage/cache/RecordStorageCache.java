@@ -0,0 +1,266 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageInstanceProvider;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+
+/**
+ * RecordStorageCache is a threadsafe cache for records read from a {@link RecordStorage}. It is
+ * intended to be created once by a {@link RecordStorageInstanceProvider} and shared between all
+ * {@link CachingRecordStorage} instances it returns, and to be informed about changes made by other
+ * processes through {@link #dataChanged(String, String, String)}.
+ * <p>
+ * How records are cached is decided per type by a {@link CachePolicy}, types without a specific
+ * policy use the default policy. Records of types where caching is not enabled are always read
+ * from storage.
+ * <p>
+ * Records are cached as {@link DataGroup}s and a new {@link DataRecordGroup} is created from the
+ * cached DataGroup for each read, so that callers adding or removing parts of a returned record,
+ * as when adding action links or redacting, do not change what is returned to other callers.
+ */
+public final class RecordStorageCache {
+	private final CachePolicy defaultPolicy;
+	private final Map<String, CachePolicy> policiesForTypes;
+	private final Map<String, TypeCache> typeCaches = new ConcurrentHashMap<>();
+	private LongSupplier nanoClock = System::nanoTime;
+
+	public static RecordStorageCache usingDefaultPolicyAndPoliciesForTypes(
+			CachePolicy defaultPolicy, Map<String, CachePolicy> policiesForTypes) {
+		return new RecordStorageCache(defaultPolicy, policiesForTypes);
+	}
+
+	private RecordStorageCache(CachePolicy defaultPolicy,
+			Map<String, CachePolicy> policiesForTypes) {
+		this.defaultPolicy = defaultPolicy;
+		this.policiesForTypes = Map.copyOf(policiesForTypes);
+	}
+
+	/**
+	 * read returns the record with the specified type and id from the cache if it is cached,
+	 * otherwise is it read from the provided recordStorage and cached according to the policy for
+	 * the type.
+	 * 
+	 * @param recordStorage
+	 *            The {@link RecordStorage} to read the record from if it is not cached
+	 * @param type
+	 *            A String with the recordType
+	 * @param id
+	 *            A String with the records id
+	 * @return A {@link DataRecordGroup} with the requested records data
+	 */
+	public DataRecordGroup read(RecordStorage recordStorage, String type, String id) {
+		TypeCache typeCache = getTypeCacheIfCachingEnabled(type);
+		if (typeCache == null) {
+			return recordStorage.read(type, id);
+		}
+		return readUsingTypeCache(recordStorage, typeCache, type, id);
+	}
+
+	private TypeCache getTypeCacheIfCachingEnabled(String type) {
+		TypeCache typeCache = typeCaches.get(type);
+		if (typeCache != null) {
+			return typeCache;
+		}
+		CachePolicy policy = policiesForTypes.getOrDefault(type, defaultPolicy);
+		if (!policy.cachingEnabled()) {
+			return null;
+		}
+		return typeCaches.computeIfAbsent(type, k -> new TypeCache(policy, this::currentNanoTime));
+	}
+
+	private long currentNanoTime() {
+		return nanoClock.getAsLong();
+	}
+
+	private DataRecordGroup readUsingTypeCache(RecordStorage recordStorage, TypeCache typeCache,
+			String type, String id) {
+		DataGroup cached = typeCache.get(id);
+		if (cached != null) {
+			return toNewDataRecordGroup(cached);
+		}
+		long generation = typeCache.getGeneration();
+		DataRecordGroup dataRecordGroup = recordStorage.read(type, id);
+		return cacheAndReturnNewDataRecordGroup(typeCache, id, dataRecordGroup, generation);
+	}
+
+	private DataRecordGroup toNewDataRecordGroup(DataGroup dataGroup) {
+		return DataProvider.createRecordGroupFromDataGroup(dataGroup);
+	}
+
+	private DataRecordGroup cacheAndReturnNewDataRecordGroup(TypeCache typeCache, String id,
+			DataRecordGroup dataRecordGroup, long generation) {
+		DataGroup dataGroup = DataProvider.createGroupFromRecordGroup(dataRecordGroup);
+		typeCache.putIfNotChangedSince(id, dataGroup, generation);
+		return toNewDataRecordGroup(dataGroup);
+	}
+
+	/**
+	 * readMany returns the records with the specified type and ids, see
+	 * {@link RecordStorage#readMany(String, Collection)}. Records found in the cache are returned
+	 * from the cache, the others are read from the provided recordStorage, using one call to
+	 * readMany, and cached according to the policy for the type.
+	 * 
+	 * @param recordStorage
+	 *            The {@link RecordStorage} to read records from if they are not cached
+	 * @param type
+	 *            A String with the recordType
+	 * @param ids
+	 *            A Collection of Strings with the ids of the records to read
+	 * @return A {@link StorageReadManyResult} with the found records and the missing ids
+	 */
+	public StorageReadManyResult readMany(RecordStorage recordStorage, String type,
+			Collection<String> ids) {
+		TypeCache typeCache = getTypeCacheIfCachingEnabled(type);
+		if (typeCache == null) {
+			return recordStorage.readMany(type, ids);
+		}
+		return readManyUsingTypeCache(recordStorage, typeCache, type, ids);
+	}
+
+	private StorageReadManyResult readManyUsingTypeCache(RecordStorage recordStorage,
+			TypeCache typeCache, String type, Collection<String> ids) {
+		Set<String> uniqueIds = new LinkedHashSet<>(ids);
+		Map<String, DataRecordGroup> cachedRecords = new LinkedHashMap<>();
+		List<String> idsToRead = new ArrayList<>();
+		for (String id : uniqueIds) {
+			addCachedRecordOrIdToRead(typeCache, id, cachedRecords, idsToRead);
+		}
+		if (idsToRead.isEmpty()) {
+			return new StorageReadManyResult(cachedRecords, new LinkedHashSet<>());
+		}
+		long generation = typeCache.getGeneration();
+		StorageReadManyResult readResult = recordStorage.readMany(type, idsToRead);
+		Map<String, DataRecordGroup> readRecords = new LinkedHashMap<>();
+		readResult.records().forEach((id, dataRecordGroup) -> readRecords.put(id,
+				cacheAndReturnNewDataRecordGroup(typeCache, id, dataRecordGroup, generation)));
+		return combineInRequestedOrder(uniqueIds, cachedRecords,
+				new StorageReadManyResult(readRecords, readResult.missingIds()));
+	}
+
+	private void addCachedRecordOrIdToRead(TypeCache typeCache, String id,
+			Map<String, DataRecordGroup> cachedRecords, List<String> idsToRead) {
+		DataGroup cached = typeCache.get(id);
+		if (cached != null) {
+			cachedRecords.put(id, toNewDataRecordGroup(cached));
+		} else {
+			idsToRead.add(id);
+		}
+	}
+
+	private StorageReadManyResult combineInRequestedOrder(Set<String> uniqueIds,
+			Map<String, DataRecordGroup> cachedRecords, StorageReadManyResult readResult) {
+		Map<String, DataRecordGroup> records = new LinkedHashMap<>();
+		for (String id : uniqueIds) {
+			DataRecordGroup dataRecordGroup = cachedRecords.containsKey(id) ? cachedRecords.get(id)
+					: readResult.records().get(id);
+			if (dataRecordGroup != null) {
+				records.put(id, dataRecordGroup);
+			}
+		}
+		return new StorageReadManyResult(records, readResult.missingIds());
+	}
+
+	/**
+	 * invalidate removes the record with the specified type and id from the cache, it should be
+	 * called when a record is created, updated or deleted.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 */
+	public void invalidate(String type, String id) {
+		TypeCache typeCache = typeCaches.get(type);
+		if (typeCache != null) {
+			typeCache.invalidate(id);
+		}
+	}
+
+	/**
+	 * invalidateAll removes all records from the cache.
+	 */
+	public void invalidateAll() {
+		typeCaches.values().forEach(TypeCache::invalidateAll);
+	}
+
+	/**
+	 * dataChanged removes a changed record from the cache. It is intended to be called from
+	 * {@link RecordStorageInstanceProvider#dataChanged(String, String, String)} so that changes
+	 * made by other processes or servers are reflected in the cache.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @param action
+	 *            A String with the action of how the data was changed ("create", "update" or
+	 *            "delete").
+	 */
+	public void dataChanged(String type, String id, String action) {
+		invalidate(type, id);
+	}
+
+	/**
+	 * getStatistics returns a snapshot of the statistics for all types in the cache.
+	 * 
+	 * @return A {@link CacheStatistics} with the statistics for all types
+	 */
+	public CacheStatistics getStatistics() {
+		CacheStatistics statistics = new CacheStatistics(0, 0, 0, 0, 0);
+		for (TypeCache typeCache : typeCaches.values()) {
+			statistics = statistics.add(typeCache.getStatistics());
+		}
+		return statistics;
+	}
+
+	/**
+	 * getStatisticsForType returns a snapshot of the statistics for one type in the cache. Types
+	 * that are not cached have no statistics and all values are returned as 0.
+	 * 
+	 * @param type
+	 *            A String with the recordType
+	 * @return A {@link CacheStatistics} with the statistics for the type
+	 */
+	public CacheStatistics getStatisticsForType(String type) {
+		TypeCache typeCache = typeCaches.get(type);
+		if (typeCache == null) {
+			return new CacheStatistics(0, 0, 0, 0, 0);
+		}
+		return typeCache.getStatistics();
+	}
+
+	void onlyForTestSetNanoClock(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import se.uu.ub.cora.data.DataGroup;
+
+/**
+ * TypeCache holds the cached records for one type in a {@link RecordStorageCache}.
+ * <p>
+ * TypeCache is threadsafe without using locks. When the cache is full are records evicted using
+ * the clock (second chance) algorithm, where records that have been read since they last were
+ * considered for eviction are kept and the others are removed.
+ * <p>
+ * To prevent a record read from storage before a change from being put in the cache after the
+ * change is a generation counter increased for each invalidation, records are only put in the
+ * cache if no invalidation has been made since the generation was read.
+ */
+final class TypeCache {
+	private final CachePolicy policy;
+	private final long timeToLiveInNanos;
+	private final LongSupplier nanoClock;
+	private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+	private final Queue<CacheEntry> evictionQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger evictionQueueLength = new AtomicInteger();
+	private final AtomicLong generation = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	TypeCache(CachePolicy policy, LongSupplier nanoClock) {
+		this.policy = policy;
+		this.timeToLiveInNanos = policy.timeToLive().toNanos();
+		this.nanoClock = nanoClock;
+	}
+
+	DataGroup get(String id) {
+		CacheEntry entry = entries.get(id);
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		if (hasExpired(entry)) {
+			removeExpired(entry);
+			misses.increment();
+			return null;
+		}
+		entry.accessed = true;
+		hits.increment();
+		return entry.dataGroup;
+	}
+
+	private boolean hasExpired(CacheEntry entry) {
+		return nanoClock.getAsLong() - entry.readAtNanos >= timeToLiveInNanos;
+	}
+
+	private void removeExpired(CacheEntry entry) {
+		if (entries.remove(entry.id, entry)) {
+			evictions.increment();
+		}
+	}
+
+	long getGeneration() {
+		return generation.get();
+	}
+
+	void putIfNotChangedSince(String id, DataGroup dataGroup, long generationWhenRead) {
+		if (generation.get() != generationWhenRead) {
+			return;
+		}
+		CacheEntry entry = new CacheEntry(id, dataGroup, nanoClock.getAsLong());
+		entries.put(id, entry);
+		if (generation.get() != generationWhenRead) {
+			entries.remove(id, entry);
+			return;
+		}
+		addToEvictionQueue(entry);
+		evictWhileTooLarge();
+	}
+
+	private void addToEvictionQueue(CacheEntry entry) {
+		evictionQueue.offer(entry);
+		if (evictionQueueLength.incrementAndGet() > 2L * policy.maxEntries()) {
+			removeEntriesNoLongerInCacheFromEvictionQueue();
+		}
+	}
+
+	private void removeEntriesNoLongerInCacheFromEvictionQueue() {
+		Iterator<CacheEntry> iterator = evictionQueue.iterator();
+		while (iterator.hasNext()) {
+			if (isNoLongerInCache(iterator.next())) {
+				iterator.remove();
+				evictionQueueLength.decrementAndGet();
+			}
+		}
+	}
+
+	private boolean isNoLongerInCache(CacheEntry entry) {
+		return entries.get(entry.id) != entry;
+	}
+
+	private void evictWhileTooLarge() {
+		while (entries.size() > policy.maxEntries()) {
+			CacheEntry candidate = evictionQueue.poll();
+			if (candidate == null) {
+				return;
+			}
+			evictionQueueLength.decrementAndGet();
+			evictOrGiveSecondChance(candidate);
+		}
+	}
+
+	private void evictOrGiveSecondChance(CacheEntry candidate) {
+		if (isNoLongerInCache(candidate)) {
+			return;
+		}
+		if (candidate.accessed) {
+			candidate.accessed = false;
+			evictionQueue.offer(candidate);
+			evictionQueueLength.incrementAndGet();
+		} else if (entries.remove(candidate.id, candidate)) {
+			evictions.increment();
+		}
+	}
+
+	void invalidate(String id) {
+		generation.incrementAndGet();
+		if (entries.remove(id) != null) {
+			invalidations.increment();
+		}
+	}
+
+	void invalidateAll() {
+		generation.incrementAndGet();
+		for (String id : entries.keySet()) {
+			if (entries.remove(id) != null) {
+				invalidations.increment();
+			}
+		}
+	}
+
+	CacheStatistics getStatistics() {
+		return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+				entries.size());
+	}
+
+	private static final class CacheEntry {
+		private final String id;
+		private final DataGroup dataGroup;
+		private final long readAtNanos;
+		private volatile boolean accessed = false;
+
+		CacheEntry(String id, DataGroup dataGroup, long readAtNanos) {
+			this.id = id;
+			this.dataGroup = dataGroup;
+			this.readAtNanos = readAtNanos;
+		}
+	}
+}
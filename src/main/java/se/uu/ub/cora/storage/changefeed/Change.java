@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import java.time.Instant;
+
+/**
+ * Change is one change of a record, as logged by a {@link ChangeLog}.
+ * 
+ * @param sequenceNumber
+ *            A long with the position of the change in the log, increasing by one for each change
+ * @param timestamp
+ *            An Instant with when the change was logged
+ * @param type
+ *            A String with the records type
+ * @param id
+ *            A String with the records id
+ * @param action
+ *            A String with how the record was changed ("create", "update" or "delete")
+ */
+public record Change(long sequenceNumber, Instant timestamp, String type, String id,
+		String action) {
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import java.util.List;
+
+/**
+ * ChangeBatch contains a batch of changes read from a {@link ChangeLog}, see
+ * {@link ChangeLog#readAfter(long, int)}.
+ * 
+ * @param changes
+ *            A List with the read {@link Change}s, ordered by sequenceNumber
+ * @param changesMissing
+ *            A boolean, true if changes directly after the requested sequenceNumber have been
+ *            removed from the log by retention, in which case the reader has missed changes and
+ *            must rebuild its state, for instance by a full reindex
+ * @param lastSequenceNumber
+ *            A long with the sequenceNumber to read after in the next read, to continue where this
+ *            batch ended
+ */
+public record ChangeBatch(List<Change> changes, boolean changesMissing, long lastSequenceNumber) {
+
+	/**
+	 * isEmpty returns true if the batch has no changes, the reader has caught up with the log.
+	 */
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+}
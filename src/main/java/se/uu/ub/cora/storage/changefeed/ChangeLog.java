@@ -0,0 +1,469 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * ChangeLog is a local append-only log of changes to records, where each change gets a sequence
+ * number one higher than the previous change. It makes it possible for search indexers, caches and
+ * other readers to process changes incrementally and to continue from the last processed change
+ * after a restart, instead of polling or rebuilding their state from all records.
+ * <p>
+ * Changes are written to segment files in the log directory, named after the sequence number of
+ * their first change. Each change is synced to disk before {@link #append(String, String, String)}
+ * returns, and the directory is synced to disk when a new segment is started, so changes survive a
+ * crash of the process as well as of the operating system. When the log is opened, the last
+ * sequence number is read from the last segment, so sequence numbers keep increasing over
+ * restarts and crashes, and a sequence number returned by append is never given to another change.
+ * A partly written last change, from a crash during append, is removed.
+ * <p>
+ * Each segment keeps a sparse in memory index with the position in the file of every 128th
+ * change, so that {@link #readAfter(long, int)} can start reading close to the requested change
+ * instead of at the start of the segment. The index of a segment found when the log is opened is
+ * built as the segment is read.
+ * <p>
+ * Old segments are removed as defined by a {@link ChangeLogRetention}, when a new segment is
+ * started and when the log is opened. Readers that fall behind retention are told so by
+ * {@link ChangeBatch#changesMissing()}.
+ * <p>
+ * ChangeLog is threadsafe. Only one ChangeLog may use a directory at a time.
+ */
+public final class ChangeLog implements AutoCloseable {
+	private static final String SEGMENT_PREFIX = "changes-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final char SEPARATOR = '\t';
+	private static final int INDEX_INTERVAL = 128;
+	private final Path directory;
+	private final ChangeLogRetention retention;
+	private final ReentrantLock appendLock = new ReentrantLock();
+	private final ReentrantReadWriteLock segmentsLock = new ReentrantReadWriteLock();
+	private final List<Segment> segments = new ArrayList<>();
+	private FileChannel channel;
+	private BufferedWriter writer;
+	private Segment currentSegment;
+	private long changesInCurrentSegment = 0;
+	private long bytesInCurrentSegment = 0;
+	private volatile long lastSequenceNumber = 0;
+	private long numberOfChangesSyncedToDisk = 0;
+	private boolean closed = false;
+	private Clock clock = Clock.systemUTC();
+
+	private record Segment(long firstSequenceNumber, Path path,
+			NavigableMap<Long, Long> positions) {
+		Segment(long firstSequenceNumber, Path path) {
+			this(firstSequenceNumber, path, new ConcurrentSkipListMap<>());
+		}
+
+		void indexIfAtInterval(long sequenceNumber, long position) {
+			if ((sequenceNumber - firstSequenceNumber) % INDEX_INTERVAL == 0) {
+				positions.put(sequenceNumber, position);
+			}
+		}
+
+		long getPositionToReadFrom(long sequenceNumber) {
+			Entry<Long, Long> indexed = positions.floorEntry(sequenceNumber);
+			return indexed == null ? 0 : indexed.getValue();
+		}
+	}
+
+	/**
+	 * usingDirectoryAndRetention opens the ChangeLog in the directory, creating the directory if
+	 * it does not exist.
+	 * 
+	 * @param directory
+	 *            A Path to the directory to keep the segment files in
+	 * @param retention
+	 *            A {@link ChangeLogRetention} defining how changes are kept
+	 * @return A ChangeLog
+	 */
+	public static ChangeLog usingDirectoryAndRetention(Path directory,
+			ChangeLogRetention retention) {
+		ChangeLog changeLog = new ChangeLog(directory, retention);
+		changeLog.open();
+		return changeLog;
+	}
+
+	private ChangeLog(Path directory, ChangeLogRetention retention) {
+		this.directory = directory;
+		this.retention = retention;
+	}
+
+	private void open() {
+		try {
+			Files.createDirectories(directory);
+			segments.addAll(findSegments());
+			if (!segments.isEmpty()) {
+				recoverLastSegment(segments.get(segments.size() - 1));
+			}
+			removeSegmentsOutsideRetention();
+		} catch (IOException e) {
+			throw StorageException.withMessageAndException(
+					"Could not open change log in: " + directory, e);
+		}
+	}
+
+	private List<Segment> findSegments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(this::isSegment).map(this::toSegment)
+					.sorted((a, b) -> Long.compare(a.firstSequenceNumber(),
+							b.firstSequenceNumber()))
+					.toList();
+		}
+	}
+
+	private boolean isSegment(Path path) {
+		String fileName = path.getFileName().toString();
+		return fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX);
+	}
+
+	private Segment toSegment(Path path) {
+		String fileName = path.getFileName().toString();
+		String number = fileName.substring(SEGMENT_PREFIX.length(),
+				fileName.length() - SEGMENT_SUFFIX.length());
+		return new Segment(Long.parseLong(number), path);
+	}
+
+	private void recoverLastSegment(Segment segment) throws IOException {
+		removePartlyWrittenChange(segment.path());
+		lastSequenceNumber = segment.firstSequenceNumber() - 1;
+		try (BufferedReader reader = Files.newBufferedReader(segment.path(),
+				StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lastSequenceNumber = ChangeLogFormat.fromLine(line).sequenceNumber();
+				segment.indexIfAtInterval(lastSequenceNumber, bytesInCurrentSegment);
+				bytesInCurrentSegment += numberOfBytesIn(line);
+				changesInCurrentSegment++;
+			}
+		}
+		currentSegment = segment;
+		openWriter(segment.path());
+	}
+
+	private long numberOfBytesIn(String line) {
+		return line.getBytes(StandardCharsets.UTF_8).length + 1L;
+	}
+
+	private void removePartlyWrittenChange(Path path) throws IOException {
+		byte[] content = Files.readAllBytes(path);
+		int length = content.length;
+		while (length > 0 && content[length - 1] != '\n') {
+			length--;
+		}
+		if (length < content.length) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.truncate(length);
+			}
+		}
+	}
+
+	private void openWriter(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * append adds a change to the log and returns its sequence number. The change is synced to
+	 * disk before append returns.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @param action
+	 *            A String with how the record was changed ("create", "update" or "delete")
+	 * @return A long with the sequence number of the change
+	 */
+	public long append(String type, String id, String action) {
+		appendLock.lock();
+		try {
+			ensureOpen();
+			long sequenceNumber = lastSequenceNumber + 1;
+			startNewSegmentIfNeeded(sequenceNumber);
+			writeChange(new Change(sequenceNumber, clock.instant(), type, id, action));
+			lastSequenceNumber = sequenceNumber;
+			return sequenceNumber;
+		} catch (IOException e) {
+			throw StorageException.withMessageAndException(
+					"Could not append change to change log in: " + directory, e);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	private void ensureOpen() {
+		if (closed) {
+			throw StorageException.withMessage("Change log is closed");
+		}
+	}
+
+	private void startNewSegmentIfNeeded(long sequenceNumber) throws IOException {
+		if (writer == null || changesInCurrentSegment >= retention.changesPerSegment()) {
+			closeCurrentSegment();
+			startSegment(sequenceNumber);
+		}
+	}
+
+	private void closeCurrentSegment() throws IOException {
+		if (writer != null) {
+			writer.flush();
+			channel.force(true);
+			writer.close();
+			writer = null;
+			channel = null;
+		}
+	}
+
+	private void startSegment(long sequenceNumber) throws IOException {
+		Path path = directory
+				.resolve(SEGMENT_PREFIX + String.format("%020d", sequenceNumber) + SEGMENT_SUFFIX);
+		openWriter(path);
+		syncDirectoryToDisk();
+		currentSegment = new Segment(sequenceNumber, path);
+		changesInCurrentSegment = 0;
+		bytesInCurrentSegment = 0;
+		segmentsLock.writeLock().lock();
+		try {
+			segments.add(currentSegment);
+			removeSegmentsOutsideRetention();
+		} finally {
+			segmentsLock.writeLock().unlock();
+		}
+	}
+
+	private void syncDirectoryToDisk() throws IOException {
+		try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			directoryChannel.force(true);
+		}
+	}
+
+	private void removeSegmentsOutsideRetention() throws IOException {
+		while (segments.size() > 1 && oldestSegmentIsOutsideRetention()) {
+			Files.deleteIfExists(segments.remove(0).path());
+		}
+	}
+
+	private boolean oldestSegmentIsOutsideRetention() throws IOException {
+		if (segments.size() > retention.maxNumberOfSegments()) {
+			return true;
+		}
+		Instant lastChange = Files.getLastModifiedTime(segments.get(0).path()).toInstant();
+		return lastChange.plus(retention.maxAge()).isBefore(clock.instant());
+	}
+
+	private void writeChange(Change change) throws IOException {
+		String line = ChangeLogFormat.toLine(change);
+		writer.write(line);
+		writer.write('\n');
+		writer.flush();
+		channel.force(false);
+		numberOfChangesSyncedToDisk++;
+		currentSegment.indexIfAtInterval(change.sequenceNumber(), bytesInCurrentSegment);
+		bytesInCurrentSegment += numberOfBytesIn(line);
+		changesInCurrentSegment++;
+	}
+
+	/**
+	 * readAfter reads a batch of changes following the change with the specified sequence number.
+	 * A reader starts by reading after 0 and continues by reading after
+	 * {@link ChangeBatch#lastSequenceNumber()} of the previous batch, which it can store to
+	 * continue after a restart.
+	 * 
+	 * @param sequenceNumber
+	 *            A long with the sequence number of the last change already read
+	 * @param maxNumberOfChanges
+	 *            An int with the maximum number of changes to read
+	 * @return A {@link ChangeBatch} with the changes
+	 */
+	public ChangeBatch readAfter(long sequenceNumber, int maxNumberOfChanges) {
+		long lastWritten = lastSequenceNumber;
+		segmentsLock.readLock().lock();
+		try {
+			long firstAvailable = getFirstAvailable(lastWritten);
+			long from = Math.max(sequenceNumber + 1, firstAvailable);
+			long to = Math.min(lastWritten, from + maxNumberOfChanges - 1);
+			List<Change> changes = readChanges(from, to);
+			long lastRead = changes.isEmpty() ? from - 1
+					: changes.get(changes.size() - 1).sequenceNumber();
+			return new ChangeBatch(changes, sequenceNumber + 1 < firstAvailable, lastRead);
+		} catch (IOException e) {
+			throw StorageException.withMessageAndException(
+					"Could not read change log in: " + directory, e);
+		} finally {
+			segmentsLock.readLock().unlock();
+		}
+	}
+
+	private long getFirstAvailable(long lastWritten) {
+		if (segments.isEmpty()) {
+			return lastWritten + 1;
+		}
+		return segments.get(0).firstSequenceNumber();
+	}
+
+	private List<Change> readChanges(long from, long to) throws IOException {
+		List<Change> changes = new ArrayList<>();
+		for (int i = findSegmentIndex(from); i < segments.size() && changes.size() <= to - from;
+				i++) {
+			readChangesFromSegment(segments.get(i), from, to, changes);
+		}
+		return changes;
+	}
+
+	private int findSegmentIndex(long sequenceNumber) {
+		int index = 0;
+		for (int i = 0; i < segments.size(); i++) {
+			if (segments.get(i).firstSequenceNumber() <= sequenceNumber) {
+				index = i;
+			}
+		}
+		return index;
+	}
+
+	private void readChangesFromSegment(Segment segment, long from, long to, List<Change> changes)
+			throws IOException {
+		long position = segment.getPositionToReadFrom(from);
+		try (BufferedReader reader = openReaderAtPosition(segment.path(), position)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				long sequenceNumber = readSequenceNumber(line);
+				if (sequenceNumber > to) {
+					return;
+				}
+				segment.indexIfAtInterval(sequenceNumber, position);
+				if (sequenceNumber >= from) {
+					changes.add(ChangeLogFormat.fromLine(line));
+				}
+				position += numberOfBytesIn(line);
+			}
+		}
+	}
+
+	private BufferedReader openReaderAtPosition(Path path, long position) throws IOException {
+		SeekableByteChannel channel = Files.newByteChannel(path);
+		try {
+			channel.position(position);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		return new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+	}
+
+	private long readSequenceNumber(String line) {
+		int separatorIndex = line.indexOf(SEPARATOR);
+		if (separatorIndex < 0) {
+			return Long.MAX_VALUE;
+		}
+		return Long.parseLong(line.substring(0, separatorIndex));
+	}
+
+	/**
+	 * getLastSequenceNumber returns the sequence number of the last change in the log, or 0 if no
+	 * change has been logged.
+	 */
+	public long getLastSequenceNumber() {
+		return lastSequenceNumber;
+	}
+
+	/**
+	 * getFirstSequenceNumber returns the sequence number of the first change kept in the log. If
+	 * the log is empty is the sequence number the next change will get returned.
+	 */
+	public long getFirstSequenceNumber() {
+		segmentsLock.readLock().lock();
+		try {
+			return getFirstAvailable(lastSequenceNumber);
+		} finally {
+			segmentsLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * close syncs the current segment to disk and closes the log. Calling close more than once
+	 * has no effect.
+	 */
+	@Override
+	public void close() {
+		appendLock.lock();
+		try {
+			closed = true;
+			closeCurrentSegment();
+		} catch (IOException e) {
+			throw StorageException.withMessageAndException(
+					"Could not close change log in: " + directory, e);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	void onlyForTestSetClock(Clock clock) {
+		this.clock = clock;
+	}
+
+	List<Long> onlyForTestGetIndexedSequenceNumbers(int segmentNumber) {
+		segmentsLock.readLock().lock();
+		try {
+			return List.copyOf(segments.get(segmentNumber).positions().keySet());
+		} finally {
+			segmentsLock.readLock().unlock();
+		}
+	}
+
+	long onlyForTestGetNumberOfChangesSyncedToDisk() {
+		appendLock.lock();
+		try {
+			return numberOfChangesSyncedToDisk;
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	int onlyForTestGetNumberOfSegments() {
+		segmentsLock.readLock().lock();
+		try {
+			return segments.size();
+		} finally {
+			segmentsLock.readLock().unlock();
+		}
+	}
+}
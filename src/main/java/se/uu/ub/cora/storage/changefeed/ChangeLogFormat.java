@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import java.time.Instant;
+
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * ChangeLogFormat converts changes to and from the lines written in change log segments. A line
+ * has the fields sequenceNumber, timestamp in epoch milliseconds, type, id and action separated by
+ * tabs. Backslashes, tabs and line breaks in type, id and action are escaped.
+ */
+final class ChangeLogFormat {
+	private static final char SEPARATOR = '\t';
+	private static final int NUMBER_OF_FIELDS = 5;
+
+	private ChangeLogFormat() {
+	}
+
+	static String toLine(Change change) {
+		return change.sequenceNumber() + "" + SEPARATOR + change.timestamp().toEpochMilli()
+				+ SEPARATOR + escape(change.type()) + SEPARATOR + escape(change.id())
+				+ SEPARATOR + escape(change.action());
+	}
+
+	private static String escape(String value) {
+		StringBuilder escaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '\\' -> escaped.append("\\\\");
+			case '\t' -> escaped.append("\\t");
+			case '\n' -> escaped.append("\\n");
+			case '\r' -> escaped.append("\\r");
+			default -> escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	static Change fromLine(String line) {
+		String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+		if (fields.length != NUMBER_OF_FIELDS) {
+			throw StorageException.withMessage("Invalid change log line: " + line);
+		}
+		return new Change(Long.parseLong(fields[0]),
+				Instant.ofEpochMilli(Long.parseLong(fields[1])), unescape(fields[2]),
+				unescape(fields[3]), unescape(fields[4]));
+	}
+
+	private static String unescape(String value) {
+		StringBuilder unescaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' && i + 1 < value.length()) {
+				i++;
+				unescaped.append(unescapeChar(value.charAt(i)));
+			} else {
+				unescaped.append(c);
+			}
+		}
+		return unescaped.toString();
+	}
+
+	private static char unescapeChar(char c) {
+		return switch (c) {
+		case 't' -> '\t';
+		case 'n' -> '\n';
+		case 'r' -> '\r';
+		default -> c;
+		};
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import java.time.Duration;
+
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * ChangeLogRetention defines how a {@link ChangeLog} is split into segment files and how long
+ * segments are kept. Retention removes whole segments, the segment currently written to is never
+ * removed.
+ * 
+ * @param changesPerSegment
+ *            An int with the number of changes written to a segment before a new one is started
+ * @param maxNumberOfSegments
+ *            An int with the largest number of segments to keep
+ * @param maxAge
+ *            A Duration with how long a segment is kept after its last change was written
+ */
+public record ChangeLogRetention(int changesPerSegment, int maxNumberOfSegments,
+		Duration maxAge) {
+
+	public ChangeLogRetention {
+		if (changesPerSegment < 1 || maxNumberOfSegments < 1) {
+			throw StorageException.withMessage(
+					"ChangesPerSegment and maxNumberOfSegments must be at least 1");
+		}
+		if (!maxAge.isPositive()) {
+			throw StorageException.withMessage("MaxAge must be positive");
+		}
+	}
+
+	/**
+	 * defaultRetention returns a ChangeLogRetention keeping changes for 7 days, in segments of
+	 * 100 000 changes, and at most 100 segments.
+	 */
+	public static ChangeLogRetention defaultRetention() {
+		return new ChangeLogRetention(100_000, 100, Duration.ofDays(7));
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageInstanceProvider;
+
+/**
+ * ChangeLoggingRecordStorageInstanceProvider is a {@link RecordStorageInstanceProvider} that
+ * decorates another RecordStorageInstanceProvider and appends every change reported through
+ * {@link #dataChanged(String, String, String)} to a {@link ChangeLog}, before passing it on. This
+ * turns the dataChanged callbacks into an ordered change feed that readers can process at their
+ * own pace.
+ * <p>
+ * All other calls are passed on to the decorated RecordStorageInstanceProvider.
+ */
+public final class ChangeLoggingRecordStorageInstanceProvider
+		implements RecordStorageInstanceProvider {
+	private final RecordStorageInstanceProvider instanceProvider;
+	private final ChangeLog changeLog;
+
+	public static ChangeLoggingRecordStorageInstanceProvider usingInstanceProviderAndChangeLog(
+			RecordStorageInstanceProvider instanceProvider, ChangeLog changeLog) {
+		return new ChangeLoggingRecordStorageInstanceProvider(instanceProvider, changeLog);
+	}
+
+	private ChangeLoggingRecordStorageInstanceProvider(
+			RecordStorageInstanceProvider instanceProvider, ChangeLog changeLog) {
+		this.instanceProvider = instanceProvider;
+		this.changeLog = changeLog;
+	}
+
+	@Override
+	public int getOrderToSelectImplementionsBy() {
+		return instanceProvider.getOrderToSelectImplementionsBy();
+	}
+
+	@Override
+	public RecordStorage getRecordStorage() {
+		return instanceProvider.getRecordStorage();
+	}
+
+	@Override
+	public boolean canReuseRecordStorage() {
+		return instanceProvider.canReuseRecordStorage();
+	}
+
+	@Override
+	public void dataChanged(String type, String id, String action) {
+		changeLog.append(type, id, action);
+		instanceProvider.dataChanged(type, id, action);
+	}
+
+	RecordStorageInstanceProvider onlyForTestGetInstanceProvider() {
+		return instanceProvider;
+	}
+
+	ChangeLog onlyForTestGetChangeLog() {
+		return changeLog;
+	}
+}
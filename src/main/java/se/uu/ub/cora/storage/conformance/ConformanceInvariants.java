@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * ConformanceInvariants checks, when no workers are running, that a RecordStorage holds exactly
+ * the records, storageTerms and links the workers expect.
+ * <p>
+ * The total and group counts are compared with the number of records the workers expect, they
+ * therefore require that the type of the workload had no records before the run, as ensured by
+ * {@link ConformanceKit#run(Workload)}.
+ */
+final class ConformanceInvariants {
+	private final RecordStorage recordStorage;
+	private final Workload workload;
+	private final List<String> violations = new ArrayList<>();
+
+	ConformanceInvariants(RecordStorage recordStorage, Workload workload) {
+		this.recordStorage = recordStorage;
+		this.workload = workload;
+	}
+
+	List<String> check(Map<String, ExpectedRecord> expectedRecords, Collection<String> deletedIds) {
+		checkExistingRecords(expectedRecords);
+		checkDeletedRecords(deletedIds);
+		checkTotal(expectedRecords);
+		checkGroups(expectedRecords);
+		checkLinkTargets(expectedRecords);
+		return violations;
+	}
+
+	private void checkExistingRecords(Map<String, ExpectedRecord> expectedRecords) {
+		for (Map.Entry<String, ExpectedRecord> entry : expectedRecords.entrySet()) {
+			checkExistingRecord(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void checkExistingRecord(String id, ExpectedRecord expectedRecord) {
+		if (!recordStorage.recordExists(List.of(workload.type()), id)) {
+			violations.add("Record " + id + " does not exist");
+		}
+		Set<StorageTerm> storageTerms = recordStorage.getStorageTermsForRecord(workload.type(),
+				id);
+		if (!expectedRecord.storageTerms().equals(storageTerms)) {
+			violations.add("StorageTerms for " + id + " were " + storageTerms + ", expected "
+					+ expectedRecord.storageTerms());
+		}
+		Set<Link> links = recordStorage.getLinksFromRecord(workload.type(), id);
+		if (!expectedRecord.links(workload.linkTargetType()).equals(links)) {
+			violations.add("Links from " + id + " were " + links + ", expected "
+					+ expectedRecord.links(workload.linkTargetType()));
+		}
+	}
+
+	private void checkDeletedRecords(Collection<String> deletedIds) {
+		for (String id : deletedIds) {
+			if (recordStorage.recordExists(List.of(workload.type()), id)) {
+				violations.add("Deleted record " + id + " still exists");
+			}
+		}
+	}
+
+	private void checkTotal(Map<String, ExpectedRecord> expectedRecords) {
+		long total = recordStorage.getTotalNumberOfRecordsForTypes(List.of(workload.type()),
+				new Filter());
+		if (total != expectedRecords.size()) {
+			violations.add("Total number of records was " + total + ", expected "
+					+ expectedRecords.size());
+		}
+	}
+
+	private void checkGroups(Map<String, ExpectedRecord> expectedRecords) {
+		for (int group = 0; group < workload.numberOfGroups(); group++) {
+			checkGroup(group, countRecordsInGroup(expectedRecords, group));
+		}
+	}
+
+	private long countRecordsInGroup(Map<String, ExpectedRecord> expectedRecords, int group) {
+		return expectedRecords.values().stream()
+				.filter(expectedRecord -> expectedRecord.group() == group).count();
+	}
+
+	private void checkGroup(int group, long expected) {
+		Filter filter = ExpectedRecord.createGroupFilter(group);
+		long count = recordStorage.getTotalNumberOfRecordsForTypes(List.of(workload.type()),
+				filter);
+		StorageReadResult result = recordStorage.readList(workload.type(), filter);
+		String groupValue = ExpectedRecord.groupValue(group);
+		if (count != expected) {
+			violations.add("Count for " + groupValue + " was " + count + ", expected " + expected);
+		}
+		if (result.totalNumberOfMatches != expected
+				|| result.listOfDataRecordGroups.size() != expected) {
+			violations.add("readList for " + groupValue + " matched "
+					+ result.totalNumberOfMatches + " and returned "
+					+ result.listOfDataRecordGroups.size() + " records, expected " + expected);
+		}
+	}
+
+	private void checkLinkTargets(Map<String, ExpectedRecord> expectedRecords) {
+		for (int linkTarget = 0; linkTarget < workload.numberOfLinkTargets(); linkTarget++) {
+			checkLinkTarget(linkTarget, collectLinksToTarget(expectedRecords, linkTarget));
+		}
+	}
+
+	private Set<Link> collectLinksToTarget(Map<String, ExpectedRecord> expectedRecords,
+			int linkTarget) {
+		Set<Link> links = new HashSet<>();
+		expectedRecords.forEach((id, expectedRecord) -> {
+			if (expectedRecord.linkTarget() == linkTarget) {
+				links.add(new Link(workload.type(), id));
+			}
+		});
+		return links;
+	}
+
+	private void checkLinkTarget(int linkTarget, Set<Link> expected) {
+		String targetId = ExpectedRecord.linkTargetId(linkTarget);
+		Set<Link> links = recordStorage.getLinksToRecord(workload.linkTargetType(), targetId);
+		if (!expected.equals(links)) {
+			violations.add("Links to " + targetId + " were " + links.size() + ", expected "
+					+ expected.size());
+		}
+		long count = recordStorage.countLinksToRecord(workload.linkTargetType(), targetId);
+		if (count != expected.size()) {
+			violations.add("Count of links to " + targetId + " was " + count + ", expected "
+					+ expected.size());
+		}
+	}
+}
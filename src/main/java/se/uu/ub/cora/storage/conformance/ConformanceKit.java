@@ -0,0 +1,208 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.metrics.InMemoryStorageMetrics;
+import se.uu.ub.cora.storage.metrics.InstrumentedRecordStorage;
+
+/**
+ * ConformanceKit drives a {@link RecordStorage} implementation with a concurrent, mixed
+ * {@link Workload} and reports if it behaved correctly together with throughput and latencies.
+ * It is intended to be run against a storage backend, in its own tests or before a rollout.
+ * <p>
+ * A run has four parts:
+ * <ol>
+ * <li>every thread creates its initial records</li>
+ * <li>the measured part, where all threads perform their operations at the same time, checking
+ * every answer that concerns their own records</li>
+ * <li>invariants are checked when all threads are done: existence, storageTerms, counts, filtered
+ * lists and links, in both directions, must match what the threads wrote</li>
+ * <li>all records created by the run are deleted</li>
+ * </ol>
+ * <p>
+ * Each thread gets its own RecordStorage from the provided supplier, so implementations that are
+ * not threadsafe can be tested as they are used in a Cora system. The record factory is called
+ * from all threads and MUST be threadsafe.
+ */
+public final class ConformanceKit {
+	private final Supplier<RecordStorage> recordStorageSupplier;
+	private final BiFunction<String, String, DataGroup> recordFactory;
+
+	/**
+	 * usingRecordStorageSupplierAndRecordFactory creates a ConformanceKit.
+	 * 
+	 * @param recordStorageSupplier
+	 *            A Supplier of the RecordStorage to test, called once per thread
+	 * @param recordFactory
+	 *            A BiFunction creating the DataGroup to store for a type and id
+	 * @return A ConformanceKit
+	 */
+	public static ConformanceKit usingRecordStorageSupplierAndRecordFactory(
+			Supplier<RecordStorage> recordStorageSupplier,
+			BiFunction<String, String, DataGroup> recordFactory) {
+		return new ConformanceKit(recordStorageSupplier, recordFactory);
+	}
+
+	private ConformanceKit(Supplier<RecordStorage> recordStorageSupplier,
+			BiFunction<String, String, DataGroup> recordFactory) {
+		this.recordStorageSupplier = recordStorageSupplier;
+		this.recordFactory = recordFactory;
+	}
+
+	/**
+	 * run runs the workload and returns a report of the run.
+	 * <p>
+	 * If the type in the workload has records before the run a {@link StorageException} is
+	 * thrown, as invariants can not be checked.
+	 * 
+	 * @param workload
+	 *            The {@link Workload} to run
+	 * @return A {@link ConformanceReport} with violations, throughput and latencies
+	 */
+	public ConformanceReport run(Workload workload) {
+		RecordStorage checkStorage = recordStorageSupplier.get();
+		ensureTypeIsEmpty(checkStorage, workload);
+		Collection<String> violations = new ConcurrentLinkedQueue<>();
+		InMemoryStorageMetrics metrics = InMemoryStorageMetrics.create();
+		List<ConformanceWorker> workers = createWorkers(workload, metrics, violations);
+		ExecutorService executor = Executors.newFixedThreadPool(workload.numberOfThreads());
+		try {
+			runInAllWorkers(executor, workers, worker -> {
+				worker.createInitialRecords();
+				return 0L;
+			});
+			long start = System.nanoTime();
+			long numberOfOperations = runInAllWorkers(executor, workers,
+					ConformanceWorker::performOperations);
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+			violations.addAll(checkInvariants(checkStorage, workload, workers));
+			runInAllWorkers(executor, workers, worker -> {
+				worker.deleteRemainingRecords();
+				return 0L;
+			});
+			return new ConformanceReport(workload, numberOfOperations, elapsed,
+					List.copyOf(violations), metrics.getStatistics());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void ensureTypeIsEmpty(RecordStorage storage, Workload workload) {
+		long numberOfRecords = storage.getTotalNumberOfRecordsForTypes(List.of(workload.type()),
+				new Filter());
+		if (numberOfRecords != 0) {
+			throw StorageException.withMessage("Conformance can not be run on type "
+					+ workload.type() + " as it has " + numberOfRecords + " records");
+		}
+	}
+
+	private List<ConformanceWorker> createWorkers(Workload workload,
+			InMemoryStorageMetrics metrics, Collection<String> violations) {
+		List<ConformanceWorker> workers = new ArrayList<>();
+		for (int i = 0; i < workload.numberOfThreads(); i++) {
+			RecordStorage recordStorage = recordStorageSupplier.get();
+			RecordStorage measuredStorage = InstrumentedRecordStorage
+					.usingRecordStorageAndMetrics(recordStorage, metrics);
+			workers.add(new ConformanceWorker(i, workload, recordStorage, measuredStorage,
+					recordFactory, violations));
+		}
+		return workers;
+	}
+
+	private interface WorkerTask {
+		long runIn(ConformanceWorker worker);
+	}
+
+	private long runInAllWorkers(ExecutorService executor, List<ConformanceWorker> workers,
+			WorkerTask task) {
+		List<Callable<Long>> callables = new ArrayList<>();
+		for (ConformanceWorker worker : workers) {
+			callables.add(() -> task.runIn(worker));
+		}
+		return sumResults(invokeAll(executor, callables));
+	}
+
+	private List<Future<Long>> invokeAll(ExecutorService executor,
+			List<Callable<Long>> callables) {
+		try {
+			return executor.invokeAll(callables);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw StorageException.withMessageAndException("Conformance run was interrupted", e);
+		}
+	}
+
+	private long sumResults(List<Future<Long>> futures) {
+		long sum = 0;
+		for (Future<Long> future : futures) {
+			sum += getResult(future);
+		}
+		return sum;
+	}
+
+	private long getResult(Future<Long> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw StorageException.withMessageAndException("Conformance run was interrupted", e);
+		} catch (ExecutionException e) {
+			throw StorageException.withMessageAndException(
+					"Conformance run failed: " + e.getCause().getMessage(), e);
+		}
+	}
+
+	private List<String> checkInvariants(RecordStorage storage, Workload workload,
+			List<ConformanceWorker> workers) {
+		Map<String, ExpectedRecord> expectedRecords = new HashMap<>();
+		List<String> deletedIds = new ArrayList<>();
+		for (ConformanceWorker worker : workers) {
+			expectedRecords.putAll(worker.getExpectedRecords());
+			deletedIds.addAll(worker.getDeletedIds());
+		}
+		return new ConformanceInvariants(storage, workload).check(expectedRecords, deletedIds);
+	}
+
+	Supplier<RecordStorage> onlyForTestGetRecordStorageSupplier() {
+		return recordStorageSupplier;
+	}
+
+	BiFunction<String, String, DataGroup> onlyForTestGetRecordFactory() {
+		return recordFactory;
+	}
+}
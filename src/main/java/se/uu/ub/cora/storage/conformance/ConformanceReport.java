@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import java.time.Duration;
+import java.util.List;
+
+import se.uu.ub.cora.storage.metrics.OperationStatistics;
+
+/**
+ * ConformanceReport is the result of a {@link ConformanceKit} run.
+ * 
+ * @param workload
+ *            The {@link Workload} that was run
+ * @param numberOfOperations
+ *            A long with the number of operations performed in the measured part of the run
+ * @param elapsed
+ *            A Duration with the time the measured part of the run took
+ * @param violations
+ *            A List of Strings describing each broken invariant and unexpected exception, empty
+ *            if the RecordStorage behaved correctly
+ * @param statistics
+ *            A List of {@link OperationStatistics} with latencies per RecordStorage method
+ */
+public record ConformanceReport(Workload workload, long numberOfOperations, Duration elapsed,
+		List<String> violations, List<OperationStatistics> statistics) {
+
+	/**
+	 * passed returns if the RecordStorage behaved correctly during the run.
+	 * 
+	 * @return A boolean, true if no violations were found
+	 */
+	public boolean passed() {
+		return violations.isEmpty();
+	}
+
+	/**
+	 * operationsPerSecond returns the throughput of the measured part of the run.
+	 * 
+	 * @return A double with the number of operations per second
+	 */
+	public double operationsPerSecond() {
+		long nanos = Math.max(1, elapsed.toNanos());
+		return numberOfOperations * 1_000_000_000.0 / nanos;
+	}
+}
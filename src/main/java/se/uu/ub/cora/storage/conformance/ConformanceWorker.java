@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * ConformanceWorker performs the operations of one thread in a {@link ConformanceKit} run.
+ * <p>
+ * A worker only writes records with ids it owns, so it knows exactly which of its records exist
+ * and what they contain, and can check every answer about them even while other workers write
+ * their records at the same time.
+ */
+final class ConformanceWorker {
+	private static final int PAGE_SIZE = 10;
+	private static final String DATA_DIVIDER = "conformance";
+	private final String idPrefix;
+	private final Workload workload;
+	private final RecordStorage setupStorage;
+	private final RecordStorage recordStorage;
+	private final BiFunction<String, String, DataGroup> recordFactory;
+	private final Collection<String> violations;
+	private final Random random;
+	private final Map<String, ExpectedRecord> expectedRecords = new HashMap<>();
+	private final List<String> existingIds = new ArrayList<>();
+	private final List<String> deletedIds = new ArrayList<>();
+	private int nextNumber;
+
+	ConformanceWorker(int workerNumber, Workload workload, RecordStorage setupStorage,
+			RecordStorage recordStorage, BiFunction<String, String, DataGroup> recordFactory,
+			Collection<String> violations) {
+		this.idPrefix = "conformance" + workerNumber + ":";
+		this.workload = workload;
+		this.setupStorage = setupStorage;
+		this.recordStorage = recordStorage;
+		this.recordFactory = recordFactory;
+		this.violations = violations;
+		this.random = new Random(workload.seed() + workerNumber);
+	}
+
+	void createInitialRecords() {
+		for (int i = 0; i < workload.recordsPerThread(); i++) {
+			create(setupStorage);
+		}
+	}
+
+	long performOperations() {
+		WorkloadMix mix = workload.mix();
+		for (int i = 0; i < workload.operationsPerThread(); i++) {
+			perform(mix.pick(random.nextInt(mix.total())));
+		}
+		return workload.operationsPerThread();
+	}
+
+	private void perform(WorkloadOperation operation) {
+		try {
+			performOperation(operation);
+		} catch (RuntimeException e) {
+			violations.add(operation + " failed with " + e.getClass().getSimpleName() + ": "
+					+ e.getMessage());
+		}
+	}
+
+	private void performOperation(WorkloadOperation operation) {
+		switch (operation) {
+		case READ -> read();
+		case FILTERED_LIST -> readFilteredList();
+		case LINK_QUERY -> queryLinks();
+		case CREATE -> create(recordStorage);
+		case UPDATE -> update();
+		case DELETE -> delete();
+		}
+	}
+
+	private void read() {
+		if (!deletedIds.isEmpty() && random.nextInt(4) == 0) {
+			readDeletedRecord(randomElement(deletedIds));
+		} else if (!existingIds.isEmpty()) {
+			readExistingRecord(randomElement(existingIds));
+		}
+	}
+
+	private String randomElement(List<String> ids) {
+		return ids.get(random.nextInt(ids.size()));
+	}
+
+	private void readDeletedRecord(String id) {
+		Optional<DataRecordGroup> dataRecord = recordStorage.readIfExists(workload.type(), id);
+		if (dataRecord.isPresent()) {
+			violations.add("Deleted record " + id + " could still be read");
+		}
+	}
+
+	private void readExistingRecord(String id) {
+		DataRecordGroup dataRecord = recordStorage.read(workload.type(), id);
+		if (dataRecord == null) {
+			violations.add("Read of existing record " + id + " returned null");
+		}
+	}
+
+	private void readFilteredList() {
+		int group = random.nextInt(workload.numberOfGroups());
+		Filter filter = ExpectedRecord.createGroupFilter(group);
+		filter.toNo = PAGE_SIZE;
+		StorageReadResult result = recordStorage.readList(workload.type(), filter);
+		long ownRecordsInGroup = countOwnRecordsInGroup(group);
+		if (result.totalNumberOfMatches < ownRecordsInGroup) {
+			violations.add("readList for " + ExpectedRecord.groupValue(group) + " found "
+					+ result.totalNumberOfMatches + " records while one thread alone has "
+					+ ownRecordsInGroup);
+		}
+		if (result.listOfDataRecordGroups.size() > PAGE_SIZE) {
+			violations.add("readList returned " + result.listOfDataRecordGroups.size()
+					+ " records for a page of " + PAGE_SIZE);
+		}
+	}
+
+	private long countOwnRecordsInGroup(int group) {
+		return expectedRecords.values().stream()
+				.filter(expectedRecord -> expectedRecord.group() == group).count();
+	}
+
+	private void queryLinks() {
+		if (existingIds.isEmpty()) {
+			return;
+		}
+		String id = randomElement(existingIds);
+		ExpectedRecord expectedRecord = expectedRecords.get(id);
+		Set<Link> expectedLinks = expectedRecord.links(workload.linkTargetType());
+		Set<Link> linksFrom = recordStorage.getLinksFromRecord(workload.type(), id);
+		if (!expectedLinks.equals(linksFrom)) {
+			violations.add("Links from " + id + " were " + linksFrom + ", expected "
+					+ expectedLinks);
+		}
+		Set<Link> linksTo = recordStorage.getLinksToRecord(workload.linkTargetType(),
+				ExpectedRecord.linkTargetId(expectedRecord.linkTarget()));
+		if (!linksTo.contains(new Link(workload.type(), id))) {
+			violations.add("Links to the target of " + id + " did not include " + id);
+		}
+	}
+
+	private void create(RecordStorage storage) {
+		String id = idPrefix + nextNumber++;
+		ExpectedRecord expectedRecord = createRandomExpectedRecord();
+		storage.create(workload.type(), id, recordFactory.apply(workload.type(), id),
+				expectedRecord.storageTerms(), expectedRecord.links(workload.linkTargetType()),
+				DATA_DIVIDER);
+		expectedRecords.put(id, expectedRecord);
+		existingIds.add(id);
+	}
+
+	private ExpectedRecord createRandomExpectedRecord() {
+		return new ExpectedRecord(random.nextInt(workload.numberOfGroups()),
+				random.nextInt(workload.numberOfLinkTargets()));
+	}
+
+	private void update() {
+		if (existingIds.isEmpty()) {
+			return;
+		}
+		String id = randomElement(existingIds);
+		ExpectedRecord expectedRecord = createRandomExpectedRecord();
+		recordStorage.update(workload.type(), id, recordFactory.apply(workload.type(), id),
+				expectedRecord.storageTerms(), expectedRecord.links(workload.linkTargetType()),
+				DATA_DIVIDER);
+		expectedRecords.put(id, expectedRecord);
+	}
+
+	private void delete() {
+		if (existingIds.isEmpty()) {
+			return;
+		}
+		int index = random.nextInt(existingIds.size());
+		String id = existingIds.get(index);
+		recordStorage.deleteByTypeAndId(workload.type(), id);
+		removeExistingId(index);
+		expectedRecords.remove(id);
+		deletedIds.add(id);
+	}
+
+	private void removeExistingId(int index) {
+		int lastIndex = existingIds.size() - 1;
+		existingIds.set(index, existingIds.get(lastIndex));
+		existingIds.remove(lastIndex);
+	}
+
+	void deleteRemainingRecords() {
+		for (String id : existingIds) {
+			setupStorage.deleteByTypeAndId(workload.type(), id);
+		}
+	}
+
+	Map<String, ExpectedRecord> getExpectedRecords() {
+		return expectedRecords;
+	}
+
+	List<String> getDeletedIds() {
+		return deletedIds;
+	}
+}
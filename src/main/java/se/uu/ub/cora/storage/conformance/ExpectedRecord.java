@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import java.util.List;
+import java.util.Set;
+
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.Part;
+import se.uu.ub.cora.storage.RelationalOperator;
+
+/**
+ * ExpectedRecord is what a {@link ConformanceWorker} expects to be stored for one of its records,
+ * the storageTerm group and the link target.
+ */
+record ExpectedRecord(int group, int linkTarget) {
+	static final String GROUP_KEY = "conformanceGroup";
+	static final String GROUP_TERM_ID = "conformanceGroupTerm";
+
+	static String groupValue(int group) {
+		return "group" + group;
+	}
+
+	static String linkTargetId(int linkTarget) {
+		return "target" + linkTarget;
+	}
+
+	static Filter createGroupFilter(int group) {
+		Filter filter = new Filter();
+		Part part = new Part();
+		part.conditions.add(new Condition(GROUP_KEY, RelationalOperator.EQUAL_TO,
+				groupValue(group)));
+		filter.include = List.of(part);
+		return filter;
+	}
+
+	Set<StorageTerm> storageTerms() {
+		return Set.of(new StorageTerm(GROUP_TERM_ID, GROUP_KEY, groupValue(group)));
+	}
+
+	Set<Link> links(String linkTargetType) {
+		return Set.of(new Link(linkTargetType, linkTargetId(linkTarget)));
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * Workload describes the load a {@link ConformanceKit} puts on a RecordStorage.
+ * <p>
+ * Each thread creates recordsPerThread records before the measured part starts, and then performs
+ * operationsPerThread operations picked from the mix. Records are spread over numberOfGroups
+ * storageTerm groups and each record links to one of numberOfLinkTargets records of the
+ * linkTargetType. The link targets do not need to exist in storage.
+ * 
+ * @param type
+ *            A String with the recordType to use, it MUST NOT have any records when the run
+ *            starts
+ * @param linkTargetType
+ *            A String with the recordType the records link to
+ * @param numberOfThreads
+ *            An int with the number of threads running at the same time
+ * @param operationsPerThread
+ *            An int with the number of operations each thread performs
+ * @param recordsPerThread
+ *            An int with the number of records each thread creates before the run
+ * @param numberOfGroups
+ *            An int with the number of storageTerm groups
+ * @param numberOfLinkTargets
+ *            An int with the number of link targets
+ * @param mix
+ *            A {@link WorkloadMix} with the weights of the operations
+ * @param seed
+ *            A long with the seed for the random choices, making runs repeatable
+ */
+public record Workload(String type, String linkTargetType, int numberOfThreads,
+		int operationsPerThread, int recordsPerThread, int numberOfGroups,
+		int numberOfLinkTargets, WorkloadMix mix, long seed) {
+
+	public Workload {
+		if (numberOfThreads < 1 || numberOfGroups < 1 || numberOfLinkTargets < 1) {
+			throw StorageException.withMessage(
+					"A Workload must have at least one thread, one group and one link target");
+		}
+		if (operationsPerThread < 0 || recordsPerThread < 0) {
+			throw StorageException.withMessage(
+					"Operations and records per thread in a Workload can not be negative");
+		}
+	}
+
+	/**
+	 * usingTypeAndMix returns a Workload with 8 threads doing 1000 operations each, on 100 records
+	 * per thread spread over 10 groups linking to 10 targets.
+	 * 
+	 * @param type
+	 *            A String with the recordType to use, it MUST NOT have any records
+	 * @param mix
+	 *            A {@link WorkloadMix} with the weights of the operations
+	 * @return A Workload
+	 */
+	public static Workload usingTypeAndMix(String type, WorkloadMix mix) {
+		return new Workload(type, type + "LinkTarget", 8, 1000, 100, 10, 10, mix, 1);
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * WorkloadMix holds the relative weights of the operations in a {@link Workload}. An operation is
+ * picked with a probability equal to its weight divided by the sum of all weights.
+ * 
+ * @param reads
+ *            An int with the weight of {@link WorkloadOperation#READ}
+ * @param filteredLists
+ *            An int with the weight of {@link WorkloadOperation#FILTERED_LIST}
+ * @param linkQueries
+ *            An int with the weight of {@link WorkloadOperation#LINK_QUERY}
+ * @param creates
+ *            An int with the weight of {@link WorkloadOperation#CREATE}
+ * @param updates
+ *            An int with the weight of {@link WorkloadOperation#UPDATE}
+ * @param deletes
+ *            An int with the weight of {@link WorkloadOperation#DELETE}
+ */
+public record WorkloadMix(int reads, int filteredLists, int linkQueries, int creates,
+		int updates, int deletes) {
+
+	public WorkloadMix {
+		if (reads < 0 || filteredLists < 0 || linkQueries < 0 || creates < 0 || updates < 0
+				|| deletes < 0) {
+			throw StorageException.withMessage("Weights in a WorkloadMix can not be negative");
+		}
+		if (reads + filteredLists + linkQueries + creates + updates + deletes == 0) {
+			throw StorageException.withMessage("At least one weight in a WorkloadMix must be set");
+		}
+	}
+
+	/**
+	 * readHeavy returns a mix dominated by reads, like the normal load on a Cora system.
+	 * 
+	 * @return A WorkloadMix with 70% reads, 10% filtered lists, 10% link queries and 10% writes
+	 */
+	public static WorkloadMix readHeavy() {
+		return new WorkloadMix(70, 10, 10, 4, 4, 2);
+	}
+
+	/**
+	 * writeHeavy returns a mix dominated by writes, like the load during an import.
+	 * 
+	 * @return A WorkloadMix with 20% reads, 5% filtered lists, 5% link queries and 70% writes
+	 */
+	public static WorkloadMix writeHeavy() {
+		return new WorkloadMix(20, 5, 5, 30, 30, 10);
+	}
+
+	int total() {
+		return reads + filteredLists + linkQueries + creates + updates + deletes;
+	}
+
+	WorkloadOperation pick(int value) {
+		int[] weights = { reads, filteredLists, linkQueries, creates, updates, deletes };
+		WorkloadOperation[] operations = WorkloadOperation.values();
+		int limit = 0;
+		for (int i = 0; i < weights.length; i++) {
+			limit += weights[i];
+			if (value < limit) {
+				return operations[i];
+			}
+		}
+		throw StorageException.withMessage("Value " + value + " is outside the total weight "
+				+ total() + " of the WorkloadMix");
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+/**
+ * WorkloadOperation lists the operations a {@link ConformanceKit} worker can perform.
+ * <ul>
+ * <li>READ: reads one of the workers records, or checks that a deleted one is gone</li>
+ * <li>FILTERED_LIST: reads the first page of records in one storageTerm group</li>
+ * <li>LINK_QUERY: reads the links from one of the workers records and the links to its target</li>
+ * <li>CREATE: creates a new record</li>
+ * <li>UPDATE: updates one of the workers records with a new group and link target</li>
+ * <li>DELETE: deletes one of the workers records</li>
+ * </ul>
+ */
+public enum WorkloadOperation {
+	READ, FILTERED_LIST, LINK_QUERY, CREATE, UPDATE, DELETE
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.Filter;
+
+/**
+ * FilterPlan is a normalized version of the include and exclude parts of a {@link Filter}, created
+ * by a {@link FilterPlanner}. It matches records in the same way as the Filter, (include) AND NOT
+ * (exclude), where include and exclude are (part OR part) and each part is (condition AND
+ * condition).
+ * <p>
+ * A condition matches a record if at least one of the records storageTerms with the conditions key
+ * has a value that compares to the conditions value as specified by the conditions operator.
+ * Values are compared as Strings.
+ * 
+ * @param include
+ *            A List of {@link PlannedPart}, a record must match at least one of them. If empty
+ *            are all records included.
+ * @param exclude
+ *            A List of {@link PlannedPart}, a record must not match any of them
+ * @param matchesNothing
+ *            A boolean that is true if the planner found that no record can match the filter, in
+ *            which case storage implementations do not need to query storage at all
+ */
+public record FilterPlan(List<PlannedPart> include, List<PlannedPart> exclude,
+		boolean matchesNothing) {
+
+	/**
+	 * includesAll returns true if the plan has no include parts, and therefore includes all
+	 * records that are not excluded.
+	 */
+	public boolean includesAll() {
+		return !matchesNothing && include.isEmpty();
+	}
+
+	/**
+	 * matches returns true if a record with the provided storageTerms matches this plan.
+	 * 
+	 * @param storageTerms
+	 *            A Collection of {@link StorageTerm} stored for a record
+	 * @return A boolean, true if the record matches the plan
+	 */
+	public boolean matches(Collection<StorageTerm> storageTerms) {
+		if (matchesNothing) {
+			return false;
+		}
+		Map<String, List<String>> valuesByKey = groupValuesByKey(storageTerms);
+		return isIncluded(valuesByKey) && !anyPartMatches(exclude, valuesByKey);
+	}
+
+	private Map<String, List<String>> groupValuesByKey(Collection<StorageTerm> storageTerms) {
+		Map<String, List<String>> valuesByKey = new HashMap<>();
+		for (StorageTerm storageTerm : storageTerms) {
+			valuesByKey.computeIfAbsent(storageTerm.storageKey(), k -> new ArrayList<>())
+					.add(storageTerm.value());
+		}
+		return valuesByKey;
+	}
+
+	private boolean isIncluded(Map<String, List<String>> valuesByKey) {
+		return include.isEmpty() || anyPartMatches(include, valuesByKey);
+	}
+
+	private boolean anyPartMatches(List<PlannedPart> parts, Map<String, List<String>> valuesByKey) {
+		for (PlannedPart part : parts) {
+			if (allConditionsMatch(part, valuesByKey)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean allConditionsMatch(PlannedPart part, Map<String, List<String>> valuesByKey) {
+		for (Condition condition : part.conditions()) {
+			if (!conditionMatches(condition, valuesByKey)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean conditionMatches(Condition condition,
+			Map<String, List<String>> valuesByKey) {
+		for (String value : valuesByKey.getOrDefault(condition.key(), List.of())) {
+			if (valueMatches(condition, value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean valueMatches(Condition condition, String value) {
+		int comparison = value.compareTo(condition.value());
+		return switch (condition.operator()) {
+		case EQUAL_TO -> comparison == 0;
+		case NOT_EQUAL_TO -> comparison != 0;
+		case GREATER_THAN -> comparison > 0;
+		case GREATER_THAN_OR_EQUAL_TO -> comparison >= 0;
+		case LESS_THAN -> comparison < 0;
+		case LESS_THAN_OR_EQUAL_TO -> comparison <= 0;
+		};
+	}
+}
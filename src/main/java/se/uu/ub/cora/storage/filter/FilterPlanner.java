@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.filter;
+
+import se.uu.ub.cora.storage.Filter;
+
+/**
+ * FilterPlanner creates a {@link FilterPlan} from a {@link Filter}. The plan is a normalized
+ * version of the include and exclude parts in the filter, that matches the same records as the
+ * filter, but with duplicated and redundant conditions and parts removed, contradicting parts
+ * removed and the conditions in each part ordered by selectivity.
+ * <p>
+ * The intention is that all storage implementations use the same planner, so that filters are
+ * interpreted in the same way regardless of storage, and so that storage implementations can
+ * execute or translate the plan instead of the raw filter.
+ */
+public interface FilterPlanner {
+
+	/**
+	 * plan creates a {@link FilterPlan} for the include and exclude parts of the provided filter.
+	 * The range of the filter (fromNo, toNo) and any continuationToken are not part of the plan.
+	 * 
+	 * @param filter
+	 *            A {@link Filter} to create a plan for
+	 * @return A {@link FilterPlan} matching the same records as the filter
+	 */
+	FilterPlan plan(Filter filter);
+}
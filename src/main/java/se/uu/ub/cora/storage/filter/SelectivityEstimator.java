@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.filter;
+
+import se.uu.ub.cora.storage.Condition;
+
+/**
+ * SelectivityEstimator estimates how selective a {@link Condition} is, it is used by
+ * {@link FilterPlanner} implementations to order conditions so that the most selective conditions
+ * are evaluated first.
+ * <p>
+ * Storage implementations that have statistics about their stored storageTerms can provide their
+ * own SelectivityEstimator to get better plans.
+ */
+public interface SelectivityEstimator {
+
+	/**
+	 * estimateSelectivity returns the estimated fraction of all records that match the
+	 * condition.
+	 * 
+	 * @param condition
+	 *            The {@link Condition} to estimate
+	 * @return A double between 0 and 1, where a lower value is more selective
+	 */
+	double estimateSelectivity(Condition condition);
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.filter.imp;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.Part;
+import se.uu.ub.cora.storage.RelationalOperator;
+import se.uu.ub.cora.storage.filter.FilterPlan;
+import se.uu.ub.cora.storage.filter.FilterPlanner;
+import se.uu.ub.cora.storage.filter.PlannedPart;
+import se.uu.ub.cora.storage.filter.SelectivityEstimator;
+
+/**
+ * FilterPlannerImp is the standard implementation of {@link FilterPlanner}. When creating a plan:
+ * <ol>
+ * <li>Duplicated conditions in a part are removed.</li>
+ * <li>Parts with contradicting conditions are removed, as they can never match. As a record can
+ * have many values for the same storage key, conditions can only contradict each other if they
+ * are for a key that is known to be single valued. If all include parts are removed can nothing
+ * match.</li>
+ * <li>An include part without conditions matches all records, so all include parts are removed.
+ * An exclude part without conditions excludes all records, so nothing can match.</li>
+ * <li>Parts that are duplicates of, or have all conditions of, another part are removed, as they
+ * can not change the result.</li>
+ * <li>The conditions in each part are ordered by selectivity, using the
+ * {@link SelectivityEstimator}, with the most selective first.</li>
+ * </ol>
+ */
+public class FilterPlannerImp implements FilterPlanner {
+	private SelectivityEstimator selectivityEstimator;
+	private Set<String> singleValuedKeys;
+
+	public static FilterPlannerImp usingSelectivityEstimator(
+			SelectivityEstimator selectivityEstimator) {
+		return new FilterPlannerImp(selectivityEstimator, Set.of());
+	}
+
+	public static FilterPlannerImp usingSelectivityEstimatorAndSingleValuedKeys(
+			SelectivityEstimator selectivityEstimator, Set<String> singleValuedKeys) {
+		return new FilterPlannerImp(selectivityEstimator, singleValuedKeys);
+	}
+
+	private FilterPlannerImp(SelectivityEstimator selectivityEstimator,
+			Set<String> singleValuedKeys) {
+		this.selectivityEstimator = selectivityEstimator;
+		this.singleValuedKeys = Set.copyOf(singleValuedKeys);
+	}
+
+	@Override
+	public FilterPlan plan(Filter filter) {
+		List<Set<Condition>> includeParts = removeContradictingParts(
+				removeDuplicatedConditions(filter.include));
+		List<Set<Condition>> excludeParts = removeContradictingParts(
+				removeDuplicatedConditions(filter.exclude));
+		if (allIncludePartsWereRemoved(filter, includeParts) || containsEmptyPart(excludeParts)) {
+			return new FilterPlan(List.of(), List.of(), true);
+		}
+		if (containsEmptyPart(includeParts)) {
+			includeParts = List.of();
+		}
+		return new FilterPlan(orderConditions(removeRedundantParts(includeParts)),
+				orderConditions(removeRedundantParts(excludeParts)), false);
+	}
+
+	private List<Set<Condition>> removeDuplicatedConditions(List<Part> parts) {
+		List<Set<Condition>> conditionSets = new ArrayList<>(parts.size());
+		for (Part part : parts) {
+			conditionSets.add(new LinkedHashSet<>(part.conditions));
+		}
+		return conditionSets;
+	}
+
+	private List<Set<Condition>> removeContradictingParts(List<Set<Condition>> parts) {
+		List<Set<Condition>> possibleParts = new ArrayList<>(parts.size());
+		for (Set<Condition> part : parts) {
+			if (!hasContradictingConditions(part)) {
+				possibleParts.add(part);
+			}
+		}
+		return possibleParts;
+	}
+
+	private boolean hasContradictingConditions(Set<Condition> part) {
+		for (String key : singleValuedKeys) {
+			List<Condition> conditionsForKey = getConditionsForKey(part, key);
+			if (conditionsForKey.size() > 1
+					&& !ValueRange.fromConditions(conditionsForKey).canMatch()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<Condition> getConditionsForKey(Set<Condition> part, String key) {
+		List<Condition> conditionsForKey = new ArrayList<>();
+		for (Condition condition : part) {
+			if (condition.key().equals(key)) {
+				conditionsForKey.add(condition);
+			}
+		}
+		return conditionsForKey;
+	}
+
+	private boolean allIncludePartsWereRemoved(Filter filter, List<Set<Condition>> includeParts) {
+		return filter.hasIncludeParts() && includeParts.isEmpty();
+	}
+
+	private boolean containsEmptyPart(List<Set<Condition>> parts) {
+		return parts.stream().anyMatch(Set::isEmpty);
+	}
+
+	private List<Set<Condition>> removeRedundantParts(List<Set<Condition>> parts) {
+		List<Set<Condition>> neededParts = new ArrayList<>(parts.size());
+		for (int i = 0; i < parts.size(); i++) {
+			if (!isRedundant(parts, i)) {
+				neededParts.add(parts.get(i));
+			}
+		}
+		return neededParts;
+	}
+
+	private boolean isRedundant(List<Set<Condition>> parts, int index) {
+		Set<Condition> part = parts.get(index);
+		for (int i = 0; i < parts.size(); i++) {
+			Set<Condition> other = parts.get(i);
+			if (i != index && part.containsAll(other)
+					&& (other.size() < part.size() || i < index)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<PlannedPart> orderConditions(List<Set<Condition>> parts) {
+		List<PlannedPart> plannedParts = new ArrayList<>(parts.size());
+		for (Set<Condition> part : parts) {
+			List<Condition> conditions = new ArrayList<>(part);
+			conditions.sort(Comparator.comparingDouble(selectivityEstimator::estimateSelectivity));
+			plannedParts.add(new PlannedPart(List.copyOf(conditions)));
+		}
+		return List.copyOf(plannedParts);
+	}
+
+	/**
+	 * ValueRange is the range of values that a single valued key can have and still match all
+	 * conditions for the key.
+	 */
+	private static final class ValueRange {
+		private String equalTo;
+		private boolean multipleEqualTo = false;
+		private List<String> notEqualTo = new ArrayList<>();
+		private String lower;
+		private boolean lowerInclusive;
+		private String upper;
+		private boolean upperInclusive;
+
+		static ValueRange fromConditions(List<Condition> conditions) {
+			ValueRange range = new ValueRange();
+			conditions.forEach(range::add);
+			return range;
+		}
+
+		private void add(Condition condition) {
+			RelationalOperator operator = condition.operator();
+			String value = condition.value();
+			switch (operator) {
+			case EQUAL_TO -> addEqualTo(value);
+			case NOT_EQUAL_TO -> notEqualTo.add(value);
+			case GREATER_THAN, GREATER_THAN_OR_EQUAL_TO -> addLower(value,
+					operator == RelationalOperator.GREATER_THAN_OR_EQUAL_TO);
+			case LESS_THAN, LESS_THAN_OR_EQUAL_TO -> addUpper(value,
+					operator == RelationalOperator.LESS_THAN_OR_EQUAL_TO);
+			}
+		}
+
+		private void addEqualTo(String value) {
+			if (equalTo != null && !equalTo.equals(value)) {
+				multipleEqualTo = true;
+			}
+			equalTo = value;
+		}
+
+		private void addLower(String value, boolean inclusive) {
+			int comparison = lower == null ? 1 : value.compareTo(lower);
+			if (comparison > 0 || (comparison == 0 && !inclusive)) {
+				lower = value;
+				lowerInclusive = inclusive;
+			}
+		}
+
+		private void addUpper(String value, boolean inclusive) {
+			int comparison = upper == null ? -1 : value.compareTo(upper);
+			if (comparison < 0 || (comparison == 0 && !inclusive)) {
+				upper = value;
+				upperInclusive = inclusive;
+			}
+		}
+
+		boolean canMatch() {
+			if (multipleEqualTo) {
+				return false;
+			}
+			if (equalTo != null) {
+				return valueIsInRange(equalTo);
+			}
+			return lowerAndUpperCanBothMatch();
+		}
+
+		private boolean valueIsInRange(String value) {
+			return !notEqualTo.contains(value) && isAboveLower(value) && isBelowUpper(value);
+		}
+
+		private boolean isAboveLower(String value) {
+			if (lower == null) {
+				return true;
+			}
+			int comparison = value.compareTo(lower);
+			return comparison > 0 || (comparison == 0 && lowerInclusive);
+		}
+
+		private boolean isBelowUpper(String value) {
+			if (upper == null) {
+				return true;
+			}
+			int comparison = value.compareTo(upper);
+			return comparison < 0 || (comparison == 0 && upperInclusive);
+		}
+
+		private boolean lowerAndUpperCanBothMatch() {
+			if (lower == null || upper == null) {
+				return true;
+			}
+			int comparison = lower.compareTo(upper);
+			if (comparison == 0) {
+				return lowerInclusive && upperInclusive && !notEqualTo.contains(lower);
+			}
+			return comparison < 0;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.filter.imp;
+
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.filter.SelectivityEstimator;
+
+/**
+ * OperatorSelectivityEstimator is a {@link SelectivityEstimator} that estimates selectivity only
+ * from the operator of a condition. It is intended to be used when no statistics about the stored
+ * storageTerms are available. An equal to condition is considered most selective, followed by
+ * range conditions, and a not equal to condition is considered least selective.
+ */
+public class OperatorSelectivityEstimator implements SelectivityEstimator {
+	private static final double EQUAL_TO = 0.01;
+	private static final double RANGE = 0.33;
+	private static final double NOT_EQUAL_TO = 0.99;
+
+	@Override
+	public double estimateSelectivity(Condition condition) {
+		return switch (condition.operator()) {
+		case EQUAL_TO -> EQUAL_TO;
+		case NOT_EQUAL_TO -> NOT_EQUAL_TO;
+		case GREATER_THAN, GREATER_THAN_OR_EQUAL_TO, LESS_THAN, LESS_THAN_OR_EQUAL_TO -> RANGE;
+		};
+	}
+}
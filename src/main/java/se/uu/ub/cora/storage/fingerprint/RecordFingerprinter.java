@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.fingerprint;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Function;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.LinkPaging;
+import se.uu.ub.cora.storage.hash.CoraDigestor;
+
+/**
+ * RecordFingerprinter calculates a fingerprint of everything that is written to storage for a
+ * record, the data, the storageTerms, the links and the dataDivider. Two writes with the same
+ * fingerprint store the same content, which makes it possible to skip the second one.
+ * <p>
+ * The fingerprint is a SHA-256 hash, calculated by a {@link CoraDigestor}, of a canonical form of
+ * the record. The canonical form of the data is created by a function provided when the
+ * RecordFingerprinter is created, as converting a {@link DataGroup} to text is done outside this
+ * module, typically by converting it to JSON. StorageTerms and links are sorted, so the order in
+ * which they are collected does not change the fingerprint.
+ * <p>
+ * RecordFingerprinter is threadsafe if the provided digestor and function are threadsafe.
+ */
+public final class RecordFingerprinter {
+	private static final Comparator<StorageTerm> STORAGE_TERM_ORDER = Comparator
+			.comparing(StorageTerm::storageKey).thenComparing(StorageTerm::value)
+			.thenComparing(StorageTerm::id);
+	private final CoraDigestor digestor;
+	private final Function<DataGroup, String> canonicalForm;
+
+	public static RecordFingerprinter usingDigestorAndCanonicalForm(CoraDigestor digestor,
+			Function<DataGroup, String> canonicalForm) {
+		return new RecordFingerprinter(digestor, canonicalForm);
+	}
+
+	private RecordFingerprinter(CoraDigestor digestor, Function<DataGroup, String> canonicalForm) {
+		this.digestor = digestor;
+		this.canonicalForm = canonicalForm;
+	}
+
+	/**
+	 * fingerprint returns the fingerprint for a record with the provided content.
+	 * 
+	 * @param dataRecord
+	 *            A {@link DataGroup} with the records data
+	 * @param storageTerms
+	 *            A Collection of {@link StorageTerm} for the record
+	 * @param links
+	 *            A Collection of {@link Link} from the record
+	 * @param dataDivider
+	 *            A String with the records dataDivider
+	 * @return A String with the fingerprint as hex
+	 */
+	public String fingerprint(DataGroup dataRecord, Collection<StorageTerm> storageTerms,
+			Collection<Link> links, String dataDivider) {
+		StringBuilder canonical = new StringBuilder();
+		appendPart(canonical, dataDivider);
+		appendPart(canonical, canonicalForm.apply(dataRecord));
+		appendStorageTerms(canonical, storageTerms);
+		appendLinks(canonical, links);
+		return digestor.stringToSha256Hex(canonical.toString());
+	}
+
+	private void appendStorageTerms(StringBuilder canonical,
+			Collection<StorageTerm> storageTerms) {
+		appendPart(canonical, String.valueOf(storageTerms.size()));
+		storageTerms.stream().sorted(STORAGE_TERM_ORDER).forEach(storageTerm -> {
+			appendPart(canonical, storageTerm.storageKey());
+			appendPart(canonical, storageTerm.value());
+			appendPart(canonical, storageTerm.id());
+		});
+	}
+
+	private void appendLinks(StringBuilder canonical, Collection<Link> links) {
+		appendPart(canonical, String.valueOf(links.size()));
+		links.stream().sorted(LinkPaging.LINK_ORDER).forEach(link -> {
+			appendPart(canonical, link.type());
+			appendPart(canonical, link.id());
+		});
+	}
+
+	private void appendPart(StringBuilder canonical, String part) {
+		if (part == null) {
+			canonical.append('-');
+		} else {
+			canonical.append(part.length()).append(':').append(part);
+		}
+	}
+
+	CoraDigestor onlyForTestGetDigestor() {
+		return digestor;
+	}
+
+	Function<DataGroup, String> onlyForTestGetCanonicalForm() {
+		return canonicalForm;
+	}
+}
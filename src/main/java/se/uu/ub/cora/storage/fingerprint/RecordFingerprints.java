@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.fingerprint;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import se.uu.ub.cora.storage.RecordStorageInstanceProvider;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * RecordFingerprints is a threadsafe store of the fingerprints, as calculated by a
+ * {@link RecordFingerprinter}, of the records last written to or read from storage. It is intended
+ * to be created once by a {@link RecordStorageInstanceProvider} and shared between all
+ * {@link UnchangedUpdateSkippingRecordStorage} instances it returns, and to be informed about
+ * changes made by other processes through {@link #dataChanged(String, String, String)}.
+ * <p>
+ * Fingerprints are only kept in memory and at most maxNumberOfFingerprints are kept, when more are
+ * set is the least recently used fingerprint forgotten. A fingerprint that is not known only costs
+ * an extra read, as UnchangedUpdateSkippingRecordStorage then calculates it from the stored
+ * record.
+ * <p>
+ * RecordFingerprints also holds the locks used by the UnchangedUpdateSkippingRecordStorage
+ * instances sharing it, so that only one of them at a time checks and writes a record.
+ */
+public final class RecordFingerprints {
+	private static final int DEFAULT_MAX_NUMBER_OF_FINGERPRINTS = 100_000;
+	private static final int NUMBER_OF_RECORD_LOCKS = 64;
+	private final Lock fingerprintsLock = new ReentrantLock();
+	private final Map<RecordKey, String> fingerprints;
+	private final Lock[] recordLocks = new Lock[NUMBER_OF_RECORD_LOCKS];
+
+	/**
+	 * create creates a RecordFingerprints that keeps at most 100 000 fingerprints.
+	 * 
+	 * @return A RecordFingerprints
+	 */
+	public static RecordFingerprints create() {
+		return new RecordFingerprints(DEFAULT_MAX_NUMBER_OF_FINGERPRINTS);
+	}
+
+	/**
+	 * usingMaxNumberOfFingerprints creates a RecordFingerprints that keeps at most
+	 * maxNumberOfFingerprints fingerprints.
+	 * 
+	 * @param maxNumberOfFingerprints
+	 *            An int with the max number of fingerprints to keep, must be larger than 0
+	 * @return A RecordFingerprints
+	 */
+	public static RecordFingerprints usingMaxNumberOfFingerprints(int maxNumberOfFingerprints) {
+		return new RecordFingerprints(maxNumberOfFingerprints);
+	}
+
+	private RecordFingerprints(int maxNumberOfFingerprints) {
+		if (maxNumberOfFingerprints < 1) {
+			throw StorageException
+					.withMessage("Max number of fingerprints must be larger than 0, was: "
+							+ maxNumberOfFingerprints);
+		}
+		fingerprints = createLeastRecentlyUsedMap(maxNumberOfFingerprints);
+		for (int i = 0; i < NUMBER_OF_RECORD_LOCKS; i++) {
+			recordLocks[i] = new ReentrantLock();
+		}
+	}
+
+	private Map<RecordKey, String> createLeastRecentlyUsedMap(int maxNumberOfFingerprints) {
+		return new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<RecordKey, String> eldest) {
+				return size() > maxNumberOfFingerprints;
+			}
+		};
+	}
+
+	/**
+	 * get returns the fingerprint of the record last written with the specified type and id, if it
+	 * is known.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @return An Optional with the fingerprint, empty if no fingerprint is known
+	 */
+	public Optional<String> get(String type, String id) {
+		fingerprintsLock.lock();
+		try {
+			return Optional.ofNullable(fingerprints.get(new RecordKey(type, id)));
+		} finally {
+			fingerprintsLock.unlock();
+		}
+	}
+
+	/**
+	 * set stores the fingerprint of a record that has been written to storage.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @param fingerprint
+	 *            A String with the fingerprint of the written record
+	 */
+	public void set(String type, String id, String fingerprint) {
+		fingerprintsLock.lock();
+		try {
+			fingerprints.put(new RecordKey(type, id), fingerprint);
+		} finally {
+			fingerprintsLock.unlock();
+		}
+	}
+
+	/**
+	 * remove forgets the fingerprint for the record with the specified type and id.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 */
+	public void remove(String type, String id) {
+		fingerprintsLock.lock();
+		try {
+			fingerprints.remove(new RecordKey(type, id));
+		} finally {
+			fingerprintsLock.unlock();
+		}
+	}
+
+	/**
+	 * dataChanged forgets the fingerprint for a changed record. It is intended to be called from
+	 * {@link RecordStorageInstanceProvider#dataChanged(String, String, String)} so that changes
+	 * made by other processes or servers are not mistaken for unchanged records.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @param action
+	 *            A String with the action of how the data was changed ("create", "update" or
+	 *            "delete").
+	 */
+	public void dataChanged(String type, String id, String action) {
+		remove(type, id);
+	}
+
+	/**
+	 * size returns the number of fingerprints currently known.
+	 * 
+	 * @return An int with the number of known fingerprints
+	 */
+	public int size() {
+		fingerprintsLock.lock();
+		try {
+			return fingerprints.size();
+		} finally {
+			fingerprintsLock.unlock();
+		}
+	}
+
+	/**
+	 * getLockForRecord returns the lock to hold while checking and writing the record with the
+	 * specified type and id, so that the stored record and its fingerprint are changed together.
+	 * Several records share each lock.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @return The Lock for the record
+	 */
+	Lock getLockForRecord(String type, String id) {
+		return recordLocks[getLockNumber(type, id)];
+	}
+
+	private int getLockNumber(String type, String id) {
+		return Math.floorMod(Objects.hash(type, id), NUMBER_OF_RECORD_LOCKS);
+	}
+
+	/**
+	 * getLocksForWrites returns the locks to hold while checking and writing the records in writes,
+	 * see {@link #getLockForRecord(String, String)}. Each lock is only returned once and the locks
+	 * are returned in the order they must be taken in, to avoid deadlocks between writes of several
+	 * records.
+	 * 
+	 * @param writes
+	 *            A List with the {@link RecordWrite}s to get locks for
+	 * @return A List with the Locks for the records in writes
+	 */
+	List<Lock> getLocksForWrites(List<RecordWrite> writes) {
+		return writes.stream().map(write -> getLockNumber(write.type(), write.id())).distinct()
+				.sorted().map(lockNumber -> recordLocks[lockNumber]).toList();
+	}
+
+	private record RecordKey(String type, String id) {
+	}
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.fingerprint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.RecordWriteStatus;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * UnchangedUpdateSkippingRecordStorage is a {@link RecordStorage} that decorates another
+ * RecordStorage and skips updates that would write the same content as is already stored, such
+ * as when a harvest imports the same records again. All other calls are passed on to the
+ * decorated RecordStorage.
+ * <p>
+ * An update is unchanged if its fingerprint, calculated by a {@link RecordFingerprinter}, equals
+ * the fingerprint of the stored record. Fingerprints of records written through this
+ * RecordStorage are kept in a shared {@link RecordFingerprints}. If the fingerprint of a record is
+ * not known, it is calculated from the record, storageTerms and links read from storage, which is
+ * cheaper than an unneeded write for most storages.
+ * <p>
+ * Use {@link #updateIfChanged(String, String, DataGroup, Set, Set, String)} or
+ * {@link #writeMany(List)} to find out if an update was skipped, so that follow up work such as
+ * archiving and reporting changed data can be skipped as well.
+ * <p>
+ * Checking if an update is unchanged and writing it is done while holding a lock for the record,
+ * shared through RecordFingerprints by all instances using the same RecordFingerprints, so that
+ * the fingerprint always belongs to the last written content. Writes to the same record are
+ * therefore done one at a time. Changes made by other processes are only noticed through
+ * {@link RecordFingerprints#dataChanged(String, String, String)}.
+ * <p>
+ * UnchangedUpdateSkippingRecordStorage is threadsafe if the decorated RecordStorage and the
+ * fingerprinter are threadsafe.
+ */
+public class UnchangedUpdateSkippingRecordStorage implements RecordStorage {
+	private RecordStorage recordStorage;
+	private RecordFingerprinter fingerprinter;
+	private RecordFingerprints fingerprints;
+
+	public static UnchangedUpdateSkippingRecordStorage usingRecordStorageAndFingerprinting(
+			RecordStorage recordStorage, RecordFingerprinter fingerprinter,
+			RecordFingerprints fingerprints) {
+		return new UnchangedUpdateSkippingRecordStorage(recordStorage, fingerprinter,
+				fingerprints);
+	}
+
+	private UnchangedUpdateSkippingRecordStorage(RecordStorage recordStorage,
+			RecordFingerprinter fingerprinter, RecordFingerprints fingerprints) {
+		this.recordStorage = recordStorage;
+		this.fingerprinter = fingerprinter;
+		this.fingerprints = fingerprints;
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public DataGroup read(List<String> types, String id) {
+		return recordStorage.read(types, id);
+	}
+
+	@Override
+	public DataRecordGroup read(String type, String id) {
+		return recordStorage.read(type, id);
+	}
+
+	@Override
+	public Optional<DataRecordGroup> readIfExists(String type, String id) {
+		return recordStorage.readIfExists(type, id);
+	}
+
+	@Override
+	public StorageReadManyResult readMany(String type, Collection<String> ids) {
+		return recordStorage.readMany(type, ids);
+	}
+
+	@Override
+	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		String fingerprint = fingerprinter.fingerprint(dataRecord, storageTerms, links,
+				dataDivider);
+		Lock recordLock = fingerprints.getLockForRecord(type, id);
+		recordLock.lock();
+		try {
+			recordStorage.create(type, id, dataRecord, storageTerms, links, dataDivider);
+			fingerprints.set(type, id, fingerprint);
+		} finally {
+			recordLock.unlock();
+		}
+	}
+
+	@Override
+	public void deleteByTypeAndId(String type, String id) {
+		Lock recordLock = fingerprints.getLockForRecord(type, id);
+		recordLock.lock();
+		try {
+			recordStorage.deleteByTypeAndId(type, id);
+		} finally {
+			fingerprints.remove(type, id);
+			recordLock.unlock();
+		}
+	}
+
+	@Override
+	public void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		updateIfChanged(type, id, dataRecord, storageTerms, links, dataDivider);
+	}
+
+	/**
+	 * updateIfChanged updates the record in the same way as
+	 * {@link #update(String, String, DataGroup, Set, Set, String)}, unless the stored record
+	 * already has the same content, and reports if the record was written.
+	 * 
+	 * @return A boolean, true if the record was updated, false if the update was skipped as the
+	 *         record is unchanged
+	 */
+	public boolean updateIfChanged(String type, String id, DataGroup dataRecord,
+			Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+		String fingerprint = fingerprinter.fingerprint(dataRecord, storageTerms, links,
+				dataDivider);
+		Lock recordLock = fingerprints.getLockForRecord(type, id);
+		recordLock.lock();
+		try {
+			if (storedRecordHasFingerprint(type, id, fingerprint)) {
+				return false;
+			}
+			updateAndSetFingerprint(type, id, dataRecord, storageTerms, links, dataDivider,
+					fingerprint);
+			return true;
+		} finally {
+			recordLock.unlock();
+		}
+	}
+
+	private boolean storedRecordHasFingerprint(String type, String id, String fingerprint) {
+		Optional<String> storedFingerprint = fingerprints.get(type, id)
+				.or(() -> readStoredFingerprint(type, id));
+		return storedFingerprint.filter(fingerprint::equals).isPresent();
+	}
+
+	private Optional<String> readStoredFingerprint(String type, String id) {
+		Optional<DataRecordGroup> storedRecord = recordStorage.readIfExists(type, id);
+		return storedRecord.map(dataRecordGroup -> fingerprintStoredRecord(type, id,
+				dataRecordGroup));
+	}
+
+	private String fingerprintStoredRecord(String type, String id,
+			DataRecordGroup dataRecordGroup) {
+		DataGroup dataGroup = DataProvider.createGroupFromRecordGroup(dataRecordGroup);
+		String fingerprint = fingerprinter.fingerprint(dataGroup,
+				recordStorage.getStorageTermsForRecord(type, id),
+				recordStorage.getLinksFromRecord(type, id), dataRecordGroup.getDataDivider());
+		fingerprints.set(type, id, fingerprint);
+		return fingerprint;
+	}
+
+	private void updateAndSetFingerprint(String type, String id, DataGroup dataRecord,
+			Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider,
+			String fingerprint) {
+		fingerprints.remove(type, id);
+		recordStorage.update(type, id, dataRecord, storageTerms, links, dataDivider);
+		fingerprints.set(type, id, fingerprint);
+	}
+
+	/**
+	 * writeMany writes the records in the same way as {@link RecordStorage#writeMany(List)}, except
+	 * that unchanged updates are not passed on to the decorated RecordStorage and are reported
+	 * with status {@link RecordWriteStatus#UNCHANGED}.
+	 */
+	@Override
+	public List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+		List<Lock> recordLocks = fingerprints.getLocksForWrites(writes);
+		recordLocks.forEach(Lock::lock);
+		try {
+			return writeManyWhileLocked(writes);
+		} finally {
+			recordLocks.reversed().forEach(Lock::unlock);
+		}
+	}
+
+	private List<RecordWriteResult> writeManyWhileLocked(List<RecordWrite> writes) {
+		RecordWriteResult[] results = new RecordWriteResult[writes.size()];
+		List<PendingWrite> pendingWrites = new ArrayList<>();
+		for (int index = 0; index < writes.size(); index++) {
+			RecordWrite write = writes.get(index);
+			String fingerprint = fingerprintWrite(write);
+			if (isUnchangedUpdate(write, fingerprint)) {
+				results[index] = new RecordWriteResult(write, RecordWriteStatus.UNCHANGED, null);
+			} else {
+				pendingWrites.add(new PendingWrite(index, write, fingerprint));
+			}
+		}
+		writePendingWrites(pendingWrites, results);
+		return Arrays.asList(results);
+	}
+
+	private String fingerprintWrite(RecordWrite write) {
+		return fingerprinter.fingerprint(write.dataRecord(), write.storageTerms(), write.links(),
+				write.dataDivider());
+	}
+
+	private boolean isUnchangedUpdate(RecordWrite write, String fingerprint) {
+		return write.action() == RecordWriteAction.UPDATE
+				&& storedRecordHasFingerprint(write.type(), write.id(), fingerprint);
+	}
+
+	private void writePendingWrites(List<PendingWrite> pendingWrites,
+			RecordWriteResult[] results) {
+		if (pendingWrites.isEmpty()) {
+			return;
+		}
+		pendingWrites.forEach(this::removeFingerprint);
+		List<RecordWriteResult> writeResults = recordStorage
+				.writeMany(pendingWrites.stream().map(PendingWrite::write).toList());
+		for (int i = 0; i < pendingWrites.size(); i++) {
+			PendingWrite pendingWrite = pendingWrites.get(i);
+			RecordWriteResult writeResult = writeResults.get(i);
+			setFingerprintIfWritten(pendingWrite, writeResult);
+			results[pendingWrite.index()] = writeResult;
+		}
+	}
+
+	private void removeFingerprint(PendingWrite pendingWrite) {
+		fingerprints.remove(pendingWrite.write().type(), pendingWrite.write().id());
+	}
+
+	private void setFingerprintIfWritten(PendingWrite pendingWrite,
+			RecordWriteResult writeResult) {
+		if (writeResult.status() == RecordWriteStatus.SUCCESS) {
+			RecordWrite write = pendingWrite.write();
+			fingerprints.set(write.type(), write.id(), pendingWrite.fingerprint());
+		}
+	}
+
+	private record PendingWrite(int index, RecordWrite write, String fingerprint) {
+	}
+
+	@Override
+	public StorageReadResult readList(String type, Filter filter) {
+		return recordStorage.readList(type, filter);
+	}
+
+	@Override
+	public Stream<DataRecordGroup> readListAsStream(String type, Filter filter) {
+		return recordStorage.readListAsStream(type, filter);
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		return recordStorage.readList(types, filter);
+	}
+
+	@Override
+	public boolean recordExists(List<String> types, String id) {
+		return recordStorage.recordExists(types, id);
+	}
+
+	@Override
+	public Set<String> findExistingIds(List<String> types, Collection<String> ids) {
+		return recordStorage.findExistingIds(types, ids);
+	}
+
+	@Override
+	public boolean linksExistForRecord(String type, String id) {
+		return recordStorage.linksExistForRecord(type, id);
+	}
+
+	@Override
+	public Set<Link> getLinksToRecord(String type, String id) {
+		return recordStorage.getLinksToRecord(type, id);
+	}
+
+	@Override
+	public StorageLinksReadResult getLinksToRecord(String type, String id, int maxNumberOfLinks,
+			String continuationToken) {
+		return recordStorage.getLinksToRecord(type, id, maxNumberOfLinks, continuationToken);
+	}
+
+	@Override
+	public long countLinksToRecord(String type, String id) {
+		return recordStorage.countLinksToRecord(type, id);
+	}
+
+	@Override
+	public Map<String, Long> countLinksToRecordGroupedByType(String type, String id) {
+		return recordStorage.countLinksToRecordGroupedByType(type, id);
+	}
+
+	@Override
+	public Set<Link> getLinksFromRecord(String type, String id) {
+		return recordStorage.getLinksFromRecord(type, id);
+	}
+
+	@Override
+	public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
+		return recordStorage.getStorageTermsForRecord(type, id);
+	}
+
+	@Override
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		return recordStorage.getTotalNumberOfRecordsForTypes(types, filter);
+	}
+
+	RecordStorage onlyForTestGetRecordStorage() {
+		return recordStorage;
+	}
+
+	RecordFingerprinter onlyForTestGetFingerprinter() {
+		return fingerprinter;
+	}
+
+	RecordFingerprints onlyForTestGetFingerprints() {
+		return fingerprints;
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.groupcommit;
+
+import java.util.List;
+
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteResult;
+
+/**
+ * GroupCommitListener is notified about buffered writes that could not be committed by a
+ * {@link GroupCommitRecordStorage}. As the writing thread has already returned when a buffered
+ * write is committed, this is the only way to find out about failed writes.
+ * <p>
+ * Methods are called from the thread committing the group, and MUST NOT throw exceptions.
+ */
+public interface GroupCommitListener {
+
+	/**
+	 * writesFailed is called with the results of the writes in a committed group that did not
+	 * succeed, such as creates of records that already existed or updates of records that did not
+	 * exist.
+	 * 
+	 * @param failedResults
+	 *            A List of {@link RecordWriteResult} for the failed writes
+	 */
+	void writesFailed(List<RecordWriteResult> failedResults);
+
+	/**
+	 * commitFailed is called when a group could not be committed at all, as when storage is not
+	 * reachable, also after the group was committed a second time. The writes are removed from the
+	 * buffer and not retried again, so they MUST be submitted again if they should be kept.
+	 * <p>
+	 * As writeMany does not have to be atomic, some of the writes might have been committed before
+	 * the exception was thrown, and a create committed by the first attempt is then reported as a
+	 * conflict by the second attempt.
+	 * 
+	 * @param writes
+	 *            A List of {@link RecordWrite} with the writes in the group
+	 * @param exception
+	 *            The RuntimeException thrown by storage on the second attempt, with the one
+	 *            thrown on the first attempt as a suppressed exception
+	 */
+	void commitFailed(List<RecordWrite> writes, RuntimeException exception);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.groupcommit;
+
+import java.time.Duration;
+
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * GroupCommitPolicy defines when writes buffered by a {@link GroupCommitRecordStorage} are
+ * committed.
+ * 
+ * @param maxBatchSize
+ *            An int with the number of buffered writes that makes the writing thread commit the
+ *            buffer at once
+ * @param maxDelay
+ *            A Duration with how long a write is at most buffered before it is committed
+ */
+public record GroupCommitPolicy(int maxBatchSize, Duration maxDelay) {
+
+	public GroupCommitPolicy {
+		if (maxBatchSize < 1) {
+			throw StorageException.withMessage("MaxBatchSize must be at least 1");
+		}
+		if (!maxDelay.isPositive()) {
+			throw StorageException.withMessage("MaxDelay must be positive");
+		}
+	}
+
+	/**
+	 * defaultPolicy returns a GroupCommitPolicy committing at most 100 writes in a group, at most
+	 * 20 milliseconds after they were made.
+	 */
+	public static GroupCommitPolicy defaultPolicy() {
+		return new GroupCommitPolicy(100, Duration.ofMillis(20));
+	}
+}
@@ -0,0 +1,572 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.groupcommit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordConflictException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.RecordWriteStatus;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * GroupCommitRecordStorage is a {@link RecordStorage} that decorates another RecordStorage and
+ * buffers calls to create and update, committing the buffered writes as one group using
+ * {@link RecordStorage#writeMany(List)}. This lets bursty ingestion of many small records share
+ * one commit instead of forcing one commit per record.
+ * <p>
+ * Buffered writes are committed when the buffer holds {@link GroupCommitPolicy#maxBatchSize()}
+ * writes, by the thread making the last write, about {@link GroupCommitPolicy#maxDelay()} after
+ * the first write in the buffer was made, by a background virtual thread, when {@link #flush()} or
+ * {@link #close()} is called, and when the JVM shuts down. Several writes to the same record in one
+ * group are combined into one write.
+ * <p>
+ * The background commits of all GroupCommitRecordStorage instances are started by one shared
+ * scheduler thread, so creating several instances does not start one thread each. A background
+ * commit is only scheduled while an instance has buffered writes, so instances without buffered
+ * writes are not referenced by the scheduler and can be garbage collected even if they are never
+ * closed. The commit itself runs in a virtual thread, so a slow commit for one instance does not
+ * delay the others.
+ * <p>
+ * Instances with buffered writes are tracked in a shared set, and one JVM shutdown hook commits
+ * their buffered writes when the JVM shuts down, so that writes already returned from create and
+ * update are not lost on a normal shutdown. Writes are lost if the JVM is halted or killed before
+ * they are committed.
+ * <p>
+ * Writes made through this RecordStorage can be read back at once:
+ * <ul>
+ * <li>read, readIfExists, readMany, recordExists, getLinksFromRecord and
+ * getStorageTermsForRecord answer from the buffer for buffered records</li>
+ * <li>deleteByTypeAndId, writeMany, lists, counts and link queries commit the buffer before they
+ * are passed on, as their answers depend on all written records</li>
+ * </ul>
+ * <p>
+ * As the writing thread returns before its write is committed, creates of records that already
+ * exist in storage and updates of records that do not exist are not thrown from create and
+ * update, they are reported to the {@link GroupCommitListener} when the group is committed. A
+ * create of a record that is buffered is still thrown at once as a
+ * {@link RecordConflictException}.
+ * <p>
+ * If writeMany throws an exception when a group is committed, the group is committed once more.
+ * If also that fails, the writes are removed from the buffer and handed to
+ * {@link GroupCommitListener#commitFailed(List, RuntimeException)}, and they MUST be submitted
+ * again by the listener or its caller if they should be kept.
+ * <p>
+ * GroupCommitRecordStorage is threadsafe. The decorated RecordStorage MUST be threadsafe, as
+ * groups are committed from a background thread. {@link #close()} SHOULD be called when an
+ * instance is no longer used, to commit the remaining buffered writes at once and stop accepting
+ * writes.
+ */
+public final class GroupCommitRecordStorage implements RecordStorage, AutoCloseable {
+	private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+	private static final Set<GroupCommitRecordStorage> INSTANCES_WITH_BUFFERED_WRITES =
+			createInstancesFlushedOnShutdown();
+	private final RecordStorage recordStorage;
+	private final GroupCommitPolicy policy;
+	private final GroupCommitListener listener;
+	private final ReentrantLock bufferLock = new ReentrantLock();
+	private final ReentrantLock commitLock = new ReentrantLock();
+	private ScheduledFuture<?> scheduledCommit = null;
+	private Map<RecordKey, RecordWrite> pendingWrites = new LinkedHashMap<>();
+	private Map<RecordKey, RecordWrite> committingWrites = Map.of();
+	private boolean closed = false;
+
+	private record RecordKey(String type, String id) {
+	}
+
+	private static ScheduledThreadPoolExecutor createScheduler() {
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+				Thread.ofPlatform().name("cora-group-commit").daemon().factory());
+		scheduler.setRemoveOnCancelPolicy(true);
+		return scheduler;
+	}
+
+	private static Set<GroupCommitRecordStorage> createInstancesFlushedOnShutdown() {
+		Set<GroupCommitRecordStorage> instances = ConcurrentHashMap.newKeySet();
+		Runtime.getRuntime().addShutdownHook(Thread.ofPlatform()
+				.name("cora-group-commit-shutdown").unstarted(() -> flushAll(instances)));
+		return instances;
+	}
+
+	private static void flushAll(Set<GroupCommitRecordStorage> instances) {
+		for (GroupCommitRecordStorage instance : instances) {
+			instance.flush();
+		}
+	}
+
+	/**
+	 * usingRecordStoragePolicyAndListener creates a GroupCommitRecordStorage.
+	 * 
+	 * @param recordStorage
+	 *            The threadsafe RecordStorage to commit writes to
+	 * @param policy
+	 *            A {@link GroupCommitPolicy} defining when buffered writes are committed
+	 * @param listener
+	 *            A {@link GroupCommitListener} notified about writes that could not be committed
+	 * @return A GroupCommitRecordStorage
+	 */
+	public static GroupCommitRecordStorage usingRecordStoragePolicyAndListener(
+			RecordStorage recordStorage, GroupCommitPolicy policy, GroupCommitListener listener) {
+		return new GroupCommitRecordStorage(recordStorage, policy, listener);
+	}
+
+	private GroupCommitRecordStorage(RecordStorage recordStorage, GroupCommitPolicy policy,
+			GroupCommitListener listener) {
+		this.recordStorage = recordStorage;
+		this.policy = policy;
+		this.listener = listener;
+	}
+
+	private void startBackgroundCommit() {
+		Thread.ofVirtual().name("cora-group-commit").start(this::flush);
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public DataGroup read(List<String> types, String id) {
+		flushIfBuffered();
+		return recordStorage.read(types, id);
+	}
+
+	@Override
+	public DataRecordGroup read(String type, String id) {
+		Optional<RecordWrite> bufferedWrite = getBufferedWrite(type, id);
+		if (bufferedWrite.isPresent()) {
+			return toDataRecordGroup(bufferedWrite.get());
+		}
+		return recordStorage.read(type, id);
+	}
+
+	private Optional<RecordWrite> getBufferedWrite(String type, String id) {
+		RecordKey key = new RecordKey(type, id);
+		bufferLock.lock();
+		try {
+			RecordWrite pendingWrite = pendingWrites.get(key);
+			if (pendingWrite != null) {
+				return Optional.of(pendingWrite);
+			}
+			return Optional.ofNullable(committingWrites.get(key));
+		} finally {
+			bufferLock.unlock();
+		}
+	}
+
+	private DataRecordGroup toDataRecordGroup(RecordWrite write) {
+		return DataProvider.createRecordGroupFromDataGroup(write.dataRecord());
+	}
+
+	@Override
+	public Optional<DataRecordGroup> readIfExists(String type, String id) {
+		Optional<RecordWrite> bufferedWrite = getBufferedWrite(type, id);
+		if (bufferedWrite.isPresent()) {
+			return bufferedWrite.map(this::toDataRecordGroup);
+		}
+		return recordStorage.readIfExists(type, id);
+	}
+
+	@Override
+	public StorageReadManyResult readMany(String type, Collection<String> ids) {
+		Map<String, RecordWrite> bufferedWrites = getBufferedWrites(type, ids);
+		if (bufferedWrites.isEmpty()) {
+			return recordStorage.readMany(type, ids);
+		}
+		List<String> unbufferedIds = new ArrayList<>(ids);
+		unbufferedIds.removeAll(bufferedWrites.keySet());
+		StorageReadManyResult storedResult = recordStorage.readMany(type, unbufferedIds);
+		return combineResults(ids, bufferedWrites, storedResult);
+	}
+
+	private Map<String, RecordWrite> getBufferedWrites(String type, Collection<String> ids) {
+		Map<String, RecordWrite> bufferedWrites = new HashMap<>();
+		for (String id : ids) {
+			getBufferedWrite(type, id).ifPresent(write -> bufferedWrites.put(id, write));
+		}
+		return bufferedWrites;
+	}
+
+	private StorageReadManyResult combineResults(Collection<String> ids,
+			Map<String, RecordWrite> bufferedWrites, StorageReadManyResult storedResult) {
+		Map<String, DataRecordGroup> records = new LinkedHashMap<>();
+		Set<String> missingIds = new LinkedHashSet<>();
+		for (String id : ids) {
+			if (bufferedWrites.containsKey(id)) {
+				records.put(id, toDataRecordGroup(bufferedWrites.get(id)));
+			} else if (storedResult.records().containsKey(id)) {
+				records.put(id, storedResult.records().get(id));
+			} else {
+				missingIds.add(id);
+			}
+		}
+		return new StorageReadManyResult(records, missingIds);
+	}
+
+	@Override
+	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		RecordWrite write = new RecordWrite(RecordWriteAction.CREATE, type, id, dataRecord,
+				storageTerms, links, dataDivider);
+		bufferAndCommitIfFull(write);
+	}
+
+	private void bufferAndCommitIfFull(RecordWrite write) {
+		int numberOfPendingWrites = buffer(write);
+		if (numberOfPendingWrites >= policy.maxBatchSize()) {
+			flush();
+		}
+	}
+
+	private int buffer(RecordWrite write) {
+		RecordKey key = new RecordKey(write.type(), write.id());
+		bufferLock.lock();
+		try {
+			ensureOpen();
+			RecordWrite pendingWrite = pendingWrites.get(key);
+			ensureNotBufferedIfCreate(write, key, pendingWrite);
+			scheduleCommitIfFirstPendingWrite();
+			pendingWrites.put(key, combineWrites(pendingWrite, write));
+			return pendingWrites.size();
+		} finally {
+			bufferLock.unlock();
+		}
+	}
+
+	private void scheduleCommitIfFirstPendingWrite() {
+		if (pendingWrites.isEmpty()) {
+			INSTANCES_WITH_BUFFERED_WRITES.add(this);
+			scheduledCommit = SCHEDULER.schedule(this::startBackgroundCommit,
+					policy.maxDelay().toNanos(), TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void ensureOpen() {
+		if (closed) {
+			throw StorageException.withMessage("GroupCommitRecordStorage is closed");
+		}
+	}
+
+	private void ensureNotBufferedIfCreate(RecordWrite write, RecordKey key,
+			RecordWrite pendingWrite) {
+		if (write.action() == RecordWriteAction.CREATE
+				&& (pendingWrite != null || committingWrites.containsKey(key))) {
+			throw RecordConflictException.withMessage("Record with recordType: " + write.type()
+					+ " and recordId: " + write.id() + " already exists");
+		}
+	}
+
+	private RecordWrite combineWrites(RecordWrite pendingWrite, RecordWrite write) {
+		if (pendingWrite != null && pendingWrite.action() == RecordWriteAction.CREATE) {
+			return new RecordWrite(RecordWriteAction.CREATE, write.type(), write.id(),
+					write.dataRecord(), write.storageTerms(), write.links(),
+					write.dataDivider());
+		}
+		return write;
+	}
+
+	@Override
+	public void deleteByTypeAndId(String type, String id) {
+		flushIfBuffered();
+		recordStorage.deleteByTypeAndId(type, id);
+	}
+
+	@Override
+	public void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		RecordWrite write = new RecordWrite(RecordWriteAction.UPDATE, type, id, dataRecord,
+				storageTerms, links, dataDivider);
+		bufferAndCommitIfFull(write);
+	}
+
+	@Override
+	public List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+		flushIfBuffered();
+		return recordStorage.writeMany(writes);
+	}
+
+	@Override
+	public StorageReadResult readList(String type, Filter filter) {
+		flushIfBuffered();
+		return recordStorage.readList(type, filter);
+	}
+
+	@Override
+	public Stream<DataRecordGroup> readListAsStream(String type, Filter filter) {
+		flushIfBuffered();
+		return recordStorage.readListAsStream(type, filter);
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		flushIfBuffered();
+		return recordStorage.readList(types, filter);
+	}
+
+	@Override
+	public boolean recordExists(List<String> types, String id) {
+		for (String type : types) {
+			if (getBufferedWrite(type, id).isPresent()) {
+				return true;
+			}
+		}
+		return recordStorage.recordExists(types, id);
+	}
+
+	@Override
+	public Set<String> findExistingIds(List<String> types, Collection<String> ids) {
+		flushIfBuffered();
+		return recordStorage.findExistingIds(types, ids);
+	}
+
+	@Override
+	public boolean linksExistForRecord(String type, String id) {
+		flushIfBuffered();
+		return recordStorage.linksExistForRecord(type, id);
+	}
+
+	@Override
+	public Set<Link> getLinksToRecord(String type, String id) {
+		flushIfBuffered();
+		return recordStorage.getLinksToRecord(type, id);
+	}
+
+	@Override
+	public StorageLinksReadResult getLinksToRecord(String type, String id, int maxNumberOfLinks,
+			String continuationToken) {
+		flushIfBuffered();
+		return recordStorage.getLinksToRecord(type, id, maxNumberOfLinks, continuationToken);
+	}
+
+	@Override
+	public long countLinksToRecord(String type, String id) {
+		flushIfBuffered();
+		return recordStorage.countLinksToRecord(type, id);
+	}
+
+	@Override
+	public Map<String, Long> countLinksToRecordGroupedByType(String type, String id) {
+		flushIfBuffered();
+		return recordStorage.countLinksToRecordGroupedByType(type, id);
+	}
+
+	@Override
+	public Set<Link> getLinksFromRecord(String type, String id) {
+		Optional<RecordWrite> bufferedWrite = getBufferedWrite(type, id);
+		if (bufferedWrite.isPresent()) {
+			return bufferedWrite.get().links();
+		}
+		return recordStorage.getLinksFromRecord(type, id);
+	}
+
+	@Override
+	public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
+		Optional<RecordWrite> bufferedWrite = getBufferedWrite(type, id);
+		if (bufferedWrite.isPresent()) {
+			return bufferedWrite.get().storageTerms();
+		}
+		return recordStorage.getStorageTermsForRecord(type, id);
+	}
+
+	@Override
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		flushIfBuffered();
+		return recordStorage.getTotalNumberOfRecordsForTypes(types, filter);
+	}
+
+	private void flushIfBuffered() {
+		if (hasBufferedWrites()) {
+			flush();
+		}
+	}
+
+	private boolean hasBufferedWrites() {
+		bufferLock.lock();
+		try {
+			return !pendingWrites.isEmpty() || !committingWrites.isEmpty();
+		} finally {
+			bufferLock.unlock();
+		}
+	}
+
+	/**
+	 * flush commits all buffered writes as one group, and returns when they are committed. Writes
+	 * made by other threads while the group is committed are committed in the next group.
+	 */
+	public void flush() {
+		commitLock.lock();
+		try {
+			commitPendingWrites();
+		} finally {
+			commitLock.unlock();
+		}
+	}
+
+	private void commitPendingWrites() {
+		List<RecordWrite> group = takePendingWrites();
+		if (group.isEmpty()) {
+			return;
+		}
+		try {
+			reportFailedWrites(writeManyRetryingOnce(group));
+		} catch (RuntimeException e) {
+			listener.commitFailed(group, e);
+		} finally {
+			clearCommittingWrites();
+		}
+	}
+
+	private List<RecordWriteResult> writeManyRetryingOnce(List<RecordWrite> group) {
+		try {
+			return recordStorage.writeMany(group);
+		} catch (RuntimeException e) {
+			return retryWriteMany(group, e);
+		}
+	}
+
+	private List<RecordWriteResult> retryWriteMany(List<RecordWrite> group,
+			RuntimeException firstException) {
+		try {
+			return recordStorage.writeMany(group);
+		} catch (RuntimeException e) {
+			e.addSuppressed(firstException);
+			throw e;
+		}
+	}
+
+	private List<RecordWrite> takePendingWrites() {
+		bufferLock.lock();
+		try {
+			cancelScheduledCommit();
+			committingWrites = pendingWrites;
+			pendingWrites = new LinkedHashMap<>();
+			return new ArrayList<>(committingWrites.values());
+		} finally {
+			bufferLock.unlock();
+		}
+	}
+
+	private void reportFailedWrites(List<RecordWriteResult> results) {
+		List<RecordWriteResult> failedResults = new ArrayList<>();
+		for (RecordWriteResult result : results) {
+			if (writeFailed(result)) {
+				failedResults.add(result);
+			}
+		}
+		if (!failedResults.isEmpty()) {
+			listener.writesFailed(failedResults);
+		}
+	}
+
+	private boolean writeFailed(RecordWriteResult result) {
+		return result.status() != RecordWriteStatus.SUCCESS
+				&& result.status() != RecordWriteStatus.UNCHANGED;
+	}
+
+	private void cancelScheduledCommit() {
+		if (scheduledCommit != null) {
+			scheduledCommit.cancel(false);
+			scheduledCommit = null;
+		}
+	}
+
+	private void clearCommittingWrites() {
+		bufferLock.lock();
+		try {
+			committingWrites = Map.of();
+			if (pendingWrites.isEmpty()) {
+				INSTANCES_WITH_BUFFERED_WRITES.remove(this);
+			}
+		} finally {
+			bufferLock.unlock();
+		}
+	}
+
+	/**
+	 * close stops accepting writes and commits all buffered writes. Calling close more than once
+	 * has no effect.
+	 */
+	@Override
+	public void close() {
+		bufferLock.lock();
+		try {
+			closed = true;
+		} finally {
+			bufferLock.unlock();
+		}
+		flush();
+	}
+
+	RecordStorage onlyForTestGetRecordStorage() {
+		return recordStorage;
+	}
+
+	GroupCommitPolicy onlyForTestGetPolicy() {
+		return policy;
+	}
+
+	GroupCommitListener onlyForTestGetListener() {
+		return listener;
+	}
+
+	boolean onlyForTestIsCommitScheduled() {
+		bufferLock.lock();
+		try {
+			return scheduledCommit != null;
+		} finally {
+			bufferLock.unlock();
+		}
+	}
+
+	static boolean onlyForTestIsFlushedOnShutdown(GroupCommitRecordStorage instance) {
+		return INSTANCES_WITH_BUFFERED_WRITES.contains(instance);
+	}
+
+	static void onlyForTestFlushAllOnShutdown() {
+		flushAll(INSTANCES_WITH_BUFFERED_WRITES);
+	}
+
+	static int onlyForTestGetNumberOfScheduledCommits() {
+		return SCHEDULER.getQueue().size();
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015, 2025 Uppsala University Library
+ * Copyright 2015, 2025, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -19,13 +19,20 @@
 
 package se.uu.ub.cora.storage.idgenerator.internal;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import se.uu.ub.cora.storage.idgenerator.RecordIdGenerator;
 
 public class TimeStampIdGenerator implements RecordIdGenerator {
+	private final AtomicLong lastTimeStamp = new AtomicLong(Long.MIN_VALUE);
 
 	@Override
-	public synchronized String getIdForType(String type) {
-		return type + ":" + System.nanoTime();
+	public String getIdForType(String type) {
+		return type + ":" + nextUniqueTimeStamp();
+	}
+
+	private long nextUniqueTimeStamp() {
+		return lastTimeStamp.updateAndGet(last -> Math.max(last + 1, System.nanoTime()));
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.CountMode;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.LinkPaging;
+import se.uu.ub.cora.storage.ProjectedRecord;
+import se.uu.ub.cora.storage.RecordConflictException;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+import se.uu.ub.cora.storage.filter.imp.FilterPlannerImp;
+
+/**
+ * InMemoryRecordStorage is a {@link RecordStorage} that keeps all records in memory. It is
+ * intended for tests, small read mostly deployments and as a baseline when benchmarking other
+ * implementations of RecordStorage.
+ * <p>
+ * StorageTerms are indexed per type using both hash and sorted indexes, so that filters are
+ * answered by looking up matching records in the index instead of scanning all records. Filters
+ * are planned using {@link FilterPlannerImp}, with selectivity estimated from the index. Links
+ * between records are kept in a {@link LinkIndex}.
+ * <p>
+ * Records are kept sorted by id, and continuation tokens point to the last record of a page, so
+ * reading the next page using a token seeks directly to it instead of reading all earlier
+ * matches. A fromNo below 1 is read as 1.
+ * <p>
+ * InMemoryRecordStorage is threadsafe and one instance can be shared by all threads. As types only
+ * exist in memory when they have records, types without records are treated as existing types
+ * without any records.
+ * <p>
+ * Records are returned as {@link DataRecordGroup}s created from the stored {@link DataGroup}s
+ * using {@link DataProvider}, or as {@link ProjectedRecord}s if a projection is requested.
+ * <p>
+ * The DataGroups passed to create and update are copied before they are stored, and the deprecated
+ * methods returning DataGroups return copies, so that changes made by callers to DataGroups they
+ * have written or read do not change stored records.
+ */
+public class InMemoryRecordStorage implements RecordStorage {
+	private static final TypeStore EMPTY_TYPE_STORE = new TypeStore();
+	private final Map<String, TypeStore> typeStores = new ConcurrentHashMap<>();
+	private final LinkIndex linkIndex = new LinkIndex();
+
+	@Override
+	@Deprecated(forRemoval = true)
+	public DataGroup read(List<String> types, String id) {
+		List<StoredRecord> found = new ArrayList<>();
+		for (String type : types) {
+			StoredRecord storedRecord = getTypeStore(type).get(id);
+			if (storedRecord != null) {
+				found.add(storedRecord);
+			}
+		}
+		if (found.isEmpty()) {
+			throw RecordNotFoundException
+					.withMessage("No record exists with recordId: " + id + " for types: " + types);
+		}
+		if (found.size() > 1) {
+			throw StorageException
+					.withMessage("More than one record exists with recordId: " + id + " for types: "
+							+ types);
+		}
+		return copyOf(found.get(0).dataRecord());
+	}
+
+	private DataGroup copyOf(DataGroup dataGroup) {
+		return DataProvider
+				.createGroupFromRecordGroup(DataProvider.createRecordGroupFromDataGroup(dataGroup));
+	}
+
+	private TypeStore getTypeStore(String type) {
+		return typeStores.getOrDefault(type, EMPTY_TYPE_STORE);
+	}
+
+	private TypeStore getOrCreateTypeStore(String type) {
+		return typeStores.computeIfAbsent(type, k -> new TypeStore());
+	}
+
+	@Override
+	public DataRecordGroup read(String type, String id) {
+		return toDataRecordGroup(readStoredRecord(type, id));
+	}
+
+	private StoredRecord readStoredRecord(String type, String id) {
+		StoredRecord storedRecord = getTypeStore(type).get(id);
+		if (storedRecord == null) {
+			throw createNotFoundException(type, id);
+		}
+		return storedRecord;
+	}
+
+	private RecordNotFoundException createNotFoundException(String type, String id) {
+		return RecordNotFoundException.withMessageWithoutStackTrace(
+				"No record exists with recordType: " + type + " and recordId: " + id);
+	}
+
+	private DataRecordGroup toDataRecordGroup(StoredRecord storedRecord) {
+		return DataProvider.createRecordGroupFromDataGroup(storedRecord.dataRecord());
+	}
+
+	@Override
+	public Optional<DataRecordGroup> readIfExists(String type, String id) {
+		return Optional.ofNullable(getTypeStore(type).get(id)).map(this::toDataRecordGroup);
+	}
+
+	@Override
+	public StorageReadManyResult readMany(String type, Collection<String> ids) {
+		TypeStore typeStore = getTypeStore(type);
+		Map<String, DataRecordGroup> records = new LinkedHashMap<>();
+		Set<String> missingIds = new LinkedHashSet<>();
+		for (String id : new LinkedHashSet<>(ids)) {
+			StoredRecord storedRecord = typeStore.get(id);
+			if (storedRecord != null) {
+				records.put(id, toDataRecordGroup(storedRecord));
+			} else {
+				missingIds.add(id);
+			}
+		}
+		return new StorageReadManyResult(records, missingIds);
+	}
+
+	@Override
+	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		StoredRecord storedRecord = new StoredRecord(type, id, copyOf(dataRecord),
+				Set.copyOf(storageTerms), Set.copyOf(links), dataDivider);
+		TypeStore typeStore = getOrCreateTypeStore(type);
+		boolean created = typeStore.writeLocked(() -> {
+			boolean added = typeStore.putIfAbsent(storedRecord);
+			if (added) {
+				linkIndex.setLinksFromRecord(new Link(type, id), storedRecord.links());
+			}
+			return added;
+		});
+		if (!created) {
+			throw RecordConflictException.withMessage("Record with recordType: " + type
+					+ " and recordId: " + id + " already exists");
+		}
+	}
+
+	@Override
+	public void deleteByTypeAndId(String type, String id) {
+		TypeStore typeStore = getTypeStore(type);
+		StoredRecord removed = typeStore.writeLocked(() -> {
+			StoredRecord removedRecord = typeStore.remove(id);
+			if (removedRecord != null) {
+				linkIndex.removeLinksFromRecord(new Link(type, id));
+			}
+			return removedRecord;
+		});
+		if (removed == null) {
+			throw createNotFoundException(type, id);
+		}
+	}
+
+	@Override
+	public void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		StoredRecord storedRecord = new StoredRecord(type, id, copyOf(dataRecord),
+				Set.copyOf(storageTerms), Set.copyOf(links), dataDivider);
+		TypeStore typeStore = getTypeStore(type);
+		StoredRecord previous = typeStore.writeLocked(() -> {
+			StoredRecord previousRecord = typeStore.replace(storedRecord);
+			if (previousRecord != null) {
+				linkIndex.setLinksFromRecord(new Link(type, id), storedRecord.links());
+			}
+			return previousRecord;
+		});
+		if (previous == null) {
+			throw createNotFoundException(type, id);
+		}
+	}
+
+	@Override
+	public StorageReadResult readList(String type, Filter filter) {
+		RecordPage page = getTypeStore(type).findPage(filter);
+		StorageReadResult result = createReadResultForPage(page, filter);
+		if (filter.hasProjection()) {
+			addProjectedRecords(result, page.records(), filter.projection);
+		} else {
+			addDataRecordGroups(result, page.records());
+		}
+		return result;
+	}
+
+	private StorageReadResult createReadResultForPage(RecordPage page, Filter filter) {
+		StorageReadResult result = new StorageReadResult();
+		result.start = page.start();
+		result.continuationToken = page.continuationToken();
+		setTotalNumberOfMatches(result, page.numberOfMatches(), filter);
+		return result;
+	}
+
+	private void setTotalNumberOfMatches(StorageReadResult result, long numberOfMatches,
+			Filter filter) {
+		result.countMode = CountMode.modeForResult(numberOfMatches, filter);
+		result.totalNumberOfMatches = CountMode.countForResult(numberOfMatches, filter);
+	}
+
+	private void addProjectedRecords(StorageReadResult result, List<StoredRecord> records,
+			List<String> projection) {
+		result.projected = true;
+		for (StoredRecord storedRecord : records) {
+			result.listOfProjectedRecords.add(ProjectedRecord.usingStorageTermsAndProjection(
+					storedRecord.type(), storedRecord.id(), storedRecord.storageTerms(),
+					projection));
+		}
+	}
+
+	private void addDataRecordGroups(StorageReadResult result, List<StoredRecord> records) {
+		for (StoredRecord storedRecord : records) {
+			result.listOfDataRecordGroups.add(toDataRecordGroup(storedRecord));
+		}
+	}
+
+	private List<StoredRecord> findMatches(String type, Filter filter) {
+		return getTypeStore(type).findMatches(filter);
+	}
+
+	@Override
+	public Stream<DataRecordGroup> readListAsStream(String type, Filter filter) {
+		Filter filterWithoutCount = copyRangeAndToken(filter);
+		return getTypeStore(type).findPage(filterWithoutCount).records().stream()
+				.map(this::toDataRecordGroup);
+	}
+
+	private Filter copyRangeAndToken(Filter filter) {
+		Filter copy = new Filter();
+		copy.fromNo = filter.fromNo;
+		copy.toNo = filter.toNo;
+		copy.include = filter.include;
+		copy.exclude = filter.exclude;
+		copy.continuationToken = filter.continuationToken;
+		copy.countMode = CountMode.NONE;
+		return copy;
+	}
+
+	@Override
+	@Deprecated(forRemoval = true)
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		List<StoredRecord> matches = new ArrayList<>();
+		for (String type : types) {
+			matches.addAll(findMatches(type, filter));
+		}
+		int fromIndex = Math.clamp(filter.fromNo - 1, 0, matches.size());
+		int toIndex = Math.clamp(filter.toNo, fromIndex, matches.size());
+		StorageReadResult result = new StorageReadResult();
+		result.start = fromIndex;
+		setTotalNumberOfMatches(result, matches.size(), filter);
+		for (StoredRecord storedRecord : matches.subList(fromIndex, toIndex)) {
+			result.listOfDataGroups.add(copyOf(storedRecord.dataRecord()));
+		}
+		return result;
+	}
+
+	@Override
+	public boolean recordExists(List<String> types, String id) {
+		for (String type : types) {
+			if (getTypeStore(type).contains(id)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Set<String> findExistingIds(List<String> types, Collection<String> ids) {
+		Set<String> existingIds = new LinkedHashSet<>();
+		for (String id : ids) {
+			if (recordExists(types, id)) {
+				existingIds.add(id);
+			}
+		}
+		return existingIds;
+	}
+
+	@Override
+	public boolean linksExistForRecord(String type, String id) {
+		return linkIndex.hasLinksToRecord(new Link(type, id));
+	}
+
+	@Override
+	public Set<Link> getLinksToRecord(String type, String id) {
+		return linkIndex.getLinksToRecord(new Link(type, id));
+	}
+
+	@Override
+	public StorageLinksReadResult getLinksToRecord(String type, String id, int maxNumberOfLinks,
+			String continuationToken) {
+		LinkPaging linkPaging = LinkPaging
+				.usingMaxNumberOfLinksAndContinuationToken(maxNumberOfLinks, continuationToken);
+		return linkIndex.getPageOfLinksToRecord(new Link(type, id), linkPaging);
+	}
+
+	@Override
+	public long countLinksToRecord(String type, String id) {
+		return linkIndex.countLinksToRecord(new Link(type, id));
+	}
+
+	@Override
+	public Map<String, Long> countLinksToRecordGroupedByType(String type, String id) {
+		return linkIndex.countLinksToRecordGroupedByType(new Link(type, id));
+	}
+
+	@Override
+	public Set<Link> getLinksFromRecord(String type, String id) {
+		return linkIndex.getLinksFromRecord(new Link(type, id));
+	}
+
+	@Override
+	public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
+		StoredRecord storedRecord = getTypeStore(type).get(id);
+		return storedRecord == null ? Set.of() : storedRecord.storageTerms();
+	}
+
+	@Override
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		long numberOfMatches = 0;
+		for (String type : types) {
+			numberOfMatches += countMatches(type, filter);
+		}
+		return CountMode.countForResult(numberOfMatches, filter);
+	}
+
+	private long countMatches(String type, Filter filter) {
+		if (filter.include.isEmpty() && filter.exclude.isEmpty()) {
+			return getTypeStore(type).size();
+		}
+		return findMatches(type, filter).size();
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * IntSet is a compact set of non negative ints, using open addressing with linear probing so that
+ * no objects are created per element. It is used by {@link LinkIndex} to store adjacency lists.
+ * <p>
+ * IntSet is NOT threadsafe.
+ */
+final class IntSet {
+	private static final int EMPTY = -1;
+	private static final int INITIAL_CAPACITY = 4;
+	private int[] slots = createSlots(INITIAL_CAPACITY);
+	private int size = 0;
+
+	private static int[] createSlots(int capacity) {
+		int[] newSlots = new int[capacity];
+		Arrays.fill(newSlots, EMPTY);
+		return newSlots;
+	}
+
+	boolean add(int value) {
+		ensureCapacityForOneMore();
+		int slot = findSlot(value);
+		if (slots[slot] == value) {
+			return false;
+		}
+		slots[slot] = value;
+		size++;
+		return true;
+	}
+
+	private void ensureCapacityForOneMore() {
+		if ((size + 1) * 4 > slots.length * 3) {
+			int[] oldSlots = slots;
+			slots = createSlots(oldSlots.length * 2);
+			for (int value : oldSlots) {
+				if (value != EMPTY) {
+					slots[findSlot(value)] = value;
+				}
+			}
+		}
+	}
+
+	private int findSlot(int value) {
+		int mask = slots.length - 1;
+		int slot = homeSlot(value, mask);
+		while (slots[slot] != EMPTY && slots[slot] != value) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private int homeSlot(int value, int mask) {
+		return (value * 0x9E3779B9 >>> 16 ^ value) & mask;
+	}
+
+	boolean contains(int value) {
+		return slots[findSlot(value)] == value;
+	}
+
+	boolean remove(int value) {
+		int slot = findSlot(value);
+		if (slots[slot] != value) {
+			return false;
+		}
+		slots[slot] = EMPTY;
+		size--;
+		shiftBackFollowingValues(slot);
+		return true;
+	}
+
+	private void shiftBackFollowingValues(int freeSlot) {
+		int mask = slots.length - 1;
+		int slot = freeSlot;
+		while (true) {
+			slot = (slot + 1) & mask;
+			int value = slots[slot];
+			if (value == EMPTY) {
+				return;
+			}
+			int home = homeSlot(value, mask);
+			if (((slot - home) & mask) >= ((slot - freeSlot) & mask)) {
+				slots[freeSlot] = value;
+				slots[slot] = EMPTY;
+				freeSlot = slot;
+			}
+		}
+	}
+
+	void forEach(IntConsumer consumer) {
+		for (int value : slots) {
+			if (value != EMPTY) {
+				consumer.accept(value);
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+}
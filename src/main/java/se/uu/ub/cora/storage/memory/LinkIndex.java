@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.storage.LinkPaging;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+
+/**
+ * LinkIndex keeps the links between records as a graph, with both the links from each record and
+ * the links to each record, so that links in both directions are found without searching.
+ * <p>
+ * Each record taking part in a link is interned as one node, identified by an int, and the links
+ * are kept as compact adjacency lists of node ints. This makes records with a very large number of
+ * incoming links cheap both to keep up to date and to check for links. Nodes without any links are
+ * removed and their ints reused.
+ * <p>
+ * LinkIndex is threadsafe.
+ */
+final class LinkIndex {
+	private final Map<Link, Integer> nodeIds = new HashMap<>();
+	private final List<Link> nodes = new ArrayList<>();
+	private final List<IntSet> linksFrom = new ArrayList<>();
+	private final List<IntSet> linksTo = new ArrayList<>();
+	private final Deque<Integer> freeNodeIds = new ArrayDeque<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * setLinksFromRecord replaces the links from a record with the specified links, only the
+	 * difference between the old and the new links is changed in the index.
+	 */
+	void setLinksFromRecord(Link from, Collection<Link> links) {
+		writeLocked(() -> {
+			int fromNode = getOrCreateNode(from);
+			IntSet newTargets = toNodes(links);
+			removeLinksNotIn(fromNode, newTargets);
+			newTargets.forEach(toNode -> addLink(fromNode, toNode));
+			removeNodeIfUnused(fromNode);
+			return null;
+		});
+	}
+
+	private IntSet toNodes(Collection<Link> links) {
+		IntSet targets = new IntSet();
+		for (Link link : links) {
+			targets.add(getOrCreateNode(link));
+		}
+		return targets;
+	}
+
+	private void removeLinksNotIn(int fromNode, IntSet newTargets) {
+		List<Integer> removedTargets = new ArrayList<>();
+		linksFrom.get(fromNode).forEach(toNode -> {
+			if (!newTargets.contains(toNode)) {
+				removedTargets.add(toNode);
+			}
+		});
+		for (int toNode : removedTargets) {
+			removeLink(fromNode, toNode);
+		}
+	}
+
+	private void addLink(int fromNode, int toNode) {
+		linksFrom.get(fromNode).add(toNode);
+		linksTo.get(toNode).add(fromNode);
+	}
+
+	private void removeLink(int fromNode, int toNode) {
+		linksFrom.get(fromNode).remove(toNode);
+		linksTo.get(toNode).remove(fromNode);
+		if (toNode != fromNode) {
+			removeNodeIfUnused(toNode);
+		}
+	}
+
+	/**
+	 * removeLinksFromRecord removes all links from a record.
+	 */
+	void removeLinksFromRecord(Link from) {
+		writeLocked(() -> {
+			Integer fromNode = nodeIds.get(from);
+			if (fromNode != null) {
+				removeLinksNotIn(fromNode, new IntSet());
+				removeNodeIfUnused(fromNode);
+			}
+			return null;
+		});
+	}
+
+	private int getOrCreateNode(Link link) {
+		Integer existingNode = nodeIds.get(link);
+		if (existingNode != null) {
+			return existingNode;
+		}
+		int node = createNode(link);
+		nodeIds.put(link, node);
+		return node;
+	}
+
+	private int createNode(Link link) {
+		if (freeNodeIds.isEmpty()) {
+			nodes.add(link);
+			linksFrom.add(new IntSet());
+			linksTo.add(new IntSet());
+			return nodes.size() - 1;
+		}
+		int node = freeNodeIds.pop();
+		nodes.set(node, link);
+		linksFrom.set(node, new IntSet());
+		linksTo.set(node, new IntSet());
+		return node;
+	}
+
+	private void removeNodeIfUnused(int node) {
+		if (linksFrom.get(node).isEmpty() && linksTo.get(node).isEmpty()) {
+			nodeIds.remove(nodes.get(node));
+			nodes.set(node, null);
+			linksFrom.set(node, null);
+			linksTo.set(node, null);
+			freeNodeIds.push(node);
+		}
+	}
+
+	/**
+	 * hasLinksToRecord returns true if any record links to the specified record.
+	 */
+	boolean hasLinksToRecord(Link to) {
+		return readLocked(() -> {
+			Integer toNode = nodeIds.get(to);
+			return toNode != null && !linksTo.get(toNode).isEmpty();
+		});
+	}
+
+	/**
+	 * getLinksToRecord returns the records linking to the specified record.
+	 */
+	Set<Link> getLinksToRecord(Link to) {
+		return readLocked(() -> toLinks(linksTo, to));
+	}
+
+	/**
+	 * getPageOfLinksToRecord offers all records linking to the specified record to the
+	 * linkPaging, and returns the resulting page.
+	 */
+	StorageLinksReadResult getPageOfLinksToRecord(Link to, LinkPaging linkPaging) {
+		return readLocked(() -> {
+			Integer toNode = nodeIds.get(to);
+			if (toNode != null) {
+				linksTo.get(toNode).forEach(fromNode -> linkPaging.offer(nodes.get(fromNode)));
+			}
+			return linkPaging.createResult();
+		});
+	}
+
+	/**
+	 * countLinksToRecord returns the number of records linking to the specified record.
+	 */
+	int countLinksToRecord(Link to) {
+		return readLocked(() -> {
+			Integer toNode = nodeIds.get(to);
+			return toNode == null ? 0 : linksTo.get(toNode).size();
+		});
+	}
+
+	/**
+	 * countLinksToRecordGroupedByType returns the number of records linking to the specified
+	 * record, grouped by the type of the linking records.
+	 */
+	Map<String, Long> countLinksToRecordGroupedByType(Link to) {
+		return readLocked(() -> {
+			Map<String, Long> counts = new TreeMap<>();
+			Integer toNode = nodeIds.get(to);
+			if (toNode != null) {
+				linksTo.get(toNode).forEach(
+						fromNode -> counts.merge(nodes.get(fromNode).type(), 1L, Long::sum));
+			}
+			return counts;
+		});
+	}
+
+	/**
+	 * getLinksFromRecord returns the records the specified record links to.
+	 */
+	Set<Link> getLinksFromRecord(Link from) {
+		return readLocked(() -> toLinks(linksFrom, from));
+	}
+
+	private Set<Link> toLinks(List<IntSet> adjacencyLists, Link link) {
+		Integer node = nodeIds.get(link);
+		if (node == null) {
+			return Set.of();
+		}
+		IntSet adjacentNodes = adjacencyLists.get(node);
+		Set<Link> links = new HashSet<>(adjacentNodes.size() * 2);
+		adjacentNodes.forEach(adjacentNode -> links.add(nodes.get(adjacentNode)));
+		return links;
+	}
+
+	private <T> T readLocked(Supplier<T> supplier) {
+		lock.readLock().lock();
+		try {
+			return supplier.get();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private <T> T writeLocked(Supplier<T> supplier) {
+		lock.writeLock().lock();
+		try {
+			return supplier.get();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	int onlyForTestGetNumberOfNodes() {
+		return nodeIds.size();
+	}
+}
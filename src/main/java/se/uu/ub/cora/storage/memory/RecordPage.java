@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import java.util.List;
+
+/**
+ * RecordPage is one page of records matching a filter, as read from a {@link TypeStore}.
+ * 
+ * @param start
+ *            the number of matches before the first record in the page
+ * @param records
+ *            the records in the page, sorted by id
+ * @param numberOfMatches
+ *            the number of matches, counted only as far as needed for the count mode of the
+ *            filter. It is 0 if no count was requested and at most countCap + 1 if the count was
+ *            capped.
+ * @param continuationToken
+ *            a token to read the next page with, or null if there are no more matches
+ */
+record RecordPage(long start, List<StoredRecord> records, long numberOfMatches,
+		String continuationToken) {
+
+}
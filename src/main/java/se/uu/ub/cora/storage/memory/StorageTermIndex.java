@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.SetChanges;
+
+/**
+ * StorageTermIndex indexes the storageTerms for the records of one type, so that the ids of
+ * records matching a {@link Condition} can be found without scanning all records. Each storage key
+ * has a hash index, used for equal to conditions, and a sorted index, used for range conditions.
+ * <p>
+ * StorageTermIndex is NOT threadsafe, access must be guarded by the owning {@link TypeStore}.
+ */
+final class StorageTermIndex {
+	private final Map<String, Map<String, Set<String>>> hashIndex = new HashMap<>();
+	private final Map<String, NavigableMap<String, Set<String>>> sortedIndex = new HashMap<>();
+
+	void add(String id, Collection<StorageTerm> storageTerms) {
+		for (StorageTerm storageTerm : storageTerms) {
+			addToIndexes(id, storageTerm.storageKey(), storageTerm.value());
+		}
+	}
+
+	private void addToIndexes(String id, String key, String value) {
+		Set<String> ids = hashIndex.computeIfAbsent(key, k -> new HashMap<>())
+				.computeIfAbsent(value, k -> new HashSet<>());
+		ids.add(id);
+		sortedIndex.computeIfAbsent(key, k -> new TreeMap<>()).putIfAbsent(value, ids);
+	}
+
+	void remove(String id, Collection<StorageTerm> storageTerms) {
+		for (StorageTerm storageTerm : storageTerms) {
+			removeFromIndexes(id, storageTerm.storageKey(), storageTerm.value());
+		}
+	}
+
+	/**
+	 * update changes the indexed storageTerms for a record from the stored to the updated ones,
+	 * only index entries for key and value pairs that have changed are touched.
+	 */
+	void update(String id, Collection<StorageTerm> storedStorageTerms,
+			Collection<StorageTerm> updatedStorageTerms) {
+		SetChanges<KeyAndValue> changes = SetChanges.between(toKeysAndValues(storedStorageTerms),
+				toKeysAndValues(updatedStorageTerms));
+		for (KeyAndValue removed : changes.removed()) {
+			removeFromIndexes(id, removed.key(), removed.value());
+		}
+		for (KeyAndValue added : changes.added()) {
+			addToIndexes(id, added.key(), added.value());
+		}
+	}
+
+	private Set<KeyAndValue> toKeysAndValues(Collection<StorageTerm> storageTerms) {
+		Set<KeyAndValue> keysAndValues = new HashSet<>();
+		for (StorageTerm storageTerm : storageTerms) {
+			keysAndValues.add(new KeyAndValue(storageTerm.storageKey(), storageTerm.value()));
+		}
+		return keysAndValues;
+	}
+
+	private void removeFromIndexes(String id, String key, String value) {
+		Map<String, Set<String>> idsByValue = hashIndex.get(key);
+		if (idsByValue == null) {
+			return;
+		}
+		Set<String> ids = idsByValue.get(value);
+		if (ids != null && ids.remove(id) && ids.isEmpty()) {
+			idsByValue.remove(value);
+			sortedIndex.get(key).remove(value);
+		}
+		if (idsByValue.isEmpty()) {
+			hashIndex.remove(key);
+			sortedIndex.remove(key);
+		}
+	}
+
+	/**
+	 * findIdsMatching returns the ids of all records that have a storageTerm matching the
+	 * condition.
+	 */
+	Set<String> findIdsMatching(Condition condition) {
+		if (!hashIndex.containsKey(condition.key())) {
+			return Set.of();
+		}
+		return switch (condition.operator()) {
+		case EQUAL_TO -> hashIndex.get(condition.key()).getOrDefault(condition.value(), Set.of());
+		default -> unionOf(getValuesMatching(condition).values());
+		};
+	}
+
+	private NavigableMap<String, Set<String>> getValuesMatching(Condition condition) {
+		NavigableMap<String, Set<String>> values = sortedIndex.get(condition.key());
+		String value = condition.value();
+		return switch (condition.operator()) {
+		case GREATER_THAN -> values.tailMap(value, false);
+		case GREATER_THAN_OR_EQUAL_TO -> values.tailMap(value, true);
+		case LESS_THAN -> values.headMap(value, false);
+		case LESS_THAN_OR_EQUAL_TO -> values.headMap(value, true);
+		default -> withoutValue(values, value);
+		};
+	}
+
+	private NavigableMap<String, Set<String>> withoutValue(NavigableMap<String, Set<String>> values,
+			String value) {
+		NavigableMap<String, Set<String>> otherValues = new TreeMap<>(values);
+		otherValues.remove(value);
+		return otherValues;
+	}
+
+	private Set<String> unionOf(Collection<Set<String>> idSets) {
+		Set<String> ids = new HashSet<>();
+		idSets.forEach(ids::addAll);
+		return ids;
+	}
+
+	/**
+	 * countIdsWithValue returns the number of records that has the specified value for the key.
+	 */
+	int countIdsWithValue(String key, String value) {
+		return hashIndex.getOrDefault(key, Map.of()).getOrDefault(value, Set.of()).size();
+	}
+
+	private record KeyAndValue(String key, String value) {
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.CountMode;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RelationalOperator;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.filter.FilterPlan;
+import se.uu.ub.cora.storage.filter.PlannedPart;
+import se.uu.ub.cora.storage.filter.SelectivityEstimator;
+import se.uu.ub.cora.storage.filter.imp.FilterPlannerImp;
+import se.uu.ub.cora.storage.filter.imp.OperatorSelectivityEstimator;
+
+/**
+ * TypeStore holds the records, and the index of their storageTerms, for one type in
+ * {@link InMemoryRecordStorage}.
+ * <p>
+ * Reading one record by id is done without locking. Writes, selectivity estimates and filtered
+ * searches are guarded by a read write lock, so that many searches can run at the same time while
+ * the records and the index are always seen in a consistent state.
+ * <p>
+ * Records are kept sorted by id, so that a page of matches is read by seeking to the first record
+ * of the page and stopping when the page is full, instead of sorting all matches for every page.
+ */
+final class TypeStore {
+	private static final SelectivityEstimator OPERATOR_ESTIMATOR =
+			new OperatorSelectivityEstimator();
+	private static final String TOKEN_SEPARATOR = "/";
+	private final NavigableMap<String, StoredRecord> records = new ConcurrentSkipListMap<>();
+	private final StorageTermIndex index = new StorageTermIndex();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile int numberOfRecords = 0;
+
+	StoredRecord get(String id) {
+		return records.get(id);
+	}
+
+	boolean contains(String id) {
+		return records.containsKey(id);
+	}
+
+	boolean putIfAbsent(StoredRecord storedRecord) {
+		return writeLocked(() -> {
+			if (records.containsKey(storedRecord.id())) {
+				return false;
+			}
+			records.put(storedRecord.id(), storedRecord);
+			index.add(storedRecord.id(), storedRecord.storageTerms());
+			numberOfRecords++;
+			return true;
+		});
+	}
+
+	StoredRecord replace(StoredRecord storedRecord) {
+		return writeLocked(() -> {
+			StoredRecord previous = records.get(storedRecord.id());
+			if (previous == null) {
+				return null;
+			}
+			records.put(storedRecord.id(), storedRecord);
+			index.update(storedRecord.id(), previous.storageTerms(), storedRecord.storageTerms());
+			return previous;
+		});
+	}
+
+	StoredRecord remove(String id) {
+		return writeLocked(() -> {
+			StoredRecord removed = records.remove(id);
+			if (removed != null) {
+				index.remove(id, removed.storageTerms());
+				numberOfRecords--;
+			}
+			return removed;
+		});
+	}
+
+	/**
+	 * writeLocked runs the supplier while holding the write lock for this type, so that changes
+	 * made by the supplier are seen as one change by searches.
+	 */
+	<T> T writeLocked(Supplier<T> supplier) {
+		lock.writeLock().lock();
+		try {
+			return supplier.get();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * estimateSelectivity estimates the selectivity of a condition using the index, equal to
+	 * conditions are estimated from the number of records with the value.
+	 */
+	double estimateSelectivity(Condition condition) {
+		lock.readLock().lock();
+		try {
+			return estimateSelectivityUsingIndex(condition);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private double estimateSelectivityUsingIndex(Condition condition) {
+		if (condition.operator() == RelationalOperator.EQUAL_TO && !records.isEmpty()) {
+			return (double) index.countIdsWithValue(condition.key(), condition.value())
+					/ numberOfRecords;
+		}
+		return OPERATOR_ESTIMATOR.estimateSelectivity(condition);
+	}
+
+	/**
+	 * findMatches plans the filter, using selectivity estimated from the index, and returns all
+	 * records matching it, sorted by id. Planning and matching is done while holding the read lock
+	 * once, so that the plan is made from the same state as it is run against.
+	 */
+	List<StoredRecord> findMatches(Filter filter) {
+		lock.readLock().lock();
+		try {
+			return findMatchesUsingIndex(planUsingIndex(filter));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private FilterPlan planUsingIndex(Filter filter) {
+		return FilterPlannerImp.usingSelectivityEstimator(this::estimateSelectivityUsingIndex)
+				.plan(filter);
+	}
+
+	/**
+	 * findMatches returns all records matching the plan, sorted by id.
+	 */
+	List<StoredRecord> findMatches(FilterPlan plan) {
+		lock.readLock().lock();
+		try {
+			return findMatchesUsingIndex(plan);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private List<StoredRecord> findMatchesUsingIndex(FilterPlan plan) {
+		if (plan.matchesNothing()) {
+			return List.of();
+		}
+		List<StoredRecord> matches = new ArrayList<>();
+		iterateMatches(plan, null).forEachRemaining(matches::add);
+		return matches;
+	}
+
+	/**
+	 * findPage plans the filter and returns the page of matching records requested by it, sorted
+	 * by id.
+	 * <p>
+	 * The page starts directly after the record the continuation token of the filter points to,
+	 * found by seeking in the sorted records, or, without a token, after skipping fromNo - 1
+	 * matches. Reading stops when the page is full. The total number of matches is only counted as
+	 * far as the count mode of the filter requires, which for an exact count of a read with include
+	 * or exclude parts means that all candidates are visited.
+	 * <p>
+	 * The continuation token holds the number of matches up to and including the last record in
+	 * the page, followed by the id of that record. The start of a page read using a token is taken
+	 * from the token, so records created or deleted before the token after it was created are not
+	 * counted in it.
+	 */
+	RecordPage findPage(Filter filter) {
+		lock.readLock().lock();
+		try {
+			FilterPlan plan = planUsingIndex(filter);
+			if (plan.matchesNothing()) {
+				return new RecordPage(0, List.of(), 0, null);
+			}
+			return readPage(plan, filter);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private RecordPage readPage(FilterPlan plan, Filter filter) {
+		long fromNo = Math.max(1, filter.fromNo);
+		long pageSize = Math.max(0, filter.toNo - fromNo + 1);
+		if (filter.hasContinuationToken()) {
+			String token = filter.continuationToken;
+			return readPageFromMatches(iterateMatches(plan, getIdFromToken(token)),
+					getNumberOfMatchesFromToken(token), 0, pageSize, countMatches(plan, filter));
+		}
+		return readPageFromMatches(iterateMatches(plan, null), 0, fromNo - 1, pageSize,
+				countMatches(plan, filter));
+	}
+
+	private RecordPage readPageFromMatches(Iterator<StoredRecord> matches,
+			long numberOfMatchesBefore, long numberToSkip, long pageSize, long numberOfMatches) {
+		long start = numberOfMatchesBefore + skip(matches, numberToSkip);
+		List<StoredRecord> pageRecords = new ArrayList<>();
+		while (pageRecords.size() < pageSize && matches.hasNext()) {
+			pageRecords.add(matches.next());
+		}
+		String continuationToken = null;
+		if (!pageRecords.isEmpty() && matches.hasNext()) {
+			continuationToken = createToken(start + pageRecords.size(),
+					pageRecords.get(pageRecords.size() - 1).id());
+		}
+		return new RecordPage(start, pageRecords, numberOfMatches, continuationToken);
+	}
+
+	private long skip(Iterator<StoredRecord> matches, long numberToSkip) {
+		long numberOfSkipped = 0;
+		while (numberOfSkipped < numberToSkip && matches.hasNext()) {
+			matches.next();
+			numberOfSkipped++;
+		}
+		return numberOfSkipped;
+	}
+
+	private long countMatches(FilterPlan plan, Filter filter) {
+		if (filter.countMode == CountMode.NONE) {
+			return 0;
+		}
+		if (plan.includesAll() && plan.exclude().isEmpty()) {
+			return numberOfRecords;
+		}
+		return skip(iterateMatches(plan, null), getMaxNumberToCount(filter));
+	}
+
+	private long getMaxNumberToCount(Filter filter) {
+		if (filter.countMode == CountMode.CAPPED && filter.countCap < Long.MAX_VALUE) {
+			return filter.countCap + 1;
+		}
+		return Long.MAX_VALUE;
+	}
+
+	private String createToken(long numberOfMatches, String id) {
+		return numberOfMatches + TOKEN_SEPARATOR + id;
+	}
+
+	private long getNumberOfMatchesFromToken(String token) {
+		try {
+			return Long.parseLong(token.substring(0, getSeparatorIndex(token)));
+		} catch (NumberFormatException e) {
+			throw createInvalidTokenException(token);
+		}
+	}
+
+	private int getSeparatorIndex(String token) {
+		int separatorIndex = token.indexOf(TOKEN_SEPARATOR);
+		if (separatorIndex < 1) {
+			throw createInvalidTokenException(token);
+		}
+		return separatorIndex;
+	}
+
+	private StorageException createInvalidTokenException(String token) {
+		return StorageException.withMessage("Invalid continuation token: " + token);
+	}
+
+	private String getIdFromToken(String token) {
+		return token.substring(getSeparatorIndex(token) + TOKEN_SEPARATOR.length());
+	}
+
+	private Iterator<StoredRecord> iterateMatches(FilterPlan plan, String afterId) {
+		return streamCandidates(plan, afterId)
+				.filter(storedRecord -> plan.matches(storedRecord.storageTerms())).iterator();
+	}
+
+	private Stream<StoredRecord> streamCandidates(FilterPlan plan, String afterId) {
+		if (plan.includesAll()) {
+			return recordsAfter(afterId).values().stream();
+		}
+		return idsAfter(findCandidateIds(plan), afterId).stream().map(records::get);
+	}
+
+	private NavigableMap<String, StoredRecord> recordsAfter(String afterId) {
+		return afterId == null ? records : records.tailMap(afterId, false);
+	}
+
+	private NavigableSet<String> idsAfter(NavigableSet<String> ids, String afterId) {
+		return afterId == null ? ids : ids.tailSet(afterId, false);
+	}
+
+	private NavigableSet<String> findCandidateIds(FilterPlan plan) {
+		NavigableSet<String> candidateIds = new TreeSet<>();
+		for (PlannedPart part : plan.include()) {
+			candidateIds.addAll(findIdsMatchingMostSelectiveCondition(part));
+		}
+		return candidateIds;
+	}
+
+	private Collection<String> findIdsMatchingMostSelectiveCondition(PlannedPart part) {
+		Condition mostSelective = part.conditions().get(0);
+		return index.findIdsMatching(mostSelective);
+	}
+
+	int size() {
+		return numberOfRecords;
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * CountingInputStream reports the number of bytes read from the wrapped stream to an
+ * {@link OperationMetrics}.
+ */
+final class CountingInputStream extends FilterInputStream {
+	private final OperationMetrics metrics;
+
+	CountingInputStream(InputStream stream, OperationMetrics metrics) {
+		super(stream);
+		this.metrics = metrics;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int value = super.read();
+		if (value != -1) {
+			metrics.bytesTransferred(1);
+		}
+		return value;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		int numberOfBytes = super.read(buffer, offset, length);
+		reportBytes(numberOfBytes);
+		return numberOfBytes;
+	}
+
+	private void reportBytes(int numberOfBytes) {
+		if (numberOfBytes > 0) {
+			metrics.bytesTransferred(numberOfBytes);
+		}
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	OperationMetrics onlyForTestGetMetrics() {
+		return metrics;
+	}
+}
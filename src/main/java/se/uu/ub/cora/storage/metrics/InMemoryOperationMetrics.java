@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InMemoryOperationMetrics collects the measurements for one operation on one type using
+ * counters and a latency histogram with one bucket per power of two nanoseconds. Recording a
+ * measurement never blocks and never allocates.
+ */
+final class InMemoryOperationMetrics implements OperationMetrics {
+	private static final int NUMBER_OF_BUCKETS = 64;
+	private final String component;
+	private final String operation;
+	private final String type;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder inFlight = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+	InMemoryOperationMetrics(String component, String operation, String type) {
+		this.component = component;
+		this.operation = operation;
+		this.type = type;
+	}
+
+	@Override
+	public void callStarted() {
+		inFlight.increment();
+	}
+
+	@Override
+	public void callSucceeded(long durationNanos) {
+		callFinished(durationNanos);
+	}
+
+	@Override
+	public void callFailed(long durationNanos) {
+		errors.increment();
+		callFinished(durationNanos);
+	}
+
+	private void callFinished(long durationNanos) {
+		inFlight.decrement();
+		calls.increment();
+		totalNanos.add(durationNanos);
+		maxNanos.accumulateAndGet(durationNanos, Math::max);
+		buckets.incrementAndGet(bucketFor(durationNanos));
+	}
+
+	private int bucketFor(long durationNanos) {
+		if (durationNanos <= 0) {
+			return 0;
+		}
+		return Math.min(NUMBER_OF_BUCKETS - Long.numberOfLeadingZeros(durationNanos),
+				NUMBER_OF_BUCKETS - 1);
+	}
+
+	@Override
+	public void bytesTransferred(long transferredBytes) {
+		bytes.add(transferredBytes);
+	}
+
+	OperationStatistics getStatistics() {
+		long[] bucketCounts = readBuckets();
+		long max = maxNanos.get();
+		return new OperationStatistics(component, operation, type, calls.sum(), errors.sum(),
+				inFlight.sum(), bytes.sum(), totalNanos.sum(), max,
+				percentile(bucketCounts, 0.5, max), percentile(bucketCounts, 0.99, max));
+	}
+
+	private long[] readBuckets() {
+		long[] bucketCounts = new long[NUMBER_OF_BUCKETS];
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			bucketCounts[i] = buckets.get(i);
+		}
+		return bucketCounts;
+	}
+
+	private long percentile(long[] bucketCounts, double percentile, long max) {
+		long rank = (long) Math.ceil(sum(bucketCounts) * percentile);
+		long seen = 0;
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			seen += bucketCounts[i];
+			if (seen >= rank && seen > 0) {
+				return Math.min(upperBoundOfBucket(i), max);
+			}
+		}
+		return 0;
+	}
+
+	private long sum(long[] bucketCounts) {
+		long sum = 0;
+		for (long count : bucketCounts) {
+			sum += count;
+		}
+		return sum;
+	}
+
+	private long upperBoundOfBucket(int bucket) {
+		if (bucket == NUMBER_OF_BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		return (1L << bucket) - 1;
+	}
+}
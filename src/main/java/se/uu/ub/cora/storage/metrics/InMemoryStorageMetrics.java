@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InMemoryStorageMetrics is a threadsafe {@link StorageMetrics} that keeps all measurements in
+ * process, without the need for any external service. Measurements are read as snapshots through
+ * {@link #getStatistics()}.
+ * <p>
+ * It is intended to be created once and shared between all instrumenting decorators in a
+ * system.
+ */
+public final class InMemoryStorageMetrics implements StorageMetrics {
+	private static final Comparator<OperationStatistics> STATISTICS_ORDER = Comparator
+			.comparing(OperationStatistics::component).thenComparing(OperationStatistics::operation)
+			.thenComparing(OperationStatistics::type);
+	private final Map<MetricsKey, InMemoryOperationMetrics> metrics = new ConcurrentHashMap<>();
+
+	public static InMemoryStorageMetrics create() {
+		return new InMemoryStorageMetrics();
+	}
+
+	private InMemoryStorageMetrics() {
+	}
+
+	@Override
+	public OperationMetrics getOperationMetrics(String component, String operation, String type) {
+		return metrics.computeIfAbsent(new MetricsKey(component, operation, type),
+				key -> new InMemoryOperationMetrics(component, operation, type));
+	}
+
+	/**
+	 * getStatistics returns a snapshot of the measurements for all operations and types that have
+	 * been measured, sorted by component, operation and type.
+	 * 
+	 * @return A List of {@link OperationStatistics}
+	 */
+	public List<OperationStatistics> getStatistics() {
+		return metrics.values().stream().map(InMemoryOperationMetrics::getStatistics)
+				.sorted(STATISTICS_ORDER).toList();
+	}
+
+	private record MetricsKey(String component, String operation, String type) {
+	}
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * InstrumentedRecordStorage is a {@link RecordStorage} that decorates another RecordStorage and
+ * reports the latency, errors and number of running calls of every method, per method and type,
+ * to a {@link StorageMetrics}.
+ * <p>
+ * Methods working on several types are reported with the type when only one type is given,
+ * otherwise with the type {@value #MULTIPLE_TYPES}. The overloaded methods
+ * {@link #read(List, String)}, {@link #readList(List, Filter)} and
+ * {@link #getLinksToRecord(String, String, int, String)} are reported as the operations
+ * readFromTypes, readListFromTypes and getPageOfLinksToRecord. For
+ * {@link #readListAsStream(String, Filter)} only the creation of the stream is measured.
+ * <p>
+ * Apart from the measurement itself, no objects are allocated per call. InstrumentedRecordStorage
+ * is threadsafe if the decorated RecordStorage is threadsafe.
+ */
+public class InstrumentedRecordStorage implements RecordStorage {
+	static final String COMPONENT = "recordStorage";
+	static final String MULTIPLE_TYPES = "multipleTypes";
+	private final RecordStorage recordStorage;
+	private final StorageMetrics storageMetrics;
+	private final OperationTimer timer = new OperationTimer();
+	private final OperationMetricsByType readFromTypesMetrics;
+	private final OperationMetricsByType readMetrics;
+	private final OperationMetricsByType readIfExistsMetrics;
+	private final OperationMetricsByType readManyMetrics;
+	private final OperationMetricsByType createMetrics;
+	private final OperationMetricsByType deleteByTypeAndIdMetrics;
+	private final OperationMetricsByType updateMetrics;
+	private final OperationMetricsByType writeManyMetrics;
+	private final OperationMetricsByType readListMetrics;
+	private final OperationMetricsByType readListAsStreamMetrics;
+	private final OperationMetricsByType readListFromTypesMetrics;
+	private final OperationMetricsByType recordExistsMetrics;
+	private final OperationMetricsByType findExistingIdsMetrics;
+	private final OperationMetricsByType linksExistForRecordMetrics;
+	private final OperationMetricsByType getLinksToRecordMetrics;
+	private final OperationMetricsByType getPageOfLinksToRecordMetrics;
+	private final OperationMetricsByType countLinksToRecordMetrics;
+	private final OperationMetricsByType countLinksToRecordGroupedByTypeMetrics;
+	private final OperationMetricsByType getLinksFromRecordMetrics;
+	private final OperationMetricsByType getStorageTermsForRecordMetrics;
+	private final OperationMetricsByType getTotalNumberOfRecordsForTypesMetrics;
+
+	public static InstrumentedRecordStorage usingRecordStorageAndMetrics(
+			RecordStorage recordStorage, StorageMetrics storageMetrics) {
+		return new InstrumentedRecordStorage(recordStorage, storageMetrics);
+	}
+
+	private InstrumentedRecordStorage(RecordStorage recordStorage,
+			StorageMetrics storageMetrics) {
+		this.recordStorage = recordStorage;
+		this.storageMetrics = storageMetrics;
+		readFromTypesMetrics = operation("readFromTypes");
+		readMetrics = operation("read");
+		readIfExistsMetrics = operation("readIfExists");
+		readManyMetrics = operation("readMany");
+		createMetrics = operation("create");
+		deleteByTypeAndIdMetrics = operation("deleteByTypeAndId");
+		updateMetrics = operation("update");
+		writeManyMetrics = operation("writeMany");
+		readListMetrics = operation("readList");
+		readListAsStreamMetrics = operation("readListAsStream");
+		readListFromTypesMetrics = operation("readListFromTypes");
+		recordExistsMetrics = operation("recordExists");
+		findExistingIdsMetrics = operation("findExistingIds");
+		linksExistForRecordMetrics = operation("linksExistForRecord");
+		getLinksToRecordMetrics = operation("getLinksToRecord");
+		getPageOfLinksToRecordMetrics = operation("getPageOfLinksToRecord");
+		countLinksToRecordMetrics = operation("countLinksToRecord");
+		countLinksToRecordGroupedByTypeMetrics = operation("countLinksToRecordGroupedByType");
+		getLinksFromRecordMetrics = operation("getLinksFromRecord");
+		getStorageTermsForRecordMetrics = operation("getStorageTermsForRecord");
+		getTotalNumberOfRecordsForTypesMetrics = operation("getTotalNumberOfRecordsForTypes");
+	}
+
+	private OperationMetricsByType operation(String operation) {
+		return new OperationMetricsByType(storageMetrics, COMPONENT, operation);
+	}
+
+	private String typeOf(List<String> types) {
+		return types.size() == 1 ? types.get(0) : MULTIPLE_TYPES;
+	}
+
+	private String typeOfWrites(List<RecordWrite> writes) {
+		if (writes.isEmpty()) {
+			return MULTIPLE_TYPES;
+		}
+		String type = writes.get(0).type();
+		for (int i = 1; i < writes.size(); i++) {
+			if (!type.equals(writes.get(i).type())) {
+				return MULTIPLE_TYPES;
+			}
+		}
+		return type;
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public DataGroup read(List<String> types, String id) {
+		OperationMetrics metrics = readFromTypesMetrics.forType(typeOf(types));
+		long start = timer.start(metrics);
+		try {
+			DataGroup result = recordStorage.read(types, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public DataRecordGroup read(String type, String id) {
+		OperationMetrics metrics = readMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			DataRecordGroup result = recordStorage.read(type, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public Optional<DataRecordGroup> readIfExists(String type, String id) {
+		OperationMetrics metrics = readIfExistsMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			Optional<DataRecordGroup> result = recordStorage.readIfExists(type, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public StorageReadManyResult readMany(String type, Collection<String> ids) {
+		OperationMetrics metrics = readManyMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			StorageReadManyResult result = recordStorage.readMany(type, ids);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		OperationMetrics metrics = createMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			recordStorage.create(type, id, dataRecord, storageTerms, links, dataDivider);
+			timer.succeeded(metrics, start);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public void deleteByTypeAndId(String type, String id) {
+		OperationMetrics metrics = deleteByTypeAndIdMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			recordStorage.deleteByTypeAndId(type, id);
+			timer.succeeded(metrics, start);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		OperationMetrics metrics = updateMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			recordStorage.update(type, id, dataRecord, storageTerms, links, dataDivider);
+			timer.succeeded(metrics, start);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+		OperationMetrics metrics = writeManyMetrics.forType(typeOfWrites(writes));
+		long start = timer.start(metrics);
+		try {
+			List<RecordWriteResult> result = recordStorage.writeMany(writes);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public StorageReadResult readList(String type, Filter filter) {
+		OperationMetrics metrics = readListMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			StorageReadResult result = recordStorage.readList(type, filter);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public Stream<DataRecordGroup> readListAsStream(String type, Filter filter) {
+		OperationMetrics metrics = readListAsStreamMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			Stream<DataRecordGroup> result = recordStorage.readListAsStream(type, filter);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		OperationMetrics metrics = readListFromTypesMetrics.forType(typeOf(types));
+		long start = timer.start(metrics);
+		try {
+			StorageReadResult result = recordStorage.readList(types, filter);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean recordExists(List<String> types, String id) {
+		OperationMetrics metrics = recordExistsMetrics.forType(typeOf(types));
+		long start = timer.start(metrics);
+		try {
+			boolean result = recordStorage.recordExists(types, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public Set<String> findExistingIds(List<String> types, Collection<String> ids) {
+		OperationMetrics metrics = findExistingIdsMetrics.forType(typeOf(types));
+		long start = timer.start(metrics);
+		try {
+			Set<String> result = recordStorage.findExistingIds(types, ids);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean linksExistForRecord(String type, String id) {
+		OperationMetrics metrics = linksExistForRecordMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			boolean result = recordStorage.linksExistForRecord(type, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public Set<Link> getLinksToRecord(String type, String id) {
+		OperationMetrics metrics = getLinksToRecordMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			Set<Link> result = recordStorage.getLinksToRecord(type, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public StorageLinksReadResult getLinksToRecord(String type, String id, int maxNumberOfLinks,
+			String continuationToken) {
+		OperationMetrics metrics = getPageOfLinksToRecordMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			StorageLinksReadResult result = recordStorage.getLinksToRecord(type, id,
+					maxNumberOfLinks, continuationToken);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public long countLinksToRecord(String type, String id) {
+		OperationMetrics metrics = countLinksToRecordMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			long result = recordStorage.countLinksToRecord(type, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public Map<String, Long> countLinksToRecordGroupedByType(String type, String id) {
+		OperationMetrics metrics = countLinksToRecordGroupedByTypeMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			Map<String, Long> result = recordStorage.countLinksToRecordGroupedByType(type, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public Set<Link> getLinksFromRecord(String type, String id) {
+		OperationMetrics metrics = getLinksFromRecordMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			Set<Link> result = recordStorage.getLinksFromRecord(type, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
+		OperationMetrics metrics = getStorageTermsForRecordMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			Set<StorageTerm> result = recordStorage.getStorageTermsForRecord(type, id);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		OperationMetrics metrics = getTotalNumberOfRecordsForTypesMetrics.forType(typeOf(types));
+		long start = timer.start(metrics);
+		try {
+			long result = recordStorage.getTotalNumberOfRecordsForTypes(types, filter);
+			timer.succeeded(metrics, start);
+			return result;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	RecordStorage onlyForTestGetRecordStorage() {
+		return recordStorage;
+	}
+
+	StorageMetrics onlyForTestGetStorageMetrics() {
+		return storageMetrics;
+	}
+
+	OperationTimer onlyForTestGetTimer() {
+		return timer;
+	}
+}
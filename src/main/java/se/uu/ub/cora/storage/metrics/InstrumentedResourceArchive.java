@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import java.io.InputStream;
+
+import se.uu.ub.cora.storage.archive.ResourceArchive;
+import se.uu.ub.cora.storage.archive.ResourceMetadata;
+import se.uu.ub.cora.storage.archive.record.ResourceMetadataToUpdate;
+
+/**
+ * InstrumentedResourceArchive is a {@link ResourceArchive} that decorates another ResourceArchive
+ * and reports the latency, errors, number of running calls and number of transferred bytes, per
+ * method and type, to a {@link StorageMetrics}.
+ * <p>
+ * Bytes are counted as they are read from the streams passed to
+ * {@link #createMasterResource(String, String, String, InputStream, String)} and
+ * {@link #update(String, String, String, InputStream, String)}, and as the caller reads the stream
+ * returned by {@link #readMasterResource(String, String, String)}, for which the latency only
+ * covers opening the stream.
+ * <p>
+ * InstrumentedResourceArchive is threadsafe if the decorated ResourceArchive is threadsafe.
+ */
+public class InstrumentedResourceArchive implements ResourceArchive {
+	static final String COMPONENT = "resourceArchive";
+	private final ResourceArchive resourceArchive;
+	private final StorageMetrics storageMetrics;
+	private final OperationTimer timer = new OperationTimer();
+	private final OperationMetricsByType createMasterResourceMetrics;
+	private final OperationMetricsByType readMasterResourceMetrics;
+	private final OperationMetricsByType updateMetrics;
+	private final OperationMetricsByType deleteMetrics;
+	private final OperationMetricsByType readMasterResourceMetadataMetrics;
+	private final OperationMetricsByType updateMasterResourceMetadataMetrics;
+
+	public static InstrumentedResourceArchive usingResourceArchiveAndMetrics(
+			ResourceArchive resourceArchive, StorageMetrics storageMetrics) {
+		return new InstrumentedResourceArchive(resourceArchive, storageMetrics);
+	}
+
+	private InstrumentedResourceArchive(ResourceArchive resourceArchive,
+			StorageMetrics storageMetrics) {
+		this.resourceArchive = resourceArchive;
+		this.storageMetrics = storageMetrics;
+		createMasterResourceMetrics = operation("createMasterResource");
+		readMasterResourceMetrics = operation("readMasterResource");
+		updateMetrics = operation("update");
+		deleteMetrics = operation("delete");
+		readMasterResourceMetadataMetrics = operation("readMasterResourceMetadata");
+		updateMasterResourceMetadataMetrics = operation("updateMasterResourceMetadata");
+	}
+
+	private OperationMetricsByType operation(String operation) {
+		return new OperationMetricsByType(storageMetrics, COMPONENT, operation);
+	}
+
+	@Override
+	public void createMasterResource(String dataDivider, String type, String id,
+			InputStream resource, String mimeType) {
+		OperationMetrics metrics = createMasterResourceMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			resourceArchive.createMasterResource(dataDivider, type, id,
+					new CountingInputStream(resource, metrics), mimeType);
+			timer.succeeded(metrics, start);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public InputStream readMasterResource(String dataDivider, String type, String id) {
+		OperationMetrics metrics = readMasterResourceMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			InputStream resource = resourceArchive.readMasterResource(dataDivider, type, id);
+			timer.succeeded(metrics, start);
+			return new CountingInputStream(resource, metrics);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public void update(String dataDivider, String type, String id, InputStream resource,
+			String mimeType) {
+		OperationMetrics metrics = updateMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			resourceArchive.update(dataDivider, type, id,
+					new CountingInputStream(resource, metrics), mimeType);
+			timer.succeeded(metrics, start);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public void delete(String dataDivider, String type, String id) {
+		OperationMetrics metrics = deleteMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			resourceArchive.delete(dataDivider, type, id);
+			timer.succeeded(metrics, start);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public ResourceMetadata readMasterResourceMetadata(String dataDivider, String type,
+			String id) {
+		OperationMetrics metrics = readMasterResourceMetadataMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			ResourceMetadata resourceMetadata = resourceArchive
+					.readMasterResourceMetadata(dataDivider, type, id);
+			timer.succeeded(metrics, start);
+			return resourceMetadata;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public void updateMasterResourceMetadata(String dataDivider, String type, String id,
+			ResourceMetadataToUpdate resourceMetadataToUpdate) {
+		OperationMetrics metrics = updateMasterResourceMetadataMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			resourceArchive.updateMasterResourceMetadata(dataDivider, type, id,
+					resourceMetadataToUpdate);
+			timer.succeeded(metrics, start);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	ResourceArchive onlyForTestGetResourceArchive() {
+		return resourceArchive;
+	}
+
+	StorageMetrics onlyForTestGetStorageMetrics() {
+		return storageMetrics;
+	}
+
+	OperationTimer onlyForTestGetTimer() {
+		return timer;
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import java.io.InputStream;
+
+import se.uu.ub.cora.storage.StreamStorage;
+
+/**
+ * InstrumentedStreamStorage is a {@link StreamStorage} that decorates another StreamStorage and
+ * reports the latency, errors, number of running calls and number of transferred bytes, per
+ * method and type, to a {@link StorageMetrics}.
+ * <p>
+ * For {@link #store(String, String, String, String, InputStream)} the number of bytes returned by
+ * the decorated StreamStorage is reported. The stream returned by
+ * {@link #retrieve(String, String, String, String)} reports bytes as they are read by the caller,
+ * while the latency only covers opening the stream.
+ * <p>
+ * InstrumentedStreamStorage is threadsafe if the decorated StreamStorage is threadsafe.
+ */
+public class InstrumentedStreamStorage implements StreamStorage {
+	static final String COMPONENT = "streamStorage";
+	private final StreamStorage streamStorage;
+	private final StorageMetrics storageMetrics;
+	private final OperationTimer timer = new OperationTimer();
+	private final OperationMetricsByType storeMetrics;
+	private final OperationMetricsByType retrieveMetrics;
+	private final OperationMetricsByType deleteMetrics;
+
+	public static InstrumentedStreamStorage usingStreamStorageAndMetrics(
+			StreamStorage streamStorage, StorageMetrics storageMetrics) {
+		return new InstrumentedStreamStorage(streamStorage, storageMetrics);
+	}
+
+	private InstrumentedStreamStorage(StreamStorage streamStorage, StorageMetrics storageMetrics) {
+		this.streamStorage = streamStorage;
+		this.storageMetrics = storageMetrics;
+		storeMetrics = operation("store");
+		retrieveMetrics = operation("retrieve");
+		deleteMetrics = operation("delete");
+	}
+
+	private OperationMetricsByType operation(String operation) {
+		return new OperationMetricsByType(storageMetrics, COMPONENT, operation);
+	}
+
+	@Override
+	public long store(String dataDivider, String type, String id, String representation,
+			InputStream stream) {
+		OperationMetrics metrics = storeMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			long storedBytes = streamStorage.store(dataDivider, type, id, representation, stream);
+			metrics.bytesTransferred(storedBytes);
+			timer.succeeded(metrics, start);
+			return storedBytes;
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public InputStream retrieve(String dataDivider, String type, String id,
+			String representation) {
+		OperationMetrics metrics = retrieveMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			InputStream stream = streamStorage.retrieve(dataDivider, type, id, representation);
+			timer.succeeded(metrics, start);
+			return new CountingInputStream(stream, metrics);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	@Override
+	public void delete(String dataDivider, String type, String id, String representation) {
+		OperationMetrics metrics = deleteMetrics.forType(type);
+		long start = timer.start(metrics);
+		try {
+			streamStorage.delete(dataDivider, type, id, representation);
+			timer.succeeded(metrics, start);
+		} catch (RuntimeException e) {
+			timer.failed(metrics, start);
+			throw e;
+		}
+	}
+
+	StreamStorage onlyForTestGetStreamStorage() {
+		return streamStorage;
+	}
+
+	StorageMetrics onlyForTestGetStorageMetrics() {
+		return storageMetrics;
+	}
+
+	OperationTimer onlyForTestGetTimer() {
+		return timer;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+/**
+ * OperationMetrics receives the measurements for one operation on one type, as returned from
+ * {@link StorageMetrics#getOperationMetrics(String, String, String)}.
+ * <p>
+ * The methods are called on the hot path of every storage call, implementations MUST be
+ * threadsafe and SHOULD NOT block or allocate.
+ */
+public interface OperationMetrics {
+	/**
+	 * callStarted is called when a call starts, before it is passed on to the decorated
+	 * component.
+	 */
+	void callStarted();
+
+	/**
+	 * callSucceeded is called when a call returns normally.
+	 * 
+	 * @param durationNanos
+	 *            A long with the duration of the call in nanoseconds
+	 */
+	void callSucceeded(long durationNanos);
+
+	/**
+	 * callFailed is called when a call throws an exception.
+	 * 
+	 * @param durationNanos
+	 *            A long with the duration of the call in nanoseconds
+	 */
+	void callFailed(long durationNanos);
+
+	/**
+	 * bytesTransferred is called when bytes have been written to or read from a stream handled
+	 * by the operation. It can be called several times for one call, and after the call has
+	 * returned for streams that are read by the caller.
+	 * 
+	 * @param bytes
+	 *            A long with the number of transferred bytes
+	 */
+	void bytesTransferred(long bytes);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OperationMetricsByType keeps the {@link OperationMetrics} for one operation, one per type, so
+ * that finding the metrics for a call is a map lookup without any allocation.
+ */
+final class OperationMetricsByType {
+	private static final String NO_TYPE = "";
+	private final StorageMetrics storageMetrics;
+	private final String component;
+	private final String operation;
+	private final Map<String, OperationMetrics> metricsForTypes = new ConcurrentHashMap<>();
+
+	OperationMetricsByType(StorageMetrics storageMetrics, String component, String operation) {
+		this.storageMetrics = storageMetrics;
+		this.component = component;
+		this.operation = operation;
+	}
+
+	OperationMetrics forType(String type) {
+		String key = type == null ? NO_TYPE : type;
+		OperationMetrics metrics = metricsForTypes.get(key);
+		if (metrics != null) {
+			return metrics;
+		}
+		return metricsForTypes.computeIfAbsent(key,
+				newKey -> storageMetrics.getOperationMetrics(component, operation, newKey));
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+/**
+ * OperationStatistics contains a snapshot of the measurements for one operation on one type, as
+ * collected by {@link InMemoryStorageMetrics}.
+ * <p>
+ * Latency percentiles are read from a histogram with power of two buckets, each percentile is
+ * the upper bound of the bucket it falls in and is therefore at most twice the real value.
+ * 
+ * @param component
+ *            A String with the name of the measured component
+ * @param operation
+ *            A String with the name of the measured operation
+ * @param type
+ *            A String with the type the operation was called for
+ * @param calls
+ *            A long with the number of finished calls, including failed calls
+ * @param errors
+ *            A long with the number of calls that threw an exception
+ * @param inFlight
+ *            A long with the number of calls currently running
+ * @param bytes
+ *            A long with the number of bytes transferred through streams
+ * @param totalNanos
+ *            A long with the summed duration of all finished calls in nanoseconds
+ * @param maxNanos
+ *            A long with the duration of the slowest call in nanoseconds
+ * @param p50Nanos
+ *            A long with the median duration in nanoseconds
+ * @param p99Nanos
+ *            A long with the 99th percentile duration in nanoseconds
+ */
+public record OperationStatistics(String component, String operation, String type, long calls,
+		long errors, long inFlight, long bytes, long totalNanos, long maxNanos, long p50Nanos,
+		long p99Nanos) {
+
+	/**
+	 * meanNanos returns the mean duration of the finished calls.
+	 * 
+	 * @return A long with the mean duration in nanoseconds, 0 if no call has finished
+	 */
+	public long meanNanos() {
+		return calls == 0 ? 0 : totalNanos / calls;
+	}
+}
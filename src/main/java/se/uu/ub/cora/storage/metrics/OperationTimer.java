@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * OperationTimer measures the duration of calls and reports them to {@link OperationMetrics}. It
+ * is shared by the instrumenting decorators, which use it as:
+ * 
+ * <pre>
+ * long start = timer.start(metrics);
+ * try {
+ * 	T result = decorated.call();
+ * 	timer.succeeded(metrics, start);
+ * 	return result;
+ * } catch (RuntimeException e) {
+ * 	timer.failed(metrics, start);
+ * 	throw e;
+ * }
+ * </pre>
+ */
+final class OperationTimer {
+	private LongSupplier nanoClock = System::nanoTime;
+
+	long start(OperationMetrics metrics) {
+		metrics.callStarted();
+		return nanoClock.getAsLong();
+	}
+
+	void succeeded(OperationMetrics metrics, long start) {
+		metrics.callSucceeded(nanoClock.getAsLong() - start);
+	}
+
+	void failed(OperationMetrics metrics, long start) {
+		metrics.callFailed(nanoClock.getAsLong() - start);
+	}
+
+	void onlyForTestSetNanoClock(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+/**
+ * StorageMetrics is the service provider interface used by the instrumenting decorators,
+ * {@link InstrumentedRecordStorage}, {@link InstrumentedStreamStorage} and
+ * {@link InstrumentedResourceArchive}, to report measurements. {@link InMemoryStorageMetrics} is an
+ * implementation that keeps all measurements in process, other implementations can forward them
+ * to a metrics system of choice.
+ * <p>
+ * Implementations MUST be threadsafe.
+ */
+public interface StorageMetrics {
+	/**
+	 * getOperationMetrics returns the {@link OperationMetrics} that measurements for one operation
+	 * on one type should be reported to.
+	 * <p>
+	 * The decorators call this method once for each combination of operation and type they see,
+	 * and keep the returned OperationMetrics for later calls. Implementations SHOULD return the
+	 * same instance for the same arguments, so that decorators sharing a StorageMetrics report to
+	 * the same metrics.
+	 * 
+	 * @param component
+	 *            A String with the name of the measured component, such as "recordStorage"
+	 * @param operation
+	 *            A String with the name of the measured operation, such as "read"
+	 * @param type
+	 *            A String with the type the operation is called for, an empty String if the
+	 *            operation has no type
+	 * @return An {@link OperationMetrics} to report measurements to
+	 */
+	OperationMetrics getOperationMetrics(String component, String operation, String type);
+}
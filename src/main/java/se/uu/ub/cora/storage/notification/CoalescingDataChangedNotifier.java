@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.notification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import se.uu.ub.cora.logger.Logger;
+import se.uu.ub.cora.logger.LoggerProvider;
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * CoalescingDataChangedNotifier collects reported changes to records and delivers them
+ * asynchronously to a {@link DataChangedListener}, so that bulk changes, as during imports, do not
+ * cause one downstream notification per change.
+ * <p>
+ * Changes are collected during a window, as defined by the {@link CoalescingPolicy}, starting with
+ * the first change after the last delivery. Repeated changes to the same record within the window
+ * are coalesced, only the last action reported for the record is delivered. When the window ends
+ * are the collected changes grouped by type and delivered in batches of at most maxBatchSize
+ * changes, from a background thread.
+ * <p>
+ * The number of records with changes waiting to be delivered is limited by maxPendingChanges.
+ * When the limit is reached, delivery starts at once and threads reporting changes to records not
+ * already waiting are blocked until there is room, which slows down producers that report changes
+ * faster than the listener can handle them. Changes reported by a thread that is delivering
+ * changes, as when the listener reports changes back to the notifier, are never blocked, as the
+ * room they would wait for is only made when that delivery has ended.
+ * <p>
+ * Changes are delivered one batch at a time, grouped by type. The types are delivered in the order
+ * of their first waiting change, and within a type are the changes delivered in the order the
+ * records were last changed. Changes to records of different types can therefore be delivered in
+ * another order than they were made. Exceptions thrown by the listener are logged, and the batch
+ * is counted as failed in {@link #getStatistics()}, the changes in it are not delivered again.
+ * <p>
+ * CoalescingDataChangedNotifier is threadsafe.
+ */
+public final class CoalescingDataChangedNotifier implements AutoCloseable {
+	private Logger log = LoggerProvider.getLoggerForClass(CoalescingDataChangedNotifier.class);
+	private final CoalescingPolicy policy;
+	private final DataChangedListener listener;
+	private final ReentrantLock pendingLock = new ReentrantLock();
+	private final Condition spaceAvailable = pendingLock.newCondition();
+	private final ReentrantLock deliverLock = new ReentrantLock();
+	private final ScheduledExecutorService scheduler;
+	private final Map<RecordKey, String> pendingChanges = new LinkedHashMap<>();
+	private final LongAdder receivedChanges = new LongAdder();
+	private final LongAdder deliveredChanges = new LongAdder();
+	private final LongAdder deliveredBatches = new LongAdder();
+	private final LongAdder failedBatches = new LongAdder();
+	private boolean closed = false;
+
+	private record RecordKey(String type, String id) {
+	}
+
+	/**
+	 * usingPolicyAndListener creates a CoalescingDataChangedNotifier and starts its background
+	 * thread.
+	 * 
+	 * @param policy
+	 *            A {@link CoalescingPolicy} defining how changes are coalesced and batched
+	 * @param listener
+	 *            The {@link DataChangedListener} to deliver changes to
+	 * @return A CoalescingDataChangedNotifier
+	 */
+	public static CoalescingDataChangedNotifier usingPolicyAndListener(CoalescingPolicy policy,
+			DataChangedListener listener) {
+		return new CoalescingDataChangedNotifier(policy, listener);
+	}
+
+	private CoalescingDataChangedNotifier(CoalescingPolicy policy, DataChangedListener listener) {
+		this.policy = policy;
+		this.listener = listener;
+		scheduler = Executors.newSingleThreadScheduledExecutor(
+				Thread.ofPlatform().name("cora-data-changed-", 0).daemon().factory());
+	}
+
+	/**
+	 * dataChanged reports a change to a record, to be delivered to the listener when the current
+	 * window ends. If the record already has a change waiting, is that change replaced by this
+	 * one.
+	 * <p>
+	 * If maxPendingChanges records already have changes waiting, the calling thread is blocked
+	 * until they have been taken for delivery, unless the calling thread is itself delivering
+	 * changes.
+	 * 
+	 * @param type
+	 *            A String with the records type
+	 * @param id
+	 *            A String with the records id
+	 * @param action
+	 *            A String with the action of how the record was changed ("create", "update" or
+	 *            "delete")
+	 */
+	public void dataChanged(String type, String id, String action) {
+		RecordKey key = new RecordKey(type, id);
+		pendingLock.lock();
+		try {
+			ensureOpen();
+			waitForRoomIfNotPending(key);
+			startWindowIfFirstChange();
+			pendingChanges.remove(key);
+			pendingChanges.put(key, action);
+			receivedChanges.increment();
+		} finally {
+			pendingLock.unlock();
+		}
+	}
+
+	private void ensureOpen() {
+		if (closed) {
+			throw StorageException.withMessage("CoalescingDataChangedNotifier is closed");
+		}
+	}
+
+	private void waitForRoomIfNotPending(RecordKey key) {
+		if (deliverLock.isHeldByCurrentThread()) {
+			return;
+		}
+		while (!pendingChanges.containsKey(key)
+				&& pendingChanges.size() >= policy.maxPendingChanges()) {
+			scheduleDelivery(0);
+			awaitRoom();
+			ensureOpen();
+		}
+	}
+
+	private void awaitRoom() {
+		try {
+			spaceAvailable.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw StorageException.withMessageAndException(
+					"Interrupted while waiting for changes to be delivered", e);
+		}
+	}
+
+	private void startWindowIfFirstChange() {
+		if (pendingChanges.isEmpty()) {
+			scheduleDelivery(policy.window().toNanos());
+		}
+	}
+
+	private void scheduleDelivery(long delayInNanos) {
+		scheduler.schedule(this::flush, delayInNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * flush delivers all changes waiting to be delivered, without waiting for the current window
+	 * to end. flush returns when the changes have been delivered.
+	 */
+	public void flush() {
+		deliverLock.lock();
+		try {
+			deliver(takePendingChanges());
+		} finally {
+			deliverLock.unlock();
+		}
+	}
+
+	private List<DataChange> takePendingChanges() {
+		pendingLock.lock();
+		try {
+			List<DataChange> changes = new ArrayList<>(pendingChanges.size());
+			pendingChanges.forEach(
+					(key, action) -> changes.add(new DataChange(key.type(), key.id(), action)));
+			pendingChanges.clear();
+			spaceAvailable.signalAll();
+			return changes;
+		} finally {
+			pendingLock.unlock();
+		}
+	}
+
+	private void deliver(List<DataChange> changes) {
+		for (Entry<String, List<DataChange>> entry : groupByType(changes).entrySet()) {
+			deliverInBatches(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private Map<String, List<DataChange>> groupByType(List<DataChange> changes) {
+		Map<String, List<DataChange>> changesByType = new LinkedHashMap<>();
+		for (DataChange change : changes) {
+			changesByType.computeIfAbsent(change.type(), type -> new ArrayList<>()).add(change);
+		}
+		return changesByType;
+	}
+
+	private void deliverInBatches(String type, List<DataChange> changes) {
+		for (int from = 0; from < changes.size(); from += policy.maxBatchSize()) {
+			int to = Math.min(changes.size(), from + policy.maxBatchSize());
+			deliverBatch(type, List.copyOf(changes.subList(from, to)));
+		}
+	}
+
+	private void deliverBatch(String type, List<DataChange> batch) {
+		try {
+			listener.dataChanged(type, batch);
+			deliveredChanges.add(batch.size());
+			deliveredBatches.increment();
+		} catch (RuntimeException e) {
+			failedBatches.increment();
+			log.logErrorUsingMessageAndException("Could not deliver " + batch.size()
+					+ " changes to records of type: " + type, e);
+		}
+	}
+
+	/**
+	 * getStatistics returns counts of the changes handled so far.
+	 * 
+	 * @return A {@link NotificationStatistics}
+	 */
+	public NotificationStatistics getStatistics() {
+		return new NotificationStatistics(receivedChanges.sum(), deliveredChanges.sum(),
+				deliveredBatches.sum(), failedBatches.sum());
+	}
+
+	/**
+	 * close stops accepting changes, delivers all waiting changes and stops the background
+	 * thread. Threads blocked waiting for room get a StorageException. Calling close more than
+	 * once has no effect.
+	 */
+	@Override
+	public void close() {
+		pendingLock.lock();
+		try {
+			closed = true;
+			spaceAvailable.signalAll();
+		} finally {
+			pendingLock.unlock();
+		}
+		scheduler.shutdown();
+		flush();
+	}
+
+	CoalescingPolicy onlyForTestGetPolicy() {
+		return policy;
+	}
+
+	DataChangedListener onlyForTestGetListener() {
+		return listener;
+	}
+
+	boolean onlyForTestIsSchedulerShutdown() {
+		return scheduler.isShutdown();
+	}
+
+	int onlyForTestGetNumberOfPendingChanges() {
+		pendingLock.lock();
+		try {
+			return pendingChanges.size();
+		} finally {
+			pendingLock.unlock();
+		}
+	}
+}
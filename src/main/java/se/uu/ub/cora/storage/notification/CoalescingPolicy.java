@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.notification;
+
+import java.time.Duration;
+
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * CoalescingPolicy defines how changes are coalesced and batched by a
+ * {@link CoalescingDataChangedNotifier}.
+ * 
+ * @param window
+ *            A Duration with how long changes are collected, counted from the first change after
+ *            the last delivery, before they are delivered. Repeated changes to a record within the
+ *            window are delivered once.
+ * @param maxBatchSize
+ *            An int with the largest number of changes delivered to the listener in one call
+ * @param maxPendingChanges
+ *            An int with the largest number of changed records waiting to be delivered. When
+ *            reached, changes are delivered at once and threads reporting changes to other records
+ *            wait until there is room.
+ */
+public record CoalescingPolicy(Duration window, int maxBatchSize, int maxPendingChanges) {
+
+	public CoalescingPolicy {
+		if (!window.isPositive()) {
+			throw StorageException.withMessage("Window must be positive");
+		}
+		if (maxBatchSize < 1 || maxPendingChanges < 1) {
+			throw StorageException
+					.withMessage("MaxBatchSize and maxPendingChanges must be at least 1");
+		}
+	}
+
+	/**
+	 * defaultPolicy returns a CoalescingPolicy collecting changes for 100 milliseconds, delivering
+	 * at most 1 000 changes in a batch and keeping at most 10 000 changes waiting.
+	 */
+	public static CoalescingPolicy defaultPolicy() {
+		return new CoalescingPolicy(Duration.ofMillis(100), 1_000, 10_000);
+	}
+}
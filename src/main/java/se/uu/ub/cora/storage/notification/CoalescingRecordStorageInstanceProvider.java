@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageInstanceProvider;
+import se.uu.ub.cora.storage.StorageException;
+
+/**
+ * CoalescingRecordStorageInstanceProvider is a {@link RecordStorageInstanceProvider} that
+ * decorates another RecordStorageInstanceProvider and passes calls to
+ * {@link #dataChanged(String, String, String)} on through a {@link CoalescingDataChangedNotifier}.
+ * Calls return at once, and repeated changes to a record within the window of the
+ * {@link CoalescingPolicy} reach the decorated RecordStorageInstanceProvider only once, with the
+ * last reported action. If the decorated RecordStorageInstanceProvider throws an exception for a
+ * change, the remaining changes in the batch are still passed on, and the batch is counted as
+ * failed by the notifier.
+ * <p>
+ * All other calls are passed on to the decorated RecordStorageInstanceProvider directly.
+ */
+public final class CoalescingRecordStorageInstanceProvider
+		implements RecordStorageInstanceProvider, AutoCloseable {
+	private final RecordStorageInstanceProvider instanceProvider;
+	private final CoalescingDataChangedNotifier notifier;
+
+	public static CoalescingRecordStorageInstanceProvider usingInstanceProviderAndPolicy(
+			RecordStorageInstanceProvider instanceProvider, CoalescingPolicy policy) {
+		return new CoalescingRecordStorageInstanceProvider(instanceProvider, policy);
+	}
+
+	private CoalescingRecordStorageInstanceProvider(
+			RecordStorageInstanceProvider instanceProvider, CoalescingPolicy policy) {
+		this.instanceProvider = instanceProvider;
+		notifier = CoalescingDataChangedNotifier.usingPolicyAndListener(policy,
+				this::passChangesOn);
+	}
+
+	private void passChangesOn(String type, List<DataChange> changes) {
+		List<RuntimeException> exceptions = new ArrayList<>();
+		for (DataChange change : changes) {
+			passChangeOn(change, exceptions);
+		}
+		if (!exceptions.isEmpty()) {
+			throw createExceptionForFailedChanges(type, changes, exceptions);
+		}
+	}
+
+	private void passChangeOn(DataChange change, List<RuntimeException> exceptions) {
+		try {
+			instanceProvider.dataChanged(change.type(), change.id(), change.action());
+		} catch (RuntimeException e) {
+			exceptions.add(e);
+		}
+	}
+
+	private StorageException createExceptionForFailedChanges(String type,
+			List<DataChange> changes, List<RuntimeException> exceptions) {
+		StorageException exception = StorageException.withMessageAndException(
+				exceptions.size() + " of " + changes.size() + " changes for type " + type
+						+ " could not be passed on",
+				exceptions.get(0));
+		exceptions.subList(1, exceptions.size()).forEach(exception::addSuppressed);
+		return exception;
+	}
+
+	@Override
+	public int getOrderToSelectImplementionsBy() {
+		return instanceProvider.getOrderToSelectImplementionsBy();
+	}
+
+	@Override
+	public RecordStorage getRecordStorage() {
+		return instanceProvider.getRecordStorage();
+	}
+
+	@Override
+	public boolean canReuseRecordStorage() {
+		return instanceProvider.canReuseRecordStorage();
+	}
+
+	@Override
+	public void dataChanged(String type, String id, String action) {
+		notifier.dataChanged(type, id, action);
+	}
+
+	/**
+	 * flush passes all waiting changes on to the decorated RecordStorageInstanceProvider, see
+	 * {@link CoalescingDataChangedNotifier#flush()}.
+	 */
+	public void flush() {
+		notifier.flush();
+	}
+
+	/**
+	 * close passes all waiting changes on and stops accepting changes, see
+	 * {@link CoalescingDataChangedNotifier#close()}.
+	 */
+	@Override
+	public void close() {
+		notifier.close();
+	}
+
+	RecordStorageInstanceProvider onlyForTestGetInstanceProvider() {
+		return instanceProvider;
+	}
+
+	void onlyForTestPassChangesOn(String type, List<DataChange> changes) {
+		passChangesOn(type, changes);
+	}
+
+	CoalescingDataChangedNotifier onlyForTestGetNotifier() {
+		return notifier;
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.notification;
+
+import java.util.List;
+
+/**
+ * DataChangedListener receives the changes delivered by a {@link CoalescingDataChangedNotifier},
+ * in batches of changes to records of one type.
+ * <p>
+ * dataChanged is called from the thread delivering the changes and SHOULD NOT throw exceptions.
+ * If it does, the batch is counted as failed in {@link NotificationStatistics} and delivery
+ * continues with the next batch.
+ */
+@FunctionalInterface
+public interface DataChangedListener {
+
+	/**
+	 * dataChanged is called with a batch of changes to records of one type. Each record is
+	 * present at most once in a batch, with the last action reported for it.
+	 * 
+	 * @param type
+	 *            A String with the type of the changed records
+	 * @param changes
+	 *            A List of {@link DataChange}, ordered by when the records were last changed
+	 */
+	void dataChanged(String type, List<DataChange> changes);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.notification;
+
+/**
+ * NotificationStatistics contains counts of changes handled by a
+ * {@link CoalescingDataChangedNotifier}. The difference between receivedChanges and
+ * deliveredChanges shows how many notifications were removed by coalescing.
+ * 
+ * @param receivedChanges
+ *            A long with the number of reported changes
+ * @param deliveredChanges
+ *            A long with the number of changes delivered to the listener
+ * @param deliveredBatches
+ *            A long with the number of calls made to the listener
+ * @param failedBatches
+ *            A long with the number of calls to the listener that threw an exception
+ */
+public record NotificationStatistics(long receivedChanges, long deliveredChanges,
+		long deliveredBatches, long failedBatches) {
+}
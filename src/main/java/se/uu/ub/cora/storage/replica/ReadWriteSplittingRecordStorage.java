@@ -0,0 +1,269 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.replica;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * ReadWriteSplittingRecordStorage is a {@link RecordStorage} that sends writes to a primary
+ * RecordStorage and reads to replicas of it, so that read load can be spread over several
+ * storage instances.
+ * <p>
+ * As replicas lag behind the primary, reads that could see a write recently made in the same
+ * {@link ReadYourWritesSession} are sent to the primary instead:
+ * <ul>
+ * <li>reads of records, their links and their storageTerms, if one of the records was written</li>
+ * <li>lists and counts, if a record of any of the read types was written</li>
+ * <li>queries for links to a record, if any record was written, as links are stored with the
+ * linking record</li>
+ * </ul>
+ * <p>
+ * Replicas are used in turn. If there are no replicas are all calls sent to the primary.
+ * <p>
+ * ReadWriteSplittingRecordStorage is threadsafe if the primary and the replicas are threadsafe.
+ */
+public final class ReadWriteSplittingRecordStorage implements RecordStorage {
+	private final RecordStorage primary;
+	private final List<RecordStorage> replicas;
+	private final ReadYourWritesSession session;
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	/**
+	 * usingPrimaryReplicasAndSession creates a ReadWriteSplittingRecordStorage.
+	 * 
+	 * @param primary
+	 *            The RecordStorage to send writes to
+	 * @param replicas
+	 *            A List with RecordStorages replicating the primary, to send reads to
+	 * @param session
+	 *            A {@link ReadYourWritesSession} tracking the writes of the session
+	 * @return A ReadWriteSplittingRecordStorage
+	 */
+	public static ReadWriteSplittingRecordStorage usingPrimaryReplicasAndSession(
+			RecordStorage primary, List<RecordStorage> replicas, ReadYourWritesSession session) {
+		return new ReadWriteSplittingRecordStorage(primary, replicas, session);
+	}
+
+	private ReadWriteSplittingRecordStorage(RecordStorage primary, List<RecordStorage> replicas,
+			ReadYourWritesSession session) {
+		this.primary = primary;
+		this.replicas = List.copyOf(replicas);
+		this.session = session;
+	}
+
+	private RecordStorage forRecord(String type, String id) {
+		return primaryIf(session.recordWrittenRecently(type, id));
+	}
+
+	private RecordStorage primaryIf(boolean readFromPrimary) {
+		if (readFromPrimary || replicas.isEmpty()) {
+			return primary;
+		}
+		return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+	}
+
+	private RecordStorage forRecords(String type, Collection<String> ids) {
+		boolean written = false;
+		for (String id : ids) {
+			written |= session.recordWrittenRecently(type, id);
+		}
+		return primaryIf(written);
+	}
+
+	private RecordStorage forRecordOfTypes(List<String> types, String id) {
+		boolean written = false;
+		for (String type : types) {
+			written |= session.recordWrittenRecently(type, id);
+		}
+		return primaryIf(written);
+	}
+
+	private RecordStorage forType(String type) {
+		return primaryIf(session.typeWrittenRecently(type));
+	}
+
+	private RecordStorage forTypes(List<String> types) {
+		boolean written = false;
+		for (String type : types) {
+			written |= session.typeWrittenRecently(type);
+		}
+		return primaryIf(written);
+	}
+
+	private RecordStorage forLinksToRecord() {
+		return primaryIf(session.anyWrittenRecently());
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public DataGroup read(List<String> types, String id) {
+		return forRecordOfTypes(types, id).read(types, id);
+	}
+
+	@Override
+	public DataRecordGroup read(String type, String id) {
+		return forRecord(type, id).read(type, id);
+	}
+
+	@Override
+	public Optional<DataRecordGroup> readIfExists(String type, String id) {
+		return forRecord(type, id).readIfExists(type, id);
+	}
+
+	@Override
+	public StorageReadManyResult readMany(String type, Collection<String> ids) {
+		return forRecords(type, ids).readMany(type, ids);
+	}
+
+	@Override
+	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		try {
+			primary.create(type, id, dataRecord, storageTerms, links, dataDivider);
+		} finally {
+			session.writeMade(type, id);
+		}
+	}
+
+	@Override
+	public void deleteByTypeAndId(String type, String id) {
+		try {
+			primary.deleteByTypeAndId(type, id);
+		} finally {
+			session.writeMade(type, id);
+		}
+	}
+
+	@Override
+	public void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		try {
+			primary.update(type, id, dataRecord, storageTerms, links, dataDivider);
+		} finally {
+			session.writeMade(type, id);
+		}
+	}
+
+	@Override
+	public List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+		try {
+			return primary.writeMany(writes);
+		} finally {
+			writes.forEach(write -> session.writeMade(write.type(), write.id()));
+		}
+	}
+
+	@Override
+	public StorageReadResult readList(String type, Filter filter) {
+		return forType(type).readList(type, filter);
+	}
+
+	@Override
+	public Stream<DataRecordGroup> readListAsStream(String type, Filter filter) {
+		return forType(type).readListAsStream(type, filter);
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		return forTypes(types).readList(types, filter);
+	}
+
+	@Override
+	public boolean recordExists(List<String> types, String id) {
+		return forRecordOfTypes(types, id).recordExists(types, id);
+	}
+
+	@Override
+	public Set<String> findExistingIds(List<String> types, Collection<String> ids) {
+		return forTypes(types).findExistingIds(types, ids);
+	}
+
+	@Override
+	public boolean linksExistForRecord(String type, String id) {
+		return forLinksToRecord().linksExistForRecord(type, id);
+	}
+
+	@Override
+	public Set<Link> getLinksToRecord(String type, String id) {
+		return forLinksToRecord().getLinksToRecord(type, id);
+	}
+
+	@Override
+	public StorageLinksReadResult getLinksToRecord(String type, String id, int maxNumberOfLinks,
+			String continuationToken) {
+		return forLinksToRecord().getLinksToRecord(type, id, maxNumberOfLinks,
+				continuationToken);
+	}
+
+	@Override
+	public long countLinksToRecord(String type, String id) {
+		return forLinksToRecord().countLinksToRecord(type, id);
+	}
+
+	@Override
+	public Map<String, Long> countLinksToRecordGroupedByType(String type, String id) {
+		return forLinksToRecord().countLinksToRecordGroupedByType(type, id);
+	}
+
+	@Override
+	public Set<Link> getLinksFromRecord(String type, String id) {
+		return forRecord(type, id).getLinksFromRecord(type, id);
+	}
+
+	@Override
+	public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
+		return forRecord(type, id).getStorageTermsForRecord(type, id);
+	}
+
+	@Override
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		return forTypes(types).getTotalNumberOfRecordsForTypes(types, filter);
+	}
+
+	RecordStorage onlyForTestGetPrimary() {
+		return primary;
+	}
+
+	List<RecordStorage> onlyForTestGetReplicas() {
+		return replicas;
+	}
+
+	ReadYourWritesSession onlyForTestGetSession() {
+		return session;
+	}
+}
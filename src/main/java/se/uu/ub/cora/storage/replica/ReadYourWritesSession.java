@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.replica;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * ReadYourWritesSession keeps track of the recent writes made in one session, such as by one user,
+ * so that a {@link ReadWriteSplittingRecordStorage} can send reads that could see those writes to
+ * the primary until the replicas have caught up.
+ * <p>
+ * A write is recent until maxReplicationLag has passed since it was made. Writes are tracked per
+ * record, per type and for the session as a whole, so that reads of other records, lists of other
+ * types and link queries made long enough after the last write can still use the replicas.
+ * <p>
+ * ReadYourWritesSession is threadsafe and is intended to be shared by all RecordStorage instances
+ * used in the session.
+ */
+public final class ReadYourWritesSession {
+	private static final long NO_WRITE = Long.MIN_VALUE;
+	private final long maxReplicationLag;
+	private final Map<RecordKey, Long> writesForRecords = new ConcurrentHashMap<>();
+	private final Map<String, Long> writesForTypes = new ConcurrentHashMap<>();
+	private volatile long lastWrite = NO_WRITE;
+	private volatile long lastCleanUp;
+	private LongSupplier nanoClock = System::nanoTime;
+
+	private record RecordKey(String type, String id) {
+	}
+
+	/**
+	 * usingMaxReplicationLag creates a ReadYourWritesSession for replicas that are at most
+	 * maxReplicationLag behind the primary.
+	 * 
+	 * @param maxReplicationLag
+	 *            A Duration with the longest time it takes for a write on the primary to be
+	 *            visible on all replicas
+	 * @return A ReadYourWritesSession
+	 */
+	public static ReadYourWritesSession usingMaxReplicationLag(Duration maxReplicationLag) {
+		return new ReadYourWritesSession(maxReplicationLag);
+	}
+
+	private ReadYourWritesSession(Duration maxReplicationLag) {
+		this.maxReplicationLag = maxReplicationLag.toNanos();
+		lastCleanUp = nanoClock.getAsLong();
+	}
+
+	/**
+	 * writeMade records that a record has been written, created, updated or deleted, on the
+	 * primary.
+	 */
+	public void writeMade(String type, String id) {
+		long now = nanoClock.getAsLong();
+		writesForRecords.put(new RecordKey(type, id), now);
+		writesForTypes.put(type, now);
+		lastWrite = now;
+		removeOldWritesIfDue(now);
+	}
+
+	private void removeOldWritesIfDue(long now) {
+		if (now - lastCleanUp > maxReplicationLag) {
+			lastCleanUp = now;
+			writesForRecords.values().removeIf(writeTime -> !isRecent(writeTime, now));
+			writesForTypes.values().removeIf(writeTime -> !isRecent(writeTime, now));
+		}
+	}
+
+	private boolean isRecent(long writeTime, long now) {
+		return writeTime != NO_WRITE && now - writeTime < maxReplicationLag;
+	}
+
+	/**
+	 * recordWrittenRecently returns true if the record was written so recently that replicas
+	 * might not have the write yet.
+	 */
+	public boolean recordWrittenRecently(String type, String id) {
+		return isRecent(writesForRecords.getOrDefault(new RecordKey(type, id), NO_WRITE));
+	}
+
+	private boolean isRecent(long writeTime) {
+		return isRecent(writeTime, nanoClock.getAsLong());
+	}
+
+	/**
+	 * typeWrittenRecently returns true if any record of the type was written so recently that
+	 * replicas might not have the write yet.
+	 */
+	public boolean typeWrittenRecently(String type) {
+		return isRecent(writesForTypes.getOrDefault(type, NO_WRITE));
+	}
+
+	/**
+	 * anyWrittenRecently returns true if any record was written so recently that replicas might
+	 * not have the write yet.
+	 */
+	public boolean anyWrittenRecently() {
+		return isRecent(lastWrite);
+	}
+
+	void onlyForTestSetNanoClock(LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+		lastCleanUp = nanoClock.getAsLong();
+	}
+
+	int onlyForTestGetNumberOfTrackedRecords() {
+		return writesForRecords.size();
+	}
+}
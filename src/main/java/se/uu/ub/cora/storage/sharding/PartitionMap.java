@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.sharding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * PartitionMap defines on which shard, of a {@link ShardingRecordStorage}, records are stored.
+ * <p>
+ * A record is stored on the shard its type is mapped to. Records of types that are not mapped are
+ * stored on the shard their dataDivider is mapped to, and records with neither type nor
+ * dataDivider mapped are stored on the default shard. Mapping a type keeps all its records on one
+ * shard, which is suitable for types that are read by all systems such as metadata, while mapping
+ * dataDividers spreads the records of other types by the system they belong to.
+ * 
+ * @param defaultShard
+ *            A String with the name of the shard used for records not mapped to another shard
+ * @param shardsForTypes
+ *            A Map with the name of the shard for each mapped type
+ * @param shardsForDataDividers
+ *            A Map with the name of the shard for each mapped dataDivider
+ */
+public record PartitionMap(String defaultShard, Map<String, String> shardsForTypes,
+		Map<String, String> shardsForDataDividers) {
+
+	public PartitionMap {
+		shardsForTypes = Map.copyOf(shardsForTypes);
+		shardsForDataDividers = Map.copyOf(shardsForDataDividers);
+	}
+
+	/**
+	 * usingDefaultShard returns a PartitionMap that stores all records on one shard.
+	 */
+	public static PartitionMap usingDefaultShard(String defaultShard) {
+		return new PartitionMap(defaultShard, Map.of(), Map.of());
+	}
+
+	/**
+	 * getShardForTypeAndDataDivider returns the name of the shard a record with the type and
+	 * dataDivider is stored on.
+	 */
+	public String getShardForTypeAndDataDivider(String type, String dataDivider) {
+		String shardForType = shardsForTypes.get(type);
+		if (shardForType != null) {
+			return shardForType;
+		}
+		return shardsForDataDividers.getOrDefault(dataDivider, defaultShard);
+	}
+
+	/**
+	 * getPossibleShardsForType returns the names of all shards records of the type can be stored
+	 * on, as the dataDivider of a record is not known when it is read by type and id. The shard
+	 * for records with an unmapped dataDivider comes first, followed by the other shards sorted
+	 * by name.
+	 */
+	public List<String> getPossibleShardsForType(String type) {
+		String shardForType = shardsForTypes.get(type);
+		if (shardForType != null) {
+			return List.of(shardForType);
+		}
+		Set<String> shards = new LinkedHashSet<>();
+		shards.add(defaultShard);
+		shards.addAll(new TreeSet<>(shardsForDataDividers.values()));
+		return new ArrayList<>(shards);
+	}
+
+	/**
+	 * getShardNames returns the names of all shards used in this PartitionMap, sorted by name.
+	 */
+	public Set<String> getShardNames() {
+		Set<String> shardNames = new TreeSet<>();
+		shardNames.add(defaultShard);
+		shardNames.addAll(shardsForTypes.values());
+		shardNames.addAll(shardsForDataDividers.values());
+		return shardNames;
+	}
+}
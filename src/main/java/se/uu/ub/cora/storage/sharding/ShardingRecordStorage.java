@@ -0,0 +1,623 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.sharding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.CountMode;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.LinkPaging;
+import se.uu.ub.cora.storage.RecordConflictException;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+/**
+ * ShardingRecordStorage is a {@link RecordStorage} that spreads records over several underlying
+ * RecordStorage instances, shards, as defined by a {@link PartitionMap}.
+ * <p>
+ * Calls concerning one record are routed to the shard the record is stored on. If records of the
+ * type can be stored on several shards, as the type is spread by dataDivider, are the shards asked
+ * in turn until the record is found. An update that changes the dataDivider of a record to one
+ * mapped to another shard moves the record, by creating it on the new shard and deleting it from
+ * the old. The move is not atomic, between the create and the delete can the record be found on
+ * both shards. If the delete fails, the record is deleted from the new shard again and a
+ * {@link StorageException} is thrown, leaving the record unchanged on the old shard. If also that
+ * delete fails, a StorageException is thrown telling that the record exists on both shards.
+ * <p>
+ * For types stored on several shards are creates, updates and deletes of one record serialised
+ * using striped locks, so that the check that a created record does not exist on another shard,
+ * and the moves of records between shards, are not interleaved with other writes of the same
+ * record. The locks are held by this instance, writes made directly to the shards, or through other
+ * instances, are not serialised with writes made through it.
+ * <p>
+ * Lists, counts and link queries are sent to all shards that can have matching records and the
+ * results are merged:
+ * <ul>
+ * <li>readList lists the matches shard by shard, in the order of
+ * {@link PartitionMap#getPossibleShardsForType(String)}. The shards are read in turn, each asked
+ * for the part of the requested range that is left after the matches on earlier shards, counted as
+ * requested by the filter. When a shard returns an exact count is only that part read. When it
+ * does not, the shard is read from its first match up to the part of toNo that is left, so that
+ * its number of matches before the range is known, which bounds the number of records read from
+ * all shards together to toNo. Shards after a full page are only read for their counts, with a
+ * range of one record, or not at all if no count is requested. The total number of matches is
+ * merged from the totals returned by the shards, see
+ * {@link CountMode#countForMergedResults(List, Filter)}. Continuation tokens are not supported for
+ * types spread over several shards, and the returned continuationToken is null so that callers
+ * continue using fromNo.</li>
+ * <li>counts are summed</li>
+ * <li>links to a record can be stored on any shard, as they are stored with the linking record,
+ * so link queries are sent to all shards</li>
+ * </ul>
+ * <p>
+ * Types stored on one shard have the same behaviour and performance as if that shard was used
+ * directly.
+ * <p>
+ * ShardingRecordStorage is threadsafe if the shards are threadsafe.
+ */
+public final class ShardingRecordStorage implements RecordStorage {
+	private static final int NUMBER_OF_RECORD_LOCKS = 64;
+	private final Map<String, RecordStorage> shards;
+	private final PartitionMap partitionMap;
+	private final Map<String, List<RecordStorage>> shardsForTypes = new ConcurrentHashMap<>();
+	private final Lock[] recordLocks = new Lock[NUMBER_OF_RECORD_LOCKS];
+
+	private interface ShardReader {
+		StorageReadResult read(RecordStorage shard, List<String> types, Filter filter);
+	}
+
+	private record ShardPart(ShardReader shardReader, RecordStorage shard, List<String> types) {
+		StorageReadResult read(Filter filter) {
+			return shardReader.read(shard, types, filter);
+		}
+	}
+
+	/**
+	 * usingShardsAndPartitionMap creates a ShardingRecordStorage.
+	 * 
+	 * @param shards
+	 *            A Map with the RecordStorage for each shard name
+	 * @param partitionMap
+	 *            A {@link PartitionMap} defining which shard records are stored on, all shard
+	 *            names used in it MUST exist in shards
+	 * @return A ShardingRecordStorage
+	 */
+	public static ShardingRecordStorage usingShardsAndPartitionMap(
+			Map<String, RecordStorage> shards, PartitionMap partitionMap) {
+		return new ShardingRecordStorage(shards, partitionMap);
+	}
+
+	private ShardingRecordStorage(Map<String, RecordStorage> shards, PartitionMap partitionMap) {
+		this.shards = new LinkedHashMap<>(shards);
+		this.partitionMap = partitionMap;
+		ensureAllShardsExist();
+		for (int i = 0; i < NUMBER_OF_RECORD_LOCKS; i++) {
+			recordLocks[i] = new ReentrantLock();
+		}
+	}
+
+	private void ensureAllShardsExist() {
+		for (String shardName : partitionMap.getShardNames()) {
+			if (!shards.containsKey(shardName)) {
+				throw StorageException.withMessage("No shard exists with name: " + shardName);
+			}
+		}
+	}
+
+	private List<RecordStorage> getShardsForType(String type) {
+		return shardsForTypes.computeIfAbsent(type, this::lookUpShardsForType);
+	}
+
+	private List<RecordStorage> lookUpShardsForType(String type) {
+		return partitionMap.getPossibleShardsForType(type).stream().map(shards::get).toList();
+	}
+
+	private RecordStorage getShardForTypeAndDataDivider(String type, String dataDivider) {
+		return shards.get(partitionMap.getShardForTypeAndDataDivider(type, dataDivider));
+	}
+
+	private Map<RecordStorage, List<String>> groupTypesByShard(List<String> types) {
+		Map<RecordStorage, List<String>> typesByShard = new LinkedHashMap<>();
+		for (String type : types) {
+			for (RecordStorage shard : getShardsForType(type)) {
+				typesByShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(type);
+			}
+		}
+		return typesByShard;
+	}
+
+	private Optional<RecordStorage> findShardWithRecord(String type, String id) {
+		for (RecordStorage shard : getShardsForType(type)) {
+			if (shard.recordExists(List.of(type), id)) {
+				return Optional.of(shard);
+			}
+		}
+		return Optional.empty();
+	}
+
+	private RecordNotFoundException createNotFoundException(String type, String id) {
+		return RecordNotFoundException.withMessageWithoutStackTrace(
+				"No record exists with recordType: " + type + " and recordId: " + id);
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public DataGroup read(List<String> types, String id) {
+		for (Entry<RecordStorage, List<String>> entry : groupTypesByShard(types).entrySet()) {
+			if (entry.getKey().recordExists(entry.getValue(), id)) {
+				return entry.getKey().read(entry.getValue(), id);
+			}
+		}
+		throw RecordNotFoundException.withMessageWithoutStackTrace(
+				"No record exists with recordId: " + id + " for types: " + types);
+	}
+
+	@Override
+	public DataRecordGroup read(String type, String id) {
+		List<RecordStorage> shardsForType = getShardsForType(type);
+		if (shardsForType.size() == 1) {
+			return shardsForType.get(0).read(type, id);
+		}
+		return readIfExists(type, id).orElseThrow(() -> createNotFoundException(type, id));
+	}
+
+	@Override
+	public Optional<DataRecordGroup> readIfExists(String type, String id) {
+		for (RecordStorage shard : getShardsForType(type)) {
+			Optional<DataRecordGroup> dataRecord = shard.readIfExists(type, id);
+			if (dataRecord.isPresent()) {
+				return dataRecord;
+			}
+		}
+		return Optional.empty();
+	}
+
+	@Override
+	public StorageReadManyResult readMany(String type, Collection<String> ids) {
+		List<RecordStorage> shardsForType = getShardsForType(type);
+		if (shardsForType.size() == 1) {
+			return shardsForType.get(0).readMany(type, ids);
+		}
+		return readManyFromShards(shardsForType, type, ids);
+	}
+
+	private StorageReadManyResult readManyFromShards(List<RecordStorage> shardsForType,
+			String type, Collection<String> ids) {
+		Set<String> missingIds = new LinkedHashSet<>(ids);
+		Map<String, DataRecordGroup> foundRecords = new LinkedHashMap<>();
+		for (RecordStorage shard : shardsForType) {
+			if (!missingIds.isEmpty()) {
+				foundRecords.putAll(shard.readMany(type, missingIds).records());
+				missingIds.removeAll(foundRecords.keySet());
+			}
+		}
+		return new StorageReadManyResult(orderByIds(ids, foundRecords), missingIds);
+	}
+
+	private Map<String, DataRecordGroup> orderByIds(Collection<String> ids,
+			Map<String, DataRecordGroup> foundRecords) {
+		Map<String, DataRecordGroup> records = new LinkedHashMap<>();
+		for (String id : ids) {
+			if (foundRecords.containsKey(id)) {
+				records.put(id, foundRecords.get(id));
+			}
+		}
+		return records;
+	}
+
+	@Override
+	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		RecordStorage shard = getShardForTypeAndDataDivider(type, dataDivider);
+		if (getShardsForType(type).size() == 1) {
+			shard.create(type, id, dataRecord, storageTerms, links, dataDivider);
+			return;
+		}
+		runLockedForRecord(type, id, () -> {
+			ensureRecordIsNotOnOtherShard(shard, type, id);
+			shard.create(type, id, dataRecord, storageTerms, links, dataDivider);
+		});
+	}
+
+	private void runLockedForRecord(String type, String id, Runnable runnable) {
+		getLockedForRecord(type, id, () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	private <T> T getLockedForRecord(String type, String id, Supplier<T> supplier) {
+		Lock lock = getLockForRecord(type, id);
+		lock.lock();
+		try {
+			return supplier.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private Lock getLockForRecord(String type, String id) {
+		return recordLocks[Math.floorMod(Objects.hash(type, id), NUMBER_OF_RECORD_LOCKS)];
+	}
+
+	private void ensureRecordIsNotOnOtherShard(RecordStorage shardToCreateOn, String type,
+			String id) {
+		for (RecordStorage shard : getShardsForType(type)) {
+			if (shard != shardToCreateOn && shard.recordExists(List.of(type), id)) {
+				throw RecordConflictException.withMessage("Record with recordType: " + type
+						+ " and recordId: " + id + " already exists");
+			}
+		}
+	}
+
+	@Override
+	public void deleteByTypeAndId(String type, String id) {
+		List<RecordStorage> shardsForType = getShardsForType(type);
+		if (shardsForType.size() == 1) {
+			shardsForType.get(0).deleteByTypeAndId(type, id);
+			return;
+		}
+		runLockedForRecord(type, id, () -> findShardWithRecord(type, id)
+				.orElseThrow(() -> createNotFoundException(type, id)).deleteByTypeAndId(type, id));
+	}
+
+	@Override
+	public void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		RecordStorage shard = getShardForTypeAndDataDivider(type, dataDivider);
+		if (getShardsForType(type).size() == 1) {
+			shard.update(type, id, dataRecord, storageTerms, links, dataDivider);
+			return;
+		}
+		runLockedForRecord(type, id, () -> {
+			RecordStorage currentShard = findShardWithRecord(type, id)
+					.orElseThrow(() -> createNotFoundException(type, id));
+			if (currentShard == shard) {
+				shard.update(type, id, dataRecord, storageTerms, links, dataDivider);
+			} else {
+				shard.create(type, id, dataRecord, storageTerms, links, dataDivider);
+				deleteFromOldShardOrRollBack(currentShard, shard, type, id);
+			}
+		});
+	}
+
+	private void deleteFromOldShardOrRollBack(RecordStorage oldShard, RecordStorage newShard,
+			String type, String id) {
+		try {
+			oldShard.deleteByTypeAndId(type, id);
+		} catch (RuntimeException e) {
+			rollBackCreate(newShard, type, id, e);
+			throw StorageException.withMessageAndException("Moving record with recordType: "
+					+ type + " and recordId: " + id + " to another shard failed, the record is "
+					+ "left unchanged on its old shard", e);
+		}
+	}
+
+	private void rollBackCreate(RecordStorage newShard, String type, String id,
+			RuntimeException deleteException) {
+		try {
+			newShard.deleteByTypeAndId(type, id);
+		} catch (RuntimeException e) {
+			deleteException.addSuppressed(e);
+			throw StorageException.withMessageAndException("Moving record with recordType: "
+					+ type + " and recordId: " + id + " to another shard failed and could not be "
+					+ "rolled back, the record exists on both shards", deleteException);
+		}
+	}
+
+	@Override
+	public List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+		RecordWriteResult[] results = new RecordWriteResult[writes.size()];
+		Map<RecordStorage, List<Integer>> writesByShard = new LinkedHashMap<>();
+		for (int i = 0; i < writes.size(); i++) {
+			RecordWrite write = writes.get(i);
+			if (getShardsForType(write.type()).size() == 1) {
+				RecordStorage shard = getShardForTypeAndDataDivider(write.type(),
+						write.dataDivider());
+				writesByShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(i);
+			} else {
+				results[i] = RecordStorage.super.writeMany(List.of(write)).get(0);
+			}
+		}
+		writesByShard.forEach((shard, indexes) -> writeManyToShard(shard, writes, indexes,
+				results));
+		return Arrays.asList(results);
+	}
+
+	private void writeManyToShard(RecordStorage shard, List<RecordWrite> writes,
+			List<Integer> indexes, RecordWriteResult[] results) {
+		List<RecordWrite> shardWrites = indexes.stream().map(writes::get).toList();
+		List<RecordWriteResult> shardResults = shard.writeMany(shardWrites);
+		for (int i = 0; i < indexes.size(); i++) {
+			results[indexes.get(i)] = shardResults.get(i);
+		}
+	}
+
+	@Override
+	public StorageReadResult readList(String type, Filter filter) {
+		List<RecordStorage> shardsForType = getShardsForType(type);
+		if (shardsForType.size() == 1) {
+			return shardsForType.get(0).readList(type, filter);
+		}
+		Map<RecordStorage, List<String>> typesByShard = new LinkedHashMap<>();
+		shardsForType.forEach(shard -> typesByShard.put(shard, List.of(type)));
+		return readListFromShards(typesByShard, filter,
+				(shard, types, shardFilter) -> shard.readList(type, shardFilter));
+	}
+
+	@Override
+	public Stream<DataRecordGroup> readListAsStream(String type, Filter filter) {
+		List<RecordStorage> shardsForType = getShardsForType(type);
+		if (shardsForType.size() == 1) {
+			return shardsForType.get(0).readListAsStream(type, filter);
+		}
+		ensureNoContinuationToken(filter);
+		Filter unpagedFilter = copyFilterWithRange(filter, 1, Long.MAX_VALUE);
+		return shardsForType.stream()
+				.flatMap(shard -> shard.readListAsStream(type, unpagedFilter))
+				.skip(filter.fromNo - 1).limit(filter.toNo - filter.fromNo + 1);
+	}
+
+	@Override
+	@SuppressWarnings("removal")
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		Map<RecordStorage, List<String>> typesByShard = groupTypesByShard(types);
+		if (typesByShard.size() == 1) {
+			return typesByShard.keySet().iterator().next().readList(types, filter);
+		}
+		return readListFromShards(typesByShard, filter, RecordStorage::readList);
+	}
+
+	private StorageReadResult readListFromShards(Map<RecordStorage, List<String>> typesByShard,
+			Filter filter, ShardReader shardReader) {
+		ensureNoContinuationToken(filter);
+		StorageReadResult result = new StorageReadResult();
+		result.start = Math.max(0, filter.fromNo - 1);
+		List<StorageReadResult> countedResults = new ArrayList<>();
+		long numberOfMatchesBefore = 0;
+		for (Entry<RecordStorage, List<String>> entry : typesByShard.entrySet()) {
+			ShardPart shardPart = new ShardPart(shardReader, entry.getKey(), entry.getValue());
+			if (numberOfMatchesBefore < filter.toNo) {
+				numberOfMatchesBefore += readRangeLeftFromShard(shardPart, filter,
+						numberOfMatchesBefore, result, countedResults);
+			} else if (filter.countMode != CountMode.NONE) {
+				countedResults.add(shardPart.read(copyFilterWithRange(filter, 1, 1)));
+			}
+		}
+		result.totalNumberOfMatches = CountMode.countForMergedResults(countedResults, filter);
+		result.countMode = CountMode.modeForMergedResults(countedResults, filter);
+		return result;
+	}
+
+	private void ensureNoContinuationToken(Filter filter) {
+		if (filter.hasContinuationToken()) {
+			throw StorageException.withMessage(
+					"Continuation tokens are not supported for types stored on several shards");
+		}
+	}
+
+	private long readRangeLeftFromShard(ShardPart shardPart, Filter filter,
+			long numberOfMatchesBefore, StorageReadResult result,
+			List<StorageReadResult> countedResults) {
+		long fromNo = Math.max(1, filter.fromNo - numberOfMatchesBefore);
+		long toNo = filter.toNo - numberOfMatchesBefore;
+		if (filter.countMode == CountMode.NONE) {
+			return addRecordsInRangeAndCount(result, readFromFirstMatch(shardPart, filter, toNo),
+					fromNo, toNo);
+		}
+		StorageReadResult page = shardPart.read(copyFilterWithRange(filter, fromNo, toNo));
+		countedResults.add(page);
+		if (page.countMode == CountMode.EXACT) {
+			addRecordsInRange(result, page, 0, toNo);
+			return page.totalNumberOfMatches;
+		}
+		if (fromNo > 1) {
+			page = readFromFirstMatch(shardPart, filter, toNo);
+		}
+		return addRecordsInRangeAndCount(result, page, fromNo, toNo);
+	}
+
+	private StorageReadResult readFromFirstMatch(ShardPart shardPart, Filter filter, long toNo) {
+		Filter filterWithoutCount = copyFilterWithRange(filter, 1, toNo);
+		filterWithoutCount.countMode = CountMode.NONE;
+		return shardPart.read(filterWithoutCount);
+	}
+
+	private long addRecordsInRangeAndCount(StorageReadResult result, StorageReadResult page,
+			long fromNo, long toNo) {
+		addRecordsInRange(result, page, fromNo - 1, toNo);
+		return numberOfRecordsIn(page);
+	}
+
+	private void addRecordsInRange(StorageReadResult result, StorageReadResult page,
+			long startIndex, long endIndex) {
+		addInRange(result.listOfDataGroups, page.listOfDataGroups, startIndex, endIndex);
+		addInRange(result.listOfDataRecordGroups, page.listOfDataRecordGroups, startIndex,
+				endIndex);
+		addInRange(result.listOfProjectedRecords, page.listOfProjectedRecords, startIndex,
+				endIndex);
+		result.projected |= page.projected;
+	}
+
+	private <T> void addInRange(List<T> to, List<T> from, long startIndex, long endIndex) {
+		int fromIndex = Math.clamp(startIndex, 0, from.size());
+		int toIndex = Math.clamp(endIndex, fromIndex, from.size());
+		to.addAll(from.subList(fromIndex, toIndex));
+	}
+
+	private long numberOfRecordsIn(StorageReadResult page) {
+		return Math.max(page.listOfDataGroups.size(), Math.max(
+				page.listOfDataRecordGroups.size(), page.listOfProjectedRecords.size()));
+	}
+
+	private Filter copyFilterWithRange(Filter filter, long fromNo, long toNo) {
+		Filter copy = new Filter();
+		copy.fromNo = fromNo;
+		copy.toNo = toNo;
+		copy.include = filter.include;
+		copy.exclude = filter.exclude;
+		copy.countMode = filter.countMode;
+		copy.countCap = filter.countCap;
+		copy.projection = filter.projection;
+		return copy;
+	}
+
+	@Override
+	public boolean recordExists(List<String> types, String id) {
+		for (Entry<RecordStorage, List<String>> entry : groupTypesByShard(types).entrySet()) {
+			if (entry.getKey().recordExists(entry.getValue(), id)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Set<String> findExistingIds(List<String> types, Collection<String> ids) {
+		Set<String> foundIds = new LinkedHashSet<>();
+		for (Entry<RecordStorage, List<String>> entry : groupTypesByShard(types).entrySet()) {
+			foundIds.addAll(entry.getKey().findExistingIds(entry.getValue(), ids));
+		}
+		Set<String> existingIds = new LinkedHashSet<>();
+		for (String id : ids) {
+			if (foundIds.contains(id)) {
+				existingIds.add(id);
+			}
+		}
+		return existingIds;
+	}
+
+	@Override
+	public boolean linksExistForRecord(String type, String id) {
+		for (RecordStorage shard : shards.values()) {
+			if (shard.linksExistForRecord(type, id)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Set<Link> getLinksToRecord(String type, String id) {
+		Set<Link> links = new LinkedHashSet<>();
+		for (RecordStorage shard : shards.values()) {
+			links.addAll(shard.getLinksToRecord(type, id));
+		}
+		return links;
+	}
+
+	@Override
+	public StorageLinksReadResult getLinksToRecord(String type, String id, int maxNumberOfLinks,
+			String continuationToken) {
+		LinkPaging linkPaging = LinkPaging
+				.usingMaxNumberOfLinksAndContinuationToken(maxNumberOfLinks, continuationToken);
+		for (RecordStorage shard : shards.values()) {
+			linkPaging.offerPage(
+					shard.getLinksToRecord(type, id, maxNumberOfLinks, continuationToken));
+		}
+		return linkPaging.createResult();
+	}
+
+	@Override
+	public long countLinksToRecord(String type, String id) {
+		long numberOfLinks = 0;
+		for (RecordStorage shard : shards.values()) {
+			numberOfLinks += shard.countLinksToRecord(type, id);
+		}
+		return numberOfLinks;
+	}
+
+	@Override
+	public Map<String, Long> countLinksToRecordGroupedByType(String type, String id) {
+		Map<String, Long> counts = new TreeMap<>();
+		for (RecordStorage shard : shards.values()) {
+			shard.countLinksToRecordGroupedByType(type, id)
+					.forEach((linkingType, count) -> counts.merge(linkingType, count, Long::sum));
+		}
+		return counts;
+	}
+
+	@Override
+	public Set<Link> getLinksFromRecord(String type, String id) {
+		return getShardWithRecordOrFirst(type, id).getLinksFromRecord(type, id);
+	}
+
+	private RecordStorage getShardWithRecordOrFirst(String type, String id) {
+		List<RecordStorage> shardsForType = getShardsForType(type);
+		if (shardsForType.size() == 1) {
+			return shardsForType.get(0);
+		}
+		return findShardWithRecord(type, id).orElse(shardsForType.get(0));
+	}
+
+	@Override
+	public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
+		return getShardWithRecordOrFirst(type, id).getStorageTermsForRecord(type, id);
+	}
+
+	@Override
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		Map<RecordStorage, List<String>> typesByShard = groupTypesByShard(types);
+		long numberOfRecords = 0;
+		for (Entry<RecordStorage, List<String>> entry : typesByShard.entrySet()) {
+			numberOfRecords += entry.getKey().getTotalNumberOfRecordsForTypes(entry.getValue(),
+					filter);
+		}
+		return CountMode.countForResult(numberOfRecords, filter);
+	}
+
+	Map<String, RecordStorage> onlyForTestGetShards() {
+		return shards;
+	}
+
+	Lock onlyForTestGetLockForRecord(String type, String id) {
+		return getLockForRecord(type, id);
+	}
+
+	PartitionMap onlyForTestGetPartitionMap() {
+		return partitionMap;
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CountModeTest {
+
+	private Filter filter;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		filter = new Filter();
+	}
+
+	@Test
+	public void testExact() {
+		assertEquals(CountMode.modeForResult(17, filter), CountMode.EXACT);
+		assertEquals(CountMode.countForResult(17, filter), 17);
+	}
+
+	@Test
+	public void testEstimatedIsCountedExactly() {
+		filter.countMode = CountMode.ESTIMATED;
+
+		assertEquals(CountMode.modeForResult(17, filter), CountMode.EXACT);
+		assertEquals(CountMode.countForResult(17, filter), 17);
+	}
+
+	@Test
+	public void testNone() {
+		filter.countMode = CountMode.NONE;
+
+		assertEquals(CountMode.modeForResult(17, filter), CountMode.NONE);
+		assertEquals(CountMode.countForResult(17, filter), 0);
+	}
+
+	@Test
+	public void testCappedNotReached() {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 17;
+
+		assertEquals(CountMode.modeForResult(17, filter), CountMode.EXACT);
+		assertEquals(CountMode.countForResult(17, filter), 17);
+	}
+
+	@Test
+	public void testCappedReached() {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 10;
+
+		assertEquals(CountMode.modeForResult(17, filter), CountMode.CAPPED);
+		assertEquals(CountMode.countForResult(17, filter), 10);
+	}
+
+	@Test
+	public void testMergedResultsExact() {
+		List<StorageReadResult> results = List.of(createResult(3, CountMode.EXACT),
+				createResult(4, CountMode.EXACT));
+
+		assertEquals(CountMode.modeForMergedResults(results, filter), CountMode.EXACT);
+		assertEquals(CountMode.countForMergedResults(results, filter), 7);
+	}
+
+	private StorageReadResult createResult(long totalNumberOfMatches, CountMode countMode) {
+		StorageReadResult result = new StorageReadResult();
+		result.totalNumberOfMatches = totalNumberOfMatches;
+		result.countMode = countMode;
+		return result;
+	}
+
+	@Test
+	public void testMergedResultsNoResults() {
+		assertEquals(CountMode.modeForMergedResults(List.of(), filter), CountMode.EXACT);
+		assertEquals(CountMode.countForMergedResults(List.of(), filter), 0);
+	}
+
+	@Test
+	public void testMergedResultsNone() {
+		filter.countMode = CountMode.NONE;
+		List<StorageReadResult> results = List.of(createResult(3, CountMode.EXACT));
+
+		assertEquals(CountMode.modeForMergedResults(results, filter), CountMode.NONE);
+		assertEquals(CountMode.countForMergedResults(results, filter), 0);
+	}
+
+	@Test
+	public void testMergedResultsEstimated() {
+		filter.countMode = CountMode.ESTIMATED;
+		List<StorageReadResult> results = List.of(createResult(3, CountMode.EXACT),
+				createResult(40, CountMode.ESTIMATED));
+
+		assertEquals(CountMode.modeForMergedResults(results, filter), CountMode.ESTIMATED);
+		assertEquals(CountMode.countForMergedResults(results, filter), 43);
+	}
+
+	@Test
+	public void testMergedResultsCappedNotReached() {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 7;
+		List<StorageReadResult> results = List.of(createResult(3, CountMode.EXACT),
+				createResult(4, CountMode.EXACT));
+
+		assertEquals(CountMode.modeForMergedResults(results, filter), CountMode.EXACT);
+		assertEquals(CountMode.countForMergedResults(results, filter), 7);
+	}
+
+	@Test
+	public void testMergedResultsCappedReachedBySum() {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 5;
+		List<StorageReadResult> results = List.of(createResult(3, CountMode.EXACT),
+				createResult(4, CountMode.EXACT));
+
+		assertEquals(CountMode.modeForMergedResults(results, filter), CountMode.CAPPED);
+		assertEquals(CountMode.countForMergedResults(results, filter), 5);
+	}
+
+	@Test
+	public void testMergedResultsCappedReachedByOneResult() {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 5;
+		List<StorageReadResult> results = List.of(createResult(0, CountMode.EXACT),
+				createResult(5, CountMode.CAPPED));
+
+		assertEquals(CountMode.modeForMergedResults(results, filter), CountMode.CAPPED);
+		assertEquals(CountMode.countForMergedResults(results, filter), 5);
+	}
+}
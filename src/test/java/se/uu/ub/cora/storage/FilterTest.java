@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Uppsala University Library
+ * Copyright 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,6 +18,7 @@
  */
 package se.uu.ub.cora.storage;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -115,4 +116,55 @@ public class FilterTest {
 
 		assertTrue(filter.hasIncludeParts());
 	}
+
+	@Test
+	public void testContinuationTokenSet() throws Exception {
+		filter.continuationToken = "someToken";
+
+		boolean filterResults = filter.filtersResults();
+
+		assertTrue(filterResults);
+	}
+
+	@Test
+	public void testHasContinuationToken() throws Exception {
+		assertFalse(filter.hasContinuationToken());
+	}
+
+	@Test
+	public void testHasContinuationTokenForSetToken() throws Exception {
+		filter.continuationToken = "someToken";
+
+		assertTrue(filter.hasContinuationToken());
+	}
+
+	@Test
+	public void testCountModeIsExactByDefault() throws Exception {
+		assertEquals(filter.countMode, CountMode.EXACT);
+		assertEquals(filter.countCap, Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testCountModeDoesNotFilterResults() throws Exception {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 1000;
+
+		boolean filterResults = filter.filtersResults();
+
+		assertFalse(filterResults);
+	}
+
+	@Test
+	public void testProjectionDefault() throws Exception {
+		assertEquals(filter.projection, List.of());
+		assertFalse(filter.hasProjection());
+	}
+
+	@Test
+	public void testProjectionDoesNotFilterResults() throws Exception {
+		filter.projection.add("title");
+
+		assertTrue(filter.hasProjection());
+		assertFalse(filter.filtersResults());
+	}
 }
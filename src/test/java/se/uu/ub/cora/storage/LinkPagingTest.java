@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.collected.Link;
+
+public class LinkPagingTest {
+	private static final Link PERSON_1 = new Link("person", "1");
+	private static final Link PERSON_2 = new Link("person", "2");
+	private static final Link BOOK_1 = new Link("book", "1");
+	private static final Link BOOK_2 = new Link("book", "2");
+	private static final Set<Link> LINKS = Set.of(PERSON_2, BOOK_1, PERSON_1, BOOK_2);
+
+	@Test
+	public void testAllLinksFitInPage() throws Exception {
+		StorageLinksReadResult result = LinkPaging.pageOf(LINKS, 10, null);
+
+		assertEquals(result.links(), List.of(BOOK_1, BOOK_2, PERSON_1, PERSON_2));
+		assertNull(result.continuationToken());
+		assertFalse(result.hasMoreLinks());
+	}
+
+	@Test
+	public void testExactlyFitsInPage() throws Exception {
+		StorageLinksReadResult result = LinkPaging.pageOf(LINKS, 4, null);
+
+		assertEquals(result.links().size(), 4);
+		assertFalse(result.hasMoreLinks());
+	}
+
+	@Test
+	public void testNoLinks() throws Exception {
+		StorageLinksReadResult result = LinkPaging.pageOf(Set.of(), 10, null);
+
+		assertEquals(result.links(), List.of());
+		assertFalse(result.hasMoreLinks());
+	}
+
+	@Test
+	public void testFirstPage() throws Exception {
+		StorageLinksReadResult result = LinkPaging.pageOf(LINKS, 3, null);
+
+		assertEquals(result.links(), List.of(BOOK_1, BOOK_2, PERSON_1));
+		assertEquals(result.continuationToken(), "person/1");
+		assertTrue(result.hasMoreLinks());
+	}
+
+	@Test
+	public void testNextPage() throws Exception {
+		StorageLinksReadResult result = LinkPaging.pageOf(LINKS, 2, "book/2");
+
+		assertEquals(result.links(), List.of(PERSON_1, PERSON_2));
+		assertFalse(result.hasMoreLinks());
+	}
+
+	@Test
+	public void testTokenForRemovedLink() throws Exception {
+		StorageLinksReadResult result = LinkPaging.pageOf(LINKS, 10, "book/15");
+
+		assertEquals(result.links(), List.of(BOOK_2, PERSON_1, PERSON_2));
+	}
+
+	@Test
+	public void testIdContainingSeparator() throws Exception {
+		Link linkWithSlash = new Link("book", "1/a");
+		Set<Link> links = Set.of(BOOK_1, linkWithSlash, BOOK_2);
+
+		StorageLinksReadResult first = LinkPaging.pageOf(links, 2, null);
+		StorageLinksReadResult second = LinkPaging.pageOf(links, 2, first.continuationToken());
+
+		assertEquals(first.links(), List.of(BOOK_1, linkWithSlash));
+		assertEquals(second.links(), List.of(BOOK_2));
+	}
+
+	@Test
+	public void testReadingAllPages() throws Exception {
+		List<Link> links = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			links.add(new Link("type" + i % 3, "id" + i));
+		}
+		List<Link> readLinks = new ArrayList<>();
+		String continuationToken = null;
+		do {
+			StorageLinksReadResult result = LinkPaging.pageOf(links, 7, continuationToken);
+			readLinks.addAll(result.links());
+			continuationToken = result.continuationToken();
+		} while (continuationToken != null);
+
+		links.sort(LinkPaging.LINK_ORDER);
+		assertEquals(readLinks, links);
+	}
+
+	@Test
+	public void testOfferPagesMergesPages() throws Exception {
+		LinkPaging linkPaging = LinkPaging.usingMaxNumberOfLinksAndContinuationToken(3, null);
+
+		linkPaging.offerPage(new StorageLinksReadResult(List.of(BOOK_2, PERSON_2), null));
+		linkPaging.offerPage(new StorageLinksReadResult(List.of(BOOK_1, PERSON_1), null));
+
+		StorageLinksReadResult result = linkPaging.createResult();
+		assertEquals(result.links(), List.of(BOOK_1, BOOK_2, PERSON_1));
+		assertEquals(result.continuationToken(), "person/1");
+	}
+
+	@Test
+	public void testOfferPageWithMoreLinksMarksMergedPageAsHavingMoreLinks() throws Exception {
+		LinkPaging linkPaging = LinkPaging.usingMaxNumberOfLinksAndContinuationToken(2, null);
+
+		linkPaging.offerPage(new StorageLinksReadResult(List.of(BOOK_1, BOOK_2), "book/2"));
+		linkPaging.offerPage(new StorageLinksReadResult(List.of(), null));
+
+		StorageLinksReadResult result = linkPaging.createResult();
+		assertEquals(result.links(), List.of(BOOK_1, BOOK_2));
+		assertEquals(result.continuationToken(), "book/2");
+	}
+
+	@Test
+	public void testOfferPageWithoutMoreLinks() throws Exception {
+		LinkPaging linkPaging = LinkPaging.usingMaxNumberOfLinksAndContinuationToken(2, null);
+
+		linkPaging.offerPage(new StorageLinksReadResult(List.of(BOOK_1, BOOK_2), null));
+
+		assertNull(linkPaging.createResult().continuationToken());
+	}
+
+	@Test(expectedExceptions = StorageException.class, expectedExceptionsMessageRegExp = ""
+			+ "Max number of links must be larger than 0, was: 0")
+	public void testMaxNumberOfLinksMustBePositive() throws Exception {
+		LinkPaging.usingMaxNumberOfLinksAndContinuationToken(0, null);
+	}
+
+	@Test(expectedExceptions = StorageException.class, expectedExceptionsMessageRegExp = ""
+			+ "Invalid continuation token: someToken")
+	public void testInvalidContinuationToken() throws Exception {
+		LinkPaging.usingMaxNumberOfLinksAndContinuationToken(10, "someToken");
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+
+public class PagedReadListIteratorTest {
+	private static final String SOME_TYPE = "someType";
+	private RecordStorageSpy recordStorage;
+	private Filter filter;
+	private List<DataRecordGroup> allRecords;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recordStorage = new RecordStorageSpy();
+		filter = new Filter();
+		allRecords = new ArrayList<>();
+	}
+
+	private void setReadListToReturnPagesWithSizes(int... pageSizes) {
+		List<StorageReadResult> pages = new ArrayList<>();
+		for (int pageSize : pageSizes) {
+			pages.add(createPageWithSize(pageSize));
+		}
+		Iterator<StorageReadResult> pageIterator = pages.iterator();
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", pageIterator::next);
+	}
+
+	private StorageReadResult createPageWithSize(int pageSize) {
+		StorageReadResult page = new StorageReadResult();
+		for (int i = 0; i < pageSize; i++) {
+			DataRecordGroup dataRecordGroup = new DataRecordGroupSpy();
+			page.listOfDataRecordGroups.add(dataRecordGroup);
+			allRecords.add(dataRecordGroup);
+		}
+		return page;
+	}
+
+	@Test
+	public void testNoRecords() throws Exception {
+		setReadListToReturnPagesWithSizes(0);
+		PagedReadListIterator iterator = new PagedReadListIterator(recordStorage, SOME_TYPE,
+				filter, 3);
+
+		assertFalse(iterator.hasNext());
+		assertFalse(iterator.hasNext());
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertReadListCalledWithTypeAndRange(0, 1, 3);
+	}
+
+	private Filter assertReadListCalledWithTypeAndRange(int callNumber, long fromNo, long toNo) {
+		recordStorage.MCR.assertParameter("readList", callNumber, "type", SOME_TYPE);
+		Filter pageFilter = (Filter) recordStorage.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName("readList", callNumber,
+						"filter");
+		assertEquals(pageFilter.fromNo, fromNo);
+		assertEquals(pageFilter.toNo, toNo);
+		assertSame(pageFilter.include, filter.include);
+		assertSame(pageFilter.exclude, filter.exclude);
+		assertEquals(pageFilter.countMode, CountMode.NONE);
+		return pageFilter;
+	}
+
+	@Test
+	public void testReadsOnePageAtATime() throws Exception {
+		setReadListToReturnPagesWithSizes(2, 2, 1);
+		PagedReadListIterator iterator = new PagedReadListIterator(recordStorage, SOME_TYPE,
+				filter, 2);
+
+		assertEquals(iterator.next(), allRecords.get(0));
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertEquals(iterator.next(), allRecords.get(1));
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertEquals(iterator.next(), allRecords.get(2));
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 2);
+		assertEquals(readRemaining(iterator), allRecords.subList(3, 5));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 3);
+		assertReadListCalledWithTypeAndRange(0, 1, 2);
+		assertReadListCalledWithTypeAndRange(1, 3, 4);
+		assertReadListCalledWithTypeAndRange(2, 5, 6);
+	}
+
+	private List<DataRecordGroup> readRemaining(Iterator<DataRecordGroup> iterator) {
+		List<DataRecordGroup> read = new ArrayList<>();
+		iterator.forEachRemaining(read::add);
+		return read;
+	}
+
+	@Test
+	public void testFullLastPageReadsOneMoreEmptyPage() throws Exception {
+		setReadListToReturnPagesWithSizes(2, 0);
+		PagedReadListIterator iterator = new PagedReadListIterator(recordStorage, SOME_TYPE,
+				filter, 2);
+
+		assertEquals(readRemaining(iterator), allRecords);
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 2);
+		assertReadListCalledWithTypeAndRange(1, 3, 4);
+	}
+
+	@Test
+	public void testRangeInFilterIsHonoured() throws Exception {
+		filter.fromNo = 3;
+		filter.toNo = 6;
+		setReadListToReturnPagesWithSizes(3, 1);
+		PagedReadListIterator iterator = new PagedReadListIterator(recordStorage, SOME_TYPE,
+				filter, 3);
+
+		assertEquals(readRemaining(iterator), allRecords);
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 2);
+		assertReadListCalledWithTypeAndRange(0, 3, 5);
+		assertReadListCalledWithTypeAndRange(1, 6, 6);
+	}
+
+	@Test
+	public void testNextWhenNoMoreRecords() throws Exception {
+		setReadListToReturnPagesWithSizes(0);
+		PagedReadListIterator iterator = new PagedReadListIterator(recordStorage, SOME_TYPE,
+				filter, 3);
+
+		try {
+			iterator.next();
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), NoSuchElementException.class);
+			assertEquals(e.getMessage(), "No more records to read for type: someType");
+		}
+	}
+
+	@Test
+	public void testContinuationTokenFromFilterIsUsedForFirstPage() throws Exception {
+		filter.continuationToken = "someToken";
+		setReadListToReturnPagesWithSizes(1);
+		PagedReadListIterator iterator = new PagedReadListIterator(recordStorage, SOME_TYPE,
+				filter, 2);
+
+		readRemaining(iterator);
+
+		Filter pageFilter = assertReadListCalledWithTypeAndRange(0, 1, 2);
+		assertEquals(pageFilter.continuationToken, "someToken");
+	}
+
+	@Test
+	public void testProjectionIsNotUsedForPages() throws Exception {
+		filter.projection.add("title");
+		setReadListToReturnPagesWithSizes(1);
+		PagedReadListIterator iterator = new PagedReadListIterator(recordStorage, SOME_TYPE,
+				filter, 2);
+
+		readRemaining(iterator);
+
+		Filter pageFilter = assertReadListCalledWithTypeAndRange(0, 1, 2);
+		assertEquals(pageFilter.projection, List.of());
+	}
+
+	@Test
+	public void testContinuationTokenFromResultIsUsedForNextPage() throws Exception {
+		List<StorageReadResult> pages = new ArrayList<>();
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> {
+			StorageReadResult page = createPageWithSize(pages.size() < 2 ? 2 : 0);
+			page.continuationToken = "token" + pages.size();
+			pages.add(page);
+			return page;
+		});
+		PagedReadListIterator iterator = new PagedReadListIterator(recordStorage, SOME_TYPE,
+				filter, 2);
+
+		readRemaining(iterator);
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 3);
+		assertNull(assertReadListCalledWithTypeAndRange(0, 1, 2).continuationToken);
+		assertEquals(assertReadListCalledWithTypeAndRange(1, 3, 4).continuationToken, "token0");
+		assertEquals(assertReadListCalledWithTypeAndRange(2, 5, 6).continuationToken, "token1");
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.collected.StorageTerm;
+
+public class ProjectedRecordTest {
+	private static final Set<StorageTerm> STORAGE_TERMS = Set.of(
+			new StorageTerm("titleTerm", "title", "someTitle"),
+			new StorageTerm("tagTerm", "tag", "x"), new StorageTerm("tagTerm2", "tag", "y"),
+			new StorageTerm("otherTerm", "other", "notProjected"));
+
+	@Test
+	public void testUsingStorageTermsAndProjection() throws Exception {
+		ProjectedRecord projectedRecord = ProjectedRecord.usingStorageTermsAndProjection(
+				"someType", "someId", STORAGE_TERMS, List.of("title", "missing", "tag"));
+
+		assertEquals(projectedRecord.type(), "someType");
+		assertEquals(projectedRecord.id(), "someId");
+		assertEquals(List.copyOf(projectedRecord.values().keySet()),
+				List.of("title", "missing", "tag"));
+		assertEquals(projectedRecord.values().get("title"), List.of("someTitle"));
+		assertEquals(projectedRecord.values().get("missing"), List.of());
+		assertEquals(Set.copyOf(projectedRecord.values().get("tag")), Set.of("x", "y"));
+	}
+
+	@Test
+	public void testGetFirstValue() throws Exception {
+		ProjectedRecord projectedRecord = new ProjectedRecord("someType", "someId",
+				Map.of("title", List.of("someTitle", "otherTitle"), "missing", List.of()));
+
+		assertEquals(projectedRecord.getFirstValue("title"), "someTitle");
+		assertNull(projectedRecord.getFirstValue("missing"));
+		assertNull(projectedRecord.getFirstValue("notProjected"));
+	}
+}
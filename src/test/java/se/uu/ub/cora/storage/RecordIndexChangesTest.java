@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+
+public class RecordIndexChangesTest {
+	private static final StorageTerm TITLE_A = new StorageTerm("titleTerm", "title", "a");
+	private static final StorageTerm TITLE_B = new StorageTerm("titleTerm", "title", "b");
+	private static final StorageTerm TAG = new StorageTerm("tagTerm", "tag", "x");
+	private static final Link LINK_1 = new Link("someType", "id1");
+	private static final Link LINK_2 = new Link("someType", "id2");
+
+	@Test
+	public void testNoChanges() throws Exception {
+		RecordIndexChanges changes = RecordIndexChanges.betweenStoredAndUpdated(
+				Set.of(TITLE_A, TAG), Set.of(LINK_1), Set.of(TAG, TITLE_A), Set.of(LINK_1));
+
+		assertFalse(changes.storageTerms().hasChanges());
+		assertFalse(changes.links().hasChanges());
+		assertFalse(changes.hasChanges());
+	}
+
+	@Test
+	public void testOneStorageTermChanged() throws Exception {
+		RecordIndexChanges changes = RecordIndexChanges.betweenStoredAndUpdated(
+				Set.of(TITLE_A, TAG), Set.of(LINK_1), Set.of(TITLE_B, TAG), Set.of(LINK_1));
+
+		assertEquals(changes.storageTerms().added(), Set.of(TITLE_B));
+		assertEquals(changes.storageTerms().removed(), Set.of(TITLE_A));
+		assertFalse(changes.links().hasChanges());
+		assertTrue(changes.hasChanges());
+	}
+
+	@Test
+	public void testLinksChanged() throws Exception {
+		RecordIndexChanges changes = RecordIndexChanges.betweenStoredAndUpdated(Set.of(TAG),
+				Set.of(LINK_1), Set.of(TAG), Set.of(LINK_2));
+
+		assertFalse(changes.storageTerms().hasChanges());
+		assertEquals(changes.links().added(), Set.of(LINK_2));
+		assertEquals(changes.links().removed(), Set.of(LINK_1));
+		assertTrue(changes.hasChanges());
+	}
+}
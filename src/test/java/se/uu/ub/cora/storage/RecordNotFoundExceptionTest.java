@@ -19,6 +19,7 @@
 package se.uu.ub.cora.storage;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 import org.testng.annotations.Test;
 
@@ -39,4 +40,14 @@ public class RecordNotFoundExceptionTest {
 		assertEquals(notFound.getMessage(), "message");
 		assertEquals(notFound.getCause(), exception);
 	}
+
+	@Test
+	public void testInitWithoutStackTrace() {
+		RecordNotFoundException notFound = RecordNotFoundException
+				.withMessageWithoutStackTrace("message");
+
+		assertEquals(notFound.getMessage(), "message");
+		assertEquals(notFound.getStackTrace().length, 0);
+		assertNull(notFound.getCause());
+	}
 }
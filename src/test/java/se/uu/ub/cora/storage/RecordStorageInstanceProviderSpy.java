@@ -1,5 +1,5 @@
 /*
- * Copyright 2022, 2025 Uppsala University Library
+ * Copyright 2022, 2025, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -33,6 +33,8 @@ public class RecordStorageInstanceProviderSpy implements RecordStorageInstancePr
 		MRV.setDefaultReturnValuesSupplier("getOrderToSelectImplementionsBy",
 				(Supplier<Integer>) () -> 0);
 		MRV.setDefaultReturnValuesSupplier("getRecordStorage", RecordStorageSpy::new);
+		MRV.setDefaultReturnValuesSupplier("canReuseRecordStorage", () -> false);
+		MRV.setDefaultReturnValuesSupplier("dataChanged", () -> null);
 
 	}
 
@@ -46,8 +48,13 @@ public class RecordStorageInstanceProviderSpy implements RecordStorageInstancePr
 		return (RecordStorage) MCR.addCallAndReturnFromMRV();
 	}
 
+	@Override
+	public boolean canReuseRecordStorage() {
+		return (boolean) MCR.addCallAndReturnFromMRV();
+	}
+
 	@Override
 	public void dataChanged(String type, String id, String action) {
-		MCR.addCall("type", type, "id", id, "action", action);
+		MCR.addCallAndReturnFromMRV("type", type, "id", id, "action", action);
 	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022, 2025 Uppsala University Library
+ * Copyright 2022, 2025, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,13 +18,19 @@
  */
 package se.uu.ub.cora.storage;
 
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -84,10 +90,10 @@ public class RecordStorageProviderTest {
 	}
 
 	@Test
-	public void testGetRecordStorageIsSynchronized_toPreventProblemsWithFindingImplementations()
+	public void testGetRecordStorageIsNotSynchronized_instanceProviderIsOnlyLocatedOnce()
 			throws Exception {
 		Method getRecordStorage = RecordStorageProvider.class.getMethod("getRecordStorage");
-		assertTrue(Modifier.isSynchronized(getRecordStorage.getModifiers()));
+		assertFalse(Modifier.isSynchronized(getRecordStorage.getModifiers()));
 	}
 
 	@Test
@@ -124,6 +130,75 @@ public class RecordStorageProviderTest {
 				1);
 	}
 
+	@Test
+	public void testConcurrentCallsToGetRecordStorageOnlyLoadsImplementationsOnce()
+			throws Exception {
+		setupModuleInstanceProviderToReturnRecordStorageFactorySpy();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			threads.add(Thread.startVirtualThread(() -> {
+				awaitStart(start);
+				RecordStorageProvider.getRecordStorage();
+			}));
+		}
+
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		moduleInitializerSpy.MCR.assertNumberOfCallsToMethod("loadOneImplementationBySelectOrder",
+				1);
+		instanceProviderSpy.MCR.assertNumberOfCallsToMethod("getRecordStorage", 50);
+	}
+
+	private void awaitStart(CountDownLatch start) {
+		try {
+			start.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	public void testNewRecordStorageForEachCallIfNotReusable() {
+		setupModuleInstanceProviderToReturnRecordStorageFactorySpy();
+
+		RecordStorage recordStorage = RecordStorageProvider.getRecordStorage();
+		RecordStorage recordStorage2 = RecordStorageProvider.getRecordStorage();
+
+		instanceProviderSpy.MCR.assertNumberOfCallsToMethod("getRecordStorage", 2);
+		assertNotSame(recordStorage, recordStorage2);
+	}
+
+	@Test
+	public void testReusableRecordStorageIsOnlyFetchedOnce() {
+		setupModuleInstanceProviderToReturnRecordStorageFactorySpy();
+		instanceProviderSpy.MRV.setDefaultReturnValuesSupplier("canReuseRecordStorage",
+				() -> true);
+
+		RecordStorage recordStorage = RecordStorageProvider.getRecordStorage();
+		RecordStorage recordStorage2 = RecordStorageProvider.getRecordStorage();
+
+		instanceProviderSpy.MCR.assertNumberOfCallsToMethod("getRecordStorage", 1);
+		instanceProviderSpy.MCR.assertReturn("getRecordStorage", 0, recordStorage);
+		assertSame(recordStorage2, recordStorage);
+	}
+
+	@Test
+	public void testOnlyForTestSetReusableRecordStorageInstanceProvider() {
+		RecordStorageInstanceProviderSpy instanceProviderSpy2 = new RecordStorageInstanceProviderSpy();
+		instanceProviderSpy2.MRV.setDefaultReturnValuesSupplier("canReuseRecordStorage",
+				() -> true);
+		RecordStorageProvider.onlyForTestSetRecordStorageInstanceProvider(instanceProviderSpy2);
+
+		RecordStorage recordStorage = RecordStorageProvider.getRecordStorage();
+
+		instanceProviderSpy2.MCR.assertNumberOfCallsToMethod("getRecordStorage", 1);
+		instanceProviderSpy2.MCR.assertReturn("getRecordStorage", 0, recordStorage);
+	}
+
 	@Test
 	public void testCallDataChanged() {
 		setupModuleInstanceProviderToReturnRecordStorageFactorySpy();
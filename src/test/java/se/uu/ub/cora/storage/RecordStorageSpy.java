@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Uppsala University Library
+ * Copyright 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,94 +18,113 @@
  */
 package se.uu.ub.cora.storage;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import se.uu.ub.cora.data.DataGroup;
 import se.uu.ub.cora.data.DataRecordGroup;
 import se.uu.ub.cora.data.collected.Link;
 import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
 public class RecordStorageSpy implements RecordStorage {
+	public MethodCallRecorder MCR = new MethodCallRecorder();
+	public MethodReturnValues MRV = new MethodReturnValues();
+
+	public RecordStorageSpy() {
+		MCR.useMRV(MRV);
+		MRV.setDefaultReturnValuesSupplier("create", () -> null);
+		MRV.setDefaultReturnValuesSupplier("update", () -> null);
+		MRV.setDefaultReturnValuesSupplier("deleteByTypeAndId", () -> null);
+		MRV.setDefaultReturnValuesSupplier("read", DataRecordGroupSpy::new);
+		MRV.setDefaultReturnValuesSupplier("readList", StorageReadResult::new);
+		MRV.setDefaultReturnValuesSupplier("recordExists", (Supplier<Boolean>) () -> false);
+		MRV.setDefaultReturnValuesSupplier("linksExistForRecord",
+				(Supplier<Boolean>) () -> false);
+		MRV.setDefaultReturnValuesSupplier("getLinksToRecord", Collections::emptySet);
+		MRV.setDefaultReturnValuesSupplier("getLinksFromRecord", Collections::emptySet);
+		MRV.setDefaultReturnValuesSupplier("getStorageTermsForRecord", Collections::emptySet);
+		MRV.setDefaultReturnValuesSupplier("getTotalNumberOfRecordsForTypes",
+				(Supplier<Long>) () -> 0L);
+	}
 
 	@Override
 	public DataGroup read(List<String> types, String id) {
-		// TODO Auto-generated method stub
-		return null;
+		MCR.addCall("types", types, "id", id);
+		DataGroup dataGroup = new DataGroupSpy();
+		MCR.addReturned(dataGroup);
+		return dataGroup;
 	}
 
 	@Override
-	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
-			Set<Link> links, String dataDivider) {
-		// TODO Auto-generated method stub
-
+	public DataRecordGroup read(String type, String id) {
+		return (DataRecordGroup) MCR.addCallAndReturnFromMRV("type", type, "id", id);
 	}
 
 	@Override
-	public void deleteByTypeAndId(String type, String id) {
-		// TODO Auto-generated method stub
-
+	public void create(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
+			Set<Link> links, String dataDivider) {
+		MCR.addCallAndReturnFromMRV("type", type, "id", id, "dataRecord", dataRecord,
+				"storageTerms", storageTerms, "links", links, "dataDivider", dataDivider);
 	}
 
 	@Override
-	public boolean linksExistForRecord(String type, String id) {
-		// TODO Auto-generated method stub
-		return false;
+	public void deleteByTypeAndId(String type, String id) {
+		MCR.addCallAndReturnFromMRV("type", type, "id", id);
 	}
 
 	@Override
 	public void update(String type, String id, DataGroup dataRecord, Set<StorageTerm> storageTerms,
 			Set<Link> links, String dataDivider) {
-		// TODO Auto-generated method stub
-
+		MCR.addCallAndReturnFromMRV("type", type, "id", id, "dataRecord", dataRecord,
+				"storageTerms", storageTerms, "links", links, "dataDivider", dataDivider);
 	}
 
 	@Override
-	public StorageReadResult readList(List<String> types, Filter filter) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public boolean recordExists(List<String> types, String id) {
-		// TODO Auto-generated method stub
-		return false;
+	public StorageReadResult readList(String type, Filter filter) {
+		return (StorageReadResult) MCR.addCallAndReturnFromMRV("type", type, "filter", filter);
 	}
 
 	@Override
-	public Set<Link> getLinksToRecord(String type, String id) {
-		// TODO Auto-generated method stub
-		return null;
+	public StorageReadResult readList(List<String> types, Filter filter) {
+		return (StorageReadResult) MCR.addCallAndReturnFromMRV("types", types, "filter", filter);
 	}
 
 	@Override
-	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
-		// TODO Auto-generated method stub
-		return 0;
+	public boolean recordExists(List<String> types, String id) {
+		return (boolean) MCR.addCallAndReturnFromMRV("types", types, "id", id);
 	}
 
 	@Override
-	public DataRecordGroup read(String type, String id) {
-		// TODO Auto-generated method stub
-		return null;
+	public boolean linksExistForRecord(String type, String id) {
+		return (boolean) MCR.addCallAndReturnFromMRV("type", type, "id", id);
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
-	public StorageReadResult readList(String type, Filter filter) {
-		// TODO Auto-generated method stub
-		return null;
+	public Set<Link> getLinksToRecord(String type, String id) {
+		return (Set<Link>) MCR.addCallAndReturnFromMRV("type", type, "id", id);
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public Set<Link> getLinksFromRecord(String type, String id) {
-		// TODO Auto-generated method stub
-		return null;
+		return (Set<Link>) MCR.addCallAndReturnFromMRV("type", type, "id", id);
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
-		// TODO Auto-generated method stub
-		return null;
+		return (Set<StorageTerm>) MCR.addCallAndReturnFromMRV("type", type, "id", id);
 	}
 
+	@Override
+	public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+		return (long) MCR.addCallAndReturnFromMRV("types", types, "filter", filter);
+	}
 }
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+
+public class RecordStorageTest {
+	private static final String SOME_TYPE = "someType";
+	private RecordStorageSpy recordStorage;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recordStorage = new RecordStorageSpy();
+	}
+
+	@Test
+	public void testReadManyNoIds() throws Exception {
+		StorageReadManyResult result = recordStorage.readMany(SOME_TYPE, List.of());
+
+		recordStorage.MCR.assertMethodNotCalled("read");
+		assertTrue(result.records().isEmpty());
+		assertTrue(result.missingIds().isEmpty());
+	}
+
+	@Test
+	public void testReadManyReadsEachIdOnce() throws Exception {
+		StorageReadManyResult result = recordStorage.readMany(SOME_TYPE,
+				List.of("id1", "id2", "id1"));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		recordStorage.MCR.assertParameters("read", 0, SOME_TYPE, "id1");
+		recordStorage.MCR.assertParameters("read", 1, SOME_TYPE, "id2");
+		assertEquals(List.copyOf(result.records().keySet()), List.of("id1", "id2"));
+		assertReturnedRecordForId(result, 0, "id1");
+		assertReturnedRecordForId(result, 1, "id2");
+		assertTrue(result.missingIds().isEmpty());
+	}
+
+	private void assertReturnedRecordForId(StorageReadManyResult result, int callNumber,
+			String id) {
+		DataRecordGroup readRecord = (DataRecordGroup) recordStorage.MCR.getReturnValue("read",
+				callNumber);
+		assertEquals(result.records().get(id), readRecord);
+	}
+
+	@Test
+	public void testReadManyNotFoundIdsAreReturnedAsMissing() throws Exception {
+		recordStorage.MRV.setThrowException("read",
+				RecordNotFoundException.withMessage("not found"), SOME_TYPE, "id2");
+
+		StorageReadManyResult result = recordStorage.readMany(SOME_TYPE,
+				List.of("id1", "id2", "id3"));
+
+		assertEquals(List.copyOf(result.records().keySet()), List.of("id1", "id3"));
+		assertEquals(result.missingIds(), Set.of("id2"));
+	}
+
+	@Test(expectedExceptions = StorageException.class, expectedExceptionsMessageRegExp = ""
+			+ "some storage error")
+	public void testReadManyOtherErrorsArePassedOn() throws Exception {
+		recordStorage.MRV.setAlwaysThrowException("read",
+				StorageException.withMessage("some storage error"));
+
+		recordStorage.readMany(SOME_TYPE, List.of("id1"));
+	}
+
+	@Test
+	public void testWriteManyNoWrites() throws Exception {
+		List<RecordWriteResult> results = recordStorage.writeMany(List.of());
+
+		recordStorage.MCR.assertMethodNotCalled("create");
+		recordStorage.MCR.assertMethodNotCalled("update");
+		assertTrue(results.isEmpty());
+	}
+
+	@Test
+	public void testWriteManyCallsCreateAndUpdate() throws Exception {
+		RecordWrite create = createWrite(RecordWriteAction.CREATE, "id1");
+		RecordWrite update = createWrite(RecordWriteAction.UPDATE, "id2");
+
+		List<RecordWriteResult> results = recordStorage.writeMany(List.of(create, update));
+
+		recordStorage.MCR.assertParameters("create", 0, SOME_TYPE, "id1", create.dataRecord(),
+				create.storageTerms(), create.links(), "someDataDivider");
+		recordStorage.MCR.assertParameters("update", 0, SOME_TYPE, "id2", update.dataRecord(),
+				update.storageTerms(), update.links(), "someDataDivider");
+		assertEquals(results, List.of(new RecordWriteResult(create, RecordWriteStatus.SUCCESS, null),
+				new RecordWriteResult(update, RecordWriteStatus.SUCCESS, null)));
+	}
+
+	private RecordWrite createWrite(RecordWriteAction action, String id) {
+		return new RecordWrite(action, SOME_TYPE, id, new DataGroupSpy(),
+				Set.of(new StorageTerm("someTermId", "someKey", "someValue")),
+				Set.of(new Link("someLinkedType", "someLinkedId")), "someDataDivider");
+	}
+
+	@Test
+	public void testWriteManyReportsConflictAndNotFoundAndContinues() throws Exception {
+		recordStorage.MRV.setAlwaysThrowException("create",
+				RecordConflictException.withMessage("already exists"));
+		recordStorage.MRV.setThrowException("update",
+				RecordNotFoundException.withMessage("not found"), SOME_TYPE, "id2", null,
+				null, null, null);
+		RecordWrite create = createWrite(RecordWriteAction.CREATE, "id1");
+		RecordWrite update = new RecordWrite(RecordWriteAction.UPDATE, SOME_TYPE, "id2", null,
+				null, null, null);
+		RecordWrite update2 = createWrite(RecordWriteAction.UPDATE, "id3");
+
+		List<RecordWriteResult> results = recordStorage
+				.writeMany(List.of(create, update, update2));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("update", 2);
+		assertEquals(results, List.of(
+				new RecordWriteResult(create, RecordWriteStatus.CONFLICT, "already exists"),
+				new RecordWriteResult(update, RecordWriteStatus.NOT_FOUND, "not found"),
+				new RecordWriteResult(update2, RecordWriteStatus.SUCCESS, null)));
+	}
+
+	@Test(expectedExceptions = StorageException.class, expectedExceptionsMessageRegExp = ""
+			+ "some storage error")
+	public void testWriteManyOtherErrorsArePassedOn() throws Exception {
+		recordStorage.MRV.setAlwaysThrowException("create",
+				StorageException.withMessage("some storage error"));
+
+		recordStorage.writeMany(List.of(createWrite(RecordWriteAction.CREATE, "id1")));
+	}
+
+	@Test
+	public void testReadListAsStreamReadsPagesUsingReadList() throws Exception {
+		StorageReadResult page = new StorageReadResult();
+		page.listOfDataRecordGroups.add(new DataRecordGroupSpy());
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> page);
+		Filter filter = new Filter();
+
+		try (Stream<DataRecordGroup> stream = recordStorage.readListAsStream(SOME_TYPE, filter)) {
+			assertEquals(stream.toList(), page.listOfDataRecordGroups);
+		}
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 1);
+		Filter pageFilter = (Filter) recordStorage.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName("readList", 0, "filter");
+		assertEquals(pageFilter.fromNo, 1);
+		assertEquals(pageFilter.toNo, PagedReadListIterator.DEFAULT_PAGE_SIZE);
+	}
+
+	@Test
+	public void testReadListAsStreamIsLazy() throws Exception {
+		recordStorage.readListAsStream(SOME_TYPE, new Filter());
+
+		recordStorage.MCR.assertMethodNotCalled("readList");
+	}
+
+	@Test
+	public void testGetLinksToRecordPagedUsesAllLinks() throws Exception {
+		Link link1 = new Link("otherType", "id1");
+		Link link2 = new Link("otherType", "id2");
+		recordStorage.MRV.setDefaultReturnValuesSupplier("getLinksToRecord",
+				() -> Set.of(link2, link1));
+
+		StorageLinksReadResult result = recordStorage.getLinksToRecord(SOME_TYPE, "id1", 1, null);
+
+		recordStorage.MCR.assertParameters("getLinksToRecord", 0, SOME_TYPE, "id1");
+		assertEquals(result.links(), List.of(link1));
+		assertEquals(result.continuationToken(), "otherType/id1");
+	}
+
+	@Test
+	public void testCountLinksToRecord() throws Exception {
+		recordStorage.MRV.setDefaultReturnValuesSupplier("getLinksToRecord",
+				() -> Set.of(new Link("otherType", "id1"), new Link("otherType", "id2")));
+
+		long count = recordStorage.countLinksToRecord(SOME_TYPE, "id1");
+
+		recordStorage.MCR.assertParameters("getLinksToRecord", 0, SOME_TYPE, "id1");
+		assertEquals(count, 2);
+	}
+
+	@Test
+	public void testCountLinksToRecordGroupedByType() throws Exception {
+		recordStorage.MRV.setDefaultReturnValuesSupplier("getLinksToRecord",
+				() -> Set.of(new Link("otherType", "id1"), new Link("otherType", "id2"),
+						new Link("thirdType", "id1")));
+
+		Map<String, Long> counts = recordStorage.countLinksToRecordGroupedByType(SOME_TYPE,
+				"id1");
+
+		recordStorage.MCR.assertParameters("getLinksToRecord", 0, SOME_TYPE, "id1");
+		assertEquals(counts, Map.of("otherType", 2L, "thirdType", 1L));
+	}
+
+	@Test
+	public void testReadIfExists() throws Exception {
+		Optional<DataRecordGroup> result = recordStorage.readIfExists(SOME_TYPE, "id1");
+
+		recordStorage.MCR.assertParameters("read", 0, SOME_TYPE, "id1");
+		recordStorage.MCR.assertReturn("read", 0, result.get());
+	}
+
+	@Test
+	public void testReadIfExistsNotFound() throws Exception {
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		Optional<DataRecordGroup> result = recordStorage.readIfExists(SOME_TYPE, "id1");
+
+		assertTrue(result.isEmpty());
+	}
+
+	@Test(expectedExceptions = StorageException.class, expectedExceptionsMessageRegExp = ""
+			+ "some storage error")
+	public void testReadIfExistsOtherErrorsArePassedOn() throws Exception {
+		recordStorage.MRV.setAlwaysThrowException("read",
+				StorageException.withMessage("some storage error"));
+
+		recordStorage.readIfExists(SOME_TYPE, "id1");
+	}
+
+	@Test
+	public void testFindExistingIds() throws Exception {
+		List<String> types = List.of(SOME_TYPE);
+		recordStorage.MRV.setSpecificReturnValuesSupplier("recordExists", () -> true, types,
+				"id2");
+
+		Set<String> existingIds = recordStorage.findExistingIds(types,
+				List.of("id1", "id2", "id1"));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("recordExists", 2);
+		recordStorage.MCR.assertParameters("recordExists", 0, types, "id1");
+		recordStorage.MCR.assertParameters("recordExists", 1, types, "id2");
+		assertEquals(existingIds, Set.of("id2"));
+	}
+}
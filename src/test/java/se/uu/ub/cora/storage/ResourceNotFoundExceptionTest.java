@@ -20,6 +20,7 @@
 package se.uu.ub.cora.storage;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -41,4 +42,13 @@ public class ResourceNotFoundExceptionTest {
 		assertEquals(conflict.getMessage(), "message");
 		assertEquals(conflict.getCause(), exception);
 	}
+
+	@Test
+	public void testInitWithoutStackTrace() {
+		ResourceNotFoundException notFound = ResourceNotFoundException.withMessageWithoutStackTrace("message");
+
+		assertEquals(notFound.getMessage(), "message");
+		assertEquals(notFound.getStackTrace().length, 0);
+		assertNull(notFound.getCause());
+	}
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+public class SetChangesTest {
+
+	@Test
+	public void testNoChanges() throws Exception {
+		SetChanges<String> changes = SetChanges.between(Set.of("a", "b"), Set.of("b", "a"));
+
+		assertEquals(changes.added(), Set.of());
+		assertEquals(changes.removed(), Set.of());
+		assertFalse(changes.hasChanges());
+	}
+
+	@Test
+	public void testAddedAndRemoved() throws Exception {
+		SetChanges<String> changes = SetChanges.between(Set.of("a", "b", "c"),
+				Set.of("b", "d"));
+
+		assertEquals(changes.added(), Set.of("d"));
+		assertEquals(changes.removed(), Set.of("a", "c"));
+		assertTrue(changes.hasChanges());
+	}
+
+	@Test
+	public void testOnlyAdded() throws Exception {
+		SetChanges<String> changes = SetChanges.between(Set.of(), Set.of("a"));
+
+		assertEquals(changes.added(), Set.of("a"));
+		assertTrue(changes.hasChanges());
+	}
+
+	@Test
+	public void testOnlyRemoved() throws Exception {
+		SetChanges<String> changes = SetChanges.between(Set.of("a"), Set.of());
+
+		assertEquals(changes.removed(), Set.of("a"));
+		assertTrue(changes.hasChanges());
+	}
+
+	@Test
+	public void testListsWithDuplicatesKeepOrder() throws Exception {
+		SetChanges<String> changes = SetChanges.between(List.of("c", "a", "a", "x"),
+				List.of("x", "e", "d", "e"));
+
+		assertEquals(List.copyOf(changes.added()), List.of("e", "d"));
+		assertEquals(List.copyOf(changes.removed()), List.of("c", "a"));
+	}
+}
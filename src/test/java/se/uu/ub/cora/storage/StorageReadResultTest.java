@@ -1,5 +1,5 @@
 /*
- * Copyright 2019, 2024 Uppsala University Library
+ * Copyright 2019, 2024, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -19,7 +19,9 @@
 package se.uu.ub.cora.storage;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -79,4 +81,21 @@ public class StorageReadResultTest {
 		readResult.start = 0;
 		assertEquals(readResult.start, 0);
 	}
+
+	@Test
+	public void testContinuationTokenIsNullByDefault() {
+		assertNull(readResult.continuationToken);
+	}
+
+	@Test
+	public void testCountModeIsExactByDefault() {
+		assertEquals(readResult.countMode, CountMode.EXACT);
+	}
+
+	@Test
+	public void testProjectedDefaults() {
+		assertFalse(readResult.projected);
+		assertTrue(readResult.listOfProjectedRecords instanceof ArrayList<ProjectedRecord>);
+		assertTrue(readResult.listOfProjectedRecords.isEmpty());
+	}
 }
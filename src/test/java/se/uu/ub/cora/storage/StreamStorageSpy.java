@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
+
+public class StreamStorageSpy implements StreamStorage {
+	public MethodCallRecorder MCR = new MethodCallRecorder();
+	public MethodReturnValues MRV = new MethodReturnValues();
+
+	public StreamStorageSpy() {
+		MCR.useMRV(MRV);
+		MRV.setDefaultReturnValuesSupplier("store", (Supplier<Long>) () -> 0L);
+		MRV.setDefaultReturnValuesSupplier("retrieve",
+				() -> new ByteArrayInputStream(new byte[0]));
+		MRV.setDefaultReturnValuesSupplier("delete", () -> null);
+	}
+
+	@Override
+	public long store(String dataDivider, String type, String id, String representation,
+			InputStream stream) {
+		return (long) MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type", type, "id",
+				id, "representation", representation, "stream", stream);
+	}
+
+	@Override
+	public InputStream retrieve(String dataDivider, String type, String id,
+			String representation) {
+		return (InputStream) MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type", type,
+				"id", id, "representation", representation);
+	}
+
+	@Override
+	public void delete(String dataDivider, String type, String id, String representation) {
+		MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type", type, "id", id,
+				"representation", representation);
+	}
+}
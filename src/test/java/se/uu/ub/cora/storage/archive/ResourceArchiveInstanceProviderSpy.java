@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Uppsala University Library
+ * Copyright 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -33,6 +33,7 @@ public class ResourceArchiveInstanceProviderSpy implements ResourceArchiveInstan
 		MRV.setDefaultReturnValuesSupplier("getOrderToSelectImplementionsBy",
 				(Supplier<Integer>) () -> 0);
 		MRV.setDefaultReturnValuesSupplier("getResourceArchive", ResourceArchiveSpy::new);
+		MRV.setDefaultReturnValuesSupplier("canReuseResourceArchive", () -> false);
 
 	}
 
@@ -46,4 +47,9 @@ public class ResourceArchiveInstanceProviderSpy implements ResourceArchiveInstan
 		return (ResourceArchive) MCR.addCallAndReturnFromMRV();
 	}
 
+	@Override
+	public boolean canReuseResourceArchive() {
+		return (boolean) MCR.addCallAndReturnFromMRV();
+	}
+
 }
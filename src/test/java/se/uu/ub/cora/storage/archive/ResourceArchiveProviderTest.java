@@ -1,5 +1,5 @@
 /*
- * Copyright 2022, 2023 Uppsala University Library
+ * Copyright 2022, 2023, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,6 +18,9 @@
  */
 package se.uu.ub.cora.storage.archive;
 
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.lang.reflect.Method;
@@ -59,10 +62,10 @@ public class ResourceArchiveProviderTest {
 	}
 
 	@Test
-	public void testGetResourceArchiveIsSynchronized_toPreventProblemsWithFindingImplementations()
+	public void testGetResourceArchiveIsNotSynchronized_instanceProviderIsOnlyLocatedOnce()
 			throws Exception {
 		Method getResourceArchive = ResourceArchiveProvider.class.getMethod("getResourceArchive");
-		assertTrue(Modifier.isSynchronized(getResourceArchive.getModifiers()));
+		assertFalse(Modifier.isSynchronized(getResourceArchive.getModifiers()));
 	}
 
 	@Test
@@ -98,4 +101,29 @@ public class ResourceArchiveProviderTest {
 		moduleInitializerSpy.MCR.assertNumberOfCallsToMethod("loadOneImplementationBySelectOrder",
 				1);
 	}
+
+	@Test
+	public void testNewResourceArchiveForEachCallIfNotReusable() throws Exception {
+		setupModuleInstanceProviderToReturnRecordStorageFactorySpy();
+
+		ResourceArchive resourceArchive = ResourceArchiveProvider.getResourceArchive();
+		ResourceArchive resourceArchive2 = ResourceArchiveProvider.getResourceArchive();
+
+		instanceProviderSpy.MCR.assertNumberOfCallsToMethod("getResourceArchive", 2);
+		assertNotSame(resourceArchive, resourceArchive2);
+	}
+
+	@Test
+	public void testReusableResourceArchiveIsOnlyFetchedOnce() throws Exception {
+		setupModuleInstanceProviderToReturnRecordStorageFactorySpy();
+		instanceProviderSpy.MRV.setDefaultReturnValuesSupplier("canReuseResourceArchive",
+				() -> true);
+
+		ResourceArchive resourceArchive = ResourceArchiveProvider.getResourceArchive();
+		ResourceArchive resourceArchive2 = ResourceArchiveProvider.getResourceArchive();
+
+		instanceProviderSpy.MCR.assertNumberOfCallsToMethod("getResourceArchive", 1);
+		instanceProviderSpy.MCR.assertReturn("getResourceArchive", 0, resourceArchive);
+		assertSame(resourceArchive2, resourceArchive);
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Uppsala University Library
+ * Copyright 2022, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,49 +18,64 @@
  */
 package se.uu.ub.cora.storage.archive;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import se.uu.ub.cora.storage.archive.record.ResourceMetadataToUpdate;
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
 public class ResourceArchiveSpy implements ResourceArchive {
+	public MethodCallRecorder MCR = new MethodCallRecorder();
+	public MethodReturnValues MRV = new MethodReturnValues();
+
+	public ResourceArchiveSpy() {
+		MCR.useMRV(MRV);
+		MRV.setDefaultReturnValuesSupplier("createMasterResource", () -> null);
+		MRV.setDefaultReturnValuesSupplier("readMasterResource",
+				() -> new ByteArrayInputStream(new byte[0]));
+		MRV.setDefaultReturnValuesSupplier("update", () -> null);
+		MRV.setDefaultReturnValuesSupplier("delete", () -> null);
+		MRV.setDefaultReturnValuesSupplier("readMasterResourceMetadata",
+				() -> new ResourceMetadata("0", "someChecksum"));
+		MRV.setDefaultReturnValuesSupplier("updateMasterResourceMetadata", () -> null);
+	}
 
 	@Override
 	public void createMasterResource(String dataDivider, String type, String id, InputStream resource,
 			String mimeType) {
-		// TODO Auto-generated method stub
-
+		MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type", type, "id", id,
+				"resource", resource, "mimeType", mimeType);
 	}
 
 	@Override
 	public InputStream readMasterResource(String dataDivider, String type, String id) {
-		// TODO Auto-generated method stub
-		return null;
+		return (InputStream) MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type", type,
+				"id", id);
 	}
 
 	@Override
 	public void update(String dataDivider, String type, String id, InputStream resource,
 			String mimeType) {
-		// TODO Auto-generated method stub
-
+		MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type", type, "id", id,
+				"resource", resource, "mimeType", mimeType);
 	}
 
 	@Override
 	public void delete(String dataDivider, String type, String id) {
-		// TODO Auto-generated method stub
-
+		MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type", type, "id", id);
 	}
 
 	@Override
 	public ResourceMetadata readMasterResourceMetadata(String dataDivider, String type, String id) {
-		// TODO Auto-generated method stub
-		return null;
+		return (ResourceMetadata) MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type",
+				type, "id", id);
 	}
 
 	@Override
 	public void updateMasterResourceMetadata(String dataDivider, String type, String id,
 			ResourceMetadataToUpdate resourceMetadataToUpdate) {
-		// TODO Auto-generated method stub
-
+		MCR.addCallAndReturnFromMRV("dataDivider", dataDivider, "type", type, "id", id,
+				"resourceMetadataToUpdate", resourceMetadataToUpdate);
 	}
-
 }
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.async;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageInstanceProviderSpy;
+import se.uu.ub.cora.storage.RecordStorageProvider;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+public class AsyncRecordStorageTest {
+	private static final String SOME_TYPE = "someType";
+	private static final String SOME_ID = "someId";
+	private static final Executor SAME_THREAD = Runnable::run;
+	private RecordStorageSpy recordStorageSpy;
+	private List<RecordStorage> suppliedRecordStorages;
+	private AsyncRecordStorage asyncStorage;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recordStorageSpy = new RecordStorageSpy();
+		suppliedRecordStorages = new ArrayList<>();
+		asyncStorage = AsyncRecordStorage
+				.usingRecordStorageSupplierAndExecutor(this::supplyRecordStorage, SAME_THREAD);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		RecordStorageProvider.onlyForTestSetRecordStorageInstanceProvider(null);
+	}
+
+	private RecordStorage supplyRecordStorage() {
+		suppliedRecordStorages.add(recordStorageSpy);
+		return recordStorageSpy;
+	}
+
+	@Test
+	public void testUsingRecordStorageProvider() throws Exception {
+		AsyncRecordStorage providerStorage = AsyncRecordStorage.usingRecordStorageProvider();
+
+		assertTrue(providerStorage.onlyForTestGetRecordStorageSupplier() != null);
+		assertTrue(providerStorage.onlyForTestGetExecutor() != null);
+	}
+
+	@Test
+	public void testUsingRecordStorageProviderGetsRecordStoragePerCallOnVirtualThread()
+			throws Exception {
+		List<Boolean> runOnVirtualThread = new ArrayList<>();
+		RecordStorageSpy threadRecordingSpy = new RecordStorageSpy() {
+			@Override
+			public boolean recordExists(List<String> types, String id) {
+				runOnVirtualThread.add(Thread.currentThread().isVirtual());
+				return true;
+			}
+		};
+		RecordStorageInstanceProviderSpy instanceProvider = new RecordStorageInstanceProviderSpy();
+		instanceProvider.MRV.setDefaultReturnValuesSupplier("getRecordStorage",
+				() -> threadRecordingSpy);
+		RecordStorageProvider.onlyForTestSetRecordStorageInstanceProvider(instanceProvider);
+		AsyncRecordStorage providerStorage = AsyncRecordStorage.usingRecordStorageProvider();
+
+		boolean exists = providerStorage.recordExists(List.of(SOME_TYPE), SOME_ID).get(5,
+				TimeUnit.SECONDS);
+
+		assertTrue(exists);
+		assertEquals(runOnVirtualThread, List.of(true));
+		instanceProvider.MCR.assertNumberOfCallsToMethod("getRecordStorage", 1);
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(asyncStorage.onlyForTestGetExecutor(), SAME_THREAD);
+	}
+
+	@Test
+	public void testRecordStorageIsRequestedForEachCall() throws Exception {
+		asyncStorage.read(SOME_TYPE, SOME_ID).get();
+		asyncStorage.read(SOME_TYPE, SOME_ID).get();
+
+		assertEquals(suppliedRecordStorages.size(), 2);
+	}
+
+	@Test
+	public void testRead() throws Exception {
+		DataRecordGroup readRecord = asyncStorage.read(SOME_TYPE, SOME_ID).get();
+
+		recordStorageSpy.MCR.assertParameters("read", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("read", 0, readRecord);
+	}
+
+	@Test
+	public void testReadExceptionCompletesExceptionally() throws Exception {
+		RecordNotFoundException notFound = RecordNotFoundException.withMessage("not found");
+		recordStorageSpy.MRV.setAlwaysThrowException("read", notFound);
+
+		CompletableFuture<DataRecordGroup> future = asyncStorage.read(SOME_TYPE, SOME_ID);
+
+		assertTrue(future.isCompletedExceptionally());
+		try {
+			future.get();
+			fail();
+		} catch (ExecutionException e) {
+			assertSame(e.getCause(), notFound);
+		}
+	}
+
+	@Test
+	public void testReadIfExists() throws Exception {
+		Optional<DataRecordGroup> readRecord = asyncStorage.readIfExists(SOME_TYPE, SOME_ID)
+				.get();
+
+		recordStorageSpy.MCR.assertParameters("read", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("read", 0, readRecord.get());
+	}
+
+	@Test
+	public void testReadMany() throws Exception {
+		StorageReadManyResult result = asyncStorage.readMany(SOME_TYPE, List.of(SOME_ID)).get();
+
+		recordStorageSpy.MCR.assertReturn("read", 0, result.records().get(SOME_ID));
+	}
+
+	@Test
+	public void testReadList() throws Exception {
+		Filter filter = new Filter();
+
+		StorageReadResult result = asyncStorage.readList(SOME_TYPE, filter).get();
+
+		recordStorageSpy.MCR.assertParameters("readList", 0, SOME_TYPE, filter);
+		recordStorageSpy.MCR.assertReturn("readList", 0, result);
+	}
+
+	@Test
+	public void testCreateUpdateAndDelete() throws Exception {
+		DataGroup dataRecord = new DataGroupSpy();
+		Set<StorageTerm> storageTerms = Set.of(new StorageTerm("someId", "someKey", "value"));
+		Set<Link> links = Set.of(new Link("someLinkedType", "someLinkedId"));
+
+		asyncStorage.create(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, "someDivider")
+				.get();
+		asyncStorage.update(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, "someDivider")
+				.get();
+		asyncStorage.deleteByTypeAndId(SOME_TYPE, SOME_ID).get();
+
+		recordStorageSpy.MCR.assertParameters("create", 0, SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, "someDivider");
+		recordStorageSpy.MCR.assertParameters("update", 0, SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, "someDivider");
+		recordStorageSpy.MCR.assertParameters("deleteByTypeAndId", 0, SOME_TYPE, SOME_ID);
+	}
+
+	@Test
+	public void testWriteMany() throws Exception {
+		DataGroup dataRecord = new DataGroupSpy();
+		RecordWrite write = new RecordWrite(RecordWriteAction.CREATE, SOME_TYPE, SOME_ID,
+				dataRecord, Set.of(), Set.of(), "someDivider");
+
+		asyncStorage.writeMany(List.of(write)).get();
+
+		recordStorageSpy.MCR.assertParameters("create", 0, SOME_TYPE, SOME_ID, dataRecord);
+	}
+
+	@Test
+	public void testOtherMethods() throws Exception {
+		List<String> types = List.of(SOME_TYPE);
+		Filter filter = new Filter();
+
+		boolean recordExists = asyncStorage.recordExists(types, SOME_ID).get();
+		Set<String> existingIds = asyncStorage.findExistingIds(types, List.of(SOME_ID)).get();
+		boolean linksExist = asyncStorage.linksExistForRecord(SOME_TYPE, SOME_ID).get();
+		Set<Link> linksTo = asyncStorage.getLinksToRecord(SOME_TYPE, SOME_ID).get();
+		StorageLinksReadResult linksPage = asyncStorage
+				.getLinksToRecord(SOME_TYPE, SOME_ID, 10, null).get();
+		long numberOfLinks = asyncStorage.countLinksToRecord(SOME_TYPE, SOME_ID).get();
+		Map<String, Long> linksPerType = asyncStorage
+				.countLinksToRecordGroupedByType(SOME_TYPE, SOME_ID).get();
+		Set<Link> linksFrom = asyncStorage.getLinksFromRecord(SOME_TYPE, SOME_ID).get();
+		Set<StorageTerm> terms = asyncStorage.getStorageTermsForRecord(SOME_TYPE, SOME_ID).get();
+		long total = asyncStorage.getTotalNumberOfRecordsForTypes(types, filter).get();
+
+		recordStorageSpy.MCR.assertParameters("recordExists", 0, types, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("recordExists", 0, recordExists);
+		assertEquals(existingIds, Set.of());
+		recordStorageSpy.MCR.assertReturn("linksExistForRecord", 0, linksExist);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("getLinksToRecord", 4);
+		recordStorageSpy.MCR.assertReturn("getLinksToRecord", 0, linksTo);
+		assertEquals(linksPage.links(), List.of());
+		assertEquals(numberOfLinks, 0);
+		assertEquals(linksPerType, Map.of());
+		recordStorageSpy.MCR.assertReturn("getLinksFromRecord", 0, linksFrom);
+		recordStorageSpy.MCR.assertReturn("getStorageTermsForRecord", 0, terms);
+		recordStorageSpy.MCR.assertParameters("getTotalNumberOfRecordsForTypes", 0, types,
+				filter);
+		recordStorageSpy.MCR.assertReturn("getTotalNumberOfRecordsForTypes", 0, total);
+	}
+
+	@Test
+	public void testReadWithRelations() throws Exception {
+		RecordWithRelations result = asyncStorage.readWithRelations(SOME_TYPE, SOME_ID).get();
+
+		recordStorageSpy.MCR.assertReturn("read", 0, result.record());
+		recordStorageSpy.MCR.assertParameters("getLinksToRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("getLinksToRecord", 0, result.linksToRecord());
+		recordStorageSpy.MCR.assertParameters("getLinksFromRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("getLinksFromRecord", 0, result.linksFromRecord());
+		recordStorageSpy.MCR.assertParameters("getStorageTermsForRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("getStorageTermsForRecord", 0, result.storageTerms());
+	}
+
+	@Test
+	public void testReadWithRelationsFailsIfOneCallFails() throws Exception {
+		recordStorageSpy.MRV.setAlwaysThrowException("getLinksFromRecord",
+				RecordNotFoundException.withMessage("not found"));
+
+		CompletableFuture<RecordWithRelations> future = asyncStorage.readWithRelations(SOME_TYPE,
+				SOME_ID);
+
+		assertTrue(future.isCompletedExceptionally());
+	}
+
+	@Test
+	public void testReadWithRelationsRunsCallsAtTheSameTime() throws Exception {
+		CountDownLatch allStarted = new CountDownLatch(4);
+		RecordStorage waitingRecordStorage = createRecordStorageWaitingForOtherCalls(allStarted);
+		AsyncRecordStorage virtualThreadStorage = AsyncRecordStorage
+				.usingRecordStorageSupplierAndExecutor(() -> waitingRecordStorage,
+						task -> Thread.startVirtualThread(task));
+
+		RecordWithRelations result = virtualThreadStorage.readWithRelations(SOME_TYPE, SOME_ID)
+				.get(5, TimeUnit.SECONDS);
+
+		assertTrue(result.record() instanceof DataRecordGroupSpy);
+	}
+
+	@Test
+	public void testReadManyFromTypes() throws Exception {
+		Map<String, StorageReadManyResult> results = asyncStorage
+				.readManyFromTypes(Map.of(SOME_TYPE, List.of("id1"), "otherType", List.of("id2")))
+				.get();
+
+		assertEquals(results.keySet(), Set.of(SOME_TYPE, "otherType"));
+		recordStorageSpy.MCR.assertCalledParameters("read", SOME_TYPE, "id1");
+		recordStorageSpy.MCR.assertCalledParameters("read", "otherType", "id2");
+		assertFalse(results.get("otherType").records().isEmpty());
+	}
+
+	@Test
+	public void testAllOf() throws Exception {
+		CompletableFuture<String> first = new CompletableFuture<>();
+		CompletableFuture<String> second = new CompletableFuture<>();
+
+		CompletableFuture<List<String>> all = AsyncRecordStorage.allOf(List.of(first, second));
+
+		second.complete("second");
+		assertFalse(all.isDone());
+		first.complete("first");
+		assertEquals(all.get(), List.of("first", "second"));
+	}
+
+	@Test
+	public void testAllOfFailsIfOneFails() throws Exception {
+		CompletableFuture<String> first = CompletableFuture.completedFuture("first");
+		CompletableFuture<String> second = CompletableFuture
+				.failedFuture(new RuntimeException("failed"));
+
+		CompletableFuture<List<String>> all = AsyncRecordStorage.allOf(List.of(first, second));
+
+		assertTrue(all.isCompletedExceptionally());
+	}
+
+	private RecordStorage createRecordStorageWaitingForOtherCalls(CountDownLatch allStarted) {
+		return new RecordStorageSpy() {
+			@Override
+			public DataRecordGroup read(String type, String id) {
+				waitForOtherCalls(allStarted);
+				return new DataRecordGroupSpy();
+			}
+
+			@Override
+			public Set<Link> getLinksToRecord(String type, String id) {
+				waitForOtherCalls(allStarted);
+				return Set.of();
+			}
+
+			@Override
+			public Set<Link> getLinksFromRecord(String type, String id) {
+				waitForOtherCalls(allStarted);
+				return Set.of();
+			}
+
+			@Override
+			public Set<StorageTerm> getStorageTermsForRecord(String type, String id) {
+				waitForOtherCalls(allStarted);
+				return Set.of();
+			}
+		};
+	}
+
+	private void waitForOtherCalls(CountDownLatch allStarted) {
+		allStarted.countDown();
+		try {
+			if (!allStarted.await(5, TimeUnit.SECONDS)) {
+				throw new AssertionError("Calls to storage were not run at the same time");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.async;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.storage.CountMode;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.Part;
+import se.uu.ub.cora.storage.ProjectedRecord;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+public class ParallelMultiTypeReaderTest {
+	private static final List<String> TYPES = List.of("typeA", "typeB", "typeC");
+	private Map<String, Long> numberOfMatchesPerType;
+	private Map<String, DataRecordGroup> records;
+	private RecordStorageSpy recordStorage;
+	private AsyncRecordStorage asyncRecordStorage;
+	private ParallelMultiTypeReader reader;
+	private Filter filter;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		numberOfMatchesPerType = new HashMap<>(Map.of("typeA", 3L, "typeB", 0L, "typeC", 4L));
+		records = new HashMap<>();
+		recordStorage = createRecordStorageWithMatchesPerType();
+		asyncRecordStorage = AsyncRecordStorage
+				.usingRecordStorageSupplierAndExecutor(() -> recordStorage, Runnable::run);
+		reader = ParallelMultiTypeReader.usingAsyncRecordStorage(asyncRecordStorage);
+		filter = new Filter();
+	}
+
+	private RecordStorageSpy createRecordStorageWithMatchesPerType() {
+		return new RecordStorageSpy() {
+			@Override
+			public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+				super.getTotalNumberOfRecordsForTypes(types, filter);
+				return numberOfMatchesPerType.get(types.get(0));
+			}
+
+			@Override
+			public StorageReadResult readList(String type, Filter filter) {
+				super.readList(type, filter);
+				return createResultForRange(type, filter);
+			}
+		};
+	}
+
+	private StorageReadResult createResultForRange(String type, Filter filter) {
+		StorageReadResult result = new StorageReadResult();
+		long toNo = Math.min(filter.toNo, numberOfMatchesPerType.get(type));
+		for (long no = filter.fromNo; no <= toNo; no++) {
+			result.listOfDataRecordGroups.add(getRecord(type, no));
+		}
+		result.totalNumberOfMatches = CountMode.countForResult(numberOfMatchesPerType.get(type),
+				filter);
+		result.countMode = CountMode.modeForResult(numberOfMatchesPerType.get(type), filter);
+		return result;
+	}
+
+	private DataRecordGroup getRecord(String type, long no) {
+		return records.computeIfAbsent(type + no, k -> new DataRecordGroupSpy());
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(reader.onlyForTestGetAsyncRecordStorage(), asyncRecordStorage);
+	}
+
+	@Test
+	public void testReadListAllRecordsMergedInTypeOrder() throws Exception {
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups, List.of(getRecord("typeA", 1),
+				getRecord("typeA", 2), getRecord("typeA", 3), getRecord("typeC", 1),
+				getRecord("typeC", 2), getRecord("typeC", 3), getRecord("typeC", 4)));
+		assertEquals(result.start, 0);
+		assertEquals(result.totalNumberOfMatches, 7);
+		assertEquals(result.countMode, CountMode.EXACT);
+		recordStorage.MCR.assertMethodNotCalled("getTotalNumberOfRecordsForTypes");
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 3);
+	}
+
+	@Test
+	public void testReadListRangeOverTwoTypes() throws Exception {
+		filter.fromNo = 3;
+		filter.toNo = 5;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups,
+				List.of(getRecord("typeA", 3), getRecord("typeC", 1), getRecord("typeC", 2)));
+		assertEquals(result.start, 2);
+		assertEquals(result.totalNumberOfMatches, 7);
+		assertTypeFilter(0, "typeA", 5);
+		assertTypeFilter(1, "typeB", 5);
+		assertTypeFilter(2, "typeC", 5);
+	}
+
+	private void assertTypeFilter(int callNumber, String type, long toNo) {
+		recordStorage.MCR.assertParameter("readList", callNumber, "type", type);
+		Filter typeFilter = (Filter) recordStorage.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName("readList", callNumber,
+						"filter");
+		assertEquals(typeFilter.fromNo, 1);
+		assertEquals(typeFilter.toNo, toNo);
+		assertEquals(typeFilter.countMode, filter.countMode);
+		assertEquals(typeFilter.countCap, filter.countCap);
+	}
+
+	@Test
+	public void testReadListRangeInLastType() throws Exception {
+		filter.fromNo = 5;
+		filter.toNo = 6;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups,
+				List.of(getRecord("typeC", 2), getRecord("typeC", 3)));
+		assertEquals(result.start, 4);
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 3);
+		assertTypeFilter(2, "typeC", 6);
+	}
+
+	@Test
+	public void testReadListRangeInFirstType() throws Exception {
+		filter.fromNo = 2;
+		filter.toNo = 3;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups,
+				List.of(getRecord("typeA", 2), getRecord("typeA", 3)));
+		assertEquals(result.start, 1);
+		assertEquals(result.totalNumberOfMatches, 7);
+	}
+
+	@Test
+	public void testReadListRangeAfterAllMatches() throws Exception {
+		filter.fromNo = 10;
+		filter.toNo = 20;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups, List.of());
+		assertEquals(result.start, 7);
+		assertEquals(result.totalNumberOfMatches, 7);
+	}
+
+	@Test
+	public void testReadListFromNoBelowOneStartsAtFirstMatch() throws Exception {
+		filter.fromNo = -2;
+		filter.toNo = 1;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups, List.of(getRecord("typeA", 1)));
+		assertEquals(result.start, 0);
+	}
+
+	@Test
+	public void testReadListDeepRangeCountsTypesAndReadsOnlyTheRange() throws Exception {
+		numberOfMatchesPerType.putAll(Map.of("typeA", 150L, "typeC", 40L));
+		filter.fromNo = 149;
+		filter.toNo = 152;
+		filter.countMode = CountMode.NONE;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups, List.of(getRecord("typeA", 149),
+				getRecord("typeA", 150), getRecord("typeC", 1), getRecord("typeC", 2)));
+		assertEquals(result.start, 148);
+		assertEquals(result.countMode, CountMode.NONE);
+		assertEquals(result.totalNumberOfMatches, 0);
+		assertExactCountForTypes();
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 2);
+		assertTypeFilterForRange(0, "typeA", 149, 150);
+		assertTypeFilterForRange(1, "typeC", 1, 2);
+	}
+
+	private void assertExactCountForTypes() {
+		recordStorage.MCR.assertNumberOfCallsToMethod("getTotalNumberOfRecordsForTypes", 3);
+		for (int i = 0; i < TYPES.size(); i++) {
+			recordStorage.MCR.assertParameter("getTotalNumberOfRecordsForTypes", i, "types",
+					List.of(TYPES.get(i)));
+			Filter countFilter = (Filter) recordStorage.MCR
+					.getValueForMethodNameAndCallNumberAndParameterName(
+							"getTotalNumberOfRecordsForTypes", i, "filter");
+			assertEquals(countFilter.countMode, CountMode.EXACT);
+			assertEquals(countFilter.include, filter.include);
+		}
+	}
+
+	private void assertTypeFilterForRange(int callNumber, String type, long fromNo, long toNo) {
+		recordStorage.MCR.assertParameter("readList", callNumber, "type", type);
+		Filter typeFilter = (Filter) recordStorage.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName("readList", callNumber,
+						"filter");
+		assertEquals(typeFilter.fromNo, fromNo);
+		assertEquals(typeFilter.toNo, toNo);
+		assertEquals(typeFilter.countMode, CountMode.NONE);
+	}
+
+	@Test
+	public void testReadListDeepRangeCountedAsRequested() throws Exception {
+		numberOfMatchesPerType.put("typeA", 150L);
+		filter.fromNo = 101;
+		filter.toNo = 110;
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 120;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups.size(), 10);
+		assertEquals(result.start, 100);
+		assertEquals(result.countMode, CountMode.CAPPED);
+		assertEquals(result.totalNumberOfMatches, 120);
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertTypeFilterForRange(0, "typeA", 101, 110);
+	}
+
+	@Test
+	public void testReadListDeepRangeAfterAllMatches() throws Exception {
+		filter.fromNo = ParallelMultiTypeReader.MAX_FROM_NO_FOR_SINGLE_PASS + 1;
+		filter.toNo = filter.fromNo + 10;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.listOfDataRecordGroups, List.of());
+		assertEquals(result.start, 7);
+		assertEquals(result.totalNumberOfMatches, 7);
+		recordStorage.MCR.assertMethodNotCalled("readList");
+	}
+
+	@Test
+	public void testReadListRangeStartingAtMaxFromNoIsReadInOnePass() throws Exception {
+		filter.fromNo = ParallelMultiTypeReader.MAX_FROM_NO_FOR_SINGLE_PASS;
+		filter.toNo = filter.fromNo + 10;
+
+		reader.readList(TYPES, filter);
+
+		recordStorage.MCR.assertMethodNotCalled("getTotalNumberOfRecordsForTypes");
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 3);
+	}
+
+	@Test
+	public void testReadListFilterConditionsAndCountModeArePassedOn() throws Exception {
+		filter.include.add(new Part());
+		filter.exclude.add(new Part());
+		filter.countMode = CountMode.NONE;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		recordStorage.MCR.assertMethodNotCalled("getTotalNumberOfRecordsForTypes");
+		assertTypeFilter(0, "typeA", Long.MAX_VALUE);
+		Filter typeFilter = (Filter) recordStorage.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName("readList", 0, "filter");
+		assertEquals(typeFilter.include, filter.include);
+		assertEquals(typeFilter.exclude, filter.exclude);
+		assertEquals(result.totalNumberOfMatches, 0);
+		assertEquals(result.countMode, CountMode.NONE);
+	}
+
+	@Test
+	public void testReadListProjectedRecordsAreMerged() throws Exception {
+		filter.projection.add("title");
+		ProjectedRecord projectedA = new ProjectedRecord("typeA", "id1", Map.of());
+		ProjectedRecord projectedC = new ProjectedRecord("typeC", "id1", Map.of());
+		recordStorage = new RecordStorageSpy() {
+			@Override
+			public StorageReadResult readList(String type, Filter filter) {
+				super.readList(type, filter);
+				StorageReadResult result = new StorageReadResult();
+				result.projected = true;
+				result.listOfProjectedRecords.add("typeA".equals(type) ? projectedA : projectedC);
+				return result;
+			}
+		};
+
+		StorageReadResult result = reader.readList(List.of("typeA", "typeC"), filter);
+
+		Filter typeFilter = (Filter) recordStorage.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName("readList", 0, "filter");
+		assertEquals(typeFilter.projection, List.of("title"));
+		assertTrue(result.projected);
+		assertEquals(result.listOfProjectedRecords, List.of(projectedA, projectedC));
+	}
+
+	@Test
+	public void testReadListCountModeCapped() throws Exception {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 5;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.totalNumberOfMatches, 5);
+		assertEquals(result.countMode, CountMode.CAPPED);
+		assertEquals(result.listOfDataRecordGroups.size(), 7);
+	}
+
+	@Test
+	public void testReadListCountModeCappedByOneType() throws Exception {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 3;
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.totalNumberOfMatches, 3);
+		assertEquals(result.countMode, CountMode.CAPPED);
+	}
+
+	@Test
+	public void testReadListCountModeEstimatedByOneType() throws Exception {
+		filter.countMode = CountMode.ESTIMATED;
+		recordStorage = new RecordStorageSpy() {
+			@Override
+			public StorageReadResult readList(String type, Filter filter) {
+				StorageReadResult result = createResultForRange(type, filter);
+				if ("typeC".equals(type)) {
+					result.totalNumberOfMatches = 10;
+					result.countMode = CountMode.ESTIMATED;
+				}
+				return result;
+			}
+		};
+
+		StorageReadResult result = reader.readList(TYPES, filter);
+
+		assertEquals(result.totalNumberOfMatches, 13);
+		assertEquals(result.countMode, CountMode.ESTIMATED);
+	}
+
+	@Test(expectedExceptions = RecordNotFoundException.class, expectedExceptionsMessageRegExp = ""
+			+ "No type: typeB")
+	public void testReadListExceptionIsThrownUnchanged() throws Exception {
+		recordStorage.MRV.setAlwaysThrowException("readList",
+				RecordNotFoundException.withMessage("No type: typeB"));
+
+		reader.readList(TYPES, filter);
+	}
+
+	@Test
+	public void testGetTotalNumberOfRecordsForTypes() throws Exception {
+		long total = reader.getTotalNumberOfRecordsForTypes(TYPES, filter);
+
+		assertEquals(total, 7);
+		recordStorage.MCR.assertParameters("getTotalNumberOfRecordsForTypes", 0,
+				List.of("typeA"), filter);
+		recordStorage.MCR.assertParameters("getTotalNumberOfRecordsForTypes", 2,
+				List.of("typeC"), filter);
+	}
+
+	@Test
+	public void testGetTotalNumberOfRecordsForTypesCapped() throws Exception {
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 4;
+
+		assertEquals(reader.getTotalNumberOfRecordsForTypes(TYPES, filter), 4);
+	}
+
+	@Test
+	public void testTypesAreQueriedAtTheSameTime() throws Exception {
+		CountDownLatch allStarted = new CountDownLatch(TYPES.size());
+		RecordStorage waitingRecordStorage = new RecordStorageSpy() {
+			@Override
+			public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+				allStarted.countDown();
+				awaitOtherTypes(allStarted);
+				return 1;
+			}
+		};
+		ParallelMultiTypeReader parallelReader = ParallelMultiTypeReader
+				.usingAsyncRecordStorage(AsyncRecordStorage.usingRecordStorageSupplierAndExecutor(
+						() -> waitingRecordStorage, task -> Thread.startVirtualThread(task)));
+
+		assertEquals(parallelReader.getTotalNumberOfRecordsForTypes(TYPES, filter), 3);
+	}
+
+	private void awaitOtherTypes(CountDownLatch allStarted) {
+		try {
+			if (!allStarted.await(5, TimeUnit.SECONDS)) {
+				throw new AssertionError("Types were not queried at the same time");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.testng.annotations.Test;
+
+public class CachePolicyTest {
+
+	@Test
+	public void testNoCaching() throws Exception {
+		CachePolicy policy = CachePolicy.noCaching();
+
+		assertEquals(policy.maxEntries(), 0);
+		assertFalse(policy.cachingEnabled());
+	}
+
+	@Test
+	public void testUsingMaxEntries() throws Exception {
+		CachePolicy policy = CachePolicy.usingMaxEntries(10);
+
+		assertEquals(policy.maxEntries(), 10);
+		assertEquals(policy.timeToLive(), Duration.ofNanos(Long.MAX_VALUE));
+		assertTrue(policy.cachingEnabled());
+	}
+
+	@Test
+	public void testUsingMaxEntriesAndTimeToLive() throws Exception {
+		CachePolicy policy = CachePolicy.usingMaxEntriesAndTimeToLive(10, Duration.ofSeconds(5));
+
+		assertEquals(policy.maxEntries(), 10);
+		assertEquals(policy.timeToLive(), Duration.ofSeconds(5));
+		assertTrue(policy.cachingEnabled());
+	}
+
+	@Test
+	public void testNoCachingForZeroTimeToLive() throws Exception {
+		CachePolicy policy = CachePolicy.usingMaxEntriesAndTimeToLive(10, Duration.ZERO);
+
+		assertFalse(policy.cachingEnabled());
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordConflictException;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+public class CachingRecordStorageTest {
+	private static final String SOME_TYPE = "someType";
+	private static final String SOME_ID = "someId";
+	private RecordStorageSpy recordStorageSpy;
+	private RecordStorageCache cache;
+	private CachingRecordStorage recordStorage;
+	private DataGroup dataRecord = new DataGroupSpy();
+	private Set<StorageTerm> storageTerms = Set.of(new StorageTerm("someId", "someKey", "value"));
+	private Set<Link> links = Set.of(new Link("someLinkedType", "someLinkedId"));
+
+	@BeforeMethod
+	public void beforeMethod() {
+		DataProvider.onlyForTestSetDataFactory(new DataFactorySpy());
+		recordStorageSpy = new RecordStorageSpy();
+		cache = RecordStorageCache.usingDefaultPolicyAndPoliciesForTypes(
+				CachePolicy.usingMaxEntries(10), Map.of());
+		recordStorage = CachingRecordStorage.usingRecordStorageAndCache(recordStorageSpy, cache);
+	}
+
+	@Test
+	public void testImplementsRecordStorage() throws Exception {
+		assertTrue(recordStorage instanceof RecordStorage);
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(recordStorage.onlyForTestGetRecordStorage(), recordStorageSpy);
+		assertSame(recordStorage.onlyForTestGetCache(), cache);
+	}
+
+	@Test
+	public void testReadUsesCache() throws Exception {
+		DataRecordGroup first = recordStorage.read(SOME_TYPE, SOME_ID);
+		DataRecordGroup second = recordStorage.read(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("read", 1);
+		assertNotSame(second, first);
+	}
+
+	@Test
+	public void testReadManyUsesCache() throws Exception {
+		DataRecordGroup cached = recordStorage.read(SOME_TYPE, "id1");
+
+		StorageReadManyResult result = recordStorage.readMany(SOME_TYPE, List.of("id1", "id2"));
+
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("read", 2);
+		assertNotSame(result.records().get("id1"), cached);
+		assertTrue(result.records().containsKey("id2"));
+	}
+
+	@Test
+	public void testCreateInvalidates() throws Exception {
+		recordStorage.read(SOME_TYPE, SOME_ID);
+
+		recordStorage.create(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links,
+				"someDataDivider");
+
+		recordStorageSpy.MCR.assertParameters("create", 0, SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, "someDataDivider");
+		assertReadAgainReadsFromStorage();
+	}
+
+	private void assertReadAgainReadsFromStorage() {
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("read", 2);
+	}
+
+	@Test
+	public void testUpdateInvalidates() throws Exception {
+		recordStorage.read(SOME_TYPE, SOME_ID);
+
+		recordStorage.update(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links,
+				"someDataDivider");
+
+		recordStorageSpy.MCR.assertParameters("update", 0, SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, "someDataDivider");
+		assertReadAgainReadsFromStorage();
+	}
+
+	@Test
+	public void testCreateInvalidatesAlsoOnError() throws Exception {
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorageSpy.MRV.setAlwaysThrowException("create",
+				RecordConflictException.withMessage("conflict"));
+
+		try {
+			recordStorage.create(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links,
+					"someDataDivider");
+		} catch (RecordConflictException e) {
+			// expected
+		}
+
+		assertReadAgainReadsFromStorage();
+	}
+
+	@Test
+	public void testUpdateInvalidatesAlsoOnError() throws Exception {
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorageSpy.MRV.setAlwaysThrowException("update",
+				RecordNotFoundException.withMessage("not found"));
+
+		try {
+			recordStorage.update(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links,
+					"someDataDivider");
+		} catch (RecordNotFoundException e) {
+			// expected
+		}
+
+		assertReadAgainReadsFromStorage();
+	}
+
+	@Test
+	public void testDeleteInvalidates() throws Exception {
+		recordStorage.read(SOME_TYPE, SOME_ID);
+
+		recordStorage.deleteByTypeAndId(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertParameters("deleteByTypeAndId", 0, SOME_TYPE, SOME_ID);
+		assertReadAgainReadsFromStorage();
+	}
+
+	@Test
+	public void testWriteManyInvalidates() throws Exception {
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		RecordWrite write = new RecordWrite(RecordWriteAction.UPDATE, SOME_TYPE, SOME_ID,
+				dataRecord, storageTerms, links, "someDataDivider");
+
+		List<RecordWriteResult> results = recordStorage.writeMany(List.of(write));
+
+		recordStorageSpy.MCR.assertParameters("update", 0, SOME_TYPE, SOME_ID, dataRecord);
+		assertEquals(results.size(), 1);
+		assertReadAgainReadsFromStorage();
+	}
+
+	@Test
+	public void testReadListIsPassedOn() throws Exception {
+		Filter filter = new Filter();
+
+		StorageReadResult result = recordStorage.readList(SOME_TYPE, filter);
+
+		recordStorageSpy.MCR.assertParameters("readList", 0, SOME_TYPE, filter);
+		recordStorageSpy.MCR.assertReturn("readList", 0, result);
+	}
+
+	@Test
+	public void testReadListAsStreamIsPassedOn() throws Exception {
+		Filter filter = new Filter();
+
+		try (Stream<DataRecordGroup> stream = recordStorage.readListAsStream(SOME_TYPE, filter)) {
+			assertEquals(stream.count(), 0);
+		}
+
+		recordStorageSpy.MCR.assertParameters("readList", 0, SOME_TYPE);
+	}
+
+	@SuppressWarnings("removal")
+	@Test
+	public void testDeprecatedMethodsArePassedOn() throws Exception {
+		Filter filter = new Filter();
+		List<String> types = List.of(SOME_TYPE);
+
+		DataGroup dataGroup = recordStorage.read(types, SOME_ID);
+		StorageReadResult result = recordStorage.readList(types, filter);
+
+		recordStorageSpy.MCR.assertParameters("read", 0, types, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("read", 0, dataGroup);
+		recordStorageSpy.MCR.assertParameters("readList", 0, types, filter);
+		recordStorageSpy.MCR.assertReturn("readList", 0, result);
+	}
+
+	@Test
+	public void testOtherMethodsArePassedOn() throws Exception {
+		Filter filter = new Filter();
+		List<String> types = List.of(SOME_TYPE);
+
+		boolean recordExists = recordStorage.recordExists(types, SOME_ID);
+		boolean linksExist = recordStorage.linksExistForRecord(SOME_TYPE, SOME_ID);
+		Set<Link> linksTo = recordStorage.getLinksToRecord(SOME_TYPE, SOME_ID);
+		Set<Link> linksFrom = recordStorage.getLinksFromRecord(SOME_TYPE, SOME_ID);
+		Set<StorageTerm> terms = recordStorage.getStorageTermsForRecord(SOME_TYPE, SOME_ID);
+		long total = recordStorage.getTotalNumberOfRecordsForTypes(types, filter);
+
+		recordStorageSpy.MCR.assertParameters("recordExists", 0, types, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("recordExists", 0, recordExists);
+		recordStorageSpy.MCR.assertParameters("linksExistForRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("linksExistForRecord", 0, linksExist);
+		recordStorageSpy.MCR.assertParameters("getLinksToRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("getLinksToRecord", 0, linksTo);
+		recordStorageSpy.MCR.assertParameters("getLinksFromRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("getLinksFromRecord", 0, linksFrom);
+		recordStorageSpy.MCR.assertParameters("getStorageTermsForRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("getStorageTermsForRecord", 0, terms);
+		recordStorageSpy.MCR.assertParameters("getTotalNumberOfRecordsForTypes", 0, types,
+				filter);
+		recordStorageSpy.MCR.assertReturn("getTotalNumberOfRecordsForTypes", 0, total);
+	}
+
+	@Test
+	public void testLinkQueriesArePassedOn() throws Exception {
+		recordStorageSpy.MRV.setDefaultReturnValuesSupplier("getLinksToRecord", () -> links);
+
+		StorageLinksReadResult page = recordStorage.getLinksToRecord(SOME_TYPE, SOME_ID, 10,
+				null);
+		long count = recordStorage.countLinksToRecord(SOME_TYPE, SOME_ID);
+		Map<String, Long> counts = recordStorage.countLinksToRecordGroupedByType(SOME_TYPE,
+				SOME_ID);
+
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("getLinksToRecord", 3);
+		recordStorageSpy.MCR.assertParameters("getLinksToRecord", 2, SOME_TYPE, SOME_ID);
+		assertEquals(page.links(), List.copyOf(links));
+		assertEquals(count, 1);
+		assertEquals(counts, Map.of("someLinkedType", 1L));
+	}
+
+	@Test
+	public void testReadIfExistsUsesCache() throws Exception {
+		Optional<DataRecordGroup> first = recordStorage.readIfExists(SOME_TYPE, SOME_ID);
+		Optional<DataRecordGroup> second = recordStorage.readIfExists(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("read", 1);
+		assertNotSame(second.get(), first.get());
+	}
+
+	@Test
+	public void testReadIfExistsNotFound() throws Exception {
+		recordStorageSpy.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		Optional<DataRecordGroup> result = recordStorage.readIfExists(SOME_TYPE, SOME_ID);
+
+		assertTrue(result.isEmpty());
+	}
+
+	@Test
+	public void testFindExistingIdsIsPassedOn() throws Exception {
+		List<String> types = List.of(SOME_TYPE);
+		recordStorageSpy.MRV.setDefaultReturnValuesSupplier("recordExists", () -> true);
+
+		Set<String> existingIds = recordStorage.findExistingIds(types, List.of(SOME_ID));
+
+		recordStorageSpy.MCR.assertParameters("recordExists", 0, types, SOME_ID);
+		assertEquals(existingIds, Set.of(SOME_ID));
+	}
+}
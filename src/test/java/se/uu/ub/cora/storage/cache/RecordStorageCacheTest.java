@@ -0,0 +1,263 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+
+public class RecordStorageCacheTest {
+	private static final String CACHED_TYPE = "cachedType";
+	private static final String NOT_CACHED_TYPE = "notCachedType";
+	private static final String DEFAULT_TYPE = "defaultType";
+	private DataFactorySpy dataFactory;
+	private RecordStorageSpy recordStorage;
+	private RecordStorageCache cache;
+	private long now = 0;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactory);
+		recordStorage = new RecordStorageSpy();
+		cache = RecordStorageCache.usingDefaultPolicyAndPoliciesForTypes(
+				CachePolicy.usingMaxEntriesAndTimeToLive(2, Duration.ofNanos(10)),
+				Map.of(CACHED_TYPE, CachePolicy.usingMaxEntries(100), NOT_CACHED_TYPE,
+						CachePolicy.noCaching()));
+		cache.onlyForTestSetNanoClock(() -> now);
+	}
+
+	@Test
+	public void testReadFirstTimeReadsFromStorage() throws Exception {
+		DataRecordGroup dataRecordGroup = cache.read(recordStorage, CACHED_TYPE, "someId");
+
+		recordStorage.MCR.assertParameters("read", 0, CACHED_TYPE, "someId");
+		var readRecord = recordStorage.MCR.getReturnValue("read", 0);
+		dataFactory.MCR.assertParameters("factorGroupFromDataRecordGroup", 0, readRecord);
+		assertCreatedFromCachedGroup(dataRecordGroup, 0, 0);
+	}
+
+	private void assertCreatedFromCachedGroup(DataRecordGroup dataRecordGroup,
+			int recordGroupCallNumber, int cachedGroupCallNumber) {
+		var cachedGroup = dataFactory.MCR.getReturnValue("factorGroupFromDataRecordGroup",
+				cachedGroupCallNumber);
+		dataFactory.MCR.assertParameters("factorRecordGroupFromDataGroup", recordGroupCallNumber,
+				cachedGroup);
+		dataFactory.MCR.assertReturn("factorRecordGroupFromDataGroup", recordGroupCallNumber,
+				dataRecordGroup);
+	}
+
+	@Test
+	public void testReadSecondTimeReadsFromCache() throws Exception {
+		DataRecordGroup first = cache.read(recordStorage, CACHED_TYPE, "someId");
+		DataRecordGroup second = cache.read(recordStorage, CACHED_TYPE, "someId");
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+		assertNotSame(second, first);
+		assertCreatedFromCachedGroup(second, 1, 0);
+		assertEquals(cache.getStatisticsForType(CACHED_TYPE), new CacheStatistics(1, 1, 0, 0, 1));
+	}
+
+	@Test
+	public void testChangesToReturnedRecordAreNotSeenByNextRead() throws Exception {
+		DataRecordGroup first = cache.read(recordStorage, CACHED_TYPE, "someId");
+		first.setId("changedId");
+
+		DataRecordGroupSpy second = (DataRecordGroupSpy) cache.read(recordStorage, CACHED_TYPE,
+				"someId");
+
+		assertNotSame(second, first);
+		second.MCR.assertMethodNotCalled("setId");
+		assertCreatedFromCachedGroup(second, 1, 0);
+	}
+
+	@Test
+	public void testReadTypeWithNoCachingAlwaysReadsFromStorage() throws Exception {
+		DataRecordGroup first = cache.read(recordStorage, NOT_CACHED_TYPE, "someId");
+		DataRecordGroup second = cache.read(recordStorage, NOT_CACHED_TYPE, "someId");
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		assertNotSame(second, first);
+		assertEquals(cache.getStatisticsForType(NOT_CACHED_TYPE),
+				new CacheStatistics(0, 0, 0, 0, 0));
+	}
+
+	@Test
+	public void testReadTypeWithoutPolicyUsesDefaultPolicy() throws Exception {
+		cache.read(recordStorage, DEFAULT_TYPE, "someId");
+		now = 10;
+		cache.read(recordStorage, DEFAULT_TYPE, "someId");
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		assertEquals(cache.getStatisticsForType(DEFAULT_TYPE), new CacheStatistics(0, 2, 1, 0, 1));
+	}
+
+	@Test(expectedExceptions = RecordNotFoundException.class)
+	public void testReadNotFoundIsNotCached() throws Exception {
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		cache.read(recordStorage, CACHED_TYPE, "someId");
+	}
+
+	@Test
+	public void testInvalidate() throws Exception {
+		cache.read(recordStorage, CACHED_TYPE, "someId");
+
+		cache.invalidate(CACHED_TYPE, "someId");
+		cache.invalidate(NOT_CACHED_TYPE, "someId");
+		cache.read(recordStorage, CACHED_TYPE, "someId");
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+	}
+
+	@Test
+	public void testDataChangedInvalidates() throws Exception {
+		cache.read(recordStorage, CACHED_TYPE, "someId");
+
+		cache.dataChanged(CACHED_TYPE, "someId", "update");
+		cache.read(recordStorage, CACHED_TYPE, "someId");
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		assertEquals(cache.getStatisticsForType(CACHED_TYPE).invalidations(), 1);
+	}
+
+	@Test
+	public void testInvalidateAll() throws Exception {
+		cache.read(recordStorage, CACHED_TYPE, "someId");
+		cache.read(recordStorage, DEFAULT_TYPE, "someId");
+
+		cache.invalidateAll();
+
+		assertEquals(cache.getStatistics(), new CacheStatistics(0, 2, 0, 2, 0));
+	}
+
+	@Test
+	public void testGetStatisticsSumsAllTypes() throws Exception {
+		cache.read(recordStorage, CACHED_TYPE, "someId");
+		cache.read(recordStorage, CACHED_TYPE, "someId");
+		cache.read(recordStorage, DEFAULT_TYPE, "someId");
+		cache.read(recordStorage, DEFAULT_TYPE, "someId2");
+		cache.read(recordStorage, DEFAULT_TYPE, "someId3");
+
+		assertEquals(cache.getStatistics(), new CacheStatistics(1, 4, 1, 0, 3));
+	}
+
+	@Test
+	public void testReadManyReadsOnlyNotCachedFromStorage() throws Exception {
+		DataRecordGroup cached = cache.read(recordStorage, CACHED_TYPE, "id2");
+		recordStorage.MRV.setThrowException("read",
+				RecordNotFoundException.withMessage("not found"), CACHED_TYPE, "id3");
+
+		StorageReadManyResult result = cache.readMany(recordStorage, CACHED_TYPE,
+				List.of("id1", "id2", "id3", "id1"));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 3);
+		recordStorage.MCR.assertParameters("read", 1, CACHED_TYPE, "id1");
+		recordStorage.MCR.assertParameters("read", 2, CACHED_TYPE, "id3");
+		assertEquals(List.copyOf(result.records().keySet()), List.of("id1", "id2"));
+		assertNotSame(result.records().get("id2"), cached);
+		assertCreatedFromCachedGroup(result.records().get("id2"), 1, 0);
+		assertEquals(result.missingIds(), Set.of("id3"));
+	}
+
+	@Test
+	public void testReadManyCachesReadRecords() throws Exception {
+		StorageReadManyResult result = cache.readMany(recordStorage, CACHED_TYPE,
+				List.of("id1", "id2"));
+
+		StorageReadManyResult result2 = cache.readMany(recordStorage, CACHED_TYPE,
+				List.of("id2", "id1"));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		assertEquals(List.copyOf(result2.records().keySet()), List.of("id2", "id1"));
+		assertNotSame(result2.records().get("id1"), result.records().get("id1"));
+		assertCreatedFromCachedGroup(result2.records().get("id1"), 3, 0);
+		assertEquals(result2.missingIds(), Set.of());
+	}
+
+	@Test
+	public void testReadManyTypeWithNoCaching() throws Exception {
+		cache.readMany(recordStorage, NOT_CACHED_TYPE, List.of("id1"));
+		cache.readMany(recordStorage, NOT_CACHED_TYPE, List.of("id1"));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+	}
+
+	@Test
+	public void testConcurrentReadsAndInvalidations() throws Exception {
+		recordStorage = new RecordStorageSpy() {
+			@Override
+			public DataRecordGroup read(String type, String id) {
+				return new DataRecordGroupSpy();
+			}
+		};
+		int threadCount = 50;
+		CountDownLatch startLatch = new CountDownLatch(1);
+		CountDownLatch doneLatch = new CountDownLatch(threadCount);
+		AtomicInteger errors = new AtomicInteger();
+		for (int i = 0; i < threadCount; i++) {
+			int threadNo = i;
+			Thread.startVirtualThread(() -> {
+				try {
+					startLatch.await();
+					for (int j = 0; j < 200; j++) {
+						readOrInvalidate(threadNo, j);
+					}
+				} catch (Exception e) {
+					errors.incrementAndGet();
+				} finally {
+					doneLatch.countDown();
+				}
+			});
+		}
+		startLatch.countDown();
+		doneLatch.await();
+
+		assertEquals(errors.get(), 0);
+		assertTrue(cache.getStatisticsForType(DEFAULT_TYPE).size() <= 2);
+	}
+
+	private void readOrInvalidate(int threadNo, int j) {
+		String id = "id" + (j % 5);
+		if ((threadNo + j) % 7 == 0) {
+			cache.invalidate(DEFAULT_TYPE, id);
+		} else {
+			cache.read(recordStorage, DEFAULT_TYPE, id);
+		}
+	}
+}
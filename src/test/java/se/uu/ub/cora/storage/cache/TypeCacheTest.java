@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.time.Duration;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+
+public class TypeCacheTest {
+	private long now = 0;
+	private TypeCache typeCache;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		typeCache = new TypeCache(
+				CachePolicy.usingMaxEntriesAndTimeToLive(3, Duration.ofNanos(100)), () -> now);
+	}
+
+	@Test
+	public void testGetNotCached() throws Exception {
+		assertNull(typeCache.get("someId"));
+
+		assertStatistics(0, 1, 0, 0, 0);
+	}
+
+	private void assertStatistics(long hits, long misses, long evictions, long invalidations,
+			long size) {
+		assertEquals(typeCache.getStatistics(),
+				new CacheStatistics(hits, misses, evictions, invalidations, size));
+	}
+
+	@Test
+	public void testPutAndGet() throws Exception {
+		DataGroup dataGroup = putInCache("someId");
+
+		assertSame(typeCache.get("someId"), dataGroup);
+
+		assertStatistics(1, 0, 0, 0, 1);
+	}
+
+	private DataGroup putInCache(String id) {
+		DataGroup dataGroup = new DataGroupSpy();
+		typeCache.putIfNotChangedSince(id, dataGroup, typeCache.getGeneration());
+		return dataGroup;
+	}
+
+	@Test
+	public void testExpiredEntryIsRemoved() throws Exception {
+		putInCache("someId");
+		now = 99;
+		typeCache.get("someId");
+		now = 100;
+
+		assertNull(typeCache.get("someId"));
+
+		assertStatistics(1, 1, 1, 0, 0);
+	}
+
+	@Test
+	public void testPutIsIgnoredIfInvalidatedSinceGenerationWasRead() throws Exception {
+		long generation = typeCache.getGeneration();
+		typeCache.invalidate("someId");
+
+		typeCache.putIfNotChangedSince("someId", new DataGroupSpy(), generation);
+
+		assertNull(typeCache.get("someId"));
+	}
+
+	@Test
+	public void testInvalidate() throws Exception {
+		putInCache("someId");
+
+		typeCache.invalidate("someId");
+		typeCache.invalidate("someOtherId");
+
+		assertNull(typeCache.get("someId"));
+		assertStatistics(0, 1, 0, 1, 0);
+	}
+
+	@Test
+	public void testInvalidateAll() throws Exception {
+		putInCache("someId");
+		putInCache("someOtherId");
+
+		typeCache.invalidateAll();
+
+		assertStatistics(0, 0, 0, 2, 0);
+	}
+
+	@Test
+	public void testLeastRecentlyReadEntryIsEvictedWhenFull() throws Exception {
+		putInCache("id1");
+		putInCache("id2");
+		putInCache("id3");
+		typeCache.get("id1");
+		typeCache.get("id3");
+
+		putInCache("id4");
+
+		assertNull(typeCache.get("id2"));
+		assertStatistics(2, 1, 1, 0, 3);
+	}
+
+	@Test
+	public void testSizeIsKeptWithinMaxEntriesWhenManyEntriesArePut() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			putInCache("id" + i);
+			typeCache.get("id" + i);
+		}
+
+		assertEquals(typeCache.getStatistics().size(), 3);
+		assertEquals(typeCache.getStatistics().evictions(), 97);
+	}
+
+	@Test
+	public void testInvalidatedEntriesDoNotCauseEvictions() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			putInCache("id" + i);
+			typeCache.invalidate("id" + i);
+		}
+		putInCache("id1");
+		putInCache("id2");
+		putInCache("id3");
+
+		assertEquals(typeCache.getStatistics().size(), 3);
+		assertEquals(typeCache.getStatistics().evictions(), 0);
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.time.Instant;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.StorageException;
+
+public class ChangeLogFormatTest {
+
+	@Test
+	public void testToLine() {
+		Change change = new Change(12, Instant.ofEpochMilli(1000), "someType", "someId", "create");
+
+		String line = ChangeLogFormat.toLine(change);
+
+		assertEquals(line, "12\t1000\tsomeType\tsomeId\tcreate");
+	}
+
+	@Test
+	public void testFromLine() {
+		Change change = ChangeLogFormat.fromLine("12\t1000\tsomeType\tsomeId\tcreate");
+
+		assertEquals(change,
+				new Change(12, Instant.ofEpochMilli(1000), "someType", "someId", "create"));
+	}
+
+	@Test
+	public void testSpecialCharactersAreEscaped() {
+		Change change = new Change(1, Instant.ofEpochMilli(5), "some\tType", "some\nId\r",
+				"up\\date");
+
+		String line = ChangeLogFormat.toLine(change);
+
+		assertEquals(line, "1\t5\tsome\\tType\tsome\\nId\\r\tup\\\\date");
+		assertEquals(ChangeLogFormat.fromLine(line), change);
+	}
+
+	@Test
+	public void testFromLineWithWrongNumberOfFields() {
+		try {
+			ChangeLogFormat.fromLine("12\t1000\tsomeType");
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "Invalid change log line: 12\t1000\tsomeType");
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.StorageException;
+
+public class ChangeLogRetentionTest {
+
+	@Test
+	public void testDefaultRetention() {
+		ChangeLogRetention retention = ChangeLogRetention.defaultRetention();
+
+		assertEquals(retention.changesPerSegment(), 100_000);
+		assertEquals(retention.maxNumberOfSegments(), 100);
+		assertEquals(retention.maxAge(), Duration.ofDays(7));
+	}
+
+	@Test
+	public void testChangesPerSegmentMustBeAtLeastOne() {
+		assertInvalid(0, 1, Duration.ofDays(1),
+				"ChangesPerSegment and maxNumberOfSegments must be at least 1");
+	}
+
+	@Test
+	public void testMaxNumberOfSegmentsMustBeAtLeastOne() {
+		assertInvalid(1, 0, Duration.ofDays(1),
+				"ChangesPerSegment and maxNumberOfSegments must be at least 1");
+	}
+
+	@Test
+	public void testMaxAgeMustBePositive() {
+		assertInvalid(1, 1, Duration.ZERO, "MaxAge must be positive");
+	}
+
+	private void assertInvalid(int changesPerSegment, int maxNumberOfSegments, Duration maxAge,
+			String message) {
+		try {
+			new ChangeLogRetention(changesPerSegment, maxNumberOfSegments, maxAge);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), message);
+		}
+	}
+}
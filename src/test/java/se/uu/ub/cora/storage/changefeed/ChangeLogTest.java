@@ -0,0 +1,363 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.StorageException;
+
+public class ChangeLogTest {
+	private static final ChangeLogRetention RETENTION = new ChangeLogRetention(3, 10,
+			Duration.ofDays(1));
+	private Path directory;
+	private ChangeLog changeLog;
+
+	@BeforeMethod
+	public void beforeMethod() throws Exception {
+		directory = Files.createTempDirectory("changeLog");
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory, RETENTION);
+	}
+
+	@AfterMethod
+	public void afterMethod() throws Exception {
+		changeLog.close();
+		deleteDirectory(directory);
+	}
+
+	static void deleteDirectory(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Test
+	public void testEmptyLog() {
+		ChangeBatch batch = changeLog.readAfter(0, 10);
+
+		assertTrue(batch.isEmpty());
+		assertFalse(batch.changesMissing());
+		assertEquals(batch.lastSequenceNumber(), 0);
+		assertEquals(changeLog.getFirstSequenceNumber(), 1);
+		assertEquals(changeLog.getLastSequenceNumber(), 0);
+		assertEquals(changeLog.onlyForTestGetNumberOfSegments(), 0);
+	}
+
+	@Test
+	public void testDirectoryIsCreated() throws Exception {
+		Path subDirectory = directory.resolve("sub");
+
+		try (ChangeLog subLog = ChangeLog.usingDirectoryAndRetention(subDirectory, RETENTION)) {
+			assertTrue(Files.isDirectory(subDirectory));
+		}
+	}
+
+	@Test
+	public void testAppendReturnsIncreasingSequenceNumbers() {
+		assertEquals(changeLog.append("someType", "id1", "create"), 1);
+		assertEquals(changeLog.append("someType", "id1", "update"), 2);
+		assertEquals(changeLog.append("someType", "id1", "delete"), 3);
+
+		assertEquals(changeLog.getLastSequenceNumber(), 3);
+	}
+
+	@Test
+	public void testEachAppendIsSyncedToDisk() {
+		assertEquals(changeLog.onlyForTestGetNumberOfChangesSyncedToDisk(), 0);
+
+		appendChanges(4);
+
+		assertEquals(changeLog.onlyForTestGetNumberOfChangesSyncedToDisk(), 4);
+	}
+
+	@Test
+	public void testAppendAndRead() {
+		Instant now = Instant.parse("2026-01-01T10:00:00Z");
+		changeLog.onlyForTestSetClock(Clock.fixed(now, ZoneOffset.UTC));
+		changeLog.append("someType", "id1", "create");
+		changeLog.append("otherType", "id2", "update");
+
+		ChangeBatch batch = changeLog.readAfter(0, 10);
+
+		assertEquals(batch.changes(), List.of(new Change(1, now, "someType", "id1", "create"),
+				new Change(2, now, "otherType", "id2", "update")));
+		assertFalse(batch.changesMissing());
+		assertEquals(batch.lastSequenceNumber(), 2);
+	}
+
+	@Test
+	public void testReadInBatchesOverSegments() {
+		appendChanges(8);
+
+		List<Long> read = new ArrayList<>();
+		long lastRead = 0;
+		ChangeBatch batch = changeLog.readAfter(lastRead, 3);
+		while (!batch.isEmpty()) {
+			batch.changes().forEach(change -> read.add(change.sequenceNumber()));
+			lastRead = batch.lastSequenceNumber();
+			batch = changeLog.readAfter(lastRead, 3);
+		}
+
+		assertEquals(read, List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L));
+		assertEquals(lastRead, 8);
+		assertEquals(changeLog.onlyForTestGetNumberOfSegments(), 3);
+	}
+
+	@Test
+	public void testReadAfterStartsInMiddleOfSegment() {
+		appendChanges(8);
+
+		ChangeBatch batch = changeLog.readAfter(4, 3);
+
+		assertSequenceNumbers(batch, 5, 6, 7);
+		assertEquals(batch.lastSequenceNumber(), 7);
+	}
+
+	@Test
+	public void testAppendIndexesEvery128thChange() {
+		useLogWithChangesPerSegment(1000);
+
+		appendChangesWithNonAsciiIds(600);
+
+		assertEquals(changeLog.onlyForTestGetIndexedSequenceNumbers(0),
+				List.of(1L, 129L, 257L, 385L, 513L));
+	}
+
+	private void useLogWithChangesPerSegment(int changesPerSegment) {
+		changeLog.close();
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory,
+				new ChangeLogRetention(changesPerSegment, 10, Duration.ofDays(1)));
+	}
+
+	private void appendChangesWithNonAsciiIds(int numberOfChanges) {
+		for (int i = 1; i <= numberOfChanges; i++) {
+			changeLog.append("someType", "idÅäö€" + i, "create");
+		}
+	}
+
+	@Test
+	public void testReadAfterUsesIndexToFindPositionInSegment() {
+		useLogWithChangesPerSegment(1000);
+		appendChangesWithNonAsciiIds(600);
+
+		ChangeBatch batch = changeLog.readAfter(300, 3);
+
+		assertSequenceNumbers(batch, 301, 302, 303);
+		assertEquals(batch.changes().get(0).id(), "idÅäö€301");
+		assertSequenceNumbers(changeLog.readAfter(511, 3), 512, 513, 514);
+	}
+
+	@Test
+	public void testReopenIndexesLastSegmentAndOtherSegmentsWhenRead() {
+		useLogWithChangesPerSegment(300);
+		appendChangesWithNonAsciiIds(700);
+		changeLog.close();
+
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory,
+				new ChangeLogRetention(300, 10, Duration.ofDays(1)));
+
+		assertEquals(changeLog.onlyForTestGetIndexedSequenceNumbers(0), List.of());
+		assertEquals(changeLog.onlyForTestGetIndexedSequenceNumbers(2), List.of(601L));
+		changeLog.readAfter(0, 300);
+		assertEquals(changeLog.onlyForTestGetIndexedSequenceNumbers(0),
+				List.of(1L, 129L, 257L));
+		ChangeBatch batch = changeLog.readAfter(199, 3);
+		assertSequenceNumbers(batch, 200, 201, 202);
+		assertEquals(batch.changes().get(2).id(), "idÅäö€202");
+		assertEquals(changeLog.append("someType", "id701", "create"), 701);
+		assertSequenceNumbers(changeLog.readAfter(699, 3), 700, 701);
+	}
+
+	@Test
+	public void testReadAfterLastChange() {
+		appendChanges(2);
+
+		ChangeBatch batch = changeLog.readAfter(2, 3);
+
+		assertTrue(batch.isEmpty());
+		assertFalse(batch.changesMissing());
+		assertEquals(batch.lastSequenceNumber(), 2);
+	}
+
+	@Test
+	public void testReopenContinuesSequenceNumbers() {
+		appendChanges(4);
+		changeLog.close();
+
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory, RETENTION);
+
+		assertEquals(changeLog.getLastSequenceNumber(), 4);
+		assertEquals(changeLog.append("someType", "id5", "create"), 5);
+		assertEquals(changeLog.append("someType", "id6", "create"), 6);
+		assertEquals(changeLog.append("someType", "id7", "create"), 7);
+		assertSequenceNumbers(changeLog.readAfter(0, 10), 1, 2, 3, 4, 5, 6, 7);
+		assertEquals(changeLog.onlyForTestGetNumberOfSegments(), 3);
+	}
+
+	@Test
+	public void testReopenWithoutCloseContinuesSequenceNumbers() {
+		appendChanges(4);
+
+		try (ChangeLog reopened = ChangeLog.usingDirectoryAndRetention(directory, RETENTION)) {
+			assertEquals(reopened.getLastSequenceNumber(), 4);
+			assertSequenceNumbers(reopened.readAfter(0, 10), 1, 2, 3, 4);
+		}
+	}
+
+	@Test
+	public void testReopenRemovesPartlyWrittenChange() throws Exception {
+		appendChanges(2);
+		changeLog.close();
+		Path segment = directory.resolve("changes-00000000000000000001.log");
+		Files.writeString(segment, "3\t1000\tsomeTy", StandardCharsets.UTF_8,
+				StandardOpenOption.APPEND);
+
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory, RETENTION);
+
+		assertEquals(changeLog.getLastSequenceNumber(), 2);
+		assertEquals(changeLog.append("someType", "id3", "create"), 3);
+		ChangeBatch batch = changeLog.readAfter(0, 10);
+		assertSequenceNumbers(batch, 1, 2, 3);
+		assertEquals(batch.changes().get(2).id(), "id3");
+	}
+
+	@Test
+	public void testRetentionByNumberOfSegments() {
+		changeLog.close();
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory,
+				new ChangeLogRetention(2, 2, Duration.ofDays(1)));
+
+		appendChanges(7);
+
+		assertEquals(changeLog.onlyForTestGetNumberOfSegments(), 2);
+		assertEquals(changeLog.getFirstSequenceNumber(), 5);
+		assertSequenceNumbers(changeLog.readAfter(4, 10), 5, 6, 7);
+	}
+
+	@Test
+	public void testReaderBehindRetentionIsToldChangesAreMissing() {
+		changeLog.close();
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory,
+				new ChangeLogRetention(2, 2, Duration.ofDays(1)));
+		appendChanges(7);
+
+		ChangeBatch batch = changeLog.readAfter(2, 2);
+
+		assertTrue(batch.changesMissing());
+		assertSequenceNumbers(batch, 5, 6);
+		assertEquals(batch.lastSequenceNumber(), 6);
+		assertFalse(changeLog.readAfter(4, 2).changesMissing());
+	}
+
+	@Test
+	public void testRetentionByAge() {
+		appendChanges(6);
+		changeLog.onlyForTestSetClock(
+				Clock.offset(Clock.systemUTC(), Duration.ofDays(1).plusHours(1)));
+
+		changeLog.append("someType", "id7", "create");
+
+		assertEquals(changeLog.onlyForTestGetNumberOfSegments(), 1);
+		assertEquals(changeLog.getFirstSequenceNumber(), 7);
+		assertSequenceNumbers(changeLog.readAfter(0, 10), 7);
+	}
+
+	@Test
+	public void testRetentionByAgeOnOpenKeepsCurrentSegment() {
+		appendChanges(2);
+		changeLog.close();
+
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory,
+				new ChangeLogRetention(3, 10, Duration.ofMillis(1)));
+
+		assertEquals(changeLog.onlyForTestGetNumberOfSegments(), 1);
+		assertSequenceNumbers(changeLog.readAfter(0, 10), 1, 2);
+	}
+
+	@Test
+	public void testAppendAfterClose() {
+		changeLog.close();
+
+		try {
+			changeLog.append("someType", "id1", "create");
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "Change log is closed");
+		}
+	}
+
+	@Test
+	public void testCloseTwice() {
+		appendChanges(1);
+
+		changeLog.close();
+		changeLog.close();
+
+		assertSequenceNumbers(changeLog.readAfter(0, 10), 1);
+	}
+
+	@Test
+	public void testOpenFailsWhenDirectoryIsAFile() throws Exception {
+		Path file = Files.createFile(directory.resolve("aFile"));
+
+		try {
+			ChangeLog.usingDirectoryAndRetention(file, RETENTION);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "Could not open change log in: " + file);
+		}
+	}
+
+	private void appendChanges(int numberOfChanges) {
+		for (int i = 1; i <= numberOfChanges; i++) {
+			changeLog.append("someType", "id" + i, "create");
+		}
+	}
+
+	private void assertSequenceNumbers(ChangeBatch batch, long... expected) {
+		List<Long> sequenceNumbers = batch.changes().stream().map(Change::sequenceNumber)
+				.toList();
+		assertEquals(sequenceNumbers, LongStream.of(expected).boxed().toList());
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.changefeed;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.RecordStorageInstanceProviderSpy;
+
+public class ChangeLoggingRecordStorageInstanceProviderTest {
+	private Path directory;
+	private ChangeLog changeLog;
+	private RecordStorageInstanceProviderSpy instanceProvider;
+	private ChangeLoggingRecordStorageInstanceProvider provider;
+
+	@BeforeMethod
+	public void beforeMethod() throws Exception {
+		directory = Files.createTempDirectory("changeLoggingProvider");
+		changeLog = ChangeLog.usingDirectoryAndRetention(directory,
+				new ChangeLogRetention(10, 10, Duration.ofDays(1)));
+		instanceProvider = new RecordStorageInstanceProviderSpy();
+		provider = ChangeLoggingRecordStorageInstanceProvider
+				.usingInstanceProviderAndChangeLog(instanceProvider, changeLog);
+	}
+
+	@AfterMethod
+	public void afterMethod() throws Exception {
+		changeLog.close();
+		ChangeLogTest.deleteDirectory(directory);
+	}
+
+	@Test
+	public void testInit() {
+		assertSame(provider.onlyForTestGetInstanceProvider(), instanceProvider);
+		assertSame(provider.onlyForTestGetChangeLog(), changeLog);
+	}
+
+	@Test
+	public void testGetOrderToSelectImplementionsBy() {
+		instanceProvider.MRV.setDefaultReturnValuesSupplier("getOrderToSelectImplementionsBy",
+				() -> 7);
+
+		int order = provider.getOrderToSelectImplementionsBy();
+
+		instanceProvider.MCR.assertReturn("getOrderToSelectImplementionsBy", 0, order);
+	}
+
+	@Test
+	public void testGetRecordStorage() {
+		var recordStorage = provider.getRecordStorage();
+
+		instanceProvider.MCR.assertReturn("getRecordStorage", 0, recordStorage);
+	}
+
+	@Test
+	public void testCanReuseRecordStorage() {
+		instanceProvider.MRV.setDefaultReturnValuesSupplier("canReuseRecordStorage", () -> true);
+
+		boolean canReuse = provider.canReuseRecordStorage();
+
+		instanceProvider.MCR.assertReturn("canReuseRecordStorage", 0, canReuse);
+	}
+
+	@Test
+	public void testDataChangedIsLoggedAndPassedOn() {
+		provider.dataChanged("someType", "someId", "create");
+		provider.dataChanged("someType", "someId", "update");
+
+		instanceProvider.MCR.assertParameters("dataChanged", 0, "someType", "someId", "create");
+		instanceProvider.MCR.assertParameters("dataChanged", 1, "someType", "someId", "update");
+		ChangeBatch batch = changeLog.readAfter(0, 10);
+		assertEquals(batch.changes().size(), 2);
+		assertChange(batch.changes().get(0), 1, "create");
+		assertChange(batch.changes().get(1), 2, "update");
+	}
+
+	private void assertChange(Change change, long sequenceNumber, String action) {
+		assertEquals(change.sequenceNumber(), sequenceNumber);
+		assertEquals(change.type(), "someType");
+		assertEquals(change.id(), "someId");
+		assertEquals(change.action(), action);
+	}
+}
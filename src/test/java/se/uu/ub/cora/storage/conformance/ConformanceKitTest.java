@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.StorageReadResult;
+import se.uu.ub.cora.storage.memory.InMemoryRecordStorage;
+import se.uu.ub.cora.storage.metrics.OperationStatistics;
+
+public class ConformanceKitTest {
+	private static final String SOME_TYPE = "someType";
+	private InMemoryRecordStorage storage;
+	private Supplier<RecordStorage> recordStorageSupplier;
+	private BiFunction<String, String, DataGroup> recordFactory;
+	private ConformanceKit kit;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		DataProvider.onlyForTestSetDataFactory(new DataFactorySpy());
+		setUpKitUsingStorage(new SerializedConversionRecordStorage());
+		recordFactory = (type, id) -> new DataGroupSpy();
+	}
+
+	private void setUpKitUsingStorage(InMemoryRecordStorage recordStorage) {
+		storage = recordStorage;
+		recordStorageSupplier = () -> storage;
+		kit = ConformanceKit.usingRecordStorageSupplierAndRecordFactory(() -> storage,
+				(type, id) -> new DataGroupSpy());
+	}
+
+	/**
+	 * The spies in DataFactorySpy are not threadsafe, so conversions done by the data factory are
+	 * serialized in this test.
+	 */
+	private static class SerializedConversionRecordStorage extends InMemoryRecordStorage {
+		private static final Object LOCK = new Object();
+
+		@Override
+		public DataRecordGroup read(String type, String id) {
+			synchronized (LOCK) {
+				return super.read(type, id);
+			}
+		}
+
+		@Override
+		public StorageReadResult readList(String type, Filter filter) {
+			synchronized (LOCK) {
+				return super.readList(type, filter);
+			}
+		}
+	}
+
+	@Test
+	public void testUsingRecordStorageSupplierAndRecordFactory() {
+		kit = ConformanceKit.usingRecordStorageSupplierAndRecordFactory(recordStorageSupplier,
+				recordFactory);
+
+		assertSame(kit.onlyForTestGetRecordStorageSupplier(), recordStorageSupplier);
+		assertSame(kit.onlyForTestGetRecordFactory(), recordFactory);
+	}
+
+	@Test
+	public void testRunPassesForInMemoryRecordStorage() {
+		Workload workload = createWorkload(WorkloadMix.readHeavy());
+
+		ConformanceReport report = kit.run(workload);
+
+		assertEquals(report.violations(), List.of());
+		assertTrue(report.passed());
+		assertSame(report.workload(), workload);
+		assertEquals(report.numberOfOperations(), 4 * 200);
+		assertTrue(report.operationsPerSecond() > 0);
+	}
+
+	private Workload createWorkload(WorkloadMix mix) {
+		return new Workload(SOME_TYPE, "someLinkTarget", 4, 200, 20, 5, 3, mix, 7);
+	}
+
+	@Test
+	public void testRunPassesForWriteHeavyMix() {
+		ConformanceReport report = kit.run(createWorkload(WorkloadMix.writeHeavy()));
+
+		assertEquals(report.violations(), List.of());
+	}
+
+	@Test
+	public void testRunReportsStatisticsPerOperation() {
+		ConformanceReport report = kit.run(createWorkload(WorkloadMix.writeHeavy()));
+
+		List<String> operations = report.statistics().stream()
+				.map(OperationStatistics::operation).distinct().toList();
+		assertTrue(operations.containsAll(List.of("read", "readList", "getLinksFromRecord",
+				"getLinksToRecord", "create", "update", "deleteByTypeAndId")));
+		long calls = report.statistics().stream().mapToLong(OperationStatistics::calls).sum();
+		assertTrue(calls >= report.numberOfOperations());
+	}
+
+	@Test
+	public void testRunRemovesCreatedRecords() {
+		kit.run(createWorkload(WorkloadMix.writeHeavy()));
+
+		assertEquals(storage.getTotalNumberOfRecordsForTypes(List.of(SOME_TYPE), new Filter()),
+				0);
+	}
+
+	@Test
+	public void testRunIsRepeatable() {
+		Workload workload = createWorkload(WorkloadMix.writeHeavy());
+
+		assertTrue(kit.run(workload).passed());
+		assertTrue(kit.run(workload).passed());
+	}
+
+	@Test
+	public void testRunOnTypeWithRecordsThrowsException() {
+		storage.create(SOME_TYPE, "someId", new DataGroupSpy(), Set.of(), Set.of(), "someDivider");
+
+		try {
+			kit.run(createWorkload(WorkloadMix.readHeavy()));
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(),
+					"Conformance can not be run on type someType as it has 1 records");
+		}
+	}
+
+	@Test
+	public void testRunReportsWrongLinks() {
+		setUpKitUsingStorage(new SerializedConversionRecordStorage() {
+			@Override
+			public Set<Link> getLinksToRecord(String type, String id) {
+				return Set.of();
+			}
+		});
+
+		ConformanceReport report = kit.run(createWorkload(WorkloadMix.readHeavy()));
+
+		assertFalse(report.passed());
+		assertTrue(report.violations().stream()
+				.anyMatch(violation -> violation.startsWith("Links to target")));
+		assertTrue(report.violations().stream()
+				.anyMatch(violation -> violation.startsWith("Links to the target of ")));
+	}
+
+	@Test
+	public void testRunReportsWrongCounts() {
+		setUpKitUsingStorage(new SerializedConversionRecordStorage() {
+			@Override
+			public long getTotalNumberOfRecordsForTypes(List<String> types, Filter filter) {
+				long total = super.getTotalNumberOfRecordsForTypes(types, filter);
+				return total == 0 ? 0 : total + 1;
+			}
+		});
+
+		ConformanceReport report = kit.run(createWorkload(WorkloadMix.readHeavy()));
+
+		assertFalse(report.passed());
+		assertTrue(report.violations().stream()
+				.anyMatch(violation -> violation.startsWith("Total number of records was ")));
+		assertTrue(report.violations().stream()
+				.anyMatch(violation -> violation.startsWith("Count for group")));
+	}
+
+	@Test
+	public void testRunReportsExceptionsAsViolations() {
+		setUpKitUsingStorage(new SerializedConversionRecordStorage() {
+			@Override
+			public void update(String type, String id, DataGroup dataRecord,
+					Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+				throw StorageException.withMessage("some error");
+			}
+		});
+
+		ConformanceReport report = kit.run(createWorkload(WorkloadMix.writeHeavy()));
+
+		assertFalse(report.passed());
+		assertTrue(report.violations()
+				.contains("UPDATE failed with StorageException: some error"));
+	}
+
+	@Test
+	public void testRunReportsDeletedRecordsThatStillExist() {
+		setUpKitUsingStorage(new SerializedConversionRecordStorage() {
+			@Override
+			public void deleteByTypeAndId(String type, String id) {
+				// records are never deleted
+			}
+		});
+
+		ConformanceReport report = kit.run(createWorkload(WorkloadMix.writeHeavy()));
+
+		assertFalse(report.passed());
+		assertTrue(report.violations().stream()
+				.anyMatch(violation -> violation.startsWith("Deleted record ")));
+	}
+}
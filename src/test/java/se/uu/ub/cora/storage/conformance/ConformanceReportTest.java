@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class ConformanceReportTest {
+	private static final Workload WORKLOAD = Workload.usingTypeAndMix("someType",
+			WorkloadMix.readHeavy());
+
+	@Test
+	public void testPassedWithoutViolations() {
+		ConformanceReport report = createReport(100, Duration.ofSeconds(1), List.of());
+
+		assertTrue(report.passed());
+	}
+
+	@Test
+	public void testNotPassedWithViolations() {
+		ConformanceReport report = createReport(100, Duration.ofSeconds(1),
+				List.of("some violation"));
+
+		assertFalse(report.passed());
+	}
+
+	@Test
+	public void testOperationsPerSecond() {
+		ConformanceReport report = createReport(500, Duration.ofMillis(250), List.of());
+
+		assertEquals(report.operationsPerSecond(), 2000.0);
+	}
+
+	@Test
+	public void testOperationsPerSecondNoElapsedTime() {
+		ConformanceReport report = createReport(3, Duration.ZERO, List.of());
+
+		assertEquals(report.operationsPerSecond(), 3_000_000_000.0);
+	}
+
+	private ConformanceReport createReport(long operations, Duration elapsed,
+			List<String> violations) {
+		return new ConformanceReport(WORKLOAD, operations, elapsed, violations,
+				Collections.emptyList());
+	}
+}
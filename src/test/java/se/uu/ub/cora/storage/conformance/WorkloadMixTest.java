@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.StorageException;
+
+public class WorkloadMixTest {
+
+	@Test
+	public void testTotal() {
+		WorkloadMix mix = new WorkloadMix(1, 2, 3, 4, 5, 6);
+
+		assertEquals(mix.total(), 21);
+	}
+
+	@Test
+	public void testPick() {
+		WorkloadMix mix = new WorkloadMix(1, 2, 0, 1, 1, 1);
+
+		assertEquals(mix.pick(0), WorkloadOperation.READ);
+		assertEquals(mix.pick(1), WorkloadOperation.FILTERED_LIST);
+		assertEquals(mix.pick(2), WorkloadOperation.FILTERED_LIST);
+		assertEquals(mix.pick(3), WorkloadOperation.CREATE);
+		assertEquals(mix.pick(4), WorkloadOperation.UPDATE);
+		assertEquals(mix.pick(5), WorkloadOperation.DELETE);
+	}
+
+	@Test
+	public void testPickLinkQuery() {
+		WorkloadMix mix = new WorkloadMix(0, 0, 1, 0, 0, 0);
+
+		assertEquals(mix.pick(0), WorkloadOperation.LINK_QUERY);
+	}
+
+	@Test
+	public void testReadHeavy() {
+		assertEquals(WorkloadMix.readHeavy(), new WorkloadMix(70, 10, 10, 4, 4, 2));
+	}
+
+	@Test
+	public void testWriteHeavy() {
+		assertEquals(WorkloadMix.writeHeavy(), new WorkloadMix(20, 5, 5, 30, 30, 10));
+	}
+
+	@Test
+	public void testNegativeWeightNotAllowed() {
+		try {
+			new WorkloadMix(1, 1, 1, 1, -1, 1);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+		}
+	}
+
+	@Test
+	public void testAllWeightsZeroNotAllowed() {
+		try {
+			new WorkloadMix(0, 0, 0, 0, 0, 0);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.conformance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.StorageException;
+
+public class WorkloadTest {
+	private static final WorkloadMix MIX = WorkloadMix.readHeavy();
+
+	@Test
+	public void testUsingTypeAndMix() {
+		Workload workload = Workload.usingTypeAndMix("someType", MIX);
+
+		assertEquals(workload, new Workload("someType", "someTypeLinkTarget", 8, 1000, 100, 10,
+				10, MIX, 1));
+	}
+
+	@Test
+	public void testNoThreadsNotAllowed() {
+		assertNotAllowed(0, 1, 1, 1, 1);
+	}
+
+	@Test
+	public void testNoGroupsNotAllowed() {
+		assertNotAllowed(1, 1, 1, 0, 1);
+	}
+
+	@Test
+	public void testNoLinkTargetsNotAllowed() {
+		assertNotAllowed(1, 1, 1, 1, 0);
+	}
+
+	@Test
+	public void testNegativeOperationsNotAllowed() {
+		assertNotAllowed(1, -1, 1, 1, 1);
+	}
+
+	@Test
+	public void testNegativeRecordsNotAllowed() {
+		assertNotAllowed(1, 1, -1, 1, 1);
+	}
+
+	@Test
+	public void testNoOperationsAndRecordsAllowed() {
+		Workload workload = new Workload("someType", "someTarget", 1, 0, 0, 1, 1, MIX, 0);
+
+		assertEquals(workload.operationsPerThread(), 0);
+		assertEquals(workload.recordsPerThread(), 0);
+	}
+
+	private void assertNotAllowed(int threads, int operations, int records, int groups,
+			int linkTargets) {
+		try {
+			new Workload("someType", "someTarget", threads, operations, records, groups,
+					linkTargets, MIX, 0);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.filter;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.RelationalOperator;
+
+public class FilterPlanTest {
+	private Set<StorageTerm> storageTerms = Set.of(term("title", "b"), term("tag", "x"),
+			term("tag", "y"));
+
+	private static StorageTerm term(String key, String value) {
+		return new StorageTerm("someTermId", key, value);
+	}
+
+	private static PlannedPart part(Condition... conditions) {
+		return new PlannedPart(List.of(conditions));
+	}
+
+	private static Condition condition(String key, RelationalOperator operator, String value) {
+		return new Condition(key, operator, value);
+	}
+
+	@Test
+	public void testEmptyPlanMatchesAll() throws Exception {
+		FilterPlan plan = new FilterPlan(List.of(), List.of(), false);
+
+		assertTrue(plan.includesAll());
+		assertTrue(plan.matches(storageTerms));
+		assertTrue(plan.matches(Set.of()));
+	}
+
+	@Test
+	public void testMatchesNothing() throws Exception {
+		FilterPlan plan = new FilterPlan(List.of(), List.of(), true);
+
+		assertFalse(plan.includesAll());
+		assertFalse(plan.matches(storageTerms));
+	}
+
+	@Test
+	public void testIncludeWithOneConditionPerOperator() throws Exception {
+		assertIncludeConditionMatches(RelationalOperator.EQUAL_TO, "b", true);
+		assertIncludeConditionMatches(RelationalOperator.EQUAL_TO, "a", false);
+		assertIncludeConditionMatches(RelationalOperator.NOT_EQUAL_TO, "a", true);
+		assertIncludeConditionMatches(RelationalOperator.NOT_EQUAL_TO, "b", false);
+		assertIncludeConditionMatches(RelationalOperator.GREATER_THAN, "a", true);
+		assertIncludeConditionMatches(RelationalOperator.GREATER_THAN, "b", false);
+		assertIncludeConditionMatches(RelationalOperator.GREATER_THAN_OR_EQUAL_TO, "b", true);
+		assertIncludeConditionMatches(RelationalOperator.GREATER_THAN_OR_EQUAL_TO, "c", false);
+		assertIncludeConditionMatches(RelationalOperator.LESS_THAN, "c", true);
+		assertIncludeConditionMatches(RelationalOperator.LESS_THAN, "b", false);
+		assertIncludeConditionMatches(RelationalOperator.LESS_THAN_OR_EQUAL_TO, "b", true);
+		assertIncludeConditionMatches(RelationalOperator.LESS_THAN_OR_EQUAL_TO, "a", false);
+	}
+
+	private void assertIncludeConditionMatches(RelationalOperator operator, String value,
+			boolean expected) {
+		FilterPlan plan = new FilterPlan(List.of(part(condition("title", operator, value))),
+				List.of(), false);
+		assertTrue(plan.matches(storageTerms) == expected, operator + " " + value);
+	}
+
+	@Test
+	public void testConditionForMissingKeyDoesNotMatch() throws Exception {
+		FilterPlan plan = new FilterPlan(
+				List.of(part(condition("missing", RelationalOperator.NOT_EQUAL_TO, "a"))),
+				List.of(), false);
+
+		assertFalse(plan.matches(storageTerms));
+	}
+
+	@Test
+	public void testConditionMatchesAnyValueForKey() throws Exception {
+		FilterPlan plan = new FilterPlan(
+				List.of(part(condition("tag", RelationalOperator.EQUAL_TO, "x"),
+						condition("tag", RelationalOperator.EQUAL_TO, "y"))),
+				List.of(), false);
+
+		assertTrue(plan.matches(storageTerms));
+	}
+
+	@Test
+	public void testIncludePartsAreOredAndConditionsAnded() throws Exception {
+		FilterPlan plan = new FilterPlan(List.of(
+				part(condition("title", RelationalOperator.EQUAL_TO, "b"),
+						condition("tag", RelationalOperator.EQUAL_TO, "z")),
+				part(condition("tag", RelationalOperator.EQUAL_TO, "y"))), List.of(), false);
+
+		assertTrue(plan.matches(storageTerms));
+		assertFalse(plan.matches(Set.of(term("title", "b"))));
+	}
+
+	@Test
+	public void testExclude() throws Exception {
+		FilterPlan plan = new FilterPlan(List.of(),
+				List.of(part(condition("tag", RelationalOperator.EQUAL_TO, "y"))), false);
+
+		assertFalse(plan.matches(storageTerms));
+		assertTrue(plan.matches(Set.of(term("title", "b"))));
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.filter.imp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.Part;
+import se.uu.ub.cora.storage.RelationalOperator;
+import se.uu.ub.cora.storage.filter.FilterPlan;
+import se.uu.ub.cora.storage.filter.FilterPlanner;
+import se.uu.ub.cora.storage.filter.PlannedPart;
+
+public class FilterPlannerImpTest {
+	private static final Condition TITLE_EQUAL_A = condition("title",
+			RelationalOperator.EQUAL_TO, "a");
+	private static final Condition TITLE_EQUAL_B = condition("title",
+			RelationalOperator.EQUAL_TO, "b");
+	private static final Condition TAG_NOT_EQUAL_X = condition("tag",
+			RelationalOperator.NOT_EQUAL_TO, "x");
+	private static final Condition DATE_GREATER_THAN_2020 = condition("date",
+			RelationalOperator.GREATER_THAN, "2020");
+	private FilterPlanner planner;
+	private Filter filter;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		planner = FilterPlannerImp.usingSelectivityEstimatorAndSingleValuedKeys(
+				new OperatorSelectivityEstimator(), Set.of("title", "date"));
+		filter = new Filter();
+	}
+
+	private static Condition condition(String key, RelationalOperator operator, String value) {
+		return new Condition(key, operator, value);
+	}
+
+	private static Part part(Condition... conditions) {
+		Part part = new Part();
+		part.conditions.addAll(List.of(conditions));
+		return part;
+	}
+
+	private static PlannedPart plannedPart(Condition... conditions) {
+		return new PlannedPart(List.of(conditions));
+	}
+
+	@Test
+	public void testEmptyFilter() throws Exception {
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan, new FilterPlan(List.of(), List.of(), false));
+		assertTrue(plan.includesAll());
+	}
+
+	@Test
+	public void testConditionsAreOrderedBySelectivity() throws Exception {
+		filter.include.add(part(TAG_NOT_EQUAL_X, DATE_GREATER_THAN_2020, TITLE_EQUAL_A));
+		filter.exclude.add(part(TAG_NOT_EQUAL_X, TITLE_EQUAL_B));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan.include(),
+				List.of(plannedPart(TITLE_EQUAL_A, DATE_GREATER_THAN_2020, TAG_NOT_EQUAL_X)));
+		assertEquals(plan.exclude(), List.of(plannedPart(TITLE_EQUAL_B, TAG_NOT_EQUAL_X)));
+	}
+
+	@Test
+	public void testDuplicatedConditionsAreRemoved() throws Exception {
+		filter.include.add(part(TITLE_EQUAL_A, TAG_NOT_EQUAL_X, TITLE_EQUAL_A));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan.include(), List.of(plannedPart(TITLE_EQUAL_A, TAG_NOT_EQUAL_X)));
+	}
+
+	@Test
+	public void testDuplicatedAndRedundantPartsAreRemoved() throws Exception {
+		filter.include.add(part(TITLE_EQUAL_A, TAG_NOT_EQUAL_X));
+		filter.include.add(part(TITLE_EQUAL_B));
+		filter.include.add(part(TAG_NOT_EQUAL_X, TITLE_EQUAL_A));
+		filter.include.add(part(TITLE_EQUAL_A));
+		filter.exclude.add(part(TITLE_EQUAL_B, DATE_GREATER_THAN_2020));
+		filter.exclude.add(part(TITLE_EQUAL_B));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan.include(),
+				List.of(plannedPart(TITLE_EQUAL_B), plannedPart(TITLE_EQUAL_A)));
+		assertEquals(plan.exclude(), List.of(plannedPart(TITLE_EQUAL_B)));
+	}
+
+	@Test
+	public void testContradictingIncludePartIsRemoved() throws Exception {
+		filter.include.add(part(TITLE_EQUAL_A, TITLE_EQUAL_B));
+		filter.include.add(part(TAG_NOT_EQUAL_X));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan.include(), List.of(plannedPart(TAG_NOT_EQUAL_X)));
+		assertFalse(plan.matchesNothing());
+	}
+
+	@Test
+	public void testAllIncludePartsContradictingMatchesNothing() throws Exception {
+		filter.include.add(part(TITLE_EQUAL_A, TITLE_EQUAL_B));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan, new FilterPlan(List.of(), List.of(), true));
+	}
+
+	@Test
+	public void testContradictingExcludePartIsRemoved() throws Exception {
+		filter.exclude.add(part(TITLE_EQUAL_A, TITLE_EQUAL_B));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan, new FilterPlan(List.of(), List.of(), false));
+	}
+
+	@Test
+	public void testConditionsForMultiValuedKeyDoNotContradict() throws Exception {
+		Condition tagEqualX = condition("tag", RelationalOperator.EQUAL_TO, "x");
+		Condition tagEqualY = condition("tag", RelationalOperator.EQUAL_TO, "y");
+		filter.include.add(part(tagEqualX, tagEqualY));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan.include(), List.of(plannedPart(tagEqualX, tagEqualY)));
+	}
+
+	@Test
+	public void testNoKeysAreSingleValuedByDefault() throws Exception {
+		planner = FilterPlannerImp.usingSelectivityEstimator(new OperatorSelectivityEstimator());
+		filter.include.add(part(TITLE_EQUAL_A, TITLE_EQUAL_B));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan.include(), List.of(plannedPart(TITLE_EQUAL_A, TITLE_EQUAL_B)));
+	}
+
+	@Test
+	public void testRangeContradictions() throws Exception {
+		assertContradicts(true, condition("title", RelationalOperator.EQUAL_TO, "a"),
+				condition("title", RelationalOperator.NOT_EQUAL_TO, "a"));
+		assertContradicts(false, condition("title", RelationalOperator.EQUAL_TO, "a"),
+				condition("title", RelationalOperator.NOT_EQUAL_TO, "b"));
+		assertContradicts(true, condition("title", RelationalOperator.EQUAL_TO, "a"),
+				condition("title", RelationalOperator.GREATER_THAN, "a"));
+		assertContradicts(false, condition("title", RelationalOperator.EQUAL_TO, "a"),
+				condition("title", RelationalOperator.GREATER_THAN_OR_EQUAL_TO, "a"));
+		assertContradicts(true, condition("title", RelationalOperator.EQUAL_TO, "b"),
+				condition("title", RelationalOperator.LESS_THAN, "b"));
+		assertContradicts(false, condition("title", RelationalOperator.EQUAL_TO, "b"),
+				condition("title", RelationalOperator.LESS_THAN_OR_EQUAL_TO, "b"));
+		assertContradicts(true, condition("title", RelationalOperator.GREATER_THAN, "c"),
+				condition("title", RelationalOperator.LESS_THAN, "b"));
+		assertContradicts(false, condition("title", RelationalOperator.GREATER_THAN, "a"),
+				condition("title", RelationalOperator.LESS_THAN, "c"));
+		assertContradicts(true, condition("title", RelationalOperator.GREATER_THAN, "b"),
+				condition("title", RelationalOperator.LESS_THAN_OR_EQUAL_TO, "b"));
+		assertContradicts(false,
+				condition("title", RelationalOperator.GREATER_THAN_OR_EQUAL_TO, "b"),
+				condition("title", RelationalOperator.LESS_THAN_OR_EQUAL_TO, "b"));
+		assertContradicts(true,
+				condition("title", RelationalOperator.GREATER_THAN_OR_EQUAL_TO, "b"),
+				condition("title", RelationalOperator.LESS_THAN_OR_EQUAL_TO, "b"),
+				condition("title", RelationalOperator.NOT_EQUAL_TO, "b"));
+		assertContradicts(true, condition("title", RelationalOperator.GREATER_THAN, "a"),
+				condition("title", RelationalOperator.GREATER_THAN_OR_EQUAL_TO, "c"),
+				condition("title", RelationalOperator.LESS_THAN, "c"));
+		assertContradicts(true, condition("title", RelationalOperator.LESS_THAN, "c"),
+				condition("title", RelationalOperator.LESS_THAN_OR_EQUAL_TO, "b"),
+				condition("title", RelationalOperator.GREATER_THAN, "b"));
+	}
+
+	private void assertContradicts(boolean expected, Condition... conditions) {
+		filter = new Filter();
+		filter.include.add(part(conditions));
+		FilterPlan plan = planner.plan(filter);
+		assertEquals(plan.matchesNothing(), expected, List.of(conditions).toString());
+	}
+
+	@Test
+	public void testEmptyIncludePartIncludesAll() throws Exception {
+		filter.include.add(part(TITLE_EQUAL_A));
+		filter.include.add(part());
+		filter.exclude.add(part(TITLE_EQUAL_B));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan.include(), List.of());
+		assertTrue(plan.includesAll());
+		assertEquals(plan.exclude(), List.of(plannedPart(TITLE_EQUAL_B)));
+	}
+
+	@Test
+	public void testEmptyExcludePartMatchesNothing() throws Exception {
+		filter.include.add(part(TITLE_EQUAL_A));
+		filter.exclude.add(part());
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertEquals(plan, new FilterPlan(List.of(), List.of(), true));
+	}
+
+	@Test
+	public void testPlanMatchesSameAsFilterWouldForStorageTerms() throws Exception {
+		filter.include.add(part(TITLE_EQUAL_A, TITLE_EQUAL_B));
+		filter.include.add(part(TAG_NOT_EQUAL_X));
+
+		FilterPlan plan = planner.plan(filter);
+
+		assertTrue(plan.matches(Set.of(new StorageTerm("someTermId", "tag", "y"))));
+	}
+}
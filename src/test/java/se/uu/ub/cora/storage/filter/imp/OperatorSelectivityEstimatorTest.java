@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.filter.imp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.RelationalOperator;
+import se.uu.ub.cora.storage.filter.SelectivityEstimator;
+
+public class OperatorSelectivityEstimatorTest {
+	private SelectivityEstimator estimator = new OperatorSelectivityEstimator();
+
+	@Test
+	public void testEqualToIsMoreSelectiveThanRangeWhichIsMoreSelectiveThanNotEqualTo()
+			throws Exception {
+		double equalTo = estimate(RelationalOperator.EQUAL_TO);
+		double range = estimate(RelationalOperator.GREATER_THAN);
+		double notEqualTo = estimate(RelationalOperator.NOT_EQUAL_TO);
+
+		assertTrue(equalTo < range);
+		assertTrue(range < notEqualTo);
+	}
+
+	private double estimate(RelationalOperator operator) {
+		return estimator.estimateSelectivity(new Condition("someKey", operator, "someValue"));
+	}
+
+	@Test
+	public void testAllRangeOperatorsAreEstimatedTheSame() throws Exception {
+		double greaterThan = estimate(RelationalOperator.GREATER_THAN);
+
+		assertEquals(estimate(RelationalOperator.GREATER_THAN_OR_EQUAL_TO), greaterThan);
+		assertEquals(estimate(RelationalOperator.LESS_THAN), greaterThan);
+		assertEquals(estimate(RelationalOperator.LESS_THAN_OR_EQUAL_TO), greaterThan);
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.fingerprint;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.hash.CoraDigestor;
+import se.uu.ub.cora.storage.hash.imp.CoraDigestorImp;
+
+public class RecordFingerprinterTest {
+	private CoraDigestor digestor = new CoraDigestorImp();
+	private DataGroup dataRecord = new DataGroupSpy();
+	private DataGroup otherDataRecord = new DataGroupSpy();
+	private Function<DataGroup, String> canonicalForm = dataGroup -> Map
+			.of(dataRecord, "content", otherDataRecord, "otherContent").get(dataGroup);
+	private StorageTerm term1 = new StorageTerm("id1", "key", "value1");
+	private StorageTerm term2 = new StorageTerm("id2", "key", "value2");
+	private Link link1 = new Link("type1", "id1");
+	private Link link2 = new Link("type2", "id1");
+	private RecordFingerprinter fingerprinter;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		fingerprinter = RecordFingerprinter.usingDigestorAndCanonicalForm(digestor,
+				canonicalForm);
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(fingerprinter.onlyForTestGetDigestor(), digestor);
+		assertSame(fingerprinter.onlyForTestGetCanonicalForm(), canonicalForm);
+	}
+
+	@Test
+	public void testFingerprintIsSha256OfCanonicalForm() throws Exception {
+		String fingerprint = fingerprinter.fingerprint(dataRecord, List.of(term1), List.of(link1),
+				"divider");
+
+		String canonical = "7:divider7:content1:13:key6:value13:id11:15:type13:id1";
+		assertEquals(fingerprint, digestor.stringToSha256Hex(canonical));
+	}
+
+	@Test
+	public void testOrderOfTermsAndLinksDoesNotMatter() throws Exception {
+		String fingerprint = fingerprinter.fingerprint(dataRecord, List.of(term1, term2),
+				List.of(link1, link2), "divider");
+		String reordered = fingerprinter.fingerprint(dataRecord, List.of(term2, term1),
+				List.of(link2, link1), "divider");
+
+		assertEquals(reordered, fingerprint);
+	}
+
+	@Test
+	public void testFingerprintChangesWithContent() throws Exception {
+		Set<String> fingerprints = Set.of(
+				fingerprinter.fingerprint(dataRecord, List.of(term1), List.of(link1), "divider"),
+				fingerprinter.fingerprint(otherDataRecord, List.of(term1), List.of(link1),
+						"divider"),
+				fingerprinter.fingerprint(dataRecord, List.of(term2), List.of(link1), "divider"),
+				fingerprinter.fingerprint(dataRecord, List.of(term1), List.of(link2), "divider"),
+				fingerprinter.fingerprint(dataRecord, List.of(term1), List.of(link1), "other"),
+				fingerprinter.fingerprint(dataRecord, List.of(term1), List.of(link1), null),
+				fingerprinter.fingerprint(dataRecord, List.of(), List.of(link1), "divider"));
+
+		assertEquals(fingerprints.size(), 7);
+	}
+
+	@Test
+	public void testPartsCanNotBeShiftedBetweenFields() throws Exception {
+		StorageTerm shiftedTerm = new StorageTerm("id", "key", "value1");
+		StorageTerm otherShiftedTerm = new StorageTerm("1id", "key", "value");
+
+		String fingerprint = fingerprinter.fingerprint(dataRecord, List.of(shiftedTerm),
+				List.of(), "divider");
+		String otherFingerprint = fingerprinter.fingerprint(dataRecord, List.of(otherShiftedTerm),
+				List.of(), "divider");
+
+		assertNotEquals(otherFingerprint, fingerprint);
+	}
+
+	@Test
+	public void testNullDataDividerDiffersFromDash() throws Exception {
+		String fingerprint = fingerprinter.fingerprint(dataRecord, List.of(), List.of(), null);
+		String dashFingerprint = fingerprinter.fingerprint(dataRecord, List.of(), List.of(), "-");
+
+		assertNotEquals(dashFingerprint, fingerprint);
+	}
+}
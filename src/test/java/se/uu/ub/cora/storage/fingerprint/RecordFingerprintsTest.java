@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.fingerprint;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.StorageException;
+
+public class RecordFingerprintsTest {
+	private RecordFingerprints fingerprints;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		fingerprints = RecordFingerprints.create();
+	}
+
+	@Test
+	public void testUnknownFingerprint() throws Exception {
+		assertTrue(fingerprints.get("someType", "someId").isEmpty());
+		assertEquals(fingerprints.size(), 0);
+	}
+
+	@Test
+	public void testSetAndGet() throws Exception {
+		fingerprints.set("someType", "someId", "someFingerprint");
+		fingerprints.set("someType", "otherId", "otherFingerprint");
+		fingerprints.set("otherType", "someId", "thirdFingerprint");
+
+		assertEquals(fingerprints.get("someType", "someId"), Optional.of("someFingerprint"));
+		assertEquals(fingerprints.get("someType", "otherId"), Optional.of("otherFingerprint"));
+		assertEquals(fingerprints.get("otherType", "someId"), Optional.of("thirdFingerprint"));
+		assertTrue(fingerprints.get("someType", "thirdId").isEmpty());
+		assertEquals(fingerprints.size(), 3);
+	}
+
+	@Test
+	public void testSetReplaces() throws Exception {
+		fingerprints.set("someType", "someId", "someFingerprint");
+		fingerprints.set("someType", "someId", "newFingerprint");
+
+		assertEquals(fingerprints.get("someType", "someId"), Optional.of("newFingerprint"));
+		assertEquals(fingerprints.size(), 1);
+	}
+
+	@Test
+	public void testRemove() throws Exception {
+		fingerprints.set("someType", "someId", "someFingerprint");
+		fingerprints.set("someType", "otherId", "otherFingerprint");
+
+		fingerprints.remove("someType", "someId");
+		fingerprints.remove("unknownType", "someId");
+
+		assertTrue(fingerprints.get("someType", "someId").isEmpty());
+		assertEquals(fingerprints.size(), 1);
+	}
+
+	@Test
+	public void testDataChangedRemovesFingerprint() throws Exception {
+		fingerprints.set("someType", "someId", "someFingerprint");
+
+		fingerprints.dataChanged("someType", "someId", "update");
+
+		assertTrue(fingerprints.get("someType", "someId").isEmpty());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedFingerprintIsForgottenWhenFull() throws Exception {
+		fingerprints = RecordFingerprints.usingMaxNumberOfFingerprints(2);
+		fingerprints.set("someType", "id1", "fingerprint1");
+		fingerprints.set("someType", "id2", "fingerprint2");
+		fingerprints.get("someType", "id1");
+
+		fingerprints.set("someType", "id3", "fingerprint3");
+
+		assertEquals(fingerprints.size(), 2);
+		assertEquals(fingerprints.get("someType", "id1"), Optional.of("fingerprint1"));
+		assertTrue(fingerprints.get("someType", "id2").isEmpty());
+		assertEquals(fingerprints.get("someType", "id3"), Optional.of("fingerprint3"));
+	}
+
+	@Test
+	public void testMaxNumberOfFingerprintsMustBeLargerThanZero() throws Exception {
+		try {
+			RecordFingerprints.usingMaxNumberOfFingerprints(0);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(),
+					"Max number of fingerprints must be larger than 0, was: 0");
+		}
+	}
+
+	@Test
+	public void testLockForRecord() throws Exception {
+		Lock lock = fingerprints.getLockForRecord("someType", "someId");
+
+		assertSame(fingerprints.getLockForRecord("someType", "someId"), lock);
+		assertNotSame(RecordFingerprints.create().getLockForRecord("someType", "someId"), lock);
+	}
+
+	@Test
+	public void testLocksForWritesAreDistinctAndInLockOrder() throws Exception {
+		List<RecordWrite> writes = List.of(createWrite("id1"), createWrite("id2"),
+				createWrite("id1"), createWrite("id3"), createWrite("id4"));
+
+		List<Lock> locks = fingerprints.getLocksForWrites(writes);
+
+		assertEquals(Set.copyOf(locks), Set.of(fingerprints.getLockForRecord("someType", "id1"),
+				fingerprints.getLockForRecord("someType", "id2"),
+				fingerprints.getLockForRecord("someType", "id3"),
+				fingerprints.getLockForRecord("someType", "id4")));
+		assertEquals(locks.size(), Set.copyOf(locks).size());
+		assertEquals(fingerprints.getLocksForWrites(writes.reversed()), locks);
+	}
+
+	private RecordWrite createWrite(String id) {
+		return new RecordWrite(RecordWriteAction.UPDATE, "someType", id, new DataGroupSpy(),
+				Set.of(), Set.of(), "someDataDivider");
+	}
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.fingerprint;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.RecordWriteStatus;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+import se.uu.ub.cora.storage.hash.imp.CoraDigestorImp;
+import se.uu.ub.cora.storage.memory.InMemoryRecordStorage;
+
+public class UnchangedUpdateSkippingRecordStorageTest {
+	private static final String SOME_TYPE = "someType";
+	private static final String SOME_ID = "someId";
+	private static final String DATA_DIVIDER = "fakeDivider";
+	private RecordStorageSpy recordStorageSpy;
+	private DataFactorySpy dataFactorySpy;
+	private RecordFingerprinter fingerprinter;
+	private RecordFingerprints fingerprints;
+	private UnchangedUpdateSkippingRecordStorage recordStorage;
+	private DataGroup dataRecord = new DataGroupSpy();
+	private DataGroup changedDataRecord = new DataGroupSpy();
+	private DataGroup storedDataGroup = new DataGroupSpy();
+	private String storedContent = "content";
+	private Set<StorageTerm> storageTerms = Set.of(new StorageTerm("someId", "someKey", "value"));
+	private Set<Link> links = Set.of(new Link("someLinkedType", "someLinkedId"));
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataFactorySpy = new DataFactorySpy();
+		dataFactorySpy.MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> storedDataGroup);
+		DataProvider.onlyForTestSetDataFactory(dataFactorySpy);
+		recordStorageSpy = new RecordStorageSpy();
+		recordStorageSpy.MRV.setDefaultReturnValuesSupplier("getStorageTermsForRecord",
+				() -> storageTerms);
+		recordStorageSpy.MRV.setDefaultReturnValuesSupplier("getLinksFromRecord", () -> links);
+		Function<DataGroup, String> canonicalForm = this::canonicalForm;
+		fingerprinter = RecordFingerprinter.usingDigestorAndCanonicalForm(new CoraDigestorImp(),
+				canonicalForm);
+		fingerprints = RecordFingerprints.create();
+		recordStorage = UnchangedUpdateSkippingRecordStorage
+				.usingRecordStorageAndFingerprinting(recordStorageSpy, fingerprinter, fingerprints);
+	}
+
+	private String canonicalForm(DataGroup dataGroup) {
+		if (dataGroup == storedDataGroup) {
+			return storedContent;
+		}
+		return Map.of(dataRecord, "content", changedDataRecord, "changedContent").get(dataGroup);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		DataProvider.onlyForTestSetDataFactory(null);
+	}
+
+	@Test
+	public void testImplementsRecordStorage() throws Exception {
+		assertTrue(recordStorage instanceof RecordStorage);
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(recordStorage.onlyForTestGetRecordStorage(), recordStorageSpy);
+		assertSame(recordStorage.onlyForTestGetFingerprinter(), fingerprinter);
+		assertSame(recordStorage.onlyForTestGetFingerprints(), fingerprints);
+	}
+
+	@Test
+	public void testCreateSetsFingerprint() throws Exception {
+		recordStorage.create(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, DATA_DIVIDER);
+
+		recordStorageSpy.MCR.assertParameters("create", 0, SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, DATA_DIVIDER);
+		assertEquals(fingerprints.get(SOME_TYPE, SOME_ID), Optional.of(fingerprintOf(dataRecord)));
+	}
+
+	private String fingerprintOf(DataGroup dataGroup) {
+		return fingerprinter.fingerprint(dataGroup, storageTerms, links, DATA_DIVIDER);
+	}
+
+	@Test
+	public void testFailedCreateDoesNotSetFingerprint() throws Exception {
+		recordStorageSpy.MRV.setAlwaysThrowException("create",
+				RecordNotFoundException.withMessage("some error"));
+
+		try {
+			recordStorage.create(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links,
+					DATA_DIVIDER);
+			fail();
+		} catch (RecordNotFoundException e) {
+			assertTrue(fingerprints.get(SOME_TYPE, SOME_ID).isEmpty());
+		}
+	}
+
+	@Test
+	public void testUpdateWithKnownSameFingerprintIsSkipped() throws Exception {
+		fingerprints.set(SOME_TYPE, SOME_ID, fingerprintOf(dataRecord));
+
+		boolean updated = recordStorage.updateIfChanged(SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, DATA_DIVIDER);
+
+		assertFalse(updated);
+		recordStorageSpy.MCR.assertMethodNotCalled("update");
+		recordStorageSpy.MCR.assertMethodNotCalled("read");
+	}
+
+	@Test
+	public void testUpdateWithKnownOtherFingerprintIsWritten() throws Exception {
+		fingerprints.set(SOME_TYPE, SOME_ID, fingerprintOf(dataRecord));
+
+		boolean updated = recordStorage.updateIfChanged(SOME_TYPE, SOME_ID, changedDataRecord,
+				storageTerms, links, DATA_DIVIDER);
+
+		assertTrue(updated);
+		recordStorageSpy.MCR.assertParameters("update", 0, SOME_TYPE, SOME_ID, changedDataRecord,
+				storageTerms, links, DATA_DIVIDER);
+		recordStorageSpy.MCR.assertMethodNotCalled("read");
+		assertEquals(fingerprints.get(SOME_TYPE, SOME_ID),
+				Optional.of(fingerprintOf(changedDataRecord)));
+	}
+
+	@Test
+	public void testUpdateWithUnknownFingerprintComparesWithStoredRecord() throws Exception {
+		boolean updated = recordStorage.updateIfChanged(SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, DATA_DIVIDER);
+
+		assertFalse(updated);
+		recordStorageSpy.MCR.assertMethodNotCalled("update");
+		recordStorageSpy.MCR.assertParameters("read", 0, SOME_TYPE, SOME_ID);
+		var storedRecord = recordStorageSpy.MCR.getReturnValue("read", 0);
+		dataFactorySpy.MCR.assertParameters("factorGroupFromDataRecordGroup", 0, storedRecord);
+		recordStorageSpy.MCR.assertParameters("getStorageTermsForRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertParameters("getLinksFromRecord", 0, SOME_TYPE, SOME_ID);
+		assertEquals(fingerprints.get(SOME_TYPE, SOME_ID), Optional.of(fingerprintOf(dataRecord)));
+	}
+
+	@Test
+	public void testStoredFingerprintIsRememberedForNextUpdate() throws Exception {
+		recordStorage.update(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, DATA_DIVIDER);
+		recordStorage.update(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, DATA_DIVIDER);
+
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("read", 1);
+		recordStorageSpy.MCR.assertMethodNotCalled("update");
+	}
+
+	@Test
+	public void testUpdateWithChangedStoredRecordIsWritten() throws Exception {
+		storedContent = "otherContent";
+
+		boolean updated = recordStorage.updateIfChanged(SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, DATA_DIVIDER);
+
+		assertTrue(updated);
+		recordStorageSpy.MCR.assertParameters("update", 0, SOME_TYPE, SOME_ID, dataRecord);
+		assertEquals(fingerprints.get(SOME_TYPE, SOME_ID), Optional.of(fingerprintOf(dataRecord)));
+	}
+
+	@Test
+	public void testUpdateOfMissingRecordIsPassedOn() throws Exception {
+		recordStorageSpy.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		recordStorage.update(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, DATA_DIVIDER);
+
+		recordStorageSpy.MCR.assertParameters("update", 0, SOME_TYPE, SOME_ID, dataRecord);
+	}
+
+	@Test
+	public void testFailedUpdateRemovesFingerprint() throws Exception {
+		fingerprints.set(SOME_TYPE, SOME_ID, fingerprintOf(dataRecord));
+		recordStorageSpy.MRV.setAlwaysThrowException("update",
+				RecordNotFoundException.withMessage("not found"));
+
+		try {
+			recordStorage.update(SOME_TYPE, SOME_ID, changedDataRecord, storageTerms, links,
+					DATA_DIVIDER);
+			fail();
+		} catch (RecordNotFoundException e) {
+			assertTrue(fingerprints.get(SOME_TYPE, SOME_ID).isEmpty());
+		}
+	}
+
+	@Test
+	public void testDeleteRemovesFingerprintAlsoOnError() throws Exception {
+		fingerprints.set(SOME_TYPE, SOME_ID, fingerprintOf(dataRecord));
+		recordStorageSpy.MRV.setAlwaysThrowException("deleteByTypeAndId",
+				RecordNotFoundException.withMessage("not found"));
+
+		try {
+			recordStorage.deleteByTypeAndId(SOME_TYPE, SOME_ID);
+			fail();
+		} catch (RecordNotFoundException e) {
+			recordStorageSpy.MCR.assertParameters("deleteByTypeAndId", 0, SOME_TYPE, SOME_ID);
+			assertTrue(fingerprints.get(SOME_TYPE, SOME_ID).isEmpty());
+		}
+	}
+
+	@Test
+	public void testWritesAreMadeWhileHoldingRecordLock() throws Exception {
+		List<Boolean> lockHeld = new ArrayList<>();
+		RecordStorageSpy lockCheckingStorage = new RecordStorageSpy() {
+			@Override
+			public void create(String type, String id, DataGroup dataRecord,
+					Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+				lockHeld.add(isRecordLockHeld(type, id));
+			}
+
+			@Override
+			public void update(String type, String id, DataGroup dataRecord,
+					Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+				lockHeld.add(isRecordLockHeld(type, id));
+			}
+
+			@Override
+			public void deleteByTypeAndId(String type, String id) {
+				lockHeld.add(isRecordLockHeld(type, id));
+			}
+
+			@Override
+			public List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+				lockHeld.add(isRecordLockHeld(SOME_TYPE, "otherId"));
+				return writes.stream().map(write -> new RecordWriteResult(write,
+						RecordWriteStatus.SUCCESS, null)).toList();
+			}
+		};
+		recordStorage = UnchangedUpdateSkippingRecordStorage.usingRecordStorageAndFingerprinting(
+				lockCheckingStorage, fingerprinter, fingerprints);
+
+		recordStorage.create(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, DATA_DIVIDER);
+		recordStorage.update(SOME_TYPE, SOME_ID, changedDataRecord, storageTerms, links,
+				DATA_DIVIDER);
+		recordStorage.deleteByTypeAndId(SOME_TYPE, SOME_ID);
+		recordStorage.writeMany(List.of(createWrite(RecordWriteAction.CREATE, "otherId",
+				dataRecord), createWrite(RecordWriteAction.CREATE, SOME_ID, dataRecord)));
+
+		assertEquals(lockHeld, List.of(true, true, true, true));
+		assertFalse(isRecordLockHeld(SOME_TYPE, SOME_ID));
+		assertFalse(isRecordLockHeld(SOME_TYPE, "otherId"));
+	}
+
+	private boolean isRecordLockHeld(String type, String id) {
+		return ((ReentrantLock) fingerprints.getLockForRecord(type, id)).isHeldByCurrentThread();
+	}
+
+	@Test
+	public void testConcurrentEqualUpdatesWriteOnce() throws Exception {
+		fingerprints.set(SOME_TYPE, SOME_ID, fingerprintOf(dataRecord));
+		RecordStorageSpy slowStorage = new RecordStorageSpy() {
+			@Override
+			public void update(String type, String id, DataGroup dataRecord,
+					Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+				super.update(type, id, dataRecord, storageTerms, links, dataDivider);
+				sleep(50);
+			}
+		};
+		recordStorage = UnchangedUpdateSkippingRecordStorage
+				.usingRecordStorageAndFingerprinting(slowStorage, fingerprinter, fingerprints);
+
+		Thread first = Thread.startVirtualThread(this::updateWithChangedDataRecord);
+		Thread second = Thread.startVirtualThread(this::updateWithChangedDataRecord);
+		first.join();
+		second.join();
+
+		slowStorage.MCR.assertNumberOfCallsToMethod("update", 1);
+	}
+
+	private void updateWithChangedDataRecord() {
+		recordStorage.update(SOME_TYPE, SOME_ID, changedDataRecord, storageTerms, links,
+				DATA_DIVIDER);
+	}
+
+	private void sleep(long milliseconds) {
+		try {
+			Thread.sleep(milliseconds);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	public void testWriteManySkipsUnchangedUpdates() throws Exception {
+		fingerprints.set(SOME_TYPE, "changedId", fingerprintOf(dataRecord));
+		RecordWrite create = createWrite(RecordWriteAction.CREATE, "newId", dataRecord);
+		RecordWrite unchanged = createWrite(RecordWriteAction.UPDATE, SOME_ID, dataRecord);
+		RecordWrite changed = createWrite(RecordWriteAction.UPDATE, "changedId",
+				changedDataRecord);
+
+		List<RecordWriteResult> results = recordStorage
+				.writeMany(List.of(create, unchanged, changed));
+
+		assertEquals(results, List.of(
+				new RecordWriteResult(create, RecordWriteStatus.SUCCESS, null),
+				new RecordWriteResult(unchanged, RecordWriteStatus.UNCHANGED, null),
+				new RecordWriteResult(changed, RecordWriteStatus.SUCCESS, null)));
+		recordStorageSpy.MCR.assertParameters("create", 0, SOME_TYPE, "newId", dataRecord);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("update", 1);
+		recordStorageSpy.MCR.assertParameters("update", 0, SOME_TYPE, "changedId",
+				changedDataRecord);
+		assertEquals(fingerprints.get(SOME_TYPE, "newId"), Optional.of(fingerprintOf(dataRecord)));
+		assertEquals(fingerprints.get(SOME_TYPE, "changedId"),
+				Optional.of(fingerprintOf(changedDataRecord)));
+	}
+
+	private RecordWrite createWrite(RecordWriteAction action, String id, DataGroup dataGroup) {
+		return new RecordWrite(action, SOME_TYPE, id, dataGroup, storageTerms, links,
+				DATA_DIVIDER);
+	}
+
+	@Test
+	public void testWriteManyWithOnlyUnchangedUpdatesWritesNothing() throws Exception {
+		RecordWrite unchanged = createWrite(RecordWriteAction.UPDATE, SOME_ID, dataRecord);
+
+		List<RecordWriteResult> results = recordStorage.writeMany(List.of(unchanged));
+
+		assertEquals(results,
+				List.of(new RecordWriteResult(unchanged, RecordWriteStatus.UNCHANGED, null)));
+		recordStorageSpy.MCR.assertMethodNotCalled("update");
+	}
+
+	@Test
+	public void testWriteManyDoesNotSetFingerprintForFailedWrites() throws Exception {
+		InMemoryRecordStorage inMemory = new InMemoryRecordStorage();
+		recordStorage = UnchangedUpdateSkippingRecordStorage
+				.usingRecordStorageAndFingerprinting(inMemory, fingerprinter, fingerprints);
+		inMemory.create(SOME_TYPE, SOME_ID, changedDataRecord, storageTerms, links,
+				DATA_DIVIDER);
+		RecordWrite conflict = createWrite(RecordWriteAction.CREATE, SOME_ID, dataRecord);
+		RecordWrite notFound = createWrite(RecordWriteAction.UPDATE, "missingId", dataRecord);
+
+		List<RecordWriteResult> results = recordStorage.writeMany(List.of(conflict, notFound));
+
+		assertEquals(results.get(0).status(), RecordWriteStatus.CONFLICT);
+		assertEquals(results.get(1).status(), RecordWriteStatus.NOT_FOUND);
+		assertTrue(fingerprints.get(SOME_TYPE, SOME_ID).isEmpty());
+		assertTrue(fingerprints.get(SOME_TYPE, "missingId").isEmpty());
+	}
+
+	@Test
+	public void testReadsArePassedOn() throws Exception {
+		DataRecordGroup read = recordStorage.read(SOME_TYPE, SOME_ID);
+		Optional<DataRecordGroup> readIfExists = recordStorage.readIfExists(SOME_TYPE, SOME_ID);
+		StorageReadManyResult readMany = recordStorage.readMany(SOME_TYPE, List.of(SOME_ID));
+
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("read", 3);
+		recordStorageSpy.MCR.assertReturn("read", 0, read);
+		recordStorageSpy.MCR.assertReturn("read", 1, readIfExists.get());
+		recordStorageSpy.MCR.assertReturn("read", 2, readMany.records().get(SOME_ID));
+	}
+
+	@Test
+	public void testReadListIsPassedOn() throws Exception {
+		Filter filter = new Filter();
+
+		StorageReadResult result = recordStorage.readList(SOME_TYPE, filter);
+		try (Stream<DataRecordGroup> stream = recordStorage.readListAsStream(SOME_TYPE, filter)) {
+			assertEquals(stream.count(), 0);
+		}
+
+		recordStorageSpy.MCR.assertParameters("readList", 0, SOME_TYPE, filter);
+		recordStorageSpy.MCR.assertReturn("readList", 0, result);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("readList", 2);
+	}
+
+	@SuppressWarnings("removal")
+	@Test
+	public void testDeprecatedMethodsArePassedOn() throws Exception {
+		Filter filter = new Filter();
+		List<String> types = List.of(SOME_TYPE);
+
+		DataGroup dataGroup = recordStorage.read(types, SOME_ID);
+		StorageReadResult result = recordStorage.readList(types, filter);
+
+		recordStorageSpy.MCR.assertParameters("read", 0, types, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("read", 0, dataGroup);
+		recordStorageSpy.MCR.assertParameters("readList", 0, types, filter);
+		recordStorageSpy.MCR.assertReturn("readList", 0, result);
+	}
+
+	@Test
+	public void testOtherMethodsArePassedOn() throws Exception {
+		Filter filter = new Filter();
+		List<String> types = List.of(SOME_TYPE);
+
+		boolean recordExists = recordStorage.recordExists(types, SOME_ID);
+		Set<String> existingIds = recordStorage.findExistingIds(types, List.of(SOME_ID));
+		boolean linksExist = recordStorage.linksExistForRecord(SOME_TYPE, SOME_ID);
+		Set<Link> linksTo = recordStorage.getLinksToRecord(SOME_TYPE, SOME_ID);
+		Set<Link> linksFrom = recordStorage.getLinksFromRecord(SOME_TYPE, SOME_ID);
+		Set<StorageTerm> terms = recordStorage.getStorageTermsForRecord(SOME_TYPE, SOME_ID);
+		long total = recordStorage.getTotalNumberOfRecordsForTypes(types, filter);
+
+		recordStorageSpy.MCR.assertParameters("recordExists", 0, types, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("recordExists", 0, recordExists);
+		assertEquals(existingIds, Set.of());
+		recordStorageSpy.MCR.assertParameters("linksExistForRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("linksExistForRecord", 0, linksExist);
+		recordStorageSpy.MCR.assertParameters("getLinksToRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("getLinksToRecord", 0, linksTo);
+		recordStorageSpy.MCR.assertReturn("getLinksFromRecord", 0, linksFrom);
+		recordStorageSpy.MCR.assertReturn("getStorageTermsForRecord", 0, terms);
+		recordStorageSpy.MCR.assertParameters("getTotalNumberOfRecordsForTypes", 0, types,
+				filter);
+		recordStorageSpy.MCR.assertReturn("getTotalNumberOfRecordsForTypes", 0, total);
+	}
+
+	@Test
+	public void testLinkQueriesArePassedOn() throws Exception {
+		recordStorageSpy.MRV.setDefaultReturnValuesSupplier("getLinksToRecord", () -> links);
+
+		StorageLinksReadResult page = recordStorage.getLinksToRecord(SOME_TYPE, SOME_ID, 10,
+				null);
+		long count = recordStorage.countLinksToRecord(SOME_TYPE, SOME_ID);
+		Map<String, Long> counts = recordStorage.countLinksToRecordGroupedByType(SOME_TYPE,
+				SOME_ID);
+
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("getLinksToRecord", 3);
+		assertEquals(page.links(), List.copyOf(links));
+		assertEquals(count, 1);
+		assertEquals(counts, Map.of("someLinkedType", 1L));
+	}
+}
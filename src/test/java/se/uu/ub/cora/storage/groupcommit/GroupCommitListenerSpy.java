@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.groupcommit;
+
+import java.util.List;
+
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+
+public class GroupCommitListenerSpy implements GroupCommitListener {
+	public MethodCallRecorder MCR = new MethodCallRecorder();
+
+	@Override
+	public void writesFailed(List<RecordWriteResult> failedResults) {
+		MCR.addCall("failedResults", failedResults);
+	}
+
+	@Override
+	public void commitFailed(List<RecordWrite> writes, RuntimeException exception) {
+		MCR.addCall("writes", writes, "exception", exception);
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.groupcommit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.StorageException;
+
+public class GroupCommitPolicyTest {
+
+	@Test
+	public void testDefaultPolicy() {
+		GroupCommitPolicy policy = GroupCommitPolicy.defaultPolicy();
+
+		assertEquals(policy.maxBatchSize(), 100);
+		assertEquals(policy.maxDelay(), Duration.ofMillis(20));
+	}
+
+	@Test
+	public void testMaxBatchSizeMustBeAtLeastOne() {
+		try {
+			new GroupCommitPolicy(0, Duration.ofMillis(1));
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "MaxBatchSize must be at least 1");
+		}
+	}
+
+	@Test
+	public void testMaxDelayMustBePositive() {
+		try {
+			new GroupCommitPolicy(1, Duration.ZERO);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "MaxDelay must be positive");
+		}
+	}
+}
@@ -0,0 +1,555 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.groupcommit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordConflictException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.RecordWriteStatus;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.memory.InMemoryRecordStorage;
+
+public class GroupCommitRecordStorageTest {
+	private static final String SOME_TYPE = "someType";
+	private static final String SOME_ID = "someId";
+	private static final String DATA_DIVIDER = "someDataDivider";
+	private static final Duration NEVER = Duration.ofHours(1);
+	private DataFactorySpy dataFactory;
+	private WriteManyRecordStorageSpy recordStorageSpy;
+	private GroupCommitListenerSpy listener;
+	private GroupCommitPolicy policy;
+	private GroupCommitRecordStorage recordStorage;
+	private DataGroupSpy dataRecord;
+	private Set<StorageTerm> storageTerms;
+	private Set<Link> links;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactory);
+		recordStorageSpy = new WriteManyRecordStorageSpy();
+		listener = new GroupCommitListenerSpy();
+		policy = new GroupCommitPolicy(3, NEVER);
+		recordStorage = GroupCommitRecordStorage
+				.usingRecordStoragePolicyAndListener(recordStorageSpy, policy, listener);
+		dataRecord = new DataGroupSpy();
+		storageTerms = Set.of(new StorageTerm("someTermId", "someKey", "someValue"));
+		links = Set.of(new Link("someLinkedType", "someLinkedId"));
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		recordStorage.close();
+	}
+
+	private static class WriteManyRecordStorageSpy extends RecordStorageSpy {
+		List<List<RecordWrite>> groups = new ArrayList<>();
+		List<RuntimeException> exceptionsToThrow = new ArrayList<>();
+		RecordWriteStatus statusToReturn = RecordWriteStatus.SUCCESS;
+
+		@Override
+		public synchronized List<RecordWriteResult> writeMany(List<RecordWrite> writes) {
+			groups.add(writes);
+			if (!exceptionsToThrow.isEmpty()) {
+				throw exceptionsToThrow.remove(0);
+			}
+			return writes.stream()
+					.map(write -> new RecordWriteResult(write, statusToReturn, "someMessage"))
+					.toList();
+		}
+
+		synchronized List<List<RecordWrite>> getGroups() {
+			return List.copyOf(groups);
+		}
+	}
+
+	@Test
+	public void testUsingRecordStoragePolicyAndListener() {
+		assertSame(recordStorage.onlyForTestGetRecordStorage(), recordStorageSpy);
+		assertSame(recordStorage.onlyForTestGetPolicy(), policy);
+		assertSame(recordStorage.onlyForTestGetListener(), listener);
+		assertFalse(recordStorage.onlyForTestIsCommitScheduled());
+		assertFalse(GroupCommitRecordStorage.onlyForTestIsFlushedOnShutdown(recordStorage));
+	}
+
+	@Test
+	public void testCreateIsBuffered() {
+		createRecord(SOME_ID);
+
+		assertEquals(recordStorageSpy.getGroups(), List.of());
+		recordStorageSpy.MCR.assertMethodNotCalled("create");
+	}
+
+	private void createRecord(String id) {
+		recordStorage.create(SOME_TYPE, id, dataRecord, storageTerms, links, DATA_DIVIDER);
+	}
+
+	private RecordWrite createWrite(RecordWriteAction action, String id) {
+		return new RecordWrite(action, SOME_TYPE, id, dataRecord, storageTerms, links,
+				DATA_DIVIDER);
+	}
+
+	@Test
+	public void testFlushCommitsBufferedWritesAsOneGroup() {
+		createRecord("id1");
+		recordStorage.update(SOME_TYPE, "id2", dataRecord, storageTerms, links, DATA_DIVIDER);
+
+		recordStorage.flush();
+
+		assertEquals(recordStorageSpy.getGroups(), List.of(List.of(
+				createWrite(RecordWriteAction.CREATE, "id1"),
+				createWrite(RecordWriteAction.UPDATE, "id2"))));
+		listener.MCR.assertMethodNotCalled("writesFailed");
+	}
+
+	@Test
+	public void testFlushWithoutBufferedWritesDoesNothing() {
+		recordStorage.flush();
+
+		assertEquals(recordStorageSpy.getGroups(), List.of());
+	}
+
+	@Test
+	public void testFlushedWritesAreNotCommittedAgain() {
+		createRecord("id1");
+		recordStorage.flush();
+
+		recordStorage.flush();
+
+		assertEquals(recordStorageSpy.getGroups().size(), 1);
+	}
+
+	@Test
+	public void testGroupIsCommittedWhenMaxBatchSizeIsReached() {
+		createRecord("id1");
+		createRecord("id2");
+		assertEquals(recordStorageSpy.getGroups(), List.of());
+
+		createRecord("id3");
+
+		assertEquals(recordStorageSpy.getGroups(), List.of(List.of(
+				createWrite(RecordWriteAction.CREATE, "id1"),
+				createWrite(RecordWriteAction.CREATE, "id2"),
+				createWrite(RecordWriteAction.CREATE, "id3"))));
+	}
+
+	@Test
+	public void testGroupIsCommittedAfterMaxDelay() throws Exception {
+		recordStorage.close();
+		recordStorage = GroupCommitRecordStorage.usingRecordStoragePolicyAndListener(
+				recordStorageSpy, new GroupCommitPolicy(100, Duration.ofMillis(5)), listener);
+
+		createRecord(SOME_ID);
+
+		waitForGroups(1);
+		assertEquals(recordStorageSpy.getGroups(),
+				List.of(List.of(createWrite(RecordWriteAction.CREATE, SOME_ID))));
+	}
+
+	private void waitForGroups(int numberOfGroups) throws InterruptedException {
+		long giveUpAt = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (recordStorageSpy.getGroups().size() < numberOfGroups
+				&& System.nanoTime() < giveUpAt) {
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	public void testUpdateOfBufferedCreateIsCommittedAsCreate() {
+		createRecord(SOME_ID);
+		DataGroupSpy updatedRecord = new DataGroupSpy();
+
+		recordStorage.update(SOME_TYPE, SOME_ID, updatedRecord, Set.of(), Set.of(), "other");
+		recordStorage.flush();
+
+		assertEquals(recordStorageSpy.getGroups(), List.of(List.of(new RecordWrite(
+				RecordWriteAction.CREATE, SOME_TYPE, SOME_ID, updatedRecord, Set.of(), Set.of(),
+				"other"))));
+	}
+
+	@Test
+	public void testUpdateOfBufferedUpdateReplacesIt() {
+		recordStorage.update(SOME_TYPE, SOME_ID, new DataGroupSpy(), Set.of(), Set.of(),
+				DATA_DIVIDER);
+
+		recordStorage.update(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, DATA_DIVIDER);
+		recordStorage.flush();
+
+		assertEquals(recordStorageSpy.getGroups(),
+				List.of(List.of(createWrite(RecordWriteAction.UPDATE, SOME_ID))));
+	}
+
+	@Test
+	public void testCreateOfBufferedRecordThrowsConflict() {
+		createRecord(SOME_ID);
+
+		try {
+			createRecord(SOME_ID);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), RecordConflictException.class);
+			assertEquals(e.getMessage(), "Record with recordType: someType and recordId: someId"
+					+ " already exists");
+		}
+	}
+
+	@Test
+	public void testFailedWritesAreReportedToListener() {
+		recordStorageSpy.statusToReturn = RecordWriteStatus.CONFLICT;
+		createRecord(SOME_ID);
+
+		recordStorage.flush();
+
+		listener.MCR.assertParameters("writesFailed", 0,
+				List.of(new RecordWriteResult(createWrite(RecordWriteAction.CREATE, SOME_ID),
+						RecordWriteStatus.CONFLICT, "someMessage")));
+	}
+
+	@Test
+	public void testUnchangedWritesAreNotReportedToListener() {
+		recordStorageSpy.statusToReturn = RecordWriteStatus.UNCHANGED;
+		createRecord(SOME_ID);
+
+		recordStorage.flush();
+
+		listener.MCR.assertMethodNotCalled("writesFailed");
+	}
+
+	@Test
+	public void testFailedCommitIsRetriedOnce() {
+		recordStorageSpy.exceptionsToThrow.add(StorageException.withMessage("someError"));
+		createRecord(SOME_ID);
+
+		recordStorage.flush();
+
+		List<RecordWrite> group = List.of(createWrite(RecordWriteAction.CREATE, SOME_ID));
+		assertEquals(recordStorageSpy.getGroups(), List.of(group, group));
+		listener.MCR.assertMethodNotCalled("commitFailed");
+	}
+
+	@Test
+	public void testFailedRetryIsReportedToListenerAndNotRetriedAgain() {
+		StorageException firstException = StorageException.withMessage("someError");
+		StorageException exception = StorageException.withMessage("someOtherError");
+		recordStorageSpy.exceptionsToThrow.addAll(List.of(firstException, exception));
+		createRecord(SOME_ID);
+
+		recordStorage.flush();
+		recordStorage.flush();
+
+		listener.MCR.assertParameters("commitFailed", 0,
+				List.of(createWrite(RecordWriteAction.CREATE, SOME_ID)), exception);
+		assertEquals(List.of(exception.getSuppressed()), List.of(firstException));
+		assertEquals(recordStorageSpy.getGroups().size(), 2);
+	}
+
+	@Test
+	public void testReadOfBufferedRecordIsAnsweredFromBuffer() {
+		createRecord(SOME_ID);
+
+		DataRecordGroup read = recordStorage.read(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertMethodNotCalled("read");
+		dataFactory.MCR.assertParameters("factorRecordGroupFromDataGroup", 0, dataRecord);
+		dataFactory.MCR.assertReturn("factorRecordGroupFromDataGroup", 0, read);
+	}
+
+	@Test
+	public void testReadOfNotBufferedRecordIsPassedOn() {
+		DataRecordGroup read = recordStorage.read(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertParameters("read", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("read", 0, read);
+	}
+
+	@Test
+	public void testReadIfExistsOfBufferedRecordIsAnsweredFromBuffer() {
+		createRecord(SOME_ID);
+
+		Optional<DataRecordGroup> read = recordStorage.readIfExists(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertMethodNotCalled("read");
+		dataFactory.MCR.assertReturn("factorRecordGroupFromDataGroup", 0, read.get());
+	}
+
+	@Test
+	public void testReadIfExistsOfNotBufferedRecordIsPassedOn() {
+		Optional<DataRecordGroup> read = recordStorage.readIfExists(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertReturn("read", 0, read.get());
+	}
+
+	@Test
+	public void testGetLinksAndStorageTermsOfBufferedRecordAreAnsweredFromBuffer() {
+		createRecord(SOME_ID);
+
+		assertSame(recordStorage.getLinksFromRecord(SOME_TYPE, SOME_ID), links);
+		assertSame(recordStorage.getStorageTermsForRecord(SOME_TYPE, SOME_ID), storageTerms);
+		recordStorageSpy.MCR.assertMethodNotCalled("getLinksFromRecord");
+		recordStorageSpy.MCR.assertMethodNotCalled("getStorageTermsForRecord");
+	}
+
+	@Test
+	public void testGetLinksAndStorageTermsOfNotBufferedRecordArePassedOn() {
+		Set<Link> linksFrom = recordStorage.getLinksFromRecord(SOME_TYPE, SOME_ID);
+		Set<StorageTerm> terms = recordStorage.getStorageTermsForRecord(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertReturn("getLinksFromRecord", 0, linksFrom);
+		recordStorageSpy.MCR.assertReturn("getStorageTermsForRecord", 0, terms);
+	}
+
+	@Test
+	public void testRecordExistsForBufferedRecord() {
+		createRecord(SOME_ID);
+
+		assertTrue(recordStorage.recordExists(List.of("otherType", SOME_TYPE), SOME_ID));
+		recordStorageSpy.MCR.assertMethodNotCalled("recordExists");
+	}
+
+	@Test
+	public void testRecordExistsForNotBufferedRecordIsPassedOn() {
+		assertFalse(recordStorage.recordExists(List.of(SOME_TYPE), SOME_ID));
+
+		recordStorageSpy.MCR.assertParameters("recordExists", 0, List.of(SOME_TYPE), SOME_ID);
+	}
+
+	@Test
+	public void testQueriesCommitBufferedWritesFirst() {
+		createRecord(SOME_ID);
+		recordStorage.readList(SOME_TYPE, new Filter());
+		createRecord("id2");
+		recordStorage.getTotalNumberOfRecordsForTypes(List.of(SOME_TYPE), new Filter());
+		createRecord("id3");
+		recordStorage.getLinksToRecord(SOME_TYPE, SOME_ID);
+		createRecord("id4");
+		recordStorage.linksExistForRecord(SOME_TYPE, SOME_ID);
+		createRecord("id5");
+		recordStorage.deleteByTypeAndId(SOME_TYPE, SOME_ID);
+
+		assertEquals(recordStorageSpy.getGroups().size(), 5);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("readList", 1);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("getTotalNumberOfRecordsForTypes", 1);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("getLinksToRecord", 1);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("linksExistForRecord", 1);
+		recordStorageSpy.MCR.assertParameters("deleteByTypeAndId", 0, SOME_TYPE, SOME_ID);
+	}
+
+	@Test
+	public void testQueriesWithoutBufferedWritesDoNotCommit() {
+		recordStorage.readList(SOME_TYPE, new Filter());
+		recordStorage.countLinksToRecord(SOME_TYPE, SOME_ID);
+
+		assertEquals(recordStorageSpy.getGroups(), List.of());
+	}
+
+	@Test
+	public void testWriteManyCommitsBufferedWritesFirst() {
+		createRecord("id1");
+		RecordWrite write = createWrite(RecordWriteAction.UPDATE, "id2");
+
+		List<RecordWriteResult> results = recordStorage.writeMany(List.of(write));
+
+		assertEquals(recordStorageSpy.getGroups(),
+				List.of(List.of(createWrite(RecordWriteAction.CREATE, "id1")), List.of(write)));
+		assertEquals(results,
+				List.of(new RecordWriteResult(write, RecordWriteStatus.SUCCESS, "someMessage")));
+	}
+
+	@Test
+	public void testCloseCommitsBufferedWritesAndCancelsScheduledCommit() {
+		createRecord(SOME_ID);
+
+		recordStorage.close();
+
+		assertEquals(recordStorageSpy.getGroups(),
+				List.of(List.of(createWrite(RecordWriteAction.CREATE, SOME_ID))));
+		assertFalse(recordStorage.onlyForTestIsCommitScheduled());
+	}
+
+	@Test
+	public void testCommitIsScheduledOnlyWhileWritesAreBuffered() {
+		int numberOfScheduledCommits = GroupCommitRecordStorage
+				.onlyForTestGetNumberOfScheduledCommits();
+
+		createRecord("id1");
+		createRecord("id2");
+
+		assertTrue(recordStorage.onlyForTestIsCommitScheduled());
+		assertEquals(GroupCommitRecordStorage.onlyForTestGetNumberOfScheduledCommits(),
+				numberOfScheduledCommits + 1);
+		recordStorage.flush();
+		assertFalse(recordStorage.onlyForTestIsCommitScheduled());
+		assertEquals(GroupCommitRecordStorage.onlyForTestGetNumberOfScheduledCommits(),
+				numberOfScheduledCommits);
+	}
+
+	@Test
+	public void testInstancesShareOneScheduler() {
+		int numberOfScheduledCommits = GroupCommitRecordStorage
+				.onlyForTestGetNumberOfScheduledCommits();
+		List<GroupCommitRecordStorage> instances = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			GroupCommitRecordStorage instance = GroupCommitRecordStorage
+					.usingRecordStoragePolicyAndListener(recordStorageSpy, policy, listener);
+			instance.create(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, DATA_DIVIDER);
+			instances.add(instance);
+		}
+
+		assertEquals(GroupCommitRecordStorage.onlyForTestGetNumberOfScheduledCommits(),
+				numberOfScheduledCommits + 3);
+		instances.forEach(GroupCommitRecordStorage::close);
+		assertEquals(GroupCommitRecordStorage.onlyForTestGetNumberOfScheduledCommits(),
+				numberOfScheduledCommits);
+	}
+
+	@Test
+	public void testInstanceWithBufferedWritesIsFlushedOnShutdown() {
+		createRecord(SOME_ID);
+
+		assertTrue(GroupCommitRecordStorage.onlyForTestIsFlushedOnShutdown(recordStorage));
+		GroupCommitRecordStorage.onlyForTestFlushAllOnShutdown();
+
+		assertEquals(recordStorageSpy.getGroups(),
+				List.of(List.of(createWrite(RecordWriteAction.CREATE, SOME_ID))));
+		assertFalse(GroupCommitRecordStorage.onlyForTestIsFlushedOnShutdown(recordStorage));
+	}
+
+	@Test
+	public void testInstanceIsNotFlushedOnShutdownAfterBackgroundCommit() throws Exception {
+		recordStorage.close();
+		recordStorage = GroupCommitRecordStorage.usingRecordStoragePolicyAndListener(
+				recordStorageSpy, new GroupCommitPolicy(100, Duration.ofMillis(5)), listener);
+		createRecord(SOME_ID);
+
+		waitForGroups(1);
+		waitUntilNotFlushedOnShutdown();
+
+		assertFalse(GroupCommitRecordStorage.onlyForTestIsFlushedOnShutdown(recordStorage));
+		assertFalse(recordStorage.onlyForTestIsCommitScheduled());
+	}
+
+	private void waitUntilNotFlushedOnShutdown() throws InterruptedException {
+		long giveUpAt = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (GroupCommitRecordStorage.onlyForTestIsFlushedOnShutdown(recordStorage)
+				&& System.nanoTime() < giveUpAt) {
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	public void testWriteAfterCloseThrowsException() {
+		recordStorage.close();
+
+		try {
+			createRecord(SOME_ID);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "GroupCommitRecordStorage is closed");
+		}
+	}
+
+	@Test
+	public void testReadManyCombinesBufferedAndStoredRecords() {
+		InMemoryRecordStorage inMemory = new InMemoryRecordStorage();
+		inMemory.create(SOME_TYPE, "storedId", new DataGroupSpy(), Set.of(), Set.of(),
+				DATA_DIVIDER);
+		useRecordStorage(inMemory);
+		createRecord("bufferedId");
+
+		StorageReadManyResult result = recordStorage.readMany(SOME_TYPE,
+				List.of("bufferedId", "missingId", "storedId"));
+
+		assertEquals(List.copyOf(result.records().keySet()), List.of("bufferedId", "storedId"));
+		assertEquals(result.missingIds(), Set.of("missingId"));
+		dataFactory.MCR.assertCalledParameters("factorRecordGroupFromDataGroup", dataRecord);
+	}
+
+	private void useRecordStorage(RecordStorage decorated) {
+		recordStorage.close();
+		recordStorage = GroupCommitRecordStorage.usingRecordStoragePolicyAndListener(decorated,
+				new GroupCommitPolicy(100, NEVER), listener);
+	}
+
+	@Test
+	public void testReadManyWithoutBufferedRecordsIsPassedOn() {
+		StorageReadManyResult result = recordStorage.readMany(SOME_TYPE, List.of(SOME_ID));
+
+		recordStorageSpy.MCR.assertParameters("read", 0, SOME_TYPE, SOME_ID);
+		assertEquals(result.records().keySet(), Set.of(SOME_ID));
+	}
+
+	@Test
+	public void testWritesCanBeReadBackFromInMemoryStorage() {
+		InMemoryRecordStorage inMemory = new InMemoryRecordStorage();
+		useRecordStorage(inMemory);
+		createRecord("id1");
+		createRecord("id2");
+
+		long total = recordStorage.getTotalNumberOfRecordsForTypes(List.of(SOME_TYPE),
+				new Filter());
+
+		assertEquals(total, 2);
+		assertTrue(inMemory.recordExists(List.of(SOME_TYPE), "id1"));
+	}
+
+	@Test
+	public void testConflictInStorageIsReportedToListener() {
+		InMemoryRecordStorage inMemory = new InMemoryRecordStorage();
+		inMemory.create(SOME_TYPE, SOME_ID, new DataGroupSpy(), Set.of(), Set.of(),
+				DATA_DIVIDER);
+		useRecordStorage(inMemory);
+		createRecord(SOME_ID);
+
+		recordStorage.flush();
+
+		@SuppressWarnings("unchecked")
+		List<RecordWriteResult> failed = (List<RecordWriteResult>) listener.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName("writesFailed", 0,
+						"failedResults");
+		assertEquals(failed.get(0).status(), RecordWriteStatus.CONFLICT);
+	}
+}
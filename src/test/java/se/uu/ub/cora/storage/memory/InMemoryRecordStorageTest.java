@@ -0,0 +1,769 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.CountMode;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.Part;
+import se.uu.ub.cora.storage.ProjectedRecord;
+import se.uu.ub.cora.storage.RecordConflictException;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RelationalOperator;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+public class InMemoryRecordStorageTest {
+	private static final String FACTOR_METHOD = "factorRecordGroupFromDataGroup";
+	private static final String SOME_TYPE = "someType";
+	private static final String DATA_DIVIDER = "someDataDivider";
+	private DataFactorySpy dataFactory;
+	private InMemoryRecordStorage storage;
+	private Map<String, DataGroup> dataGroups;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		resetDataFactory();
+		storage = new InMemoryRecordStorage();
+		dataGroups = new HashMap<>();
+	}
+
+	private void resetDataFactory() {
+		dataFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactory);
+	}
+
+	private void createRecord(String id, StorageTerm... storageTerms) {
+		createRecordWithLinks(SOME_TYPE, id, Set.of(), storageTerms);
+	}
+
+	private void createRecordWithLinks(String type, String id, Set<Link> links,
+			StorageTerm... storageTerms) {
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		storage.create(type, id, dataGroup, Set.of(storageTerms), links, DATA_DIVIDER);
+		dataGroups.put(id, getStoredCopyAndResetDataFactory(dataGroup));
+	}
+
+	private DataGroup getStoredCopyAndResetDataFactory(DataGroup writtenDataGroup) {
+		dataFactory.MCR.assertParameters(FACTOR_METHOD, 0, writtenDataGroup);
+		var recordGroup = dataFactory.MCR.getReturnValue(FACTOR_METHOD, 0);
+		dataFactory.MCR.assertParameters("factorGroupFromDataRecordGroup", 0, recordGroup);
+		DataGroup storedCopy = (DataGroup) dataFactory.MCR
+				.getReturnValue("factorGroupFromDataRecordGroup", 0);
+		resetDataFactory();
+		return storedCopy;
+	}
+
+	private void assertIsCopyOfStored(DataGroup dataGroup, String id, int copyNumber) {
+		dataFactory.MCR.assertParameters(FACTOR_METHOD, copyNumber, dataGroups.get(id));
+		var recordGroup = dataFactory.MCR.getReturnValue(FACTOR_METHOD, copyNumber);
+		dataFactory.MCR.assertParameters("factorGroupFromDataRecordGroup", copyNumber,
+				recordGroup);
+		dataFactory.MCR.assertReturn("factorGroupFromDataRecordGroup", copyNumber, dataGroup);
+	}
+
+	private StorageTerm title(String value) {
+		return new StorageTerm("titleTerm", "title", value);
+	}
+
+	private Filter filterWithInclude(Condition... conditions) {
+		Filter filter = new Filter();
+		Part part = new Part();
+		part.conditions.addAll(List.of(conditions));
+		filter.include.add(part);
+		return filter;
+	}
+
+	private Condition titleCondition(RelationalOperator operator, String value) {
+		return new Condition("title", operator, value);
+	}
+
+	private List<DataGroup> getDataGroupsUsedForRecords(List<DataRecordGroup> records) {
+		List<DataGroup> usedDataGroups = new ArrayList<>();
+		for (int i = 0; i < records.size(); i++) {
+			dataFactory.MCR.assertReturn(FACTOR_METHOD, i, records.get(i));
+			usedDataGroups.add((DataGroup) dataFactory.MCR
+					.getValueForMethodNameAndCallNumberAndParameterName(FACTOR_METHOD, i,
+							"dataGroup"));
+		}
+		return usedDataGroups;
+	}
+
+	private List<DataGroup> dataGroupsForIds(String... ids) {
+		List<DataGroup> expected = new ArrayList<>();
+		for (String id : ids) {
+			expected.add(dataGroups.get(id));
+		}
+		return expected;
+	}
+
+	@Test
+	public void testImplementsRecordStorage() throws Exception {
+		assertTrue(storage instanceof RecordStorage);
+	}
+
+	@Test
+	public void testCreateAndRead() throws Exception {
+		createRecord("id1", title("a"));
+
+		DataRecordGroup dataRecordGroup = storage.read(SOME_TYPE, "id1");
+
+		dataFactory.MCR.assertParameters(FACTOR_METHOD, 0, dataGroups.get("id1"));
+		dataFactory.MCR.assertReturn(FACTOR_METHOD, 0, dataRecordGroup);
+	}
+
+	@Test(expectedExceptions = RecordNotFoundException.class, expectedExceptionsMessageRegExp = ""
+			+ "No record exists with recordType: someType and recordId: id1")
+	public void testReadMissing() throws Exception {
+		storage.read(SOME_TYPE, "id1");
+	}
+
+	@Test
+	public void testReadMissingHasNoStackTrace() throws Exception {
+		try {
+			storage.read(SOME_TYPE, "id1");
+			fail();
+		} catch (RecordNotFoundException e) {
+			assertEquals(e.getStackTrace().length, 0);
+		}
+	}
+
+	@Test
+	public void testReadIfExists() throws Exception {
+		createRecord("id1");
+
+		Optional<DataRecordGroup> found = storage.readIfExists(SOME_TYPE, "id1");
+		Optional<DataRecordGroup> missing = storage.readIfExists(SOME_TYPE, "id2");
+
+		dataFactory.MCR.assertParameters(FACTOR_METHOD, 0, dataGroups.get("id1"));
+		dataFactory.MCR.assertReturn(FACTOR_METHOD, 0, found.get());
+		assertTrue(missing.isEmpty());
+	}
+
+	@Test
+	public void testFindExistingIds() throws Exception {
+		createRecord("id1");
+		createRecordWithLinks("otherType", "id2", Set.of());
+		createRecord("id3");
+
+		Set<String> existingIds = storage.findExistingIds(List.of(SOME_TYPE, "otherType"),
+				List.of("id3", "id4", "id2", "id1"));
+
+		assertEquals(List.copyOf(existingIds), List.of("id3", "id2", "id1"));
+	}
+
+	@Test(expectedExceptions = RecordConflictException.class, expectedExceptionsMessageRegExp = ""
+			+ "Record with recordType: someType and recordId: id1 already exists")
+	public void testCreateExisting() throws Exception {
+		createRecord("id1");
+		createRecord("id1");
+	}
+
+	@Test
+	public void testSameIdInOtherType() throws Exception {
+		createRecord("id1");
+		createRecordWithLinks("otherType", "id1", Set.of());
+
+		assertTrue(storage.recordExists(List.of("otherType"), "id1"));
+		assertTrue(storage.recordExists(List.of(SOME_TYPE), "id1"));
+	}
+
+	@Test
+	public void testUpdate() throws Exception {
+		createRecord("id1", title("a"));
+		DataGroupSpy updatedDataGroup = new DataGroupSpy();
+
+		storage.update(SOME_TYPE, "id1", updatedDataGroup, Set.of(title("b")), Set.of(),
+				DATA_DIVIDER);
+		DataGroup storedCopy = getStoredCopyAndResetDataFactory(updatedDataGroup);
+
+		storage.read(SOME_TYPE, "id1");
+		dataFactory.MCR.assertParameters(FACTOR_METHOD, 0, storedCopy);
+		assertEquals(storage.getStorageTermsForRecord(SOME_TYPE, "id1"), Set.of(title("b")));
+		assertEquals(readListTotal(filterWithInclude(
+				titleCondition(RelationalOperator.EQUAL_TO, "a"))), 0);
+		assertEquals(readListTotal(filterWithInclude(
+				titleCondition(RelationalOperator.EQUAL_TO, "b"))), 1);
+	}
+
+	@Test
+	public void testChangesToWrittenDataGroupDoNotChangeStoredRecord() throws Exception {
+		DataGroupSpy dataGroup = new DataGroupSpy();
+
+		storage.create(SOME_TYPE, "id1", dataGroup, Set.of(), Set.of(), DATA_DIVIDER);
+		DataGroup storedCopy = getStoredCopyAndResetDataFactory(dataGroup);
+		storage.read(SOME_TYPE, "id1");
+
+		assertNotSame(storedCopy, dataGroup);
+		dataFactory.MCR.assertParameters(FACTOR_METHOD, 0, storedCopy);
+	}
+
+	private long readListTotal(Filter filter) {
+		return storage.readList(SOME_TYPE, filter).totalNumberOfMatches;
+	}
+
+	@Test(expectedExceptions = RecordNotFoundException.class, expectedExceptionsMessageRegExp = ""
+			+ "No record exists with recordType: someType and recordId: id1")
+	public void testUpdateMissing() throws Exception {
+		storage.update(SOME_TYPE, "id1", new DataGroupSpy(), Set.of(), Set.of(), DATA_DIVIDER);
+	}
+
+	@Test
+	public void testDelete() throws Exception {
+		createRecord("id1", title("a"));
+
+		storage.deleteByTypeAndId(SOME_TYPE, "id1");
+
+		assertFalse(storage.recordExists(List.of(SOME_TYPE), "id1"));
+		assertEquals(readListTotal(new Filter()), 0);
+	}
+
+	@Test(expectedExceptions = RecordNotFoundException.class, expectedExceptionsMessageRegExp = ""
+			+ "No record exists with recordType: someType and recordId: id1")
+	public void testDeleteMissing() throws Exception {
+		storage.deleteByTypeAndId(SOME_TYPE, "id1");
+	}
+
+	@Test
+	public void testReadMany() throws Exception {
+		createRecord("id1");
+		createRecord("id2");
+
+		StorageReadManyResult result = storage.readMany(SOME_TYPE,
+				List.of("id2", "missing", "id1", "id2"));
+
+		assertEquals(List.copyOf(result.records().keySet()), List.of("id2", "id1"));
+		assertEquals(result.missingIds(), Set.of("missing"));
+		dataFactory.MCR.assertNumberOfCallsToMethod(FACTOR_METHOD, 2);
+		dataFactory.MCR.assertParameters(FACTOR_METHOD, 0, dataGroups.get("id2"));
+		dataFactory.MCR.assertReturn(FACTOR_METHOD, 0, result.records().get("id2"));
+	}
+
+	@Test
+	public void testReadListUnknownType() throws Exception {
+		StorageReadResult result = storage.readList("unknownType", new Filter());
+
+		assertEquals(result.listOfDataRecordGroups, List.of());
+		assertEquals(result.totalNumberOfMatches, 0);
+		assertNull(result.continuationToken);
+	}
+
+	@Test
+	public void testReadListAllSortedById() throws Exception {
+		createRecord("id3");
+		createRecord("id1");
+		createRecord("id2");
+
+		StorageReadResult result = storage.readList(SOME_TYPE, new Filter());
+
+		assertEquals(getDataGroupsUsedForRecords(result.listOfDataRecordGroups),
+				dataGroupsForIds("id1", "id2", "id3"));
+		assertEquals(result.start, 0);
+		assertEquals(result.totalNumberOfMatches, 3);
+		assertEquals(result.countMode, CountMode.EXACT);
+		assertNull(result.continuationToken);
+	}
+
+	@Test
+	public void testReadListInclude() throws Exception {
+		createRecord("id1", title("a"));
+		createRecord("id2", title("b"));
+		createRecord("id3", title("a"));
+
+		StorageReadResult result = storage.readList(SOME_TYPE,
+				filterWithInclude(titleCondition(RelationalOperator.EQUAL_TO, "a")));
+
+		assertEquals(getDataGroupsUsedForRecords(result.listOfDataRecordGroups),
+				dataGroupsForIds("id1", "id3"));
+		assertEquals(result.totalNumberOfMatches, 2);
+	}
+
+	@Test
+	public void testReadListIncludeRangeAndExclude() throws Exception {
+		createRecord("id1", title("a"));
+		createRecord("id2", title("b"));
+		createRecord("id3", title("c"));
+		Filter filter = filterWithInclude(
+				titleCondition(RelationalOperator.GREATER_THAN_OR_EQUAL_TO, "b"));
+		Part excludePart = new Part();
+		excludePart.conditions.add(titleCondition(RelationalOperator.EQUAL_TO, "c"));
+		filter.exclude.add(excludePart);
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(getDataGroupsUsedForRecords(result.listOfDataRecordGroups),
+				dataGroupsForIds("id2"));
+	}
+
+	@Test
+	public void testReadListIncludeWithTwoConditionsInPart() throws Exception {
+		createRecord("id1", title("a"), new StorageTerm("tagTerm", "tag", "x"));
+		createRecord("id2", title("a"), new StorageTerm("tagTerm", "tag", "y"));
+
+		StorageReadResult result = storage.readList(SOME_TYPE,
+				filterWithInclude(titleCondition(RelationalOperator.EQUAL_TO, "a"),
+						new Condition("tag", RelationalOperator.EQUAL_TO, "y")));
+
+		assertEquals(getDataGroupsUsedForRecords(result.listOfDataRecordGroups),
+				dataGroupsForIds("id2"));
+	}
+
+	@Test
+	public void testReadListRange() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.fromNo = 2;
+		filter.toNo = 3;
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(getDataGroupsUsedForRecords(result.listOfDataRecordGroups),
+				dataGroupsForIds("id2", "id3"));
+		assertEquals(result.start, 1);
+		assertEquals(result.totalNumberOfMatches, 5);
+		assertEquals(result.continuationToken, "3/id3");
+	}
+
+	private void createFiveRecords() {
+		for (int i = 1; i <= 5; i++) {
+			createRecord("id" + i, title("a"));
+		}
+	}
+
+	@Test
+	public void testReadListRangeOutsideMatches() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.fromNo = 10;
+		filter.toNo = 20;
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(result.listOfDataRecordGroups, List.of());
+		assertEquals(result.totalNumberOfMatches, 5);
+		assertNull(result.continuationToken);
+	}
+
+	@Test
+	public void testReadListUsingContinuationToken() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.toNo = 2;
+		filter.continuationToken = "2/id2";
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(getDataGroupsUsedForRecords(result.listOfDataRecordGroups),
+				dataGroupsForIds("id3", "id4"));
+		assertEquals(result.start, 2);
+		assertEquals(result.continuationToken, "4/id4");
+	}
+
+	@Test
+	public void testReadListUsingContinuationTokenOfDeletedRecord() throws Exception {
+		createFiveRecords();
+		storage.deleteByTypeAndId(SOME_TYPE, "id2");
+		Filter filter = new Filter();
+		filter.toNo = 10;
+		filter.continuationToken = "2/id2";
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(getDataGroupsUsedForRecords(result.listOfDataRecordGroups),
+				dataGroupsForIds("id3", "id4", "id5"));
+		assertNull(result.continuationToken);
+	}
+
+	@Test
+	public void testReadListPagesUsingContinuationTokensWithFilter() throws Exception {
+		createRecord("id1", title("a"));
+		createRecord("id2", title("b"));
+		createRecord("id3", title("a"));
+		createRecord("id4", title("a"));
+		Filter filter = filterWithInclude(titleCondition(RelationalOperator.EQUAL_TO, "a"));
+		filter.toNo = 2;
+		filter.projection.add("title");
+
+		StorageReadResult firstPage = storage.readList(SOME_TYPE, filter);
+		filter.continuationToken = firstPage.continuationToken;
+		StorageReadResult secondPage = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(getProjectedIds(firstPage), List.of("id1", "id3"));
+		assertEquals(firstPage.continuationToken, "2/id3");
+		assertEquals(getProjectedIds(secondPage), List.of("id4"));
+		assertEquals(secondPage.start, 2);
+		assertEquals(secondPage.totalNumberOfMatches, 3);
+		assertNull(secondPage.continuationToken);
+	}
+
+	private List<String> getProjectedIds(StorageReadResult result) {
+		return result.listOfProjectedRecords.stream().map(ProjectedRecord::id).toList();
+	}
+
+	@Test(expectedExceptions = StorageException.class, expectedExceptionsMessageRegExp = ""
+			+ "Invalid continuation token: id2")
+	public void testReadListUsingInvalidContinuationToken() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.continuationToken = "id2";
+
+		storage.readList(SOME_TYPE, filter);
+	}
+
+	@Test(expectedExceptions = StorageException.class, expectedExceptionsMessageRegExp = ""
+			+ "Invalid continuation token: x/id2")
+	public void testReadListUsingContinuationTokenWithInvalidNumber() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.continuationToken = "x/id2";
+
+		storage.readList(SOME_TYPE, filter);
+	}
+
+	@Test
+	public void testReadListFromNoBelowOneStartsAtFirstMatch() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.fromNo = -5;
+		filter.toNo = 2;
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(getDataGroupsUsedForRecords(result.listOfDataRecordGroups),
+				dataGroupsForIds("id1", "id2"));
+		assertEquals(result.start, 0);
+	}
+
+	@Test
+	public void testDeprecatedReadListFromNoBelowOneStartsAtFirstMatch() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.fromNo = -5;
+		filter.toNo = 2;
+
+		StorageReadResult result = storage.readList(List.of(SOME_TYPE), filter);
+
+		assertEquals(result.listOfDataGroups.size(), 2);
+		assertEquals(result.start, 0);
+	}
+
+	@Test
+	public void testReadListCountModeCappedWithFilter() throws Exception {
+		createFiveRecords();
+		Filter filter = filterWithInclude(titleCondition(RelationalOperator.EQUAL_TO, "a"));
+		filter.toNo = 1;
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 3;
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(result.totalNumberOfMatches, 3);
+		assertEquals(result.countMode, CountMode.CAPPED);
+		assertEquals(result.continuationToken, "1/id1");
+	}
+
+	@Test
+	public void testReadListCountModeNone() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.countMode = CountMode.NONE;
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(result.totalNumberOfMatches, 0);
+		assertEquals(result.countMode, CountMode.NONE);
+		assertEquals(result.listOfDataRecordGroups.size(), 5);
+	}
+
+	@Test
+	public void testReadListCountModeCapped() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 3;
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(result.totalNumberOfMatches, 3);
+		assertEquals(result.countMode, CountMode.CAPPED);
+	}
+
+	@Test
+	public void testReadListCountModeCappedNotReached() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 10;
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertEquals(result.totalNumberOfMatches, 5);
+		assertEquals(result.countMode, CountMode.EXACT);
+	}
+
+	@Test
+	public void testReadListWithProjection() throws Exception {
+		createRecord("id1", title("a"), new StorageTerm("tagTerm", "tag", "x"));
+		createRecord("id2", title("b"));
+		Filter filter = new Filter();
+		filter.projection.add("title");
+
+		StorageReadResult result = storage.readList(SOME_TYPE, filter);
+
+		assertTrue(result.projected);
+		assertEquals(result.listOfDataRecordGroups, List.of());
+		assertEquals(result.listOfProjectedRecords,
+				List.of(new ProjectedRecord(SOME_TYPE, "id1", Map.of("title", List.of("a"))),
+						new ProjectedRecord(SOME_TYPE, "id2", Map.of("title", List.of("b")))));
+		assertEquals(result.totalNumberOfMatches, 2);
+		dataFactory.MCR.assertMethodNotCalled(FACTOR_METHOD);
+	}
+
+	@Test
+	public void testReadListAsStream() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.fromNo = 2;
+		filter.toNo = 4;
+
+		List<DataRecordGroup> records = storage.readListAsStream(SOME_TYPE, filter).toList();
+
+		assertEquals(getDataGroupsUsedForRecords(records), dataGroupsForIds("id2", "id3", "id4"));
+	}
+
+	@Test
+	public void testDeprecatedReadUsingListOfTypes() throws Exception {
+		createRecord("id1");
+
+		DataGroup dataGroup = storage.read(List.of("otherType", SOME_TYPE), "id1");
+
+		assertIsCopyOfStored(dataGroup, "id1", 0);
+	}
+
+	@Test(expectedExceptions = RecordNotFoundException.class, expectedExceptionsMessageRegExp = ""
+			+ "No record exists with recordId: id1 for types: \\[someType, otherType\\]")
+	public void testDeprecatedReadUsingListOfTypesMissing() throws Exception {
+		storage.read(List.of(SOME_TYPE, "otherType"), "id1");
+	}
+
+	@Test(expectedExceptions = StorageException.class, expectedExceptionsMessageRegExp = ""
+			+ "More than one record exists with recordId: id1 for types: "
+			+ "\\[someType, otherType\\]")
+	public void testDeprecatedReadUsingListOfTypesMoreThanOne() throws Exception {
+		createRecord("id1");
+		createRecordWithLinks("otherType", "id1", Set.of());
+
+		storage.read(List.of(SOME_TYPE, "otherType"), "id1");
+	}
+
+	@Test
+	public void testDeprecatedReadListUsingListOfTypes() throws Exception {
+		createRecord("id1", title("a"));
+		createRecordWithLinks("otherType", "id2", Set.of(), title("a"));
+		createRecordWithLinks("otherType", "id3", Set.of(), title("b"));
+		Filter filter = filterWithInclude(titleCondition(RelationalOperator.EQUAL_TO, "a"));
+
+		StorageReadResult result = storage.readList(List.of(SOME_TYPE, "otherType"), filter);
+
+		assertEquals(result.listOfDataGroups.size(), 2);
+		assertIsCopyOfStored(result.listOfDataGroups.get(0), "id1", 0);
+		assertIsCopyOfStored(result.listOfDataGroups.get(1), "id2", 1);
+		assertEquals(result.totalNumberOfMatches, 2);
+	}
+
+	@Test
+	public void testRecordExists() throws Exception {
+		createRecord("id1");
+
+		assertTrue(storage.recordExists(List.of("otherType", SOME_TYPE), "id1"));
+		assertFalse(storage.recordExists(List.of("otherType"), "id1"));
+		assertFalse(storage.recordExists(List.of(SOME_TYPE), "id2"));
+	}
+
+	@Test
+	public void testLinks() throws Exception {
+		Link linkToTarget = new Link("targetType", "target");
+		createRecordWithLinks(SOME_TYPE, "id1", Set.of(linkToTarget));
+		createRecordWithLinks("otherType", "id2", Set.of(linkToTarget));
+
+		assertTrue(storage.linksExistForRecord("targetType", "target"));
+		assertFalse(storage.linksExistForRecord(SOME_TYPE, "id1"));
+		assertEquals(storage.getLinksToRecord("targetType", "target"),
+				Set.of(new Link(SOME_TYPE, "id1"), new Link("otherType", "id2")));
+		assertEquals(storage.getLinksFromRecord(SOME_TYPE, "id1"), Set.of(linkToTarget));
+		assertEquals(storage.getLinksFromRecord(SOME_TYPE, "missing"), Set.of());
+	}
+
+	@Test
+	public void testLinksChangedOnUpdate() throws Exception {
+		Link linkToTarget = new Link("targetType", "target");
+		Link linkToOther = new Link("targetType", "other");
+		createRecordWithLinks(SOME_TYPE, "id1", Set.of(linkToTarget));
+
+		storage.update(SOME_TYPE, "id1", new DataGroupSpy(), Set.of(), Set.of(linkToOther),
+				DATA_DIVIDER);
+
+		assertFalse(storage.linksExistForRecord("targetType", "target"));
+		assertEquals(storage.getLinksToRecord("targetType", "other"),
+				Set.of(new Link(SOME_TYPE, "id1")));
+		assertEquals(storage.getLinksFromRecord(SOME_TYPE, "id1"), Set.of(linkToOther));
+	}
+
+	@Test
+	public void testLinksRemovedOnDelete() throws Exception {
+		Link linkToTarget = new Link("targetType", "target");
+		createRecordWithLinks(SOME_TYPE, "id1", Set.of(linkToTarget));
+		createRecordWithLinks(SOME_TYPE, "id2", Set.of(linkToTarget));
+
+		storage.deleteByTypeAndId(SOME_TYPE, "id1");
+
+		assertEquals(storage.getLinksToRecord("targetType", "target"),
+				Set.of(new Link(SOME_TYPE, "id2")));
+		storage.deleteByTypeAndId(SOME_TYPE, "id2");
+		assertFalse(storage.linksExistForRecord("targetType", "target"));
+		assertEquals(storage.getLinksToRecord("targetType", "target"), Set.of());
+	}
+
+	@Test
+	public void testPagedAndCountedLinksToRecord() throws Exception {
+		Link linkToTarget = new Link("targetType", "target");
+		createRecordWithLinks(SOME_TYPE, "id2", Set.of(linkToTarget));
+		createRecordWithLinks(SOME_TYPE, "id1", Set.of(linkToTarget));
+		createRecordWithLinks("otherType", "id3", Set.of(linkToTarget));
+
+		StorageLinksReadResult firstPage = storage.getLinksToRecord("targetType", "target", 2,
+				null);
+		StorageLinksReadResult secondPage = storage.getLinksToRecord("targetType", "target", 2,
+				firstPage.continuationToken());
+
+		assertEquals(firstPage.links(),
+				List.of(new Link("otherType", "id3"), new Link(SOME_TYPE, "id1")));
+		assertEquals(secondPage.links(), List.of(new Link(SOME_TYPE, "id2")));
+		assertFalse(secondPage.hasMoreLinks());
+		assertEquals(storage.countLinksToRecord("targetType", "target"), 3);
+		assertEquals(storage.countLinksToRecordGroupedByType("targetType", "target"),
+				Map.of(SOME_TYPE, 2L, "otherType", 1L));
+	}
+
+	@Test
+	public void testGetStorageTermsForRecord() throws Exception {
+		createRecord("id1", title("a"));
+
+		assertEquals(storage.getStorageTermsForRecord(SOME_TYPE, "id1"), Set.of(title("a")));
+		assertEquals(storage.getStorageTermsForRecord(SOME_TYPE, "missing"), Set.of());
+	}
+
+	@Test
+	public void testGetTotalNumberOfRecordsForTypes() throws Exception {
+		createRecord("id1", title("a"));
+		createRecord("id2", title("b"));
+		createRecordWithLinks("otherType", "id3", Set.of(), title("a"));
+
+		List<String> types = List.of(SOME_TYPE, "otherType", "unknownType");
+		assertEquals(storage.getTotalNumberOfRecordsForTypes(types, new Filter()), 3);
+		assertEquals(storage.getTotalNumberOfRecordsForTypes(types,
+				filterWithInclude(titleCondition(RelationalOperator.EQUAL_TO, "a"))), 2);
+		dataFactory.MCR.assertMethodNotCalled(FACTOR_METHOD);
+	}
+
+	@Test
+	public void testGetTotalNumberOfRecordsForTypesCountMode() throws Exception {
+		createFiveRecords();
+		Filter filter = new Filter();
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 2;
+
+		assertEquals(storage.getTotalNumberOfRecordsForTypes(List.of(SOME_TYPE), filter), 2);
+		filter.countMode = CountMode.NONE;
+		assertEquals(storage.getTotalNumberOfRecordsForTypes(List.of(SOME_TYPE), filter), 0);
+	}
+
+	@Test
+	public void testConcurrentWritesAndSearches() throws Exception {
+		int numberOfThreads = 8;
+		int recordsPerThread = 50;
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < numberOfThreads; t++) {
+			int threadNo = t;
+			threads.add(Thread.startVirtualThread(() -> createAndCountRecords(start, threadNo,
+					recordsPerThread)));
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(readListTotal(new Filter()), numberOfThreads * recordsPerThread);
+		assertEquals(storage.getTotalNumberOfRecordsForTypes(List.of(SOME_TYPE),
+				filterWithInclude(titleCondition(RelationalOperator.EQUAL_TO, "title3"))),
+				recordsPerThread);
+	}
+
+	private void createAndCountRecords(CountDownLatch start, int threadNo, int recordsPerThread) {
+		awaitStart(start);
+		Filter filter = filterWithInclude(
+				titleCondition(RelationalOperator.EQUAL_TO, "title" + threadNo));
+		for (int i = 0; i < recordsPerThread; i++) {
+			storage.create(SOME_TYPE, threadNo + "_" + i, new DataGroupSpy(),
+					Set.of(title("title" + threadNo)), Set.of(), DATA_DIVIDER);
+			long count = storage.getTotalNumberOfRecordsForTypes(List.of(SOME_TYPE), filter);
+			if (count != i + 1) {
+				throw new AssertionError("Expected " + (i + 1) + " but was " + count);
+			}
+		}
+	}
+
+	private void awaitStart(CountDownLatch start) {
+		try {
+			start.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class IntSetTest {
+	private IntSet intSet;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		intSet = new IntSet();
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		assertTrue(intSet.isEmpty());
+		assertEquals(intSet.size(), 0);
+		assertFalse(intSet.contains(0));
+	}
+
+	@Test
+	public void testAddAndContains() throws Exception {
+		assertTrue(intSet.add(0));
+		assertTrue(intSet.add(7));
+		assertFalse(intSet.add(7));
+
+		assertTrue(intSet.contains(0));
+		assertTrue(intSet.contains(7));
+		assertFalse(intSet.contains(1));
+		assertEquals(intSet.size(), 2);
+	}
+
+	@Test
+	public void testRemove() throws Exception {
+		intSet.add(3);
+
+		assertTrue(intSet.remove(3));
+		assertFalse(intSet.remove(3));
+		assertFalse(intSet.contains(3));
+		assertTrue(intSet.isEmpty());
+	}
+
+	@Test
+	public void testForEach() throws Exception {
+		intSet.add(1);
+		intSet.add(20);
+		intSet.add(300);
+		Set<Integer> values = new HashSet<>();
+
+		intSet.forEach(values::add);
+
+		assertEquals(values, Set.of(1, 20, 300));
+	}
+
+	@Test
+	public void testManyAddsAndRemovesMatchesHashSet() throws Exception {
+		Random random = new Random(42);
+		Set<Integer> expected = new HashSet<>();
+		for (int i = 0; i < 20000; i++) {
+			int value = random.nextInt(2000);
+			if (random.nextBoolean()) {
+				assertEquals(intSet.add(value), expected.add(value));
+			} else {
+				assertEquals(intSet.remove(value), expected.remove(value));
+			}
+		}
+
+		assertEquals(intSet.size(), expected.size());
+		for (int value = 0; value < 2000; value++) {
+			assertEquals(intSet.contains(value), expected.contains(value));
+		}
+	}
+}
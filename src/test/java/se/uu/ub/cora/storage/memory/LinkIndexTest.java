@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.storage.LinkPaging;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+
+public class LinkIndexTest {
+	private static final Link RECORD_1 = new Link("someType", "id1");
+	private static final Link RECORD_2 = new Link("someType", "id2");
+	private static final Link TARGET_1 = new Link("targetType", "target1");
+	private static final Link TARGET_2 = new Link("targetType", "target2");
+	private LinkIndex linkIndex;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		linkIndex = new LinkIndex();
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		assertFalse(linkIndex.hasLinksToRecord(TARGET_1));
+		assertEquals(linkIndex.getLinksToRecord(TARGET_1), Set.of());
+		assertEquals(linkIndex.getLinksFromRecord(RECORD_1), Set.of());
+	}
+
+	@Test
+	public void testSetLinksFromRecord() throws Exception {
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of(TARGET_1, TARGET_2));
+		linkIndex.setLinksFromRecord(RECORD_2, Set.of(TARGET_1));
+
+		assertTrue(linkIndex.hasLinksToRecord(TARGET_1));
+		assertFalse(linkIndex.hasLinksToRecord(RECORD_1));
+		assertEquals(linkIndex.getLinksToRecord(TARGET_1), Set.of(RECORD_1, RECORD_2));
+		assertEquals(linkIndex.getLinksToRecord(TARGET_2), Set.of(RECORD_1));
+		assertEquals(linkIndex.getLinksFromRecord(RECORD_1), Set.of(TARGET_1, TARGET_2));
+	}
+
+	@Test
+	public void testSetLinksFromRecordWithoutLinksCreatesNoNodes() throws Exception {
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of());
+
+		assertEquals(linkIndex.onlyForTestGetNumberOfNodes(), 0);
+	}
+
+	@Test
+	public void testSetLinksFromRecordReplacesLinks() throws Exception {
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of(TARGET_1));
+
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of(TARGET_2));
+
+		assertFalse(linkIndex.hasLinksToRecord(TARGET_1));
+		assertEquals(linkIndex.getLinksToRecord(TARGET_2), Set.of(RECORD_1));
+		assertEquals(linkIndex.getLinksFromRecord(RECORD_1), Set.of(TARGET_2));
+		assertEquals(linkIndex.onlyForTestGetNumberOfNodes(), 2);
+	}
+
+	@Test
+	public void testRemoveLinksFromRecord() throws Exception {
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of(TARGET_1));
+		linkIndex.setLinksFromRecord(RECORD_2, Set.of(TARGET_1));
+
+		linkIndex.removeLinksFromRecord(RECORD_1);
+
+		assertEquals(linkIndex.getLinksToRecord(TARGET_1), Set.of(RECORD_2));
+		assertEquals(linkIndex.getLinksFromRecord(RECORD_1), Set.of());
+		assertEquals(linkIndex.onlyForTestGetNumberOfNodes(), 2);
+	}
+
+	@Test
+	public void testRemoveLinksFromUnknownRecord() throws Exception {
+		linkIndex.removeLinksFromRecord(RECORD_1);
+
+		assertEquals(linkIndex.onlyForTestGetNumberOfNodes(), 0);
+	}
+
+	@Test
+	public void testRemoveLastLinkRemovesNodesAndReusesThem() throws Exception {
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of(TARGET_1));
+		linkIndex.removeLinksFromRecord(RECORD_1);
+
+		assertEquals(linkIndex.onlyForTestGetNumberOfNodes(), 0);
+
+		linkIndex.setLinksFromRecord(RECORD_2, Set.of(TARGET_2));
+		assertEquals(linkIndex.getLinksToRecord(TARGET_2), Set.of(RECORD_2));
+		assertEquals(linkIndex.getLinksFromRecord(RECORD_2), Set.of(TARGET_2));
+		assertEquals(linkIndex.onlyForTestGetNumberOfNodes(), 2);
+	}
+
+	@Test
+	public void testRecordLinkingToItself() throws Exception {
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of(RECORD_1, TARGET_1));
+
+		assertEquals(linkIndex.getLinksToRecord(RECORD_1), Set.of(RECORD_1));
+
+		linkIndex.removeLinksFromRecord(RECORD_1);
+
+		assertFalse(linkIndex.hasLinksToRecord(RECORD_1));
+		assertEquals(linkIndex.onlyForTestGetNumberOfNodes(), 0);
+	}
+
+	@Test
+	public void testHubRecordWithManyIncomingLinks() throws Exception {
+		int numberOfLinkingRecords = 100000;
+		for (int i = 0; i < numberOfLinkingRecords; i++) {
+			linkIndex.setLinksFromRecord(new Link("someType", "id" + i), Set.of(TARGET_1));
+		}
+
+		assertEquals(linkIndex.getLinksToRecord(TARGET_1).size(), numberOfLinkingRecords);
+
+		for (int i = 0; i < numberOfLinkingRecords; i++) {
+			linkIndex.removeLinksFromRecord(new Link("someType", "id" + i));
+		}
+		assertFalse(linkIndex.hasLinksToRecord(TARGET_1));
+		assertEquals(linkIndex.onlyForTestGetNumberOfNodes(), 0);
+	}
+
+	@Test
+	public void testGetPageOfLinksToRecord() throws Exception {
+		linkIndex.setLinksFromRecord(RECORD_2, Set.of(TARGET_1));
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of(TARGET_1));
+
+		StorageLinksReadResult result = linkIndex.getPageOfLinksToRecord(TARGET_1,
+				LinkPaging.usingMaxNumberOfLinksAndContinuationToken(1, null));
+
+		assertEquals(result.links(), List.of(RECORD_1));
+		assertEquals(result.continuationToken(), "someType/id1");
+	}
+
+	@Test
+	public void testGetPageOfLinksToUnknownRecord() throws Exception {
+		StorageLinksReadResult result = linkIndex.getPageOfLinksToRecord(TARGET_1,
+				LinkPaging.usingMaxNumberOfLinksAndContinuationToken(1, null));
+
+		assertEquals(result.links(), List.of());
+		assertNull(result.continuationToken());
+	}
+
+	@Test
+	public void testCountLinksToRecord() throws Exception {
+		linkIndex.setLinksFromRecord(RECORD_1, Set.of(TARGET_1));
+		linkIndex.setLinksFromRecord(RECORD_2, Set.of(TARGET_1));
+		linkIndex.setLinksFromRecord(new Link("otherType", "id1"), Set.of(TARGET_1));
+
+		assertEquals(linkIndex.countLinksToRecord(TARGET_1), 3);
+		assertEquals(linkIndex.countLinksToRecord(TARGET_2), 0);
+		assertEquals(linkIndex.countLinksToRecordGroupedByType(TARGET_1),
+				Map.of("someType", 2L, "otherType", 1L));
+		assertEquals(linkIndex.countLinksToRecordGroupedByType(TARGET_2), Map.of());
+	}
+}
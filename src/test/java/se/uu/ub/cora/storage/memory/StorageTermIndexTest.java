@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.RelationalOperator;
+
+public class StorageTermIndexTest {
+	private StorageTermIndex index;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		index = new StorageTermIndex();
+		index.add("id1", Set.of(term("title", "a"), term("date", "2019")));
+		index.add("id2", Set.of(term("title", "b"), term("date", "2020")));
+		index.add("id3", Set.of(term("title", "a"), term("date", "2021")));
+	}
+
+	private StorageTerm term(String key, String value) {
+		return new StorageTerm(key + "Term", key, value);
+	}
+
+	private Set<String> find(String key, RelationalOperator operator, String value) {
+		return index.findIdsMatching(new Condition(key, operator, value));
+	}
+
+	@Test
+	public void testUnknownKey() throws Exception {
+		assertEquals(find("unknown", RelationalOperator.EQUAL_TO, "a"), Set.of());
+	}
+
+	@Test
+	public void testEqualTo() throws Exception {
+		assertEquals(find("title", RelationalOperator.EQUAL_TO, "a"), Set.of("id1", "id3"));
+		assertEquals(find("title", RelationalOperator.EQUAL_TO, "c"), Set.of());
+	}
+
+	@Test
+	public void testNotEqualTo() throws Exception {
+		assertEquals(find("title", RelationalOperator.NOT_EQUAL_TO, "a"), Set.of("id2"));
+	}
+
+	@Test
+	public void testRanges() throws Exception {
+		assertEquals(find("date", RelationalOperator.GREATER_THAN, "2020"), Set.of("id3"));
+		assertEquals(find("date", RelationalOperator.GREATER_THAN_OR_EQUAL_TO, "2020"),
+				Set.of("id2", "id3"));
+		assertEquals(find("date", RelationalOperator.LESS_THAN, "2020"), Set.of("id1"));
+		assertEquals(find("date", RelationalOperator.LESS_THAN_OR_EQUAL_TO, "2020"),
+				Set.of("id1", "id2"));
+	}
+
+	@Test
+	public void testRemove() throws Exception {
+		index.remove("id1", Set.of(term("title", "a"), term("date", "2019")));
+
+		assertEquals(find("title", RelationalOperator.EQUAL_TO, "a"), Set.of("id3"));
+		assertEquals(find("date", RelationalOperator.LESS_THAN, "2020"), Set.of());
+	}
+
+	@Test
+	public void testRemoveLastRemovesKey() throws Exception {
+		index.remove("id1", Set.of(term("date", "2019")));
+		index.remove("id2", Set.of(term("date", "2020")));
+		index.remove("id3", Set.of(term("date", "2021")));
+
+		assertEquals(find("date", RelationalOperator.NOT_EQUAL_TO, "x"), Set.of());
+	}
+
+	@Test
+	public void testRemoveUnknownDoesNothing() throws Exception {
+		index.remove("id1", Set.of(term("unknown", "a"), term("title", "c")));
+
+		assertEquals(find("title", RelationalOperator.EQUAL_TO, "a"), Set.of("id1", "id3"));
+	}
+
+	@Test
+	public void testCountIdsWithValue() throws Exception {
+		assertEquals(index.countIdsWithValue("title", "a"), 2);
+		assertEquals(index.countIdsWithValue("title", "c"), 0);
+		assertEquals(index.countIdsWithValue("unknown", "a"), 0);
+	}
+
+	@Test
+	public void testUpdateChangesOnlyChangedValues() throws Exception {
+		index.update("id1", Set.of(term("title", "a"), term("date", "2019")),
+				Set.of(term("title", "c"), term("date", "2019")));
+
+		assertEquals(find("title", RelationalOperator.EQUAL_TO, "a"), Set.of("id3"));
+		assertEquals(find("title", RelationalOperator.EQUAL_TO, "c"), Set.of("id1"));
+		assertEquals(find("date", RelationalOperator.EQUAL_TO, "2019"), Set.of("id1"));
+		assertEquals(find("title", RelationalOperator.GREATER_THAN, "b"), Set.of("id1"));
+	}
+
+	@Test
+	public void testUpdateKeepsValueStillHeldByOtherStorageTerm() throws Exception {
+		StorageTerm titleA = new StorageTerm("titleTerm", "title", "a");
+		StorageTerm otherTitleA = new StorageTerm("otherTitleTerm", "title", "a");
+		index.add("id4", Set.of(titleA, otherTitleA));
+
+		index.update("id4", Set.of(titleA, otherTitleA), Set.of(otherTitleA));
+
+		assertEquals(find("title", RelationalOperator.EQUAL_TO, "a"), Set.of("id1", "id3", "id4"));
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.memory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.CountMode;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.Part;
+import se.uu.ub.cora.storage.RelationalOperator;
+import se.uu.ub.cora.storage.filter.FilterPlan;
+import se.uu.ub.cora.storage.filter.PlannedPart;
+
+public class TypeStoreTest {
+	private static final Condition TITLE_EQUAL_A = new Condition("title",
+			RelationalOperator.EQUAL_TO, "a");
+	private TypeStore typeStore;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		typeStore = new TypeStore();
+	}
+
+	private StoredRecord storedRecord(String id, String title) {
+		return new StoredRecord("someType", id, new DataGroupSpy(),
+				Set.of(new StorageTerm("titleTerm", "title", title)), Set.of(), "someDataDivider");
+	}
+
+	@Test
+	public void testPutIfAbsent() throws Exception {
+		StoredRecord storedRecord = storedRecord("id1", "a");
+
+		assertTrue(typeStore.putIfAbsent(storedRecord));
+		assertFalse(typeStore.putIfAbsent(storedRecord("id1", "b")));
+
+		assertSame(typeStore.get("id1"), storedRecord);
+		assertTrue(typeStore.contains("id1"));
+		assertEquals(typeStore.size(), 1);
+	}
+
+	@Test
+	public void testReplace() throws Exception {
+		StoredRecord first = storedRecord("id1", "a");
+		typeStore.putIfAbsent(first);
+
+		StoredRecord previous = typeStore.replace(storedRecord("id1", "b"));
+
+		assertSame(previous, first);
+		assertEquals(findIdsWithTitleA(), List.of());
+	}
+
+	private List<String> findIdsWithTitleA() {
+		FilterPlan plan = new FilterPlan(List.of(new PlannedPart(List.of(TITLE_EQUAL_A))),
+				List.of(), false);
+		return typeStore.findMatches(plan).stream().map(StoredRecord::id).toList();
+	}
+
+	@Test
+	public void testReplaceMissing() throws Exception {
+		assertNull(typeStore.replace(storedRecord("id1", "a")));
+		assertFalse(typeStore.contains("id1"));
+	}
+
+	@Test
+	public void testRemove() throws Exception {
+		StoredRecord storedRecord = storedRecord("id1", "a");
+		typeStore.putIfAbsent(storedRecord);
+
+		assertSame(typeStore.remove("id1"), storedRecord);
+		assertNull(typeStore.remove("id1"));
+		assertEquals(findIdsWithTitleA(), List.of());
+	}
+
+	@Test
+	public void testFindMatchesSortedById() throws Exception {
+		typeStore.putIfAbsent(storedRecord("id3", "a"));
+		typeStore.putIfAbsent(storedRecord("id1", "a"));
+		typeStore.putIfAbsent(storedRecord("id2", "b"));
+
+		assertEquals(findIdsWithTitleA(), List.of("id1", "id3"));
+	}
+
+	@Test
+	public void testFindMatchesIncludeAll() throws Exception {
+		typeStore.putIfAbsent(storedRecord("id2", "b"));
+		typeStore.putIfAbsent(storedRecord("id1", "a"));
+
+		List<StoredRecord> matches = typeStore
+				.findMatches(new FilterPlan(List.of(), List.of(), false));
+
+		assertEquals(matches.stream().map(StoredRecord::id).toList(), List.of("id1", "id2"));
+	}
+
+	@Test
+	public void testFindMatchesMatchesNothing() throws Exception {
+		typeStore.putIfAbsent(storedRecord("id1", "a"));
+
+		assertEquals(typeStore.findMatches(new FilterPlan(List.of(), List.of(), true)), List.of());
+	}
+
+	@Test
+	public void testEstimateSelectivityFromIndex() throws Exception {
+		assertEquals(typeStore.estimateSelectivity(TITLE_EQUAL_A), 0.01);
+
+		typeStore.putIfAbsent(storedRecord("id1", "a"));
+		typeStore.putIfAbsent(storedRecord("id2", "a"));
+		typeStore.putIfAbsent(storedRecord("id3", "b"));
+		typeStore.putIfAbsent(storedRecord("id4", "c"));
+
+		assertEquals(typeStore.estimateSelectivity(TITLE_EQUAL_A), 0.5);
+	}
+
+	@Test
+	public void testEstimateSelectivityForRangeUsesOperator() throws Exception {
+		typeStore.putIfAbsent(storedRecord("id1", "a"));
+
+		assertEquals(typeStore.estimateSelectivity(
+				new Condition("title", RelationalOperator.GREATER_THAN, "a")), 0.33);
+	}
+
+	@Test
+	public void testFindMatchesUsingFilter() throws Exception {
+		typeStore.putIfAbsent(storedRecord("id2", "a"));
+		typeStore.putIfAbsent(storedRecord("id1", "b"));
+		typeStore.putIfAbsent(storedRecord("id3", "a"));
+
+		List<StoredRecord> matches = typeStore.findMatches(filterWithTitleA());
+
+		assertEquals(matches.stream().map(StoredRecord::id).toList(), List.of("id2", "id3"));
+	}
+
+	@Test
+	public void testFindPageWithoutCountReadsOnlyThePage() throws Exception {
+		typeStore.putIfAbsent(storedRecord("id3", "a"));
+		typeStore.putIfAbsent(storedRecord("id1", "a"));
+		typeStore.putIfAbsent(storedRecord("id2", "b"));
+		typeStore.putIfAbsent(storedRecord("id4", "a"));
+		Filter filter = filterWithTitleA();
+		filter.fromNo = 2;
+		filter.toNo = 2;
+		filter.countMode = CountMode.NONE;
+
+		RecordPage page = typeStore.findPage(filter);
+
+		assertEquals(page.records().stream().map(StoredRecord::id).toList(), List.of("id3"));
+		assertEquals(page.start(), 1);
+		assertEquals(page.numberOfMatches(), 0);
+		assertEquals(page.continuationToken(), "2/id3");
+	}
+
+	@Test
+	public void testFindPageAfterTokenWithoutFilterCountsAllRecords() throws Exception {
+		typeStore.putIfAbsent(storedRecord("id1", "a"));
+		typeStore.putIfAbsent(storedRecord("id2", "b"));
+		typeStore.putIfAbsent(storedRecord("id3", "a"));
+		Filter filter = new Filter();
+		filter.continuationToken = "1/id1";
+
+		RecordPage page = typeStore.findPage(filter);
+
+		assertEquals(page.records().stream().map(StoredRecord::id).toList(),
+				List.of("id2", "id3"));
+		assertEquals(page.start(), 1);
+		assertEquals(page.numberOfMatches(), 3);
+		assertNull(page.continuationToken());
+	}
+
+	@Test
+	public void testFindPageMatchesNothing() throws Exception {
+		typeStore.putIfAbsent(storedRecord("id1", "a"));
+		Filter filter = filterWithTitleA();
+		Part excludePart = new Part();
+		excludePart.conditions.add(TITLE_EQUAL_A);
+		filter.exclude.add(excludePart);
+
+		RecordPage page = typeStore.findPage(filter);
+
+		assertEquals(page.records(), List.of());
+		assertEquals(page.numberOfMatches(), 0);
+	}
+
+	private Filter filterWithTitleA() {
+		Filter filter = new Filter();
+		Part part = new Part();
+		part.conditions.add(TITLE_EQUAL_A);
+		filter.include.add(part);
+		return filter;
+	}
+
+	@Test
+	public void testFindMatchesUsingFilterWhileWriting() throws Exception {
+		int threadCount = 20;
+		CountDownLatch startLatch = new CountDownLatch(1);
+		CountDownLatch doneLatch = new CountDownLatch(threadCount);
+		AtomicInteger errors = new AtomicInteger();
+		for (int i = 0; i < threadCount; i++) {
+			int threadNo = i;
+			Thread.startVirtualThread(() -> {
+				try {
+					startLatch.await();
+					for (int j = 0; j < 200; j++) {
+						writeOrSearch(threadNo, j);
+					}
+				} catch (Exception e) {
+					errors.incrementAndGet();
+				} finally {
+					doneLatch.countDown();
+				}
+			});
+		}
+		startLatch.countDown();
+		doneLatch.await();
+
+		assertEquals(errors.get(), 0);
+	}
+
+	private void writeOrSearch(int threadNo, int j) {
+		String id = "id" + threadNo + "_" + (j % 10);
+		if (threadNo % 2 == 0) {
+			typeStore.putIfAbsent(storedRecord(id, "a"));
+			typeStore.remove(id);
+		} else {
+			typeStore.findMatches(filterWithTitleA());
+		}
+	}
+}
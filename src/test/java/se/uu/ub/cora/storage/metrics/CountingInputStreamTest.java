@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CountingInputStreamTest {
+	private OperationMetricsSpy metrics;
+	private CountingInputStream stream;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		metrics = new OperationMetricsSpy();
+		InputStream wrapped = new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 });
+		stream = new CountingInputStream(wrapped, metrics);
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(stream.onlyForTestGetMetrics(), metrics);
+	}
+
+	@Test
+	public void testReadSingleBytes() throws Exception {
+		assertEquals(stream.read(), 1);
+
+		metrics.MCR.assertParameters("bytesTransferred", 0, 1L);
+	}
+
+	@Test
+	public void testReadToBuffer() throws Exception {
+		byte[] buffer = new byte[4];
+
+		assertEquals(stream.read(buffer), 4);
+		assertEquals(stream.read(buffer, 0, 4), 1);
+
+		metrics.MCR.assertParameters("bytesTransferred", 0, 4L);
+		metrics.MCR.assertParameters("bytesTransferred", 1, 1L);
+	}
+
+	@Test
+	public void testEndOfStreamIsNotReported() throws Exception {
+		stream.readAllBytes();
+		int callsAfterReadAll = metrics.MCR.getNumberOfCallsToMethod("bytesTransferred");
+
+		assertEquals(stream.read(), -1);
+		assertEquals(stream.read(new byte[2], 0, 2), -1);
+
+		metrics.MCR.assertNumberOfCallsToMethod("bytesTransferred", callsAfterReadAll);
+	}
+
+	@Test
+	public void testMarkIsNotSupported() throws Exception {
+		assertFalse(stream.markSupported());
+	}
+}
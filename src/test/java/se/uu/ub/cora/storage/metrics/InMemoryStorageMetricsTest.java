@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class InMemoryStorageMetricsTest {
+	private InMemoryStorageMetrics storageMetrics;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		storageMetrics = InMemoryStorageMetrics.create();
+	}
+
+	@Test
+	public void testSameOperationMetricsForSameArguments() throws Exception {
+		OperationMetrics metrics = storageMetrics.getOperationMetrics("component", "read", "type");
+
+		assertSame(storageMetrics.getOperationMetrics("component", "read", "type"), metrics);
+		assertNotSame(storageMetrics.getOperationMetrics("component", "read", "otherType"),
+				metrics);
+		assertNotSame(storageMetrics.getOperationMetrics("component", "update", "type"), metrics);
+		assertNotSame(storageMetrics.getOperationMetrics("other", "read", "type"), metrics);
+	}
+
+	@Test
+	public void testNoStatisticsBeforeUse() throws Exception {
+		assertEquals(storageMetrics.getStatistics(), List.of());
+	}
+
+	@Test
+	public void testStatisticsForUnfinishedCall() throws Exception {
+		OperationMetrics metrics = storageMetrics.getOperationMetrics("component", "read", "type");
+
+		metrics.callStarted();
+
+		assertEquals(storageMetrics.getStatistics(), List.of(
+				new OperationStatistics("component", "read", "type", 0, 0, 1, 0, 0, 0, 0, 0)));
+		assertEquals(storageMetrics.getStatistics().get(0).meanNanos(), 0);
+	}
+
+	@Test
+	public void testStatisticsForFinishedCalls() throws Exception {
+		OperationMetrics metrics = storageMetrics.getOperationMetrics("component", "read", "type");
+
+		finishCall(metrics, 100);
+		finishCall(metrics, 300);
+		metrics.callStarted();
+		metrics.callFailed(1000);
+		metrics.bytesTransferred(10);
+		metrics.bytesTransferred(20);
+
+		OperationStatistics statistics = storageMetrics.getStatistics().get(0);
+		assertEquals(statistics.calls(), 3);
+		assertEquals(statistics.errors(), 1);
+		assertEquals(statistics.inFlight(), 0);
+		assertEquals(statistics.bytes(), 30);
+		assertEquals(statistics.totalNanos(), 1400);
+		assertEquals(statistics.maxNanos(), 1000);
+		assertEquals(statistics.meanNanos(), 466);
+	}
+
+	private void finishCall(OperationMetrics metrics, long durationNanos) {
+		metrics.callStarted();
+		metrics.callSucceeded(durationNanos);
+	}
+
+	@Test
+	public void testPercentilesAreUpperBoundOfBucket() throws Exception {
+		OperationMetrics metrics = storageMetrics.getOperationMetrics("component", "read", "type");
+
+		for (int i = 0; i < 98; i++) {
+			finishCall(metrics, 100);
+		}
+		finishCall(metrics, 5000);
+		finishCall(metrics, 6000);
+
+		OperationStatistics statistics = storageMetrics.getStatistics().get(0);
+		assertEquals(statistics.p50Nanos(), 127);
+		assertEquals(statistics.p99Nanos(), 6000);
+	}
+
+	@Test
+	public void testPercentilesForZeroAndHugeDurations() throws Exception {
+		OperationMetrics metrics = storageMetrics.getOperationMetrics("component", "read", "type");
+
+		finishCall(metrics, 0);
+		finishCall(metrics, Long.MAX_VALUE);
+
+		OperationStatistics statistics = storageMetrics.getStatistics().get(0);
+		assertEquals(statistics.p50Nanos(), 0);
+		assertEquals(statistics.p99Nanos(), Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testStatisticsAreSorted() throws Exception {
+		storageMetrics.getOperationMetrics("b", "read", "type");
+		storageMetrics.getOperationMetrics("a", "update", "type");
+		storageMetrics.getOperationMetrics("a", "read", "type2");
+		storageMetrics.getOperationMetrics("a", "read", "type1");
+
+		List<String> order = storageMetrics.getStatistics().stream()
+				.map(s -> s.component() + "." + s.operation() + "." + s.type()).toList();
+
+		assertEquals(order,
+				List.of("a.read.type1", "a.read.type2", "a.update.type", "b.read.type"));
+	}
+
+	@Test
+	public void testConcurrentCallsAreAllCounted() throws Exception {
+		OperationMetrics metrics = storageMetrics.getOperationMetrics("component", "read", "type");
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			threads.add(Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < 1000; i++) {
+					finishCall(metrics, i);
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		OperationStatistics statistics = storageMetrics.getStatistics().get(0);
+		assertEquals(statistics.calls(), 4000);
+		assertEquals(statistics.inFlight(), 0);
+		assertEquals(statistics.maxNanos(), 999);
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+
+public class InstrumentedRecordStorageTest {
+	private static final String SOME_TYPE = "someType";
+	private static final String SOME_ID = "someId";
+	private RecordStorageSpy recordStorageSpy;
+	private InMemoryStorageMetrics storageMetrics;
+	private InstrumentedRecordStorage recordStorage;
+	private long now;
+	private DataGroup dataRecord = new DataGroupSpy();
+	private Set<StorageTerm> storageTerms = Set.of(new StorageTerm("someId", "someKey", "value"));
+	private Set<Link> links = Set.of(new Link("someLinkedType", "someLinkedId"));
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recordStorageSpy = new RecordStorageSpy();
+		storageMetrics = InMemoryStorageMetrics.create();
+		recordStorage = InstrumentedRecordStorage.usingRecordStorageAndMetrics(recordStorageSpy,
+				storageMetrics);
+		now = 0;
+		recordStorage.onlyForTestGetTimer().onlyForTestSetNanoClock(() -> now += 10);
+	}
+
+	@Test
+	public void testImplementsRecordStorage() throws Exception {
+		assertTrue(recordStorage instanceof RecordStorage);
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(recordStorage.onlyForTestGetRecordStorage(), recordStorageSpy);
+		assertSame(recordStorage.onlyForTestGetStorageMetrics(), storageMetrics);
+	}
+
+	@Test
+	public void testReadIsPassedOnAndMeasured() throws Exception {
+		DataRecordGroup result = recordStorage.read(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertParameters("read", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("read", 0, result);
+		assertEquals(getOnlyStatistics(), new OperationStatistics("recordStorage", "read",
+				SOME_TYPE, 1, 0, 0, 0, 10, 10, 10, 10));
+	}
+
+	private OperationStatistics getOnlyStatistics() {
+		List<OperationStatistics> statistics = storageMetrics.getStatistics();
+		assertEquals(statistics.size(), 1);
+		return statistics.get(0);
+	}
+
+	@Test
+	public void testFailedCallIsMeasuredAndRethrown() throws Exception {
+		RecordNotFoundException error = RecordNotFoundException.withMessage("not found");
+		recordStorageSpy.MRV.setAlwaysThrowException("read", error);
+
+		try {
+			recordStorage.read(SOME_TYPE, SOME_ID);
+			fail();
+		} catch (RecordNotFoundException e) {
+			assertSame(e, error);
+			OperationStatistics statistics = getOnlyStatistics();
+			assertEquals(statistics.calls(), 1);
+			assertEquals(statistics.errors(), 1);
+			assertEquals(statistics.inFlight(), 0);
+		}
+	}
+
+	@Test
+	public void testFailedVoidCallIsMeasuredAndRethrown() throws Exception {
+		recordStorageSpy.MRV.setAlwaysThrowException("deleteByTypeAndId",
+				RecordNotFoundException.withMessage("not found"));
+
+		try {
+			recordStorage.deleteByTypeAndId(SOME_TYPE, SOME_ID);
+			fail();
+		} catch (RecordNotFoundException e) {
+			assertEquals(getOnlyStatistics().errors(), 1);
+		}
+	}
+
+	@Test
+	public void testTypesAreMeasuredSeparately() throws Exception {
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorage.read("otherType", SOME_ID);
+
+		List<OperationStatistics> statistics = storageMetrics.getStatistics();
+		assertEquals(statistics.get(0).type(), "otherType");
+		assertEquals(statistics.get(0).calls(), 1);
+		assertEquals(statistics.get(1).type(), SOME_TYPE);
+		assertEquals(statistics.get(1).calls(), 2);
+	}
+
+	@Test
+	public void testOperationMetricsAreLookedUpOncePerType() throws Exception {
+		StorageMetricsSpy storageMetricsSpy = new StorageMetricsSpy();
+		recordStorage = InstrumentedRecordStorage.usingRecordStorageAndMetrics(recordStorageSpy,
+				storageMetricsSpy);
+
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorage.read((String) null, SOME_ID);
+
+		storageMetricsSpy.MCR.assertNumberOfCallsToMethod("getOperationMetrics", 2);
+		storageMetricsSpy.MCR.assertParameters("getOperationMetrics", 0, "recordStorage", "read",
+				SOME_TYPE);
+		storageMetricsSpy.MCR.assertParameters("getOperationMetrics", 1, "recordStorage", "read",
+				"");
+		OperationMetricsSpy operationMetrics = (OperationMetricsSpy) storageMetricsSpy.MCR
+				.getReturnValue("getOperationMetrics", 0);
+		operationMetrics.MCR.assertNumberOfCallsToMethod("callStarted", 2);
+		operationMetrics.MCR.assertNumberOfCallsToMethod("callSucceeded", 2);
+	}
+
+	@Test
+	public void testWritesAreMeasured() throws Exception {
+		recordStorage.create(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, "divider");
+		recordStorage.update(SOME_TYPE, SOME_ID, dataRecord, storageTerms, links, "divider");
+		recordStorage.deleteByTypeAndId(SOME_TYPE, SOME_ID);
+
+		recordStorageSpy.MCR.assertParameters("create", 0, SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, "divider");
+		recordStorageSpy.MCR.assertParameters("update", 0, SOME_TYPE, SOME_ID, dataRecord,
+				storageTerms, links, "divider");
+		recordStorageSpy.MCR.assertParameters("deleteByTypeAndId", 0, SOME_TYPE, SOME_ID);
+		assertOperations("create." + SOME_TYPE, "deleteByTypeAndId." + SOME_TYPE,
+				"update." + SOME_TYPE);
+	}
+
+	private void assertOperations(String... expected) {
+		List<String> operations = storageMetrics.getStatistics().stream()
+				.map(statistics -> statistics.operation() + "." + statistics.type()).toList();
+		assertEquals(operations, List.of(expected));
+	}
+
+	@Test
+	public void testWriteManyIsMeasuredWithTypeOfWrites() throws Exception {
+		RecordWrite write = createWrite(SOME_TYPE);
+		RecordWrite otherWrite = createWrite("otherType");
+
+		List<RecordWriteResult> results = recordStorage.writeMany(List.of(write, write));
+		recordStorage.writeMany(List.of(write, otherWrite));
+		recordStorage.writeMany(List.of());
+
+		assertEquals(results.size(), 2);
+		recordStorageSpy.MCR.assertNumberOfCallsToMethod("update", 4);
+		assertOperations("writeMany.multipleTypes", "writeMany." + SOME_TYPE);
+		assertEquals(storageMetrics.getStatistics().get(0).calls(), 2);
+	}
+
+	private RecordWrite createWrite(String type) {
+		return new RecordWrite(RecordWriteAction.UPDATE, type, SOME_ID, dataRecord, storageTerms,
+				links, "divider");
+	}
+
+	@Test
+	public void testReadsArePassedOnAndMeasured() throws Exception {
+		Optional<DataRecordGroup> readIfExists = recordStorage.readIfExists(SOME_TYPE, SOME_ID);
+		StorageReadManyResult readMany = recordStorage.readMany(SOME_TYPE, List.of(SOME_ID));
+		Filter filter = new Filter();
+		StorageReadResult readList = recordStorage.readList(SOME_TYPE, filter);
+		try (Stream<DataRecordGroup> stream = recordStorage.readListAsStream(SOME_TYPE, filter)) {
+			assertEquals(stream.count(), 0);
+		}
+
+		recordStorageSpy.MCR.assertReturn("read", 0, readIfExists.get());
+		recordStorageSpy.MCR.assertReturn("read", 1, readMany.records().get(SOME_ID));
+		recordStorageSpy.MCR.assertReturn("readList", 0, readList);
+		assertOperations("readIfExists." + SOME_TYPE, "readList." + SOME_TYPE,
+				"readListAsStream." + SOME_TYPE, "readMany." + SOME_TYPE);
+	}
+
+	@SuppressWarnings("removal")
+	@Test
+	public void testDeprecatedMethodsArePassedOnAndMeasured() throws Exception {
+		Filter filter = new Filter();
+		List<String> types = List.of(SOME_TYPE, "otherType");
+
+		DataGroup dataGroup = recordStorage.read(types, SOME_ID);
+		StorageReadResult result = recordStorage.readList(List.of(SOME_TYPE), filter);
+
+		recordStorageSpy.MCR.assertParameters("read", 0, types, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("read", 0, dataGroup);
+		recordStorageSpy.MCR.assertParameters("readList", 0, List.of(SOME_TYPE), filter);
+		recordStorageSpy.MCR.assertReturn("readList", 0, result);
+		assertOperations("readFromTypes.multipleTypes", "readListFromTypes." + SOME_TYPE);
+	}
+
+	@Test
+	public void testOtherMethodsArePassedOnAndMeasured() throws Exception {
+		Filter filter = new Filter();
+		List<String> types = List.of(SOME_TYPE);
+
+		boolean recordExists = recordStorage.recordExists(types, SOME_ID);
+		Set<String> existingIds = recordStorage.findExistingIds(types, List.of(SOME_ID));
+		boolean linksExist = recordStorage.linksExistForRecord(SOME_TYPE, SOME_ID);
+		Set<Link> linksFrom = recordStorage.getLinksFromRecord(SOME_TYPE, SOME_ID);
+		Set<StorageTerm> terms = recordStorage.getStorageTermsForRecord(SOME_TYPE, SOME_ID);
+		long total = recordStorage.getTotalNumberOfRecordsForTypes(types, filter);
+
+		recordStorageSpy.MCR.assertParameters("recordExists", 0, types, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("recordExists", 0, recordExists);
+		assertEquals(existingIds, Set.of());
+		recordStorageSpy.MCR.assertParameters("linksExistForRecord", 0, SOME_TYPE, SOME_ID);
+		recordStorageSpy.MCR.assertReturn("linksExistForRecord", 0, linksExist);
+		recordStorageSpy.MCR.assertReturn("getLinksFromRecord", 0, linksFrom);
+		recordStorageSpy.MCR.assertReturn("getStorageTermsForRecord", 0, terms);
+		recordStorageSpy.MCR.assertParameters("getTotalNumberOfRecordsForTypes", 0, types,
+				filter);
+		recordStorageSpy.MCR.assertReturn("getTotalNumberOfRecordsForTypes", 0, total);
+		assertOperations("findExistingIds." + SOME_TYPE, "getLinksFromRecord." + SOME_TYPE,
+				"getStorageTermsForRecord." + SOME_TYPE,
+				"getTotalNumberOfRecordsForTypes." + SOME_TYPE, "linksExistForRecord." + SOME_TYPE,
+				"recordExists." + SOME_TYPE);
+	}
+
+	@Test
+	public void testLinkQueriesArePassedOnAndMeasured() throws Exception {
+		recordStorageSpy.MRV.setDefaultReturnValuesSupplier("getLinksToRecord", () -> links);
+
+		Set<Link> linksTo = recordStorage.getLinksToRecord(SOME_TYPE, SOME_ID);
+		StorageLinksReadResult page = recordStorage.getLinksToRecord(SOME_TYPE, SOME_ID, 10,
+				null);
+		long count = recordStorage.countLinksToRecord(SOME_TYPE, SOME_ID);
+		Map<String, Long> counts = recordStorage.countLinksToRecordGroupedByType(SOME_TYPE,
+				SOME_ID);
+
+		assertEquals(linksTo, links);
+		assertEquals(page.links(), List.copyOf(links));
+		assertEquals(count, 1);
+		assertEquals(counts, Map.of("someLinkedType", 1L));
+		assertOperations("countLinksToRecord." + SOME_TYPE,
+				"countLinksToRecordGroupedByType." + SOME_TYPE, "getLinksToRecord." + SOME_TYPE,
+				"getPageOfLinksToRecord." + SOME_TYPE);
+	}
+}
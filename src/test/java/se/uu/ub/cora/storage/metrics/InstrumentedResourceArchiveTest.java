@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.ResourceNotFoundException;
+import se.uu.ub.cora.storage.archive.ResourceArchive;
+import se.uu.ub.cora.storage.archive.ResourceArchiveSpy;
+import se.uu.ub.cora.storage.archive.ResourceMetadata;
+import se.uu.ub.cora.storage.archive.record.ResourceMetadataToUpdate;
+
+public class InstrumentedResourceArchiveTest {
+	private ResourceArchiveSpy resourceArchiveSpy;
+	private InMemoryStorageMetrics storageMetrics;
+	private InstrumentedResourceArchive resourceArchive;
+	private long now;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		resourceArchiveSpy = new ResourceArchiveSpy();
+		storageMetrics = InMemoryStorageMetrics.create();
+		resourceArchive = InstrumentedResourceArchive
+				.usingResourceArchiveAndMetrics(resourceArchiveSpy, storageMetrics);
+		now = 0;
+		resourceArchive.onlyForTestGetTimer().onlyForTestSetNanoClock(() -> now += 10);
+	}
+
+	@Test
+	public void testImplementsResourceArchive() throws Exception {
+		assertTrue(resourceArchive instanceof ResourceArchive);
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(resourceArchive.onlyForTestGetResourceArchive(), resourceArchiveSpy);
+		assertSame(resourceArchive.onlyForTestGetStorageMetrics(), storageMetrics);
+	}
+
+	@Test
+	public void testCreateMasterResourceCountsBytesReadFromResource() throws Exception {
+		resourceArchiveSpy.MRV.setDefaultReturnValuesSupplier("createMasterResource",
+				this::readAllFromPassedOnResource);
+
+		resourceArchive.createMasterResource("divider", "someType", "someId",
+				new ByteArrayInputStream(new byte[] { 1, 2, 3 }), "image/png");
+
+		resourceArchiveSpy.MCR.assertParameter("createMasterResource", 0, "mimeType",
+				"image/png");
+		assertEquals(storageMetrics.getStatistics(),
+				List.of(new OperationStatistics("resourceArchive", "createMasterResource",
+						"someType", 1, 0, 0, 3, 10, 10, 10, 10)));
+	}
+
+	private Object readAllFromPassedOnResource() {
+		String methodName = resourceArchiveSpy.MCR.getNumberOfCallsToMethod("update") > 0
+				? "update"
+				: "createMasterResource";
+		InputStream resource = (InputStream) resourceArchiveSpy.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName(methodName, 0, "resource");
+		try {
+			resource.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return null;
+	}
+
+	@Test
+	public void testUpdateCountsBytesReadFromResource() throws Exception {
+		resourceArchiveSpy.MRV.setDefaultReturnValuesSupplier("update",
+				this::readAllFromPassedOnResource);
+
+		resourceArchive.update("divider", "someType", "someId",
+				new ByteArrayInputStream(new byte[] { 1, 2 }), "image/png");
+
+		resourceArchiveSpy.MCR.assertParameter("update", 0, "id", "someId");
+		OperationStatistics statistics = getOnlyStatistics();
+		assertEquals(statistics.operation(), "update");
+		assertEquals(statistics.bytes(), 2);
+	}
+
+	private OperationStatistics getOnlyStatistics() {
+		List<OperationStatistics> statistics = storageMetrics.getStatistics();
+		assertEquals(statistics.size(), 1);
+		return statistics.get(0);
+	}
+
+	@Test
+	public void testReadMasterResourceCountsBytesAsTheyAreRead() throws Exception {
+		resourceArchiveSpy.MRV.setDefaultReturnValuesSupplier("readMasterResource",
+				() -> new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 }));
+
+		InputStream resource = resourceArchive.readMasterResource("divider", "someType",
+				"someId");
+		resource.readAllBytes();
+
+		resourceArchiveSpy.MCR.assertParameters("readMasterResource", 0, "divider", "someType",
+				"someId");
+		OperationStatistics statistics = getOnlyStatistics();
+		assertEquals(statistics.operation(), "readMasterResource");
+		assertEquals(statistics.bytes(), 4);
+	}
+
+	@Test
+	public void testMetadataAndDeleteArePassedOn() throws Exception {
+		ResourceMetadataToUpdate toUpdate = new ResourceMetadataToUpdate("file.png", "image/png");
+
+		ResourceMetadata metadata = resourceArchive.readMasterResourceMetadata("divider",
+				"someType", "someId");
+		resourceArchive.updateMasterResourceMetadata("divider", "someType", "someId", toUpdate);
+		resourceArchive.delete("divider", "someType", "someId");
+
+		resourceArchiveSpy.MCR.assertReturn("readMasterResourceMetadata", 0, metadata);
+		resourceArchiveSpy.MCR.assertParameters("updateMasterResourceMetadata", 0, "divider",
+				"someType", "someId", toUpdate);
+		resourceArchiveSpy.MCR.assertParameters("delete", 0, "divider", "someType", "someId");
+		List<String> operations = storageMetrics.getStatistics().stream()
+				.map(OperationStatistics::operation).toList();
+		assertEquals(operations,
+				List.of("delete", "readMasterResourceMetadata", "updateMasterResourceMetadata"));
+	}
+
+	@Test
+	public void testErrorsAreMeasuredAndRethrown() throws Exception {
+		ResourceNotFoundException error = ResourceNotFoundException.withMessage("not found");
+		List.of("createMasterResource", "readMasterResource", "update", "delete",
+				"readMasterResourceMetadata", "updateMasterResourceMetadata")
+				.forEach(method -> resourceArchiveSpy.MRV.setAlwaysThrowException(method, error));
+		InputStream resource = new ByteArrayInputStream(new byte[0]);
+
+		assertThrowsError(error, () -> resourceArchive.createMasterResource("divider",
+				"someType", "someId", resource, "image/png"));
+		assertThrowsError(error,
+				() -> resourceArchive.readMasterResource("divider", "someType", "someId"));
+		assertThrowsError(error, () -> resourceArchive.update("divider", "someType", "someId",
+				resource, "image/png"));
+		assertThrowsError(error, () -> resourceArchive.delete("divider", "someType", "someId"));
+		assertThrowsError(error, () -> resourceArchive.readMasterResourceMetadata("divider",
+				"someType", "someId"));
+		assertThrowsError(error, () -> resourceArchive.updateMasterResourceMetadata("divider",
+				"someType", "someId", null));
+
+		List<OperationStatistics> statistics = storageMetrics.getStatistics();
+		assertEquals(statistics.size(), 6);
+		statistics.forEach(operation -> assertEquals(operation.errors(), 1));
+	}
+
+	private void assertThrowsError(RuntimeException error, Runnable call) {
+		try {
+			call.run();
+			fail();
+		} catch (RuntimeException e) {
+			assertSame(e, error);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.StreamStorage;
+import se.uu.ub.cora.storage.StreamStorageSpy;
+
+public class InstrumentedStreamStorageTest {
+	private StreamStorageSpy streamStorageSpy;
+	private InMemoryStorageMetrics storageMetrics;
+	private InstrumentedStreamStorage streamStorage;
+	private long now;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		streamStorageSpy = new StreamStorageSpy();
+		storageMetrics = InMemoryStorageMetrics.create();
+		streamStorage = InstrumentedStreamStorage.usingStreamStorageAndMetrics(streamStorageSpy,
+				storageMetrics);
+		now = 0;
+		streamStorage.onlyForTestGetTimer().onlyForTestSetNanoClock(() -> now += 10);
+	}
+
+	@Test
+	public void testImplementsStreamStorage() throws Exception {
+		assertTrue(streamStorage instanceof StreamStorage);
+	}
+
+	@Test
+	public void testOnlyForTest() throws Exception {
+		assertSame(streamStorage.onlyForTestGetStreamStorage(), streamStorageSpy);
+		assertSame(streamStorage.onlyForTestGetStorageMetrics(), storageMetrics);
+	}
+
+	@Test
+	public void testStoreReportsStoredBytes() throws Exception {
+		streamStorageSpy.MRV.setDefaultReturnValuesSupplier("store", () -> 42L);
+		InputStream stream = new ByteArrayInputStream(new byte[0]);
+
+		long storedBytes = streamStorage.store("divider", "someType", "someId", "master",
+				stream);
+
+		assertEquals(storedBytes, 42);
+		streamStorageSpy.MCR.assertParameters("store", 0, "divider", "someType", "someId",
+				"master", stream);
+		assertEquals(storageMetrics.getStatistics(), List.of(new OperationStatistics(
+				"streamStorage", "store", "someType", 1, 0, 0, 42, 10, 10, 10, 10)));
+	}
+
+	@Test
+	public void testRetrieveReportsBytesAsTheyAreRead() throws Exception {
+		streamStorageSpy.MRV.setDefaultReturnValuesSupplier("retrieve",
+				() -> new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+
+		InputStream stream = streamStorage.retrieve("divider", "someType", "someId", "master");
+		assertEquals(getOnlyStatistics().bytes(), 0);
+		stream.readAllBytes();
+
+		streamStorageSpy.MCR.assertParameters("retrieve", 0, "divider", "someType", "someId",
+				"master");
+		OperationStatistics statistics = getOnlyStatistics();
+		assertEquals(statistics.operation(), "retrieve");
+		assertEquals(statistics.calls(), 1);
+		assertEquals(statistics.bytes(), 3);
+	}
+
+	private OperationStatistics getOnlyStatistics() {
+		List<OperationStatistics> statistics = storageMetrics.getStatistics();
+		assertEquals(statistics.size(), 1);
+		return statistics.get(0);
+	}
+
+	@Test
+	public void testDelete() throws Exception {
+		streamStorage.delete("divider", "someType", "someId", "master");
+
+		streamStorageSpy.MCR.assertParameters("delete", 0, "divider", "someType", "someId",
+				"master");
+		assertEquals(getOnlyStatistics().operation(), "delete");
+	}
+
+	@Test
+	public void testErrorsAreMeasuredAndRethrown() throws Exception {
+		StorageException error = StorageException.withMessage("some error");
+		streamStorageSpy.MRV.setAlwaysThrowException("store", error);
+		streamStorageSpy.MRV.setAlwaysThrowException("retrieve", error);
+		streamStorageSpy.MRV.setAlwaysThrowException("delete", error);
+
+		assertThrowsError(error, () -> streamStorage.store("divider", "someType", "someId",
+				"master", new ByteArrayInputStream(new byte[0])));
+		assertThrowsError(error,
+				() -> streamStorage.retrieve("divider", "someType", "someId", "master"));
+		assertThrowsError(error,
+				() -> streamStorage.delete("divider", "someType", "someId", "master"));
+
+		for (OperationStatistics statistics : storageMetrics.getStatistics()) {
+			assertEquals(statistics.errors(), 1);
+			assertEquals(statistics.inFlight(), 0);
+		}
+		assertEquals(storageMetrics.getStatistics().size(), 3);
+	}
+
+	private void assertThrowsError(RuntimeException error, Runnable call) {
+		try {
+			call.run();
+			fail();
+		} catch (RuntimeException e) {
+			assertSame(e, error);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.metrics;
+
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
+
+public class OperationMetricsSpy implements OperationMetrics {
+	public MethodCallRecorder MCR = new MethodCallRecorder();
+	public MethodReturnValues MRV = new MethodReturnValues();
+
+	public OperationMetricsSpy() {
+		MCR.useMRV(MRV);
+		MRV.setDefaultReturnValuesSupplier("callStarted", () -> null);
+		MRV.setDefaultReturnValuesSupplier("callSucceeded", () -> null);
+		MRV.setDefaultReturnValuesSupplier("callFailed", () -> null);
+		MRV.setDefaultReturnValuesSupplier("bytesTransferred", () -> null);
+	}
+
+	@Override
+	public void callStarted() {
+		MCR.addCallAndReturnFromMRV();
+	}
+
+	@Override
+	public void callSucceeded(long durationNanos) {
+		MCR.addCallAndReturnFromMRV("durationNanos", durationNanos);
+	}
+
+	@Override
+	public void callFailed(long durationNanos) {
+		MCR.addCallAndReturnFromMRV("durationNanos", durationNanos);
+	}
+
+	@Override
+	public void bytesTransferred(long bytes) {
+		MCR.addCallAndReturnFromMRV("bytes", bytes);
+	}
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.notification;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.logger.LoggerProvider;
+import se.uu.ub.cora.logger.spies.LoggerFactorySpy;
+import se.uu.ub.cora.logger.spies.LoggerSpy;
+import se.uu.ub.cora.storage.StorageException;
+
+public class CoalescingDataChangedNotifierTest {
+	private static final String SOME_TYPE = "someType";
+	private static final String OTHER_TYPE = "otherType";
+	private LoggerFactorySpy loggerFactorySpy;
+	private DataChangedListenerSpy listener;
+	private CoalescingPolicy policy;
+	private CoalescingDataChangedNotifier notifier;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		loggerFactorySpy = new LoggerFactorySpy();
+		LoggerProvider.setLoggerFactory(loggerFactorySpy);
+		listener = new DataChangedListenerSpy();
+		policy = new CoalescingPolicy(Duration.ofHours(1), 3, 100);
+		notifier = CoalescingDataChangedNotifier.usingPolicyAndListener(policy, listener);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		listener.releaseDelivery.countDown();
+		notifier.close();
+	}
+
+	@Test
+	public void testInit() {
+		assertSame(notifier.onlyForTestGetPolicy(), policy);
+		assertSame(notifier.onlyForTestGetListener(), listener);
+		assertFalse(notifier.onlyForTestIsSchedulerShutdown());
+	}
+
+	@Test
+	public void testChangesAreNotDeliveredBeforeWindowEnds() {
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+
+		listener.MCR.assertMethodNotCalled("dataChanged");
+		assertEquals(notifier.onlyForTestGetNumberOfPendingChanges(), 1);
+	}
+
+	@Test
+	public void testFlushDeliversChanges() {
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(SOME_TYPE, "id2", "update");
+
+		notifier.flush();
+
+		listener.MCR.assertParameters("dataChanged", 0, SOME_TYPE,
+				List.of(change(SOME_TYPE, "id1", "create"), change(SOME_TYPE, "id2", "update")));
+		assertEquals(notifier.onlyForTestGetNumberOfPendingChanges(), 0);
+	}
+
+	private DataChange change(String type, String id, String action) {
+		return new DataChange(type, id, action);
+	}
+
+	@Test
+	public void testFlushWithoutChanges() {
+		notifier.flush();
+
+		listener.MCR.assertMethodNotCalled("dataChanged");
+	}
+
+	@Test
+	public void testOnlyLastActionForRecordIsDelivered() {
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(SOME_TYPE, "id2", "create");
+		notifier.dataChanged(SOME_TYPE, "id1", "update");
+		notifier.dataChanged(SOME_TYPE, "id1", "delete");
+
+		notifier.flush();
+
+		listener.MCR.assertParameters("dataChanged", 0, SOME_TYPE,
+				List.of(change(SOME_TYPE, "id2", "create"), change(SOME_TYPE, "id1", "delete")));
+		assertEquals(notifier.getStatistics(), new NotificationStatistics(4, 2, 1, 0));
+	}
+
+	@Test
+	public void testChangesAreGroupedByType() {
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(OTHER_TYPE, "id1", "create");
+		notifier.dataChanged(SOME_TYPE, "id2", "create");
+
+		notifier.flush();
+
+		listener.MCR.assertNumberOfCallsToMethod("dataChanged", 2);
+		listener.MCR.assertParameters("dataChanged", 0, SOME_TYPE,
+				List.of(change(SOME_TYPE, "id1", "create"), change(SOME_TYPE, "id2", "create")));
+		listener.MCR.assertParameters("dataChanged", 1, OTHER_TYPE,
+				List.of(change(OTHER_TYPE, "id1", "create")));
+	}
+
+	@Test
+	public void testChangesAreDeliveredInBatchesOfMaxBatchSize() {
+		for (int i = 1; i <= 7; i++) {
+			notifier.dataChanged(SOME_TYPE, "id" + i, "create");
+		}
+
+		notifier.flush();
+
+		listener.MCR.assertNumberOfCallsToMethod("dataChanged", 3);
+		assertBatchSize(0, 3);
+		assertBatchSize(1, 3);
+		assertBatchSize(2, 1);
+		assertEquals(notifier.getStatistics(), new NotificationStatistics(7, 7, 3, 0));
+	}
+
+	private void assertBatchSize(int callNumber, int size) {
+		List<?> changes = (List<?>) listener.MCR
+				.getValueForMethodNameAndCallNumberAndParameterName("dataChanged", callNumber,
+						"changes");
+		assertEquals(changes.size(), size);
+	}
+
+	@Test
+	public void testChangesAreDeliveredWhenWindowEnds() throws Exception {
+		notifier.close();
+		notifier = CoalescingDataChangedNotifier.usingPolicyAndListener(
+				new CoalescingPolicy(Duration.ofMillis(5), 10, 100), listener);
+
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(SOME_TYPE, "id1", "update");
+
+		waitForDeliveredChanges(1);
+		listener.MCR.assertParameters("dataChanged", 0, SOME_TYPE,
+				List.of(change(SOME_TYPE, "id1", "update")));
+	}
+
+	private void waitForDeliveredChanges(int numberOfChanges) throws InterruptedException {
+		long giveUpAt = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (notifier.getStatistics().deliveredChanges() < numberOfChanges
+				&& System.nanoTime() < giveUpAt) {
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	public void testFailingListenerDoesNotStopDelivery() {
+		RuntimeException exception = new RuntimeException("listener failed");
+		listener = new DataChangedListenerSpy() {
+			@Override
+			public void dataChanged(String type, List<DataChange> changes) {
+				super.dataChanged(type, changes);
+				if (SOME_TYPE.equals(type)) {
+					throw exception;
+				}
+			}
+		};
+		notifier.close();
+		notifier = CoalescingDataChangedNotifier.usingPolicyAndListener(policy, listener);
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(OTHER_TYPE, "id1", "create");
+
+		notifier.flush();
+
+		listener.MCR.assertNumberOfCallsToMethod("dataChanged", 2);
+		assertEquals(notifier.getStatistics(), new NotificationStatistics(2, 1, 1, 1));
+		LoggerSpy loggerSpy = (LoggerSpy) loggerFactorySpy.MCR.getReturnValue("factorForClass", 1);
+		loggerSpy.MCR.assertNumberOfCallsToMethod("logErrorUsingMessageAndException", 1);
+		loggerSpy.MCR.assertParameters("logErrorUsingMessageAndException", 0,
+				"Could not deliver 1 changes to records of type: someType", exception);
+	}
+
+	@Test
+	public void testListenerReportingChangesWhenFullIsNotBlocked() throws Exception {
+		useNotifierWithListenerReportingChangesBack(Duration.ofHours(1));
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+
+		Thread deliveringThread = Thread.ofPlatform().start(notifier::flush);
+		deliveringThread.join(5000);
+
+		assertFalse(deliveringThread.isAlive());
+		assertEquals(notifier.onlyForTestGetNumberOfPendingChanges(), 2);
+	}
+
+	private void useNotifierWithListenerReportingChangesBack(Duration window) {
+		notifier.close();
+		listener = new DataChangedListenerSpy() {
+			@Override
+			public void dataChanged(String type, List<DataChange> changes) {
+				super.dataChanged(type, changes);
+				if (SOME_TYPE.equals(type)) {
+					notifier.dataChanged(OTHER_TYPE, "id1", "update");
+					notifier.dataChanged(OTHER_TYPE, "id2", "update");
+				}
+			}
+		};
+		notifier = CoalescingDataChangedNotifier
+				.usingPolicyAndListener(new CoalescingPolicy(window, 10, 1), listener);
+	}
+
+	@Test
+	public void testListenerReportingChangesWhenFullDoesNotBlockBackgroundDelivery()
+			throws Exception {
+		useNotifierWithListenerReportingChangesBack(Duration.ofMillis(5));
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+
+		waitForCallsToListener(2);
+
+		listener.MCR.assertParameters("dataChanged", 1, OTHER_TYPE,
+				List.of(change(OTHER_TYPE, "id1", "update"), change(OTHER_TYPE, "id2", "update")));
+	}
+
+	@Test
+	public void testFullPendingChangesStartsDeliveryAndBlocksNewRecords() throws Exception {
+		useNotifierWithMaxPendingChangesAndBlockedListener(2);
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(SOME_TYPE, "id2", "create");
+		notifier.dataChanged(SOME_TYPE, "id3", "create");
+		waitForCallsToListener(1);
+		notifier.dataChanged(SOME_TYPE, "id4", "create");
+
+		Thread blockedProducer = startProducer(SOME_TYPE, "id5", new AtomicReference<>());
+		blockedProducer.join(100);
+		assertTrue(blockedProducer.isAlive());
+
+		listener.releaseDelivery.countDown();
+		blockedProducer.join(5000);
+		assertFalse(blockedProducer.isAlive());
+		notifier.flush();
+		assertEquals(notifier.getStatistics(), new NotificationStatistics(5, 5, 3, 0));
+	}
+
+	private void useNotifierWithMaxPendingChangesAndBlockedListener(int maxPendingChanges) {
+		notifier.close();
+		listener.releaseDelivery = new CountDownLatch(1);
+		notifier = CoalescingDataChangedNotifier.usingPolicyAndListener(
+				new CoalescingPolicy(Duration.ofHours(1), 10, maxPendingChanges), listener);
+	}
+
+	private void waitForCallsToListener(int numberOfCalls) throws InterruptedException {
+		long giveUpAt = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!listenerCalled(numberOfCalls) && System.nanoTime() < giveUpAt) {
+			Thread.sleep(1);
+		}
+	}
+
+	private boolean listenerCalled(int numberOfCalls) {
+		try {
+			listener.MCR.assertNumberOfCallsToMethod("dataChanged", numberOfCalls);
+			return true;
+		} catch (AssertionError e) {
+			return false;
+		}
+	}
+
+	private Thread startProducer(String type, String id, AtomicReference<Exception> thrown) {
+		return Thread.ofPlatform().start(() -> {
+			try {
+				notifier.dataChanged(type, id, "create");
+			} catch (Exception e) {
+				thrown.set(e);
+			}
+		});
+	}
+
+	@Test
+	public void testChangeToPendingRecordIsNotBlockedWhenFull() throws Exception {
+		useNotifierWithMaxPendingChangesAndBlockedListener(2);
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(SOME_TYPE, "id2", "create");
+		notifier.dataChanged(SOME_TYPE, "id3", "create");
+		waitForCallsToListener(1);
+		notifier.dataChanged(SOME_TYPE, "id4", "create");
+
+		notifier.dataChanged(SOME_TYPE, "id3", "update");
+
+		assertEquals(notifier.onlyForTestGetNumberOfPendingChanges(), 2);
+	}
+
+	@Test
+	public void testBlockedProducerGetsExceptionOnClose() throws Exception {
+		useNotifierWithMaxPendingChangesAndBlockedListener(1);
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(SOME_TYPE, "id2", "create");
+		waitForCallsToListener(1);
+		AtomicReference<Exception> thrown = new AtomicReference<>();
+		Thread blockedProducer = startProducer(SOME_TYPE, "id3", thrown);
+		blockedProducer.join(100);
+
+		Thread closer = Thread.ofPlatform().start(notifier::close);
+		blockedProducer.join(5000);
+		listener.releaseDelivery.countDown();
+		closer.join(5000);
+
+		assertEquals(thrown.get().getClass(), StorageException.class);
+		assertEquals(thrown.get().getMessage(), "CoalescingDataChangedNotifier is closed");
+	}
+
+	@Test
+	public void testInterruptedBlockedProducer() throws Exception {
+		useNotifierWithMaxPendingChangesAndBlockedListener(1);
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+		notifier.dataChanged(SOME_TYPE, "id2", "create");
+		waitForCallsToListener(1);
+		AtomicReference<Exception> thrown = new AtomicReference<>();
+		Thread blockedProducer = startProducer(SOME_TYPE, "id3", thrown);
+		blockedProducer.join(100);
+
+		blockedProducer.interrupt();
+		blockedProducer.join(5000);
+
+		assertEquals(thrown.get().getClass(), StorageException.class);
+		assertEquals(thrown.get().getMessage(),
+				"Interrupted while waiting for changes to be delivered");
+		assertEquals(thrown.get().getCause().getClass(), InterruptedException.class);
+	}
+
+	@Test
+	public void testCloseDeliversChangesAndStopsScheduler() {
+		notifier.dataChanged(SOME_TYPE, "id1", "create");
+
+		notifier.close();
+
+		listener.MCR.assertParameters("dataChanged", 0, SOME_TYPE,
+				List.of(change(SOME_TYPE, "id1", "create")));
+		assertTrue(notifier.onlyForTestIsSchedulerShutdown());
+	}
+
+	@Test
+	public void testDataChangedAfterClose() {
+		notifier.close();
+
+		try {
+			notifier.dataChanged(SOME_TYPE, "id1", "create");
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "CoalescingDataChangedNotifier is closed");
+		}
+	}
+}
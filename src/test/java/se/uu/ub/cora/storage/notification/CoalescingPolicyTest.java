@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.notification;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.StorageException;
+
+public class CoalescingPolicyTest {
+
+	@Test
+	public void testDefaultPolicy() {
+		CoalescingPolicy policy = CoalescingPolicy.defaultPolicy();
+
+		assertEquals(policy.window(), Duration.ofMillis(100));
+		assertEquals(policy.maxBatchSize(), 1_000);
+		assertEquals(policy.maxPendingChanges(), 10_000);
+	}
+
+	@Test
+	public void testWindowMustBePositive() {
+		assertInvalid(Duration.ZERO, 1, 1, "Window must be positive");
+	}
+
+	@Test
+	public void testMaxBatchSizeMustBeAtLeastOne() {
+		assertInvalid(Duration.ofMillis(1), 0, 1,
+				"MaxBatchSize and maxPendingChanges must be at least 1");
+	}
+
+	@Test
+	public void testMaxPendingChangesMustBeAtLeastOne() {
+		assertInvalid(Duration.ofMillis(1), 1, 0,
+				"MaxBatchSize and maxPendingChanges must be at least 1");
+	}
+
+	private void assertInvalid(Duration window, int maxBatchSize, int maxPendingChanges,
+			String message) {
+		try {
+			new CoalescingPolicy(window, maxBatchSize, maxPendingChanges);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), message);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.notification;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.storage.RecordStorageInstanceProviderSpy;
+import se.uu.ub.cora.storage.StorageException;
+
+public class CoalescingRecordStorageInstanceProviderTest {
+	private RecordStorageInstanceProviderSpy instanceProvider;
+	private CoalescingPolicy policy;
+	private CoalescingRecordStorageInstanceProvider provider;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		instanceProvider = new RecordStorageInstanceProviderSpy();
+		policy = new CoalescingPolicy(Duration.ofHours(1), 10, 100);
+		provider = CoalescingRecordStorageInstanceProvider
+				.usingInstanceProviderAndPolicy(instanceProvider, policy);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		provider.close();
+	}
+
+	@Test
+	public void testInit() {
+		assertSame(provider.onlyForTestGetInstanceProvider(), instanceProvider);
+		assertSame(provider.onlyForTestGetNotifier().onlyForTestGetPolicy(), policy);
+	}
+
+	@Test
+	public void testGetOrderToSelectImplementionsBy() {
+		instanceProvider.MRV.setDefaultReturnValuesSupplier("getOrderToSelectImplementionsBy",
+				() -> 7);
+
+		int order = provider.getOrderToSelectImplementionsBy();
+
+		instanceProvider.MCR.assertReturn("getOrderToSelectImplementionsBy", 0, order);
+	}
+
+	@Test
+	public void testGetRecordStorage() {
+		var recordStorage = provider.getRecordStorage();
+
+		instanceProvider.MCR.assertReturn("getRecordStorage", 0, recordStorage);
+	}
+
+	@Test
+	public void testCanReuseRecordStorage() {
+		instanceProvider.MRV.setDefaultReturnValuesSupplier("canReuseRecordStorage", () -> true);
+
+		boolean canReuse = provider.canReuseRecordStorage();
+
+		instanceProvider.MCR.assertReturn("canReuseRecordStorage", 0, canReuse);
+	}
+
+	@Test
+	public void testDataChangedIsNotPassedOnDirectly() {
+		provider.dataChanged("someType", "someId", "create");
+
+		instanceProvider.MCR.assertMethodNotCalled("dataChanged");
+	}
+
+	@Test
+	public void testFlushPassesCoalescedChangesOn() {
+		provider.dataChanged("someType", "someId", "create");
+		provider.dataChanged("someType", "otherId", "create");
+		provider.dataChanged("someType", "someId", "update");
+
+		provider.flush();
+
+		instanceProvider.MCR.assertNumberOfCallsToMethod("dataChanged", 2);
+		instanceProvider.MCR.assertParameters("dataChanged", 0, "someType", "otherId", "create");
+		instanceProvider.MCR.assertParameters("dataChanged", 1, "someType", "someId", "update");
+	}
+
+	@Test
+	public void testClosePassesChangesOn() {
+		provider.dataChanged("someType", "someId", "delete");
+
+		provider.close();
+
+		instanceProvider.MCR.assertParameters("dataChanged", 0, "someType", "someId", "delete");
+		assertTrue(provider.onlyForTestGetNotifier().onlyForTestIsSchedulerShutdown());
+		assertEquals(provider.onlyForTestGetNotifier().getStatistics(),
+				new NotificationStatistics(1, 1, 1, 0));
+	}
+
+	@Test
+	public void testChangesToDifferentTypesArePassedOnInOrder() {
+		provider.dataChanged("someType", "someId", "create");
+		provider.dataChanged("otherType", "otherId", "create");
+
+		provider.flush();
+
+		assertEquals(List.of(
+				instanceProvider.MCR.getValueForMethodNameAndCallNumberAndParameterName(
+						"dataChanged", 0, "type"),
+				instanceProvider.MCR.getValueForMethodNameAndCallNumberAndParameterName(
+						"dataChanged", 1, "type")),
+				List.of("someType", "otherType"));
+	}
+
+	@Test
+	public void testFailingChangeDoesNotStopOtherChangesInBatch() {
+		instanceProvider.MRV.setThrowException("dataChanged",
+				new RuntimeException("someError"), "someType", "id1", "create");
+		instanceProvider.MRV.setThrowException("dataChanged",
+				new RuntimeException("otherError"), "someType", "id3", "create");
+		provider.dataChanged("someType", "id1", "create");
+		provider.dataChanged("someType", "id2", "create");
+		provider.dataChanged("someType", "id3", "create");
+		provider.dataChanged("someType", "id4", "create");
+
+		provider.flush();
+
+		instanceProvider.MCR.assertNumberOfCallsToMethod("dataChanged", 4);
+		instanceProvider.MCR.assertParameters("dataChanged", 3, "someType", "id4", "create");
+		assertEquals(provider.onlyForTestGetNotifier().getStatistics(),
+				new NotificationStatistics(4, 0, 0, 1));
+	}
+
+	@Test
+	public void testExceptionForFailedChanges() {
+		RuntimeException someError = new RuntimeException("someError");
+		RuntimeException otherError = new RuntimeException("otherError");
+		instanceProvider.MRV.setThrowException("dataChanged", someError, "someType", "id1",
+				"create");
+		instanceProvider.MRV.setThrowException("dataChanged", otherError, "someType", "id2",
+				"create");
+		List<Exception> deliveryExceptions = new ArrayList<>();
+		CoalescingDataChangedNotifier notifier = CoalescingDataChangedNotifier
+				.usingPolicyAndListener(policy, (type, changes) -> {
+					try {
+						provider.onlyForTestPassChangesOn(type, changes);
+					} catch (Exception e) {
+						deliveryExceptions.add(e);
+					}
+				});
+		notifier.dataChanged("someType", "id1", "create");
+		notifier.dataChanged("someType", "id2", "create");
+		notifier.dataChanged("someType", "id3", "create");
+
+		notifier.close();
+
+		Exception exception = deliveryExceptions.get(0);
+		assertEquals(exception.getClass(), StorageException.class);
+		assertEquals(exception.getMessage(),
+				"2 of 3 changes for type someType could not be passed on");
+		assertSame(exception.getCause(), someError);
+		assertSame(exception.getSuppressed()[0], otherError);
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.replica;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.StorageException;
+
+public class ReadWriteSplittingRecordStorageTest {
+	private static final String SOME_TYPE = "someType";
+	private static final String SOME_ID = "someId";
+	private static final long LAG = Duration.ofSeconds(1).toNanos();
+	private RecordStorageSpy primary;
+	private RecordStorageSpy replica1;
+	private RecordStorageSpy replica2;
+	private ReadYourWritesSession session;
+	private ReadWriteSplittingRecordStorage recordStorage;
+	private long now;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		primary = new RecordStorageSpy();
+		replica1 = new RecordStorageSpy();
+		replica2 = new RecordStorageSpy();
+		session = ReadYourWritesSession.usingMaxReplicationLag(Duration.ofSeconds(1));
+		now = 0;
+		session.onlyForTestSetNanoClock(() -> now);
+		recordStorage = ReadWriteSplittingRecordStorage.usingPrimaryReplicasAndSession(primary,
+				List.of(replica1, replica2), session);
+	}
+
+	private void createRecord(String type, String id) {
+		recordStorage.create(type, id, new DataGroupSpy(), Set.of(), Set.of(), "someDivider");
+	}
+
+	@Test
+	public void testUsingPrimaryReplicasAndSession() {
+		assertSame(recordStorage.onlyForTestGetPrimary(), primary);
+		assertEquals(recordStorage.onlyForTestGetReplicas(), List.of(replica1, replica2));
+		assertSame(recordStorage.onlyForTestGetSession(), session);
+	}
+
+	@Test
+	public void testReadsUseReplicasInTurn() {
+		DataRecordGroup firstRead = recordStorage.read(SOME_TYPE, SOME_ID);
+		DataRecordGroup secondRead = recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorage.read(SOME_TYPE, SOME_ID);
+
+		replica1.MCR.assertReturn("read", 0, firstRead);
+		replica2.MCR.assertReturn("read", 0, secondRead);
+		replica1.MCR.assertNumberOfCallsToMethod("read", 2);
+		primary.MCR.assertMethodNotCalled("read");
+	}
+
+	@Test
+	public void testWithoutReplicasAllReadsUsePrimary() {
+		recordStorage = ReadWriteSplittingRecordStorage.usingPrimaryReplicasAndSession(primary,
+				List.of(), session);
+
+		recordStorage.read(SOME_TYPE, SOME_ID);
+
+		primary.MCR.assertParameters("read", 0, SOME_TYPE, SOME_ID);
+	}
+
+	@Test
+	public void testCreateUsesPrimary() {
+		createRecord(SOME_TYPE, SOME_ID);
+
+		primary.MCR.assertParameters("create", 0, SOME_TYPE, SOME_ID);
+		replica1.MCR.assertMethodNotCalled("create");
+	}
+
+	@Test
+	public void testReadOfRecentlyWrittenRecordUsesPrimary() {
+		createRecord(SOME_TYPE, SOME_ID);
+
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorage.readIfExists(SOME_TYPE, SOME_ID);
+		recordStorage.getLinksFromRecord(SOME_TYPE, SOME_ID);
+		recordStorage.getStorageTermsForRecord(SOME_TYPE, SOME_ID);
+		recordStorage.recordExists(List.of("otherType", SOME_TYPE), SOME_ID);
+
+		primary.MCR.assertNumberOfCallsToMethod("read", 2);
+		primary.MCR.assertNumberOfCallsToMethod("getLinksFromRecord", 1);
+		primary.MCR.assertNumberOfCallsToMethod("getStorageTermsForRecord", 1);
+		primary.MCR.assertNumberOfCallsToMethod("recordExists", 1);
+		assertReplicasNotCalled("read");
+	}
+
+	private void assertReplicasNotCalled(String methodName) {
+		replica1.MCR.assertMethodNotCalled(methodName);
+		replica2.MCR.assertMethodNotCalled(methodName);
+	}
+
+	@Test
+	public void testReadOfOtherRecordUsesReplica() {
+		createRecord(SOME_TYPE, SOME_ID);
+
+		recordStorage.read(SOME_TYPE, "otherId");
+		recordStorage.getLinksFromRecord("otherType", SOME_ID);
+
+		replica1.MCR.assertParameters("read", 0, SOME_TYPE, "otherId");
+		replica2.MCR.assertParameters("getLinksFromRecord", 0, "otherType", SOME_ID);
+		primary.MCR.assertMethodNotCalled("read");
+	}
+
+	@Test
+	public void testReadUsesReplicaWhenMaxReplicationLagHasPassed() {
+		createRecord(SOME_TYPE, SOME_ID);
+		now += LAG;
+
+		recordStorage.read(SOME_TYPE, SOME_ID);
+		recordStorage.readList(SOME_TYPE, new Filter());
+		recordStorage.getLinksToRecord(SOME_TYPE, SOME_ID);
+
+		replica1.MCR.assertNumberOfCallsToMethod("read", 1);
+		replica2.MCR.assertNumberOfCallsToMethod("readList", 1);
+		replica1.MCR.assertNumberOfCallsToMethod("getLinksToRecord", 1);
+		primary.MCR.assertMethodNotCalled("read");
+	}
+
+	@Test
+	public void testFailedWriteIsStillTrackedAsItCouldHaveBeenMade() {
+		primary.MRV.setAlwaysThrowException("update", StorageException.withMessage("someError"));
+		try {
+			recordStorage.update(SOME_TYPE, SOME_ID, new DataGroupSpy(), Set.of(), Set.of(),
+					"someDivider");
+			fail("It should throw an exception");
+		} catch (StorageException e) {
+			assertEquals(e.getMessage(), "someError");
+		}
+
+		recordStorage.read(SOME_TYPE, SOME_ID);
+
+		primary.MCR.assertNumberOfCallsToMethod("read", 1);
+	}
+
+	@Test
+	public void testUpdateAndDeleteUsePrimaryAndAreTracked() {
+		recordStorage.update(SOME_TYPE, "id1", new DataGroupSpy(), Set.of(), Set.of(),
+				"someDivider");
+		recordStorage.deleteByTypeAndId(SOME_TYPE, "id2");
+
+		primary.MCR.assertParameters("update", 0, SOME_TYPE, "id1");
+		primary.MCR.assertParameters("deleteByTypeAndId", 0, SOME_TYPE, "id2");
+		assertEquals(session.recordWrittenRecently(SOME_TYPE, "id1"), true);
+		assertEquals(session.recordWrittenRecently(SOME_TYPE, "id2"), true);
+	}
+
+	@Test
+	public void testWriteManyUsesPrimaryAndIsTracked() {
+		RecordWrite write = new RecordWrite(RecordWriteAction.CREATE, SOME_TYPE, SOME_ID,
+				new DataGroupSpy(), Set.of(), Set.of(), "someDivider");
+
+		recordStorage.writeMany(List.of(write));
+
+		primary.MCR.assertParameters("create", 0, SOME_TYPE, SOME_ID);
+		assertEquals(session.recordWrittenRecently(SOME_TYPE, SOME_ID), true);
+	}
+
+	@Test
+	public void testReadManyUsesPrimaryIfAnyRecordWasWritten() {
+		createRecord(SOME_TYPE, "id2");
+
+		recordStorage.readMany(SOME_TYPE, List.of("id1", "id3"));
+		recordStorage.readMany(SOME_TYPE, List.of("id1", "id2"));
+
+		replica1.MCR.assertNumberOfCallsToMethod("read", 2);
+		primary.MCR.assertNumberOfCallsToMethod("read", 2);
+	}
+
+	@Test
+	public void testListsAndCountsOfRecentlyWrittenTypeUsePrimary() {
+		createRecord(SOME_TYPE, SOME_ID);
+
+		recordStorage.readList(SOME_TYPE, new Filter());
+		recordStorage.getTotalNumberOfRecordsForTypes(List.of("otherType", SOME_TYPE),
+				new Filter());
+		recordStorage.findExistingIds(List.of(SOME_TYPE), List.of("otherId"));
+		try (Stream<DataRecordGroup> stream = recordStorage.readListAsStream(SOME_TYPE,
+				new Filter())) {
+			stream.count();
+		}
+
+		primary.MCR.assertNumberOfCallsToMethod("readList", 2);
+		primary.MCR.assertNumberOfCallsToMethod("getTotalNumberOfRecordsForTypes", 1);
+		primary.MCR.assertNumberOfCallsToMethod("recordExists", 1);
+		assertReplicasNotCalled("readList");
+	}
+
+	@Test
+	public void testListsAndCountsOfOtherTypesUseReplicas() {
+		createRecord(SOME_TYPE, SOME_ID);
+
+		recordStorage.readList("otherType", new Filter());
+		recordStorage.getTotalNumberOfRecordsForTypes(List.of("otherType"), new Filter());
+
+		replica1.MCR.assertParameters("readList", 0, "otherType");
+		replica2.MCR.assertParameters("getTotalNumberOfRecordsForTypes", 0,
+				List.of("otherType"));
+		primary.MCR.assertMethodNotCalled("readList");
+	}
+
+	@Test
+	@SuppressWarnings("removal")
+	public void testReadListForSeveralTypes() {
+		recordStorage.readList(List.of(SOME_TYPE), new Filter());
+		createRecord(SOME_TYPE, SOME_ID);
+		recordStorage.readList(List.of("otherType", SOME_TYPE), new Filter());
+
+		replica1.MCR.assertNumberOfCallsToMethod("readList", 1);
+		primary.MCR.assertNumberOfCallsToMethod("readList", 1);
+	}
+
+	@Test
+	public void testLinksToRecordUsePrimaryAfterAnyWrite() {
+		recordStorage.getLinksToRecord("linkedType", "linkedId");
+		createRecord(SOME_TYPE, SOME_ID);
+
+		recordStorage.getLinksToRecord("linkedType", "linkedId");
+		recordStorage.linksExistForRecord("linkedType", "linkedId");
+		recordStorage.countLinksToRecord("linkedType", "linkedId");
+		recordStorage.countLinksToRecordGroupedByType("linkedType", "linkedId");
+		recordStorage.getLinksToRecord("linkedType", "linkedId", 10, null);
+
+		replica1.MCR.assertNumberOfCallsToMethod("getLinksToRecord", 1);
+		primary.MCR.assertNumberOfCallsToMethod("getLinksToRecord", 4);
+		primary.MCR.assertNumberOfCallsToMethod("linksExistForRecord", 1);
+	}
+
+	@Test
+	public void testReplicasAreUsedWithoutWrites() {
+		recordStorage.linksExistForRecord("linkedType", "linkedId");
+
+		replica1.MCR.assertParameters("linksExistForRecord", 0, "linkedType", "linkedId");
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.replica;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ReadYourWritesSessionTest {
+	private static final long LAG = Duration.ofSeconds(1).toNanos();
+	private ReadYourWritesSession session;
+	private long now;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		session = ReadYourWritesSession.usingMaxReplicationLag(Duration.ofSeconds(1));
+		now = 1000;
+		session.onlyForTestSetNanoClock(() -> now);
+	}
+
+	@Test
+	public void testNothingWrittenFromStart() {
+		assertFalse(session.recordWrittenRecently("someType", "someId"));
+		assertFalse(session.typeWrittenRecently("someType"));
+		assertFalse(session.anyWrittenRecently());
+	}
+
+	@Test
+	public void testWriteIsRecent() {
+		session.writeMade("someType", "someId");
+
+		assertTrue(session.recordWrittenRecently("someType", "someId"));
+		assertTrue(session.typeWrittenRecently("someType"));
+		assertTrue(session.anyWrittenRecently());
+	}
+
+	@Test
+	public void testWriteOnlyConcernsWrittenRecordAndType() {
+		session.writeMade("someType", "someId");
+
+		assertFalse(session.recordWrittenRecently("someType", "otherId"));
+		assertFalse(session.recordWrittenRecently("otherType", "someId"));
+		assertFalse(session.typeWrittenRecently("otherType"));
+	}
+
+	@Test
+	public void testWriteIsRecentUntilMaxReplicationLagHasPassed() {
+		session.writeMade("someType", "someId");
+
+		now += LAG - 1;
+		assertTrue(session.recordWrittenRecently("someType", "someId"));
+		assertTrue(session.typeWrittenRecently("someType"));
+		assertTrue(session.anyWrittenRecently());
+
+		now += 1;
+		assertFalse(session.recordWrittenRecently("someType", "someId"));
+		assertFalse(session.typeWrittenRecently("someType"));
+		assertFalse(session.anyWrittenRecently());
+	}
+
+	@Test
+	public void testNewWriteOfTypeKeepsTypeRecent() {
+		session.writeMade("someType", "someId");
+		now += LAG - 1;
+		session.writeMade("someType", "otherId");
+
+		now += 1;
+
+		assertFalse(session.recordWrittenRecently("someType", "someId"));
+		assertTrue(session.recordWrittenRecently("someType", "otherId"));
+		assertTrue(session.typeWrittenRecently("someType"));
+	}
+
+	@Test
+	public void testOldWritesAreRemoved() {
+		session.writeMade("someType", "someId");
+		session.writeMade("someType", "otherId");
+		assertEquals(session.onlyForTestGetNumberOfTrackedRecords(), 2);
+
+		now += LAG + 1;
+		session.writeMade("someType", "thirdId");
+
+		assertEquals(session.onlyForTestGetNumberOfTrackedRecords(), 1);
+	}
+}
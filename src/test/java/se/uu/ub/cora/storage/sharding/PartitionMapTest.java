@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.sharding;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class PartitionMapTest {
+	private PartitionMap partitionMap;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		partitionMap = new PartitionMap("defaultShard", Map.of("metadata", "metadataShard"),
+				Map.of("systemB", "shardB", "systemA", "shardA", "systemA2", "shardA"));
+	}
+
+	@Test
+	public void testUsingDefaultShard() {
+		partitionMap = PartitionMap.usingDefaultShard("someShard");
+
+		assertEquals(partitionMap.getShardForTypeAndDataDivider("someType", "someDivider"),
+				"someShard");
+		assertEquals(partitionMap.getPossibleShardsForType("someType"), List.of("someShard"));
+		assertEquals(partitionMap.getShardNames(), Set.of("someShard"));
+	}
+
+	@Test
+	public void testMapsAreCopied() {
+		Map<String, String> shardsForTypes = new HashMap<>();
+		partitionMap = new PartitionMap("defaultShard", shardsForTypes, Map.of());
+
+		shardsForTypes.put("someType", "otherShard");
+
+		assertEquals(partitionMap.getShardForTypeAndDataDivider("someType", "someDivider"),
+				"defaultShard");
+	}
+
+	@Test
+	public void testMappedTypeIsUsedBeforeDataDivider() {
+		assertEquals(partitionMap.getShardForTypeAndDataDivider("metadata", "systemB"),
+				"metadataShard");
+	}
+
+	@Test
+	public void testMappedDataDivider() {
+		assertEquals(partitionMap.getShardForTypeAndDataDivider("someType", "systemB"),
+				"shardB");
+	}
+
+	@Test
+	public void testUnmappedTypeAndDataDividerUsesDefaultShard() {
+		assertEquals(partitionMap.getShardForTypeAndDataDivider("someType", "systemX"),
+				"defaultShard");
+	}
+
+	@Test
+	public void testPossibleShardsForMappedType() {
+		assertEquals(partitionMap.getPossibleShardsForType("metadata"), List.of("metadataShard"));
+	}
+
+	@Test
+	public void testPossibleShardsForUnmappedTypeStartsWithDefaultShard() {
+		assertEquals(partitionMap.getPossibleShardsForType("someType"),
+				List.of("defaultShard", "shardA", "shardB"));
+	}
+
+	@Test
+	public void testDefaultShardIsNotRepeatedInPossibleShards() {
+		partitionMap = new PartitionMap("shardB", Map.of(), Map.of("systemB", "shardB",
+				"systemA", "shardA"));
+
+		assertEquals(partitionMap.getPossibleShardsForType("someType"),
+				List.of("shardB", "shardA"));
+	}
+
+	@Test
+	public void testGetShardNames() {
+		assertEquals(partitionMap.getShardNames(),
+				Set.of("defaultShard", "metadataShard", "shardA", "shardB"));
+	}
+}
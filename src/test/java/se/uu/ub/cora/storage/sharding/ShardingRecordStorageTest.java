@@ -0,0 +1,861 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.storage.sharding;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.collected.Link;
+import se.uu.ub.cora.data.collected.StorageTerm;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.storage.Condition;
+import se.uu.ub.cora.storage.CountMode;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.Part;
+import se.uu.ub.cora.storage.ProjectedRecord;
+import se.uu.ub.cora.storage.RecordConflictException;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.RecordStorageSpy;
+import se.uu.ub.cora.storage.RecordWrite;
+import se.uu.ub.cora.storage.RecordWriteAction;
+import se.uu.ub.cora.storage.RecordWriteResult;
+import se.uu.ub.cora.storage.RecordWriteStatus;
+import se.uu.ub.cora.storage.RelationalOperator;
+import se.uu.ub.cora.storage.StorageException;
+import se.uu.ub.cora.storage.StorageLinksReadResult;
+import se.uu.ub.cora.storage.StorageReadManyResult;
+import se.uu.ub.cora.storage.StorageReadResult;
+import se.uu.ub.cora.storage.memory.InMemoryRecordStorage;
+
+public class ShardingRecordStorageTest {
+	private static final String BOOK = "book";
+	private static final String METADATA = "metadata";
+	private static final String SYSTEM_B = "systemB";
+	private static final String OTHER_SYSTEM = "otherSystem";
+	private static final String TITLE_KEY = "title";
+	private DataFactorySpy dataFactory;
+	private InMemoryRecordStorage defaultShard;
+	private InMemoryRecordStorage shardB;
+	private InMemoryRecordStorage metadataShard;
+	private Map<String, RecordStorage> shards;
+	private PartitionMap partitionMap;
+	private ShardingRecordStorage recordStorage;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		resetDataFactory();
+		defaultShard = new InMemoryRecordStorage();
+		shardB = new InMemoryRecordStorage();
+		metadataShard = new InMemoryRecordStorage();
+		shards = new LinkedHashMap<>();
+		shards.put("default", defaultShard);
+		shards.put("shardB", shardB);
+		shards.put("metadataShard", metadataShard);
+		partitionMap = new PartitionMap("default", Map.of(METADATA, "metadataShard"),
+				Map.of(SYSTEM_B, "shardB"));
+		recordStorage = ShardingRecordStorage.usingShardsAndPartitionMap(shards, partitionMap);
+	}
+
+	private void createRecord(String type, String id, String dataDivider) {
+		createRecordWithLinks(type, id, dataDivider, Set.of());
+	}
+
+	private void createRecordWithLinks(String type, String id, String dataDivider,
+			Set<Link> links) {
+		recordStorage.create(type, id, new DataGroupSpy(), createStorageTerms(id), links,
+				dataDivider);
+		resetDataFactory();
+	}
+
+	private void resetDataFactory() {
+		dataFactory = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactory);
+	}
+
+	private Set<StorageTerm> createStorageTerms(String title) {
+		return Set.of(new StorageTerm("titleTerm", TITLE_KEY, title));
+	}
+
+	private boolean exists(RecordStorage shard, String type, String id) {
+		return shard.recordExists(List.of(type), id);
+	}
+
+	@Test
+	public void testUsingShardsAndPartitionMap() {
+		assertEquals(recordStorage.onlyForTestGetShards(), shards);
+		assertSame(recordStorage.onlyForTestGetPartitionMap(), partitionMap);
+	}
+
+	@Test
+	public void testPartitionMapWithUnknownShardThrowsException() {
+		PartitionMap unknownShard = new PartitionMap("default", Map.of(),
+				Map.of(SYSTEM_B, "unknownShard"));
+		try {
+			ShardingRecordStorage.usingShardsAndPartitionMap(shards, unknownShard);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "No shard exists with name: unknownShard");
+		}
+	}
+
+	@Test
+	public void testCreateIsRoutedByDataDivider() {
+		createRecord(BOOK, "book1", SYSTEM_B);
+		createRecord(BOOK, "book2", OTHER_SYSTEM);
+
+		assertTrue(exists(shardB, BOOK, "book1"));
+		assertFalse(exists(defaultShard, BOOK, "book1"));
+		assertTrue(exists(defaultShard, BOOK, "book2"));
+		assertFalse(exists(shardB, BOOK, "book2"));
+	}
+
+	@Test
+	public void testCreateIsRoutedByTypeBeforeDataDivider() {
+		createRecord(METADATA, "metadata1", SYSTEM_B);
+
+		assertTrue(exists(metadataShard, METADATA, "metadata1"));
+		assertFalse(exists(shardB, METADATA, "metadata1"));
+	}
+
+	@Test
+	public void testCreateOfRecordOnOtherShardThrowsConflict() {
+		createRecord(BOOK, "book1", OTHER_SYSTEM);
+
+		try {
+			createRecord(BOOK, "book1", SYSTEM_B);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), RecordConflictException.class);
+			assertEquals(e.getMessage(),
+					"Record with recordType: book and recordId: book1 already exists");
+		}
+		assertFalse(exists(shardB, BOOK, "book1"));
+	}
+
+	@Test
+	public void testReadFindsRecordOnAnyShard() {
+		createRecord(BOOK, "book1", SYSTEM_B);
+
+		DataRecordGroup read = recordStorage.read(BOOK, "book1");
+
+		dataFactory.MCR.assertReturn("factorRecordGroupFromDataGroup", 0, read);
+		assertTrue(recordStorage.readIfExists(BOOK, "book1").isPresent());
+	}
+
+	@Test
+	public void testReadMissingRecordThrowsNotFound() {
+		try {
+			recordStorage.read(BOOK, "missing");
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), RecordNotFoundException.class);
+			assertEquals(e.getMessage(),
+					"No record exists with recordType: book and recordId: missing");
+		}
+		assertTrue(recordStorage.readIfExists(BOOK, "missing").isEmpty());
+	}
+
+	@Test
+	public void testReadOfTypeOnOneShardIsPassedOn() {
+		createRecord(METADATA, "metadata1", OTHER_SYSTEM);
+
+		recordStorage.read(METADATA, "metadata1");
+
+		dataFactory.MCR.assertNumberOfCallsToMethod("factorRecordGroupFromDataGroup", 1);
+	}
+
+	@Test
+	public void testReadManyFromSeveralShards() {
+		createRecord(BOOK, "book1", SYSTEM_B);
+		createRecord(BOOK, "book2", OTHER_SYSTEM);
+
+		StorageReadManyResult result = recordStorage.readMany(BOOK,
+				List.of("book1", "missing", "book2"));
+
+		assertEquals(List.copyOf(result.records().keySet()), List.of("book1", "book2"));
+		assertEquals(result.missingIds(), Set.of("missing"));
+	}
+
+	@Test
+	public void testReadManyOfTypeOnOneShard() {
+		createRecord(METADATA, "metadata1", SYSTEM_B);
+
+		StorageReadManyResult result = recordStorage.readMany(METADATA,
+				List.of("metadata1", "missing"));
+
+		assertEquals(result.records().keySet(), Set.of("metadata1"));
+		assertEquals(result.missingIds(), Set.of("missing"));
+	}
+
+	@Test
+	public void testUpdateOnSameShard() {
+		createRecord(BOOK, "book1", SYSTEM_B);
+
+		recordStorage.update(BOOK, "book1", new DataGroupSpy(), createStorageTerms("new"),
+				Set.of(), SYSTEM_B);
+
+		assertEquals(shardB.getStorageTermsForRecord(BOOK, "book1"), createStorageTerms("new"));
+	}
+
+	@Test
+	public void testUpdateWithDataDividerOnOtherShardMovesRecord() {
+		createRecord(BOOK, "book1", OTHER_SYSTEM);
+		Set<Link> links = Set.of(new Link("person", "person1"));
+
+		recordStorage.update(BOOK, "book1", new DataGroupSpy(), createStorageTerms("new"), links,
+				SYSTEM_B);
+
+		assertFalse(exists(defaultShard, BOOK, "book1"));
+		assertTrue(exists(shardB, BOOK, "book1"));
+		assertEquals(recordStorage.getStorageTermsForRecord(BOOK, "book1"),
+				createStorageTerms("new"));
+		assertEquals(recordStorage.getLinksFromRecord(BOOK, "book1"), links);
+	}
+
+	@Test
+	public void testMoveWithFailingDeleteRollsBackCreate() {
+		replaceShardWithShardFailingDelete("default");
+		createRecord(BOOK, "book1", OTHER_SYSTEM);
+
+		try {
+			recordStorage.update(BOOK, "book1", new DataGroupSpy(), createStorageTerms("new"),
+					Set.of(), SYSTEM_B);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "Moving record with recordType: book and recordId: "
+					+ "book1 to another shard failed, the record is left unchanged on its old "
+					+ "shard");
+			assertEquals(e.getCause().getMessage(), "Delete failed on shard: default");
+		}
+		assertTrue(exists(shards.get("default"), BOOK, "book1"));
+		assertFalse(exists(shardB, BOOK, "book1"));
+		assertEquals(recordStorage.getStorageTermsForRecord(BOOK, "book1"),
+				createStorageTerms("book1"));
+	}
+
+	private void replaceShardWithShardFailingDelete(String shardName) {
+		shards.put(shardName, new InMemoryRecordStorage() {
+			@Override
+			public void deleteByTypeAndId(String type, String id) {
+				throw StorageException.withMessage("Delete failed on shard: " + shardName);
+			}
+		});
+		recordStorage = ShardingRecordStorage.usingShardsAndPartitionMap(shards, partitionMap);
+	}
+
+	@Test
+	public void testMoveWithFailingDeleteAndRollBackThrowsRecordOnBothShards() {
+		replaceShardWithShardFailingDelete("shardB");
+		replaceShardWithShardFailingDelete("default");
+		createRecord(BOOK, "book1", OTHER_SYSTEM);
+
+		try {
+			recordStorage.update(BOOK, "book1", new DataGroupSpy(), createStorageTerms("new"),
+					Set.of(), SYSTEM_B);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "Moving record with recordType: book and recordId: "
+					+ "book1 to another shard failed and could not be rolled back, the record "
+					+ "exists on both shards");
+			assertEquals(e.getCause().getMessage(), "Delete failed on shard: default");
+			assertEquals(e.getCause().getSuppressed()[0].getMessage(),
+					"Delete failed on shard: shardB");
+		}
+		assertTrue(exists(shards.get("default"), BOOK, "book1"));
+		assertTrue(exists(shards.get("shardB"), BOOK, "book1"));
+	}
+
+	@Test
+	public void testWritesOfRecordOnSeveralShardsHoldLockForRecord() {
+		List<Boolean> lockHeld = new ArrayList<>();
+		replaceShardWithShardCheckingLock("default", lockHeld);
+		replaceShardWithShardCheckingLock("shardB", lockHeld);
+
+		createRecord(BOOK, "book1", OTHER_SYSTEM);
+		recordStorage.update(BOOK, "book1", new DataGroupSpy(), createStorageTerms("new"),
+				Set.of(), SYSTEM_B);
+		recordStorage.deleteByTypeAndId(BOOK, "book1");
+
+		assertEquals(lockHeld, List.of(true, true, true, true));
+		assertFalse(isLockForRecordHeld(BOOK, "book1"));
+	}
+
+	private void replaceShardWithShardCheckingLock(String shardName, List<Boolean> lockHeld) {
+		shards.put(shardName, new InMemoryRecordStorage() {
+			@Override
+			public void create(String type, String id, DataGroup dataRecord,
+					Set<StorageTerm> storageTerms, Set<Link> links, String dataDivider) {
+				lockHeld.add(isLockForRecordHeld(type, id));
+				super.create(type, id, dataRecord, storageTerms, links, dataDivider);
+			}
+
+			@Override
+			public void deleteByTypeAndId(String type, String id) {
+				lockHeld.add(isLockForRecordHeld(type, id));
+				super.deleteByTypeAndId(type, id);
+			}
+		});
+		recordStorage = ShardingRecordStorage.usingShardsAndPartitionMap(shards, partitionMap);
+	}
+
+	private boolean isLockForRecordHeld(String type, String id) {
+		return ((ReentrantLock) recordStorage.onlyForTestGetLockForRecord(type, id))
+				.isHeldByCurrentThread();
+	}
+
+	@Test
+	public void testConcurrentCreatesOnDifferentShardsCreateRecordOnce() throws Exception {
+		int numberOfRecords = 200;
+		AtomicInteger numberOfCreated = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (String dataDivider : List.of(OTHER_SYSTEM, SYSTEM_B)) {
+			threads.add(Thread.startVirtualThread(() -> createRecordsWhenStarted(start,
+					numberOfRecords, dataDivider, numberOfCreated)));
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(numberOfCreated.get(), numberOfRecords);
+		for (int i = 0; i < numberOfRecords; i++) {
+			assertFalse(exists(defaultShard, BOOK, "book" + i)
+					&& exists(shardB, BOOK, "book" + i));
+		}
+	}
+
+	private void createRecordsWhenStarted(CountDownLatch start, int numberOfRecords,
+			String dataDivider, AtomicInteger numberOfCreated) {
+		try {
+			start.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		for (int i = 0; i < numberOfRecords; i++) {
+			try {
+				recordStorage.create(BOOK, "book" + i, new DataGroupSpy(), Set.of(), Set.of(),
+						dataDivider);
+				numberOfCreated.incrementAndGet();
+			} catch (RecordConflictException e) {
+				// created by the other thread
+			}
+		}
+	}
+
+	@Test
+	public void testUpdateOfMissingRecordThrowsNotFound() {
+		try {
+			recordStorage.update(BOOK, "missing", new DataGroupSpy(), Set.of(), Set.of(),
+					SYSTEM_B);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), RecordNotFoundException.class);
+			assertEquals(e.getMessage(),
+					"No record exists with recordType: book and recordId: missing");
+		}
+	}
+
+	@Test
+	public void testUpdateOfTypeOnOneShard() {
+		createRecord(METADATA, "metadata1", OTHER_SYSTEM);
+
+		recordStorage.update(METADATA, "metadata1", new DataGroupSpy(), createStorageTerms("new"),
+				Set.of(), SYSTEM_B);
+
+		assertEquals(metadataShard.getStorageTermsForRecord(METADATA, "metadata1"),
+				createStorageTerms("new"));
+	}
+
+	@Test
+	public void testDeleteFindsShardWithRecord() {
+		createRecord(BOOK, "book1", SYSTEM_B);
+
+		recordStorage.deleteByTypeAndId(BOOK, "book1");
+
+		assertFalse(exists(shardB, BOOK, "book1"));
+	}
+
+	@Test
+	public void testDeleteOfMissingRecordThrowsNotFound() {
+		try {
+			recordStorage.deleteByTypeAndId(BOOK, "missing");
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), RecordNotFoundException.class);
+			assertEquals(e.getMessage(),
+					"No record exists with recordType: book and recordId: missing");
+		}
+	}
+
+	@Test
+	public void testDeleteOfTypeOnOneShard() {
+		createRecord(METADATA, "metadata1", OTHER_SYSTEM);
+
+		recordStorage.deleteByTypeAndId(METADATA, "metadata1");
+
+		assertFalse(exists(metadataShard, METADATA, "metadata1"));
+	}
+
+	@Test
+	public void testWriteManyRoutesWritesAndKeepsOrderOfResults() {
+		createRecord(BOOK, "existing", SYSTEM_B);
+		RecordWrite metadataWrite = createWrite(RecordWriteAction.CREATE, METADATA, "m1",
+				SYSTEM_B);
+		RecordWrite conflictWrite = createWrite(RecordWriteAction.CREATE, BOOK, "existing",
+				OTHER_SYSTEM);
+		RecordWrite bookWrite = createWrite(RecordWriteAction.CREATE, BOOK, "book1", SYSTEM_B);
+		RecordWrite notFoundWrite = createWrite(RecordWriteAction.UPDATE, METADATA, "missing",
+				SYSTEM_B);
+
+		List<RecordWriteResult> results = recordStorage
+				.writeMany(List.of(metadataWrite, conflictWrite, bookWrite, notFoundWrite));
+
+		assertEquals(results.stream().map(RecordWriteResult::write).toList(),
+				List.of(metadataWrite, conflictWrite, bookWrite, notFoundWrite));
+		assertEquals(results.stream().map(RecordWriteResult::status).toList(),
+				List.of(RecordWriteStatus.SUCCESS, RecordWriteStatus.CONFLICT,
+						RecordWriteStatus.SUCCESS, RecordWriteStatus.NOT_FOUND));
+		assertTrue(exists(metadataShard, METADATA, "m1"));
+		assertTrue(exists(shardB, BOOK, "book1"));
+		assertFalse(exists(defaultShard, BOOK, "existing"));
+	}
+
+	private RecordWrite createWrite(RecordWriteAction action, String type, String id,
+			String dataDivider) {
+		return new RecordWrite(action, type, id, new DataGroupSpy(), Set.of(), Set.of(),
+				dataDivider);
+	}
+
+	@Test
+	public void testReadListMergesShards() {
+		createBooksOnBothShards();
+
+		StorageReadResult result = recordStorage.readList(BOOK, createProjectionFilter());
+
+		assertEquals(result.totalNumberOfMatches, 5);
+		assertEquals(result.countMode, CountMode.EXACT);
+		assertEquals(result.start, 0);
+		assertTrue(result.projected);
+		assertEquals(getIds(result), List.of("a1", "a2", "a3", "b1", "b2"));
+		assertNull(result.continuationToken);
+	}
+
+	private void createBooksOnBothShards() {
+		createRecord(BOOK, "b1", SYSTEM_B);
+		createRecord(BOOK, "a1", OTHER_SYSTEM);
+		createRecord(BOOK, "b2", SYSTEM_B);
+		createRecord(BOOK, "a2", OTHER_SYSTEM);
+		createRecord(BOOK, "a3", OTHER_SYSTEM);
+	}
+
+	private Filter createProjectionFilter() {
+		Filter filter = new Filter();
+		filter.projection = List.of(TITLE_KEY);
+		return filter;
+	}
+
+	private List<String> getIds(StorageReadResult result) {
+		return result.listOfProjectedRecords.stream().map(ProjectedRecord::id).toList();
+	}
+
+	@Test
+	public void testReadListRangeOverShardBorder() {
+		createBooksOnBothShards();
+		Filter filter = createProjectionFilter();
+		filter.fromNo = 3;
+		filter.toNo = 4;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		assertEquals(result.totalNumberOfMatches, 5);
+		assertEquals(result.start, 2);
+		assertEquals(getIds(result), List.of("a3", "b1"));
+	}
+
+	@Test
+	public void testReadListRangeOnlyInLastShard() {
+		createBooksOnBothShards();
+		Filter filter = createProjectionFilter();
+		filter.fromNo = 5;
+		filter.toNo = 10;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		assertEquals(getIds(result), List.of("b2"));
+	}
+
+	@Test
+	public void testReadListWithCondition() {
+		createBooksOnBothShards();
+		Filter filter = createProjectionFilter();
+		Part part = new Part();
+		part.conditions.add(new Condition(TITLE_KEY, RelationalOperator.NOT_EQUAL_TO, "a2"));
+		filter.exclude.add(part);
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		assertEquals(getIds(result), List.of("a2"));
+		assertEquals(result.totalNumberOfMatches, 1);
+	}
+
+	@Test
+	public void testReadListWithCappedCount() {
+		createBooksOnBothShards();
+		Filter filter = createProjectionFilter();
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 4;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		assertEquals(result.totalNumberOfMatches, 4);
+		assertEquals(result.countMode, CountMode.CAPPED);
+		assertEquals(getIds(result).size(), 5);
+	}
+
+	@Test
+	public void testReadListWithoutCount() {
+		createBooksOnBothShards();
+		Filter filter = createProjectionFilter();
+		filter.countMode = CountMode.NONE;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		assertEquals(result.totalNumberOfMatches, 0);
+		assertEquals(result.countMode, CountMode.NONE);
+		assertEquals(getIds(result).size(), 5);
+	}
+
+	@Test
+	public void testReadListAsksNextShardForRangeLeftAfterExactCount() {
+		RecordStorageSpy spyShard = createSpyShardReturningCount(2, CountMode.EXACT);
+		RecordStorageSpy spyShardB = createSpyShardsUsingFirst(spyShard);
+		Filter filter = createProjectionFilter();
+		filter.fromNo = 3;
+		filter.toNo = 4;
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 10;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		spyShard.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertShardFilter(spyShard, 0, filter, 3, 4, CountMode.CAPPED);
+		spyShardB.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertShardFilter(spyShardB, 0, filter, 1, 2, CountMode.CAPPED);
+		spyShard.MCR.assertMethodNotCalled("getTotalNumberOfRecordsForTypes");
+		spyShardB.MCR.assertMethodNotCalled("getTotalNumberOfRecordsForTypes");
+		assertEquals(result.totalNumberOfMatches, 2);
+		assertEquals(result.start, 2);
+	}
+
+	private RecordStorageSpy createSpyShardReturningCount(long numberOfMatches,
+			CountMode countMode) {
+		RecordStorageSpy spyShard = new RecordStorageSpy();
+		spyShard.MRV.setDefaultReturnValuesSupplier("readList", () -> {
+			StorageReadResult result = new StorageReadResult();
+			result.totalNumberOfMatches = numberOfMatches;
+			result.countMode = countMode;
+			return result;
+		});
+		return spyShard;
+	}
+
+	private RecordStorageSpy createSpyShardsUsingFirst(RecordStorageSpy spyShard) {
+		RecordStorageSpy spyShardB = new RecordStorageSpy();
+		shards.put("default", spyShard);
+		shards.put("shardB", spyShardB);
+		recordStorage = ShardingRecordStorage.usingShardsAndPartitionMap(shards, partitionMap);
+		return spyShardB;
+	}
+
+	private void assertShardFilter(RecordStorageSpy shard, int callNumber, Filter filter,
+			long fromNo, long toNo, CountMode countMode) {
+		Filter shardFilter = (Filter) shard.MCR.getValueForMethodNameAndCallNumberAndParameterName(
+				"readList", callNumber, "filter");
+		assertEquals(shardFilter.fromNo, fromNo);
+		assertEquals(shardFilter.toNo, toNo);
+		assertEquals(shardFilter.countMode, countMode);
+		assertEquals(shardFilter.countCap, filter.countCap);
+		assertEquals(shardFilter.projection, filter.projection);
+	}
+
+	@Test
+	public void testReadListReadsShardFromFirstMatchWhenCountIsNotExact() {
+		RecordStorageSpy spyShard = createSpyShardReturningCount(1, CountMode.CAPPED);
+		RecordStorageSpy spyShardB = createSpyShardsUsingFirst(spyShard);
+		Filter filter = createProjectionFilter();
+		filter.fromNo = 3;
+		filter.toNo = 4;
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 1;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		spyShard.MCR.assertNumberOfCallsToMethod("readList", 2);
+		assertShardFilter(spyShard, 0, filter, 3, 4, CountMode.CAPPED);
+		assertShardFilter(spyShard, 1, filter, 1, 4, CountMode.NONE);
+		spyShardB.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertShardFilter(spyShardB, 0, filter, 3, 4, CountMode.CAPPED);
+		assertEquals(result.countMode, CountMode.CAPPED);
+	}
+
+	@Test
+	public void testReadListWithoutCountReadsShardsFromFirstMatchUpToToNo() {
+		RecordStorageSpy spyShard = createSpyShardReturningCount(0, CountMode.NONE);
+		RecordStorageSpy spyShardB = createSpyShardsUsingFirst(spyShard);
+		Filter filter = createProjectionFilter();
+		filter.fromNo = 3;
+		filter.toNo = 4;
+		filter.countMode = CountMode.NONE;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		spyShard.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertShardFilter(spyShard, 0, filter, 1, 4, CountMode.NONE);
+		spyShardB.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertShardFilter(spyShardB, 0, filter, 1, 4, CountMode.NONE);
+		assertEquals(result.countMode, CountMode.NONE);
+	}
+
+	@Test
+	public void testReadListOnlyCountsShardsAfterFullPage() {
+		RecordStorageSpy spyShard = createSpyShardReturningCount(5, CountMode.EXACT);
+		RecordStorageSpy spyShardB = createSpyShardsUsingFirst(spyShard);
+		Filter filter = createProjectionFilter();
+		filter.toNo = 2;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		assertShardFilter(spyShard, 0, filter, 1, 2, CountMode.EXACT);
+		spyShardB.MCR.assertNumberOfCallsToMethod("readList", 1);
+		assertShardFilter(spyShardB, 0, filter, 1, 1, CountMode.EXACT);
+		assertEquals(result.totalNumberOfMatches, 5);
+	}
+
+	@Test
+	public void testReadListWithoutCountSkipsShardsAfterFullPage() {
+		RecordStorageSpy spyShard = createSpyShardReturningCount(0, CountMode.NONE);
+		RecordStorageSpy spyShardB = createSpyShardsUsingFirst(spyShard);
+		spyShard.MRV.setDefaultReturnValuesSupplier("readList", () -> {
+			StorageReadResult result = new StorageReadResult();
+			result.listOfProjectedRecords.add(new ProjectedRecord(BOOK, "a1", Map.of()));
+			return result;
+		});
+		Filter filter = createProjectionFilter();
+		filter.toNo = 1;
+		filter.countMode = CountMode.NONE;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		spyShardB.MCR.assertMethodNotCalled("readList");
+		assertEquals(getIds(result), List.of("a1"));
+	}
+
+	@Test
+	public void testReadListFromNoBelowOneStartsAtFirstMatch() {
+		createBooksOnBothShards();
+		Filter filter = createProjectionFilter();
+		filter.fromNo = -1;
+		filter.toNo = 4;
+
+		StorageReadResult result = recordStorage.readList(BOOK, filter);
+
+		assertEquals(result.start, 0);
+		assertEquals(getIds(result), List.of("a1", "a2", "a3", "b1"));
+	}
+
+	@Test
+	public void testReadListWithContinuationTokenOverSeveralShardsThrowsException() {
+		Filter filter = new Filter();
+		filter.continuationToken = "a1";
+
+		try {
+			recordStorage.readList(BOOK, filter);
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), StorageException.class);
+			assertEquals(e.getMessage(), "Continuation tokens are not supported for types"
+					+ " stored on several shards");
+		}
+	}
+
+	@Test
+	public void testReadListOfTypeOnOneShardIsPassedOn() {
+		createRecord(METADATA, "m1", OTHER_SYSTEM);
+		createRecord(METADATA, "m2", SYSTEM_B);
+		Filter filter = createProjectionFilter();
+		filter.toNo = 1;
+
+		StorageReadResult result = recordStorage.readList(METADATA, filter);
+
+		assertEquals(getIds(result), List.of("m1"));
+		assertEquals(result.continuationToken, "1/m1");
+	}
+
+	@Test
+	public void testReadListAsStreamMergesShards() {
+		createBooksOnBothShards();
+		Filter filter = new Filter();
+		filter.fromNo = 2;
+		filter.toNo = 4;
+
+		try (Stream<DataRecordGroup> stream = recordStorage.readListAsStream(BOOK, filter)) {
+			assertEquals(stream.count(), 3);
+		}
+	}
+
+	@Test
+	public void testReadListAsStreamOfTypeOnOneShard() {
+		createRecord(METADATA, "m1", OTHER_SYSTEM);
+
+		try (Stream<DataRecordGroup> stream = recordStorage.readListAsStream(METADATA,
+				new Filter())) {
+			assertEquals(stream.count(), 1);
+		}
+	}
+
+	@Test
+	@SuppressWarnings("removal")
+	public void testReadListForSeveralTypes() {
+		createBooksOnBothShards();
+		createRecord(METADATA, "m1", OTHER_SYSTEM);
+
+		StorageReadResult result = recordStorage.readList(List.of(METADATA, BOOK),
+				createProjectionFilter());
+
+		assertEquals(result.totalNumberOfMatches, 6);
+		assertEquals(result.listOfDataGroups.size(), 6);
+	}
+
+	@Test
+	public void testGetTotalNumberOfRecordsForTypes() {
+		createBooksOnBothShards();
+		createRecord(METADATA, "m1", OTHER_SYSTEM);
+
+		assertEquals(recordStorage.getTotalNumberOfRecordsForTypes(List.of(BOOK), new Filter()),
+				5);
+		assertEquals(recordStorage.getTotalNumberOfRecordsForTypes(List.of(BOOK, METADATA),
+				new Filter()), 6);
+	}
+
+	@Test
+	public void testGetTotalNumberOfRecordsForTypesWithCap() {
+		createBooksOnBothShards();
+		Filter filter = new Filter();
+		filter.countMode = CountMode.CAPPED;
+		filter.countCap = 3;
+
+		assertEquals(recordStorage.getTotalNumberOfRecordsForTypes(List.of(BOOK), filter), 3);
+	}
+
+	@Test
+	public void testRecordExistsAndFindExistingIds() {
+		createRecord(BOOK, "b1", SYSTEM_B);
+		createRecord(METADATA, "m1", OTHER_SYSTEM);
+
+		assertTrue(recordStorage.recordExists(List.of(BOOK), "b1"));
+		assertTrue(recordStorage.recordExists(List.of(BOOK, METADATA), "m1"));
+		assertFalse(recordStorage.recordExists(List.of(BOOK), "m1"));
+		assertEquals(List.copyOf(recordStorage.findExistingIds(List.of(METADATA, BOOK),
+				List.of("m1", "missing", "b1"))), List.of("m1", "b1"));
+	}
+
+	@Test
+	@SuppressWarnings("removal")
+	public void testReadForSeveralTypes() {
+		createRecord(BOOK, "b1", SYSTEM_B);
+
+		recordStorage.read(List.of(METADATA, BOOK), "b1");
+
+		try {
+			recordStorage.read(List.of(METADATA, BOOK), "missing");
+			fail("It should throw an exception");
+		} catch (Exception e) {
+			assertEquals(e.getClass(), RecordNotFoundException.class);
+			assertEquals(e.getMessage(),
+					"No record exists with recordId: missing for types: [metadata, book]");
+		}
+	}
+
+	@Test
+	public void testLinksToRecordAreCollectedFromAllShards() {
+		Link target = new Link("person", "person1");
+		createRecordWithLinks(BOOK, "b1", SYSTEM_B, Set.of(target));
+		createRecordWithLinks(BOOK, "a1", OTHER_SYSTEM, Set.of(target));
+		createRecordWithLinks(METADATA, "m1", OTHER_SYSTEM, Set.of(target));
+
+		assertEquals(recordStorage.getLinksToRecord("person", "person1"),
+				Set.of(new Link(BOOK, "b1"), new Link(BOOK, "a1"), new Link(METADATA, "m1")));
+		assertTrue(recordStorage.linksExistForRecord("person", "person1"));
+		assertFalse(recordStorage.linksExistForRecord("person", "person2"));
+		assertEquals(recordStorage.countLinksToRecord("person", "person1"), 3);
+		assertEquals(recordStorage.countLinksToRecordGroupedByType("person", "person1"),
+				Map.of(BOOK, 2L, METADATA, 1L));
+	}
+
+	@Test
+	public void testPagedLinksToRecordAreMergedFromAllShards() {
+		Link target = new Link("person", "person1");
+		createRecordWithLinks(BOOK, "b1", SYSTEM_B, Set.of(target));
+		createRecordWithLinks(BOOK, "b2", SYSTEM_B, Set.of(target));
+		createRecordWithLinks(BOOK, "a1", OTHER_SYSTEM, Set.of(target));
+
+		StorageLinksReadResult firstPage = recordStorage.getLinksToRecord("person", "person1",
+				2, null);
+		StorageLinksReadResult secondPage = recordStorage.getLinksToRecord("person", "person1",
+				2, firstPage.continuationToken());
+
+		assertEquals(firstPage.links(), List.of(new Link(BOOK, "a1"), new Link(BOOK, "b1")));
+		assertTrue(firstPage.hasMoreLinks());
+		assertEquals(secondPage.links(), List.of(new Link(BOOK, "b2")));
+		assertFalse(secondPage.hasMoreLinks());
+	}
+
+	@Test
+	public void testGetLinksFromRecordOfMissingRecordUsesFirstShard() {
+		assertEquals(recordStorage.getLinksFromRecord(BOOK, "missing"), Set.of());
+		assertEquals(recordStorage.getStorageTermsForRecord(METADATA, "missing"), Set.of());
+	}
+}